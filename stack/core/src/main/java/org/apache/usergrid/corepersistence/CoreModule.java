@@ -142,6 +142,15 @@ public class CoreModule extends AbstractModule {
 
         bind( IndexLocationStrategyFactory.class ).to( IndexLocationStrategyFactoryImpl.class );
 
+        //stale documents found by queries are removed in the background
+        bind( StaleIndexRepairService.class ).to( StaleIndexRepairServiceImpl.class );
+        bind( IndexFingerprintService.class ).to( IndexFingerprintServiceImpl.class );
+
+        //superseded versions of updated entities are removed in the background
+        bind( VersionGcService.class ).to( VersionGcServiceImpl.class );
+
+        bind( WriteCoalescingService.class ).to( WriteCoalescingServiceImpl.class );
+
         install( new GuicyFigModule( IndexProcessorFig.class ) );
 
         install( new GuicyFigModule( CoreIndexFig.class ) );
@@ -32,8 +32,11 @@ import org.apache.usergrid.corepersistence.asyncevents.AsyncEventService;
 import org.apache.usergrid.corepersistence.index.CollectionSettings;
 import org.apache.usergrid.corepersistence.index.CollectionSettingsFactory;
 import org.apache.usergrid.corepersistence.index.CollectionSettingsScopeImpl;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
 import org.apache.usergrid.corepersistence.service.CollectionService;
 import org.apache.usergrid.corepersistence.service.ConnectionService;
+import org.apache.usergrid.corepersistence.service.VersionGcService;
+import org.apache.usergrid.corepersistence.service.WriteCoalescingService;
 import org.apache.usergrid.corepersistence.util.CpEntityMapUtils;
 import org.apache.usergrid.corepersistence.util.CpNamingUtils;
 import org.apache.usergrid.mq.QueueManager;
@@ -44,7 +47,6 @@ import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.cassandra.*;
 import org.apache.usergrid.persistence.cassandra.util.TraceParticipant;
 import org.apache.usergrid.persistence.collection.EntityCollectionManager;
-import org.apache.usergrid.persistence.collection.EntitySet;
 import org.apache.usergrid.persistence.collection.FieldSet;
 import org.apache.usergrid.persistence.collection.exception.WriteUniqueVerifyException;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
@@ -77,7 +79,6 @@ import rx.Observable;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static java.lang.String.CASE_INSENSITIVE_ORDER;
 import static java.util.Arrays.asList;
@@ -107,6 +108,7 @@ public class CpEntityManager implements EntityManager {
     public static final String APPLICATION_ENTITIES = "application.entities";
     public static final long ONE_COUNT = 1L;
     public static final String AUTHORITATIVE_REGION_SETTING = "authoritativeRegion";
+    public static final String WRITE_COALESCE_SETTING = "writeCoalesceMs";
 
     private final UUID applicationId;
     private final EntityManagerFig entityManagerFig;
@@ -119,6 +121,12 @@ public class CpEntityManager implements EntityManager {
 
     private final CollectionSettingsFactory collectionSettingsFactory;
 
+    private final IndexFingerprintService indexFingerprintService;
+
+    private final VersionGcService versionGcService;
+
+    private final WriteCoalescingService writeCoalescingService;
+
     private final ApplicationScope applicationScope;
 
     private final CassandraService cass;
@@ -185,6 +193,9 @@ public class CpEntityManager implements EntityManager {
                             final CollectionService collectionService,
                             final ConnectionService connectionService,
                             final CollectionSettingsFactory collectionSettingsFactory,
+                            final IndexFingerprintService indexFingerprintService,
+                            final VersionGcService versionGcService,
+                            final WriteCoalescingService writeCoalescingService,
                             final UUID applicationId,
                             final QueueManagerFactory queueManagerFactory) {
 
@@ -211,6 +222,9 @@ public class CpEntityManager implements EntityManager {
         this.applicationId = applicationId;
         this.indexService = indexService;
         this.collectionSettingsFactory = collectionSettingsFactory;
+        this.indexFingerprintService = indexFingerprintService;
+        this.versionGcService = versionGcService;
+        this.writeCoalescingService = writeCoalescingService;
 
         applicationScope = CpNamingUtils.getApplicationScope( applicationId );
 
@@ -265,6 +279,14 @@ public class CpEntityManager implements EntityManager {
      */
     org.apache.usergrid.persistence.model.entity.Entity load( Id entityId ) {
 
+            // this node reads its own coalesced updates before they commit
+            Optional<org.apache.usergrid.persistence.model.entity.Entity> pending =
+                writeCoalescingService.getPending( applicationScope, entityId );
+
+            if ( pending.isPresent() ) {
+                return pending.get();
+            }
+
             return ecm .load( entityId ).toBlocking().lastOrDefault(null);
 
     }
@@ -521,6 +543,27 @@ public class CpEntityManager implements EntityManager {
 
         cpEntity = CpEntityMapUtils.fromMap( cpEntity, entity.getProperties(), entity.getType(), true );
 
+        // rapid updates of collections that opt in are merged and committed once per window
+        final long coalesceWindow = getWriteCoalesceWindowForType( entity.getType() );
+
+        if ( coalesceWindow > 0 && writeCoalescingService
+            .coalesce( applicationScope, cpEntity, coalesceWindow, merged -> commitUpdate( entity, merged ) ) ) {
+            return;
+        }
+
+        // a pending coalesced update must not commit over this one later
+        writeCoalescingService.flush( applicationScope, entityId );
+
+        commitUpdate( entity, cpEntity );
+    }
+
+
+    /**
+     * Write the updated entity and queue its index update and the removal of the versions it superseded
+     */
+    private void commitUpdate( Entity entity, org.apache.usergrid.persistence.model.entity.Entity cpEntity )
+        throws Exception {
+
         try {
 
             String region = lookupAuthoritativeRegionForType( entity.getType() );
@@ -546,16 +589,40 @@ public class CpEntityManager implements EntityManager {
             handleWriteUniqueVerifyException( entity, wuve );
         }
 
-        if ( !skipIndexingForType( cpEntity.getId().getType() ) ) {
+        // updates that change no indexed field keep the documents of the version that last did
+        if ( !skipIndexingForType( cpEntity.getId().getType() )
+            && indexFingerprintService.isChanged( applicationScope, cpEntity ) ) {
 
-            // queue an event to update the new entity
-            indexService.queueEntityIndexUpdate( applicationScope, cpEntity, 0 );
+            queueFingerprintedIndexUpdate( cpEntity, entityManagerFig.getDeindexOnUpdate() );
+        }
 
-            // queue up an event to clean-up older versions than this one from the index
-            if (entityManagerFig.getDeindexOnUpdate()) {
-                indexService.queueDeIndexOldVersion( applicationScope, cpEntity.getId(), cpEntity.getVersion());
+        // the versions this update superseded are removed in the background
+        versionGcService.queueEntity( applicationScope, cpEntity.getId() );
+    }
+
+
+    /**
+     * Get the write coalescing window of the collection of the type, capped by the configured maximum.  0 if the
+     * collection does not coalesce writes
+     */
+    private long getWriteCoalesceWindowForType( String type ) {
+
+        String collectionName = Schema.defaultCollectionName( type );
+
+        CollectionSettings collectionSettings = collectionSettingsFactory
+            .getInstance( new CollectionSettingsScopeImpl( getAppIdObject(), collectionName) );
+
+        Optional<Map<String, Object>> existingSettings =
+            collectionSettings.getCollectionSettings( collectionName );
+
+        if ( existingSettings.isPresent() ) {
+            Object window = existingSettings.get().get( WRITE_COALESCE_SETTING );
+            if ( window instanceof Number ) {
+                return Math.min( ( ( Number ) window ).longValue(), entityManagerFig.getWriteCoalesceMaxWindow() );
             }
         }
+
+        return 0;
     }
 
     private boolean skipIndexingForType( String type ) {
@@ -605,6 +672,9 @@ public class CpEntityManager implements EntityManager {
 
         decrementEntityCollection( Schema.defaultCollectionName( entityRef.getType() ));
 
+        collectionService.collectionWritten( applicationScope, applicationScope.getApplication(),
+            Schema.defaultCollectionName( entityRef.getType() ) );
+
     }
 
 
@@ -615,7 +685,7 @@ public class CpEntityManager implements EntityManager {
      * @param entityRef
      * @return
      */
-    private Observable markEntity(EntityRef entityRef){
+    private Observable markEntity(EntityRef entityRef) throws Exception {
         if(applicationScope == null || entityRef == null){
             return Observable.empty();
         }
@@ -625,6 +695,9 @@ public class CpEntityManager implements EntityManager {
 
         Id entityId = new SimpleId( entityRef.getUuid(), entityRef.getType() );
 
+        // a pending coalesced update must not commit after the delete
+        writeCoalescingService.flush( applicationScope, entityId );
+
         //Step 1 & 2 of delete
         String region = this.lookupAuthoritativeRegionForType( entityRef.getType() );
         return ecm.mark( entityId, region ).mergeWith( gm.markNode( entityId, createGraphOperationTimestamp() ) );
@@ -649,6 +722,8 @@ public class CpEntityManager implements EntityManager {
         MapManager mm = getMapManagerForTypes();
         mm.delete( entityRef.getUuid().toString() );
 
+        indexFingerprintService.remove( applicationScope, entityId );
+
     }
 
 
@@ -692,6 +767,14 @@ public class CpEntityManager implements EntityManager {
     }
 
 
+    @Override
+    public Iterable<Entity> scanCollection( EntityRef entityRef, String collectionName, Query query )
+        throws Exception {
+
+        return getRelationManager( entityRef ).scanCollection( collectionName, query );
+    }
+
+
     @Override
     public EntityRef getApplicationRef() {
         return new SimpleEntityRef( TYPE_APPLICATION, applicationId );
@@ -1116,6 +1199,8 @@ public class CpEntityManager implements EntityManager {
 
         Id entityId = new SimpleId( entityRef.getUuid(), entityRef.getType() );
 
+        writeCoalescingService.flush( applicationScope, entityId );
+
         //        if ( !UUIDUtils.isTimeBased( entityId.getUuid() ) ) {
         //            throw new IllegalArgumentException(
         //                "Entity Id " + entityId.getType() + ":"+entityId.getUuid() +" uuid not time based");
@@ -1152,9 +1237,38 @@ public class CpEntityManager implements EntityManager {
 
         //Adding graphite metrics
 
-        if ( !skipIndexingForType( cpEntity.getId().getType() ) ) {
+        if ( !skipIndexingForType( cpEntity.getId().getType() )
+            && indexFingerprintService.isChanged( applicationScope, cpEntity ) ) {
+            queueFingerprintedIndexUpdate( cpEntity, false );
+        }
+
+        versionGcService.queueEntity( applicationScope, cpEntity.getId() );
+    }
+
+
+    /**
+     * Queue the index update of an entity whose indexed fields changed, and record its fingerprint once the update is
+     * queued.  The queued update is retried until it is indexed.  If it can't be queued the recorded fingerprint is
+     * removed, so neither the documents of the older version nor later updates are taken as current
+     */
+    private void queueFingerprintedIndexUpdate( final org.apache.usergrid.persistence.model.entity.Entity cpEntity,
+                                                final boolean deindexOldVersions ) {
+
+        try {
+            // queue an event to update the new entity
             indexService.queueEntityIndexUpdate( applicationScope, cpEntity, 0 );
+
+            // queue up an event to clean-up older versions than this one from the index
+            if ( deindexOldVersions ) {
+                indexService.queueDeIndexOldVersion( applicationScope, cpEntity.getId(), cpEntity.getVersion() );
+            }
         }
+        catch ( RuntimeException e ) {
+            indexFingerprintService.remove( applicationScope, cpEntity.getId() );
+            throw e;
+        }
+
+        indexFingerprintService.update( applicationScope, cpEntity );
     }
 
 
@@ -1527,6 +1641,14 @@ public class CpEntityManager implements EntityManager {
     }
 
 
+    @Override
+    public List<Entity> createItemsInCollection( EntityRef entityRef, String collectionName,
+            String itemType, List<Map<String, Object>> propertiesList ) throws Exception {
+
+        return getRelationManager( entityRef ).createItemsInCollection( collectionName, itemType, propertiesList );
+    }
+
+
     @Override
     public void removeFromCollection( EntityRef entityRef, String collectionName, EntityRef itemRef ) throws Exception {
 
@@ -1818,6 +1940,35 @@ public class CpEntityManager implements EntityManager {
             updatedSettings.put("fields", newSettings.get("fields"));
         }
 
+        // if index limits specified, then put in settings
+        if ( newSettings.get("excludeFields") != null ) {
+            if ( !( newSettings.get("excludeFields") instanceof List ) ) {
+                throw new IllegalArgumentException( "excludeFields must be an array of field paths" );
+            }
+            updatedSettings.put("excludeFields", newSettings.get("excludeFields"));
+        }
+
+        for ( String limit : new String[] { "maxIndexDepth", "maxIndexArrayElements" } ) {
+            Object value = newSettings.get( limit );
+            if ( value != null ) {
+                if ( !( value instanceof Number ) || ( ( Number ) value ).intValue() < 0 ) {
+                    throw new IllegalArgumentException( limit + " must be a number >= 0" );
+                }
+                updatedSettings.put( limit, ( ( Number ) value ).intValue() );
+            }
+        }
+
+        // if write coalescing specified, 0 turns it off
+        Object coalesceWindow = newSettings.get( WRITE_COALESCE_SETTING );
+        if ( coalesceWindow != null ) {
+            if ( !( coalesceWindow instanceof Number ) || ( ( Number ) coalesceWindow ).longValue() < 0 ) {
+                throw new IllegalArgumentException( WRITE_COALESCE_SETTING + " must be a number >= 0" );
+            }
+            if ( ( ( Number ) coalesceWindow ).longValue() > 0 ) {
+                updatedSettings.put( WRITE_COALESCE_SETTING, ( ( Number ) coalesceWindow ).longValue() );
+            }
+        }
+
         // if region specified
         Object region = newSettings.get(AUTHORITATIVE_REGION_SETTING);
         if ( region != null ) {
@@ -2535,14 +2686,13 @@ public class CpEntityManager implements EntityManager {
 
         }
 
-        // leverage ecm.load so it's a batch fetch of all entities from Cassandra
-        EntitySet entitySet = ecm.load( entityIds ).toBlocking().last();
-
-        List<Entity> entities = entitySet.getEntities().stream().map( mvccEntity -> {
+        // leverage ecm.loadStream so it's a batch fetch from Cassandra that is not bound by the max load size
+        List<Entity> entities = ecm.loadStream( entityIds ).map( mvccEntity -> {
 
             if( mvccEntity.getEntity().isPresent() ){
 
-                org.apache.usergrid.persistence.model.entity.Entity cpEntity = mvccEntity.getEntity().get();
+                org.apache.usergrid.persistence.model.entity.Entity cpEntity = writeCoalescingService
+                    .getPending( applicationScope, mvccEntity.getId() ).or( mvccEntity.getEntity().get() );
 
                 Class clazz = Schema.getDefaultSchema().getEntityClass( mvccEntity.getId().getType() );
 
@@ -2558,7 +2708,7 @@ public class CpEntityManager implements EntityManager {
 
                 return null;
             }
-        }).collect(Collectors.toList());
+        }).toList().toBlocking().last();
 
 
         return Results.fromEntities( entities );
@@ -2677,14 +2827,114 @@ public class CpEntityManager implements EntityManager {
 
         String eType = Schema.normalizeEntityType( entityType );
 
-        Schema schema = Schema.getDefaultSchema();
-
         boolean is_application = TYPE_APPLICATION.equals( eType );
 
         if ( ( ( applicationId == null ) || applicationId.equals( UUIDUtils.ZERO_UUID ) ) && !is_application ) {
             return null;
         }
 
+        if ( properties == null ) {
+            properties = new TreeMap<>( CASE_INSENSITIVE_ORDER );
+        }
+
+        long timestamp = getCreateTimestamp( properties, importId );
+
+        A entity = newEntity( entityType, entityClass, properties, importId, timestamp );
+
+        if ( entity == null ) {
+            return null;
+        }
+
+        if ( Event.ENTITY_TYPE.equals( eType ) ) {
+            Event event = ( Event ) entity.toTypedEntity();
+            for ( String prop_name : properties.keySet() ) {
+                Object propertyValue = properties.get( prop_name );
+                if ( propertyValue != null ) {
+                    event.setProperty( prop_name, propertyValue );
+                }
+            }
+
+            Mutator<ByteBuffer> batch = createMutator( cass.getApplicationKeyspace( applicationId ), be );
+            Message message = storeEventAsMessage( batch, event, timestamp );
+
+            incrementEntityCollection( "events", timestamp );
+
+            entity.setUuid( message.getUuid() );
+            batch.execute();
+
+            return entity;
+        }
+
+        org.apache.usergrid.persistence.model.entity.Entity cpEntity = entityToCpEntity( entity, importId );
+
+        // prepare to write and index Core Persistence Entity into default scope
+
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Writing entity {}:{} into app {}\n",
+                    entity.getType(),
+                    entity.getUuid(),
+                    applicationId,
+                    CpEntityMapUtils.toMap( cpEntity ));
+
+        }
+
+        try {
+
+            if ( logger.isTraceEnabled()) {
+                logger.trace( "About to Write {}:{} version {}",
+                    cpEntity.getId().getType(), cpEntity.getId().getUuid(), cpEntity.getVersion() );
+            }
+
+            String region = lookupAuthoritativeRegionForType( entity.getType() );
+
+            //this does the write so before adding to a collection everything already exists already.
+            cpEntity = ecm.write( cpEntity, region ).toBlocking().last();
+
+            entity.setSize(cpEntity.getSize());
+
+            if(logger.isTraceEnabled()) {
+                logger.trace( "Wrote {}:{} version {}",
+                    cpEntity.getId().getType(), cpEntity.getId().getUuid(), cpEntity.getVersion() );
+            }
+
+        }
+        catch ( WriteUniqueVerifyException wuve ) {
+
+            if(logger.isTraceEnabled()){
+                logger.trace("WriteUniqueVerifyException encountered during batchCreate of entity with id {}",
+                    cpEntity.getId().getUuid());
+            }
+            handleWriteUniqueVerifyException( entity, wuve );
+        }
+
+        // reflect changes in the legacy Entity
+        entity.setUuid( cpEntity.getId().getUuid() );
+        entity.setProperties( cpEntity );
+
+        // add to and index in collection of the application
+        if ( !is_application ) {
+
+            String collectionName = Schema.defaultCollectionName( eType );
+            CpRelationManager cpr = ( CpRelationManager ) getRelationManager( getApplication() );
+            cpr.addToCollection( collectionName, entity );
+
+            // Invoke counters
+            incrementEntityCollection( collectionName, timestamp );
+        }
+
+        //write to our types map
+        MapManager mm = getMapManagerForTypes();
+        mm.putString( entity.getUuid().toString(), entity.getType() );
+
+        return entity;
+    }
+
+
+    /**
+     * Get the creation timestamp in micros of a new entity.  Imported entities keep the time of their UUID or of
+     * their created property.
+     */
+    private long getCreateTimestamp( final Map<String, Object> properties, final UUID importId ) {
 
         long timestamp = UUIDUtils.getTimestampInMicros( UUIDUtils.newTimeUUID() );
 
@@ -2704,6 +2954,24 @@ public class CpEntityManager implements EntityManager {
             }
         }
 
+        return timestamp;
+    }
+
+
+    /**
+     * Validate the properties of a new entity and build it, filling in its id, type and timestamps
+     *
+     * @return the new entity or null if it has no properties
+     */
+    private <A extends Entity> A newEntity( String entityType, Class<A> entityClass, Map<String, Object> properties,
+                                            UUID importId, long timestamp ) throws Exception {
+
+        String eType = Schema.normalizeEntityType( entityType );
+
+        Schema schema = Schema.getDefaultSchema();
+
+        boolean is_application = TYPE_APPLICATION.equals( eType );
+
         UUID itemId = UUIDGenerator.newTimeUUID();
 
         if ( is_application ) {
@@ -2712,11 +2980,6 @@ public class CpEntityManager implements EntityManager {
         if ( importId != null ) {
             itemId = importId;
         }
-        if ( properties == null ) {
-            properties = new TreeMap<>( CASE_INSENSITIVE_ORDER );
-        }
-
-
 
         if ( entityClass == null ) {
             entityClass = ( Class<A> ) Schema.getDefaultSchema().getEntityClass( entityType );
@@ -2786,97 +3049,165 @@ public class CpEntityManager implements EntityManager {
         A entity = EntityFactory.newEntity( itemId, eType, entityClass );
         entity.addProperties( properties );
 
-        //        logger.info( "Entity created of type {}", entity.getClass().getName() );
+        return entity;
+    }
 
-        if ( Event.ENTITY_TYPE.equals( eType ) ) {
-            Event event = ( Event ) entity.toTypedEntity();
-            for ( String prop_name : properties.keySet() ) {
-                Object propertyValue = properties.get( prop_name );
-                if ( propertyValue != null ) {
-                    event.setProperty( prop_name, propertyValue );
-                }
-            }
 
-            Mutator<ByteBuffer> batch = createMutator( cass.getApplicationKeyspace( applicationId ), be );
-            Message message = storeEventAsMessage( batch, event, timestamp );
+    @Override
+    public List<Entity> createBatch( String entityType, List<Map<String, Object>> propertiesList )
+            throws Exception {
 
-            incrementEntityCollection( "events", timestamp );
+        return createBatch( entityType, Collections.nCopies( propertiesList.size(), null ), propertiesList );
+    }
 
-            entity.setUuid( message.getUuid() );
-            batch.execute();
 
-            return entity;
+    @Override
+    public List<Entity> createBatch( String entityType, Map<UUID, Map<String, Object>> importedProperties )
+            throws Exception {
+
+        return createBatch( entityType, new ArrayList<>( importedProperties.keySet() ),
+            new ArrayList<>( importedProperties.values() ) );
+    }
+
+
+    /**
+     * Create the entities with a single batched write, then add them to their application collection together.
+     * Entities that fail validation or unique verification are logged and left out of the results.
+     */
+    private List<Entity> createBatch( String entityType, List<UUID> importIds,
+                                      List<Map<String, Object>> propertiesList ) throws Exception {
+
+        if ( ( entityType != null ) && ( entityType.startsWith( TYPE_ENTITY ) || entityType
+                .startsWith( "entities" ) ) ) {
+            throw new IllegalArgumentException( "Invalid entity type" );
         }
 
-        org.apache.usergrid.persistence.model.entity.Entity cpEntity = entityToCpEntity( entity, importId );
+        String eType = Schema.normalizeEntityType( entityType );
 
-        // prepare to write and index Core Persistence Entity into default scope
+        // applications and events have their own side effects, so they are still created one at a time
+        if ( TYPE_APPLICATION.equals( eType ) || Event.ENTITY_TYPE.equals( eType ) ) {
 
-        if ( logger.isTraceEnabled() ) {
-            logger.trace( "Writing entity {}:{} into app {}\n",
-                    entity.getType(),
-                    entity.getUuid(),
-                    applicationId,
-                    CpEntityMapUtils.toMap( cpEntity ));
+            final List<Entity> created = new ArrayList<>( propertiesList.size() );
+
+            for ( int i = 0; i < propertiesList.size(); i++ ) {
+                try {
+                    final Entity entity = create( importIds.get( i ), entityType, propertiesList.get( i ) );
 
+                    if ( entity != null ) {
+                        created.add( entity );
+                    }
+                }
+                catch ( Exception e ) {
+                    logger.error( "Unable to create entity of type {} in batch due to [{} - {}]", entityType,
+                        e.getClass().getSimpleName(), e.getMessage() );
+                }
+            }
+
+            return created;
         }
 
-        try {
+        if ( ( applicationId == null ) || applicationId.equals( UUIDUtils.ZERO_UUID ) ) {
+            return Collections.emptyList();
+        }
 
-            if ( logger.isTraceEnabled()) {
-                logger.trace( "About to Write {}:{} version {}",
-                    cpEntity.getId().getType(), cpEntity.getId().getUuid(), cpEntity.getVersion() );
+        Timer.Context timeEntityCassCreation = entCreateBatchTimer.time();
+
+        final Map<Id, Entity> entities = new LinkedHashMap<>( propertiesList.size() );
+        final List<org.apache.usergrid.persistence.model.entity.Entity> cpEntities =
+            new ArrayList<>( propertiesList.size() );
+
+        for ( int i = 0; i < propertiesList.size(); i++ ) {
+
+            final UUID importId = importIds.get( i );
+            Map<String, Object> properties = propertiesList.get( i );
+
+            if ( properties == null ) {
+                properties = new TreeMap<>( CASE_INSENSITIVE_ORDER );
             }
 
-            String region = lookupAuthoritativeRegionForType( entity.getType() );
+            try {
+                final Entity entity = newEntity( entityType, null, properties,
+                    importId, getCreateTimestamp( properties, importId ) );
 
-            //this does the write so before adding to a collection everything already exists already.
-            cpEntity = ecm.write( cpEntity, region ).toBlocking().last();
+                if ( entity == null ) {
+                    continue;
+                }
 
-            entity.setSize(cpEntity.getSize());
+                final org.apache.usergrid.persistence.model.entity.Entity cpEntity =
+                    entityToCpEntity( entity, importId );
 
-            if(logger.isTraceEnabled()) {
-                logger.trace( "Wrote {}:{} version {}",
-                    cpEntity.getId().getType(), cpEntity.getId().getUuid(), cpEntity.getVersion() );
+                entities.put( cpEntity.getId(), entity );
+                cpEntities.add( cpEntity );
             }
+            catch ( Exception e ) {
+                logger.error( "Unable to create entity of type {} in batch due to [{} - {}]", entityType,
+                    e.getClass().getSimpleName(), e.getMessage() );
+            }
+        }
 
+        if ( cpEntities.isEmpty() ) {
+            timeEntityCassCreation.stop();
+            return Collections.emptyList();
         }
-        catch ( WriteUniqueVerifyException wuve ) {
 
-            if(logger.isTraceEnabled()){
-                logger.trace("WriteUniqueVerifyException encountered during batchCreate of entity with id {}",
-                    cpEntity.getId().getUuid());
-            }
-            handleWriteUniqueVerifyException( entity, wuve );
+        String region = lookupAuthoritativeRegionForType( eType );
+
+        //the whole batch is written at once, entities failing unique verification are dropped from the results
+        final List<org.apache.usergrid.persistence.model.entity.Entity> written =
+            ecm.write( cpEntities, region ).toList().toBlocking().lastOrDefault( Collections.emptyList() );
+
+        final List<Entity> created = new ArrayList<>( written.size() );
+
+        for ( org.apache.usergrid.persistence.model.entity.Entity cpEntity : written ) {
+
+            final Entity entity = entities.get( cpEntity.getId() );
+
+            // reflect changes in the legacy Entity
+            entity.setSize( cpEntity.getSize() );
+            entity.setUuid( cpEntity.getId().getUuid() );
+            entity.setProperties( cpEntity );
+
+            created.add( entity );
         }
 
-        // reflect changes in the legacy Entity
-        entity.setUuid( cpEntity.getId().getUuid() );
-        entity.setProperties( cpEntity );
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Wrote {} of {} entities of type {} into app {}", created.size(), propertiesList.size(),
+                eType, applicationId );
+        }
 
-        // add to and index in collection of the application
-        if ( !is_application ) {
+        if ( !created.isEmpty() ) {
 
+            // add to and index in collection of the application
             String collectionName = Schema.defaultCollectionName( eType );
             CpRelationManager cpr = ( CpRelationManager ) getRelationManager( getApplication() );
-            cpr.addToCollection( collectionName, entity );
+            cpr.addToCollection( collectionName, created );
 
             // Invoke counters
-            incrementEntityCollection( collectionName, timestamp );
+            incrementEntityCollection( collectionName, UUIDUtils.getTimestampInMicros( UUIDUtils.newTimeUUID() ),
+                created.size() );
+
+            //write to our types map
+            MapManager mm = getMapManagerForTypes();
+            for ( Entity entity : created ) {
+                mm.putString( entity.getUuid().toString(), entity.getType() );
+            }
         }
 
-        //write to our types map
-        MapManager mm = getMapManagerForTypes();
-        mm.putString( itemId.toString(), entity.getType() );
+        timeEntityCassCreation.stop();
 
-        return entity;
+        return created;
     }
 
 
     private void incrementEntityCollection( String collection_name, long cassandraTimestamp ) {
+        incrementEntityCollection( collection_name, cassandraTimestamp, ONE_COUNT );
+    }
+
+
+    private void incrementEntityCollection( String collection_name, long cassandraTimestamp, long count ) {
         try {
             incrementAggregateCounters( null, null, null,
-                    APPLICATION_COLLECTION + collection_name, ONE_COUNT, cassandraTimestamp );
+                    APPLICATION_COLLECTION + collection_name, count, cassandraTimestamp );
         }
         catch ( Exception e ) {
             logger.error( "Unable to increment counter application.collection: {}.",
@@ -2884,7 +3215,7 @@ public class CpEntityManager implements EntityManager {
         }
         try {
             incrementAggregateCounters( null, null, null,
-                    APPLICATION_ENTITIES, ONE_COUNT, cassandraTimestamp );
+                    APPLICATION_ENTITIES, count, cassandraTimestamp );
         }
         catch ( Exception e ) {
             logger.error( "Unable to increment counter application.entities for collection: {} with timestamp: {}",
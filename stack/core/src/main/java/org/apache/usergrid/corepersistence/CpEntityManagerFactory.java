@@ -27,10 +27,13 @@ import com.google.inject.TypeLiteral;
 import org.apache.commons.lang.StringUtils;
 import org.apache.usergrid.corepersistence.asyncevents.AsyncEventService;
 import org.apache.usergrid.corepersistence.index.CollectionSettingsFactory;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
 import org.apache.usergrid.corepersistence.index.ReIndexRequestBuilder;
 import org.apache.usergrid.corepersistence.index.ReIndexService;
 import org.apache.usergrid.corepersistence.service.CollectionService;
 import org.apache.usergrid.corepersistence.service.ConnectionService;
+import org.apache.usergrid.corepersistence.service.VersionGcService;
+import org.apache.usergrid.corepersistence.service.WriteCoalescingService;
 import org.apache.usergrid.corepersistence.util.CpNamingUtils;
 import org.apache.usergrid.exception.ConflictException;
 import org.apache.usergrid.locking.LockManager;
@@ -117,6 +120,9 @@ public class CpEntityManagerFactory implements EntityManagerFactory, Application
     private final ConnectionService connectionService;
     private final GraphManagerFactory graphManagerFactory;
     private final CollectionSettingsFactory collectionSettingsFactory;
+    private final IndexFingerprintService indexFingerprintService;
+    private final VersionGcService versionGcService;
+    private final WriteCoalescingService writeCoalescingService;
     private ActorSystemManager actorSystemManager;
     private final LockManager lockManager;
 
@@ -143,6 +149,9 @@ public class CpEntityManagerFactory implements EntityManagerFactory, Application
         this.collectionService          = injector.getInstance( CollectionService.class );
         this.connectionService          = injector.getInstance( ConnectionService.class );
         this.collectionSettingsFactory  = injector.getInstance( CollectionSettingsFactory.class );
+        this.indexFingerprintService    = injector.getInstance( IndexFingerprintService.class );
+        this.versionGcService           = injector.getInstance( VersionGcService.class );
+        this.writeCoalescingService     = injector.getInstance( WriteCoalescingService.class );
 
         Properties properties = cassandraService.getProperties();
         this.entityManagers = createEntityManagerCache( properties );
@@ -391,6 +400,9 @@ public class CpEntityManagerFactory implements EntityManagerFactory, Application
             collectionService,
             connectionService,
             collectionSettingsFactory,
+            indexFingerprintService,
+            versionGcService,
+            writeCoalescingService,
             applicationId,
             queueManagerFactory);
 
@@ -687,10 +699,9 @@ public class CpEntityManagerFactory implements EntityManagerFactory, Application
         //buffer our edges and batch fetch the app infos for faster I/O
         return edges.map( edge -> {
             return edge.getTargetNode();
-        } ).buffer( 100 ).flatMap( entityIds -> {
-            return ecm.load( entityIds );
+        } ).buffer( 100 ).concatMap( entityIds -> {
+            return ecm.loadStream( entityIds );
         } )
-                    .flatMap( entitySet -> Observable.from( entitySet.getEntities() ) )
             //collect all the app infos into a single map for return
                     .collect( () -> new HashMap<String, UUID>(), ( appMap, entity ) -> {
 
@@ -19,6 +19,7 @@ package org.apache.usergrid.corepersistence;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import org.apache.usergrid.corepersistence.asyncevents.AsyncEventService;
 import org.apache.usergrid.corepersistence.index.CollectionSettings;
 import org.apache.usergrid.corepersistence.index.CollectionSettingsFactory;
@@ -411,6 +412,8 @@ public class CpRelationManager implements RelationManager {
             }
         } ).toBlocking().lastOrDefault( null );
 
+        collectionService.collectionWritten( applicationScope, cpHeadEntity.getId(), collectionName );
+
 
         // remove any duplicate edges (keeps the duplicate edge with same timestamp)
         removeDuplicateEdgesAsync(gm, edge);
@@ -426,6 +429,101 @@ public class CpRelationManager implements RelationManager {
     }
 
 
+    /**
+     * Add a batch of newly written entities to a collection of the head entity.  Their edges are written together
+     * and their index events are queued as one batch.
+     */
+    public void addToCollection( String collectionName, List<Entity> items ) throws Exception {
+
+        CollectionInfo collection = getDefaultSchema().getCollection( headEntity.getType(), collectionName );
+
+        // linked collections need their reverse edges as well
+        if ( collection != null && collection.getLinkedCollection() != null ) {
+            for ( Entity item : items ) {
+                addToCollection( collectionName, item );
+            }
+            return;
+        }
+
+        final Map<Id, Edge> newEdges = new LinkedHashMap<>( items.size() );
+
+        for ( Entity item : items ) {
+            if ( collection != null && collection.getType() != null && !collection.getType()
+                                                                                   .equals( item.getType() ) ) {
+                continue;
+            }
+
+            final Id entityId = new SimpleId( item.getUuid(), item.getType() );
+            newEdges.put( entityId, createCollectionEdge( cpHeadEntity.getId(), collectionName, entityId ) );
+        }
+
+        if ( newEdges.isEmpty() ) {
+            return;
+        }
+
+        GraphManager gm = managerCache.getGraphManager( applicationScope );
+
+        Observable.from( newEdges.values() ).flatMap( edge -> gm.writeEdge( edge ) ).doOnNext( writtenEdge -> {
+            if ( logger.isDebugEnabled() ) {
+                logger.debug( "Wrote edge {}", writtenEdge );
+            }
+        } ).toBlocking().lastOrDefault( null );
+
+        collectionService.collectionWritten( applicationScope, cpHeadEntity.getId(), collectionName );
+
+        final String itemType = items.get( 0 ).getType();
+
+        if ( !skipIndexingForType( itemType ) ) {
+            indexService.queueNewEdges( applicationScope, newEdges );
+        }
+
+        // remove any duplicate edges (keeps the duplicate edge with same timestamp)
+        for ( Edge edge : newEdges.values() ) {
+            removeDuplicateEdgesAsync( gm, edge );
+        }
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Added {} entities of type {} to collection {}", newEdges.size(), itemType,
+                collectionName );
+        }
+    }
+
+
+    @Override
+    public List<Entity> createItemsInCollection( String collectionName, String itemType,
+                                                 List<Map<String, Object>> propertiesList ) throws Exception {
+
+        if ( headEntity.getUuid().equals( applicationId ) ) {
+            if ( itemType.equals( TYPE_ENTITY ) ) {
+                itemType = singularize( collectionName );
+            }
+
+            if ( !itemType.equals( TYPE_ROLE ) ) {
+                return em.createBatch( itemType, propertiesList );
+            }
+        }
+
+        // roles and items of other owners are still created one at a time
+        final List<Entity> created = new ArrayList<>( propertiesList.size() );
+
+        for ( Map<String, Object> properties : propertiesList ) {
+            try {
+                final Entity item = createItemInCollection( collectionName, itemType, properties );
+
+                if ( item != null ) {
+                    created.add( item );
+                }
+            }
+            catch ( Exception e ) {
+                logger.error( "Entity [{}] unable to be created in collection [{}] due to [{} - {}]", properties,
+                    collectionName, e.getClass().getSimpleName(), e.getMessage() );
+            }
+        }
+
+        return created;
+    }
+
+
     @Override
     public Entity createItemInCollection( String collectionName, String itemType, Map<String, Object> properties )
         throws Exception {
@@ -542,6 +640,8 @@ public class CpRelationManager implements RelationManager {
             CpNamingUtils.createEdgeFromCollectionName( cpHeadEntity.getId(), collectionName, entityId ) )
             .flatMap(edge -> gm.markEdge(edge)).toBlocking().firstOrDefault(null);
 
+        collectionService.collectionWritten( applicationScope, cpHeadEntity.getId(), collectionName );
+
 
         Edge markedReversedEdge = null;
         CollectionInfo collection = getDefaultSchema().getCollection( headEntity.getType(), collectionName );
@@ -631,6 +731,17 @@ public class CpRelationManager implements RelationManager {
         final Id ownerId = headEntity.asId();
 
 
+        if ( query.isCountOnly() ) {
+
+            final CollectionSearch search =
+                new CollectionSearch( applicationScope, ownerId, collectionName, collection.getType(), toExecute.getLimit(),
+                    queryString, Optional.absent() );
+
+            return Results.fromCount(
+                collectionService.countCollection( search, query.isExactCount() ).toBlocking().lastOrDefault( 0L ) );
+        }
+
+
         if(query.getLevel() == Level.IDS ){
 
             return new IdQueryExecutor( toExecute.getCursor() ) {
@@ -664,6 +775,38 @@ public class CpRelationManager implements RelationManager {
     }
 
 
+    @Override
+    public Iterable<Entity> scanCollection( String collectionName, Query query ) throws Exception {
+
+        if ( query == null ) {
+            query = new Query();
+            query.setCollection( collectionName );
+        }
+
+        headEntity = em.validate( headEntity );
+
+        CollectionInfo collection = getDefaultSchema().getCollection( headEntity.getType(), collectionName );
+
+        if ( collection == null ) {
+            throw new RuntimeException(
+                "Cannot find collection-info for '" + collectionName + "' of " + headEntity.getType() + ":" + headEntity
+                    .getUuid() );
+        }
+
+        query.setEntityType( collection.getType() );
+        final Query toExecute = adjustQuery( query );
+
+        //the limit is the size of each batch, so use the largest one the caller allows
+        final CollectionSearch search =
+            new CollectionSearch( applicationScope, headEntity.asId(), collectionName, collection.getType(),
+                toExecute.getLimit( Query.MAX_LIMIT ), toExecute.isGraphSearch() ? Optional.<String>absent() :
+                toExecute.getQl(), Optional.absent() );
+
+        //reads the next scroll page only as the iterator is consumed
+        return Iterables.transform( collectionService.scanCollection( search ), EntityQueryExecutor::mapEntity );
+    }
+
+
     @Override
     public Results searchCollectionConsistent( String collectionName, Query query, int expectedResults )
         throws Exception {
@@ -938,6 +1081,16 @@ public class CpRelationManager implements RelationManager {
         final Optional<String> queryString = query.isGraphSearch()? Optional.<String>absent(): query.getQl();
         final boolean isConnecting = query.isConnecting();
 
+        if ( query.isCountOnly() ) {
+
+            final ConnectionSearch search =
+                new ConnectionSearch( applicationScope, sourceId, entityType, connection, toExecute.getLimit(),
+                    queryString, Optional.absent(), isConnecting );
+
+            return Results.fromCount(
+                connectionService.countConnection( search, query.isExactCount() ).toBlocking().lastOrDefault( 0L ) );
+        }
+
         if ( query.getResultsLevel() == Level.REFS || query.getResultsLevel() == Level.IDS ) {
 
 
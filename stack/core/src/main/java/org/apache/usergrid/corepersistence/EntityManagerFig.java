@@ -42,6 +42,75 @@ public interface EntityManagerFig extends GuicyFig {
     @Default( "true" )
     boolean getDeindexOnUpdate();
 
+    /**
+     * Remove the superseded versions of updated entities in the background.  Off by default since removed versions
+     * are gone for good
+     */
+    @Key( "usergrid.entityManager.version_gc_enabled" )
+    @Default( "false" )
+    boolean getVersionGcEnabled();
+
+    /**
+     * How often in milliseconds a batch of updated entities is checked for superseded versions
+     */
+    @Key( "usergrid.entityManager.version_gc_interval_ms" )
+    @Default( "1000" )
+    long getVersionGcInterval();
+
+    /**
+     * The most entities checked per interval, which limits the load version removal adds to the stores
+     */
+    @Key( "usergrid.entityManager.version_gc_batch_size" )
+    @Default( "100" )
+    int getVersionGcBatchSize();
+
+    /**
+     * The most entities waiting to be checked.  Further entities are dropped until the queue drains, their next
+     * update queues them again
+     */
+    @Key( "usergrid.entityManager.version_gc_max_pending" )
+    @Default( "100000" )
+    int getVersionGcMaxPending();
+
+    /**
+     * The most superseded versions of one entity removed per check, the oldest first.  Entities with more are
+     * queued again for the rest
+     */
+    @Key( "usergrid.entityManager.version_gc_max_versions" )
+    @Default( "100" )
+    int getVersionGcMaxVersions();
+
+    /**
+     * The longest write coalescing window in milliseconds a collection may set
+     */
+    @Key( "usergrid.entityManager.write_coalesce_max_ms" )
+    @Default( "1000" )
+    long getWriteCoalesceMaxWindow();
+
+    /**
+     * The most entities with coalesced updates waiting to commit.  Updates of further entities are written directly
+     */
+    @Key( "usergrid.entityManager.write_coalesce_max_pending" )
+    @Default( "10000" )
+    int getWriteCoalesceMaxPending();
+
+    /**
+     * The number of threads committing coalesced updates
+     */
+    @Key( "usergrid.entityManager.write_coalesce_threads" )
+    @Default( "4" )
+    int getWriteCoalesceThreads();
+
+    /**
+     * The index applies collection adds and removes asynchronously, so a count from the index alone can lag them by
+     * as long as the index queue is behind.  A collection this node added to or removed from within this many
+     * milliseconds is counted exactly instead.  Counts of collections only other nodes wrote to are not bounded by
+     * this.  0 always counts from the index when a non-exact count is asked for
+     */
+    @Key( "usergrid.entityManager.count_exact_after_write_ms" )
+    @Default( "30000" )
+    long getCountExactAfterWriteMs();
+
     /**
      * Comma-separated list of one or more Amazon regions to use if multiregion
      * is set to true.
@@ -27,6 +27,7 @@ import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -67,6 +68,15 @@ public interface AsyncEventService extends ReIndexAction {
      */
     void queueNewEdge(final ApplicationScope applicationScope, final Entity entity, final Edge newEdge);
 
+    /**
+     * Fired when new edges are added to many entities at once, such as a batch of entities created in a
+     * collection.  The events for every edge are sent to the queue together.
+     *
+     * @param applicationScope
+     * @param newEdges The new edge of each entity, keyed by the entity id
+     */
+    void queueNewEdges(final ApplicationScope applicationScope, final Map<Id, Edge> newEdges);
+
     /**
      * Queue the deletion of an edge
      * @param applicationScope
@@ -132,6 +132,10 @@ public class AsyncEventServiceImpl implements AsyncEventService {
     private final Histogram messageCycle;
     private final MapManager esMapPersistence;
 
+    // limits on event batches being processed at once, across all workers of each queue
+    private final EventConcurrencyLimiter eventLimiter;
+    private final EventConcurrencyLimiter utilityEventLimiter;
+
     //the actively running subscription
     private List<Subscription> subscriptions = new ArrayList<>();
 
@@ -189,6 +193,14 @@ public class AsyncEventServiceImpl implements AsyncEventService {
             }
         });
 
+        this.eventLimiter = createEventLimiter( indexProcessorFig.getWorkerCount() );
+        this.utilityEventLimiter = createEventLimiter( indexProcessorFig.getWorkerCountUtility() );
+
+        metricsFactory.addGauge(AsyncEventServiceImpl.class, "async-event.concurrency.limit",
+            (Gauge<Double>) eventLimiter::getLimit );
+        metricsFactory.addGauge(AsyncEventServiceImpl.class, "async-event.utility.concurrency.limit",
+            (Gauge<Double>) utilityEventLimiter::getLimit );
+
         start();
     }
 
@@ -256,15 +268,24 @@ public class AsyncEventServiceImpl implements AsyncEventService {
     }
 
 
+    private EventConcurrencyLimiter createEventLimiter( final int workerCount ) {
+        return new EventConcurrencyLimiter(
+            indexProcessorFig.isEventConcurrencyAdaptive(),
+            workerCount * indexProcessorFig.getEventConcurrencyFactor(),
+            indexProcessorFig.getEventConcurrencyMax(),
+            indexProcessorFig.getEventConcurrencyLatencyThreshold() );
+    }
+
+
     /**
      * Take message
      */
-    private List<LegacyQueueMessage> take() {
+    private List<LegacyQueueMessage> take( final int count ) {
 
         final Timer.Context timer = this.readTimer.time();
 
         try {
-            return queue.getMessages(MAX_TAKE, AsyncEvent.class);
+            return queue.getMessages(count, AsyncEvent.class);
         }
         finally {
             //stop our timer
@@ -275,12 +296,12 @@ public class AsyncEventServiceImpl implements AsyncEventService {
     /**
      * Take message from SQS utility queue
      */
-    private List<LegacyQueueMessage> takeFromUtilityQueue() {
+    private List<LegacyQueueMessage> takeFromUtilityQueue( final int count ) {
 
         final Timer.Context timer = this.readTimer.time();
 
         try {
-            return utilityQueue.getMessages(MAX_TAKE, AsyncEvent.class);
+            return utilityQueue.getMessages(count, AsyncEvent.class);
         }
         finally {
             //stop our timer
@@ -534,6 +555,24 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
     }
 
+    @Override
+    public void queueNewEdges(final ApplicationScope applicationScope,
+                              final Map<Id, Edge> newEdges) {
+
+        if ( newEdges.isEmpty() ) {
+            return;
+        }
+
+        final List<EdgeIndexEvent> batch = new ArrayList<>( newEdges.size() );
+
+        newEdges.forEach( ( entityId, newEdge ) ->
+            batch.add( new EdgeIndexEvent( queueFig.getPrimaryRegion(), applicationScope, entityId, newEdge ) ) );
+
+        logger.trace("Offering batch of EdgeIndexEvent of size {}", batch.size());
+
+        offerBatch( batch, false );
+    }
+
     private IndexOperationMessage handleEdgeIndex(final LegacyQueueMessage message) {
 
         Preconditions.checkNotNull( message, "Queue Message cannot be null for handleEdgeIndex" );
@@ -847,6 +886,8 @@ public class AsyncEventServiceImpl implements AsyncEventService {
 
             boolean isUtilityQueue = isNotEmpty(type) && type.toLowerCase().contains(QUEUE_NAME_UTILITY.toLowerCase());
 
+            final EventConcurrencyLimiter limiter = isUtilityQueue ? utilityEventLimiter : eventLimiter;
+
             Observable<List<LegacyQueueMessage>> consumer =
                     Observable.create( new Observable.OnSubscribe<List<LegacyQueueMessage>>() {
                         @Override
@@ -860,14 +901,21 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                             List<LegacyQueueMessage> drainList = null;
 
                             do {
+                                boolean acquired = false;
                                 try {
+                                    // wait for the limiter to allow another batch, this is our back pressure
+                                    limiter.acquire();
+                                    acquired = true;
+
+                                    final int batchSize = limiter.getBatchSize( MAX_TAKE );
                                     if ( isUtilityQueue ){
-                                        drainList = takeFromUtilityQueue();
+                                        drainList = takeFromUtilityQueue( batchSize );
                                     }else{
-                                        drainList = take();
+                                        drainList = take( batchSize );
 
                                     }
-                                    //emit our list in it's entity to hand off to a worker pool
+                                    //emit our list in it's entity to hand off to a worker pool, it releases the limiter
+                                    acquired = false;
                                         subscriber.onNext(drainList);
 
                                     //take since  we're in flight
@@ -895,6 +943,11 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                                         inFlight.addAndGet( -1 * drainList.size() );
                                     }
 
+                                    // nothing was processed, so this says nothing about load
+                                    if ( acquired ) {
+                                        limiter.release();
+                                    }
+
                                     try { Thread.sleep( sleepTime ); } catch ( InterruptedException ie ) {}
 
                                     indexErrorCounter.inc();
@@ -912,9 +965,15 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                                              .map( messages -> {
                                                  if ( messages == null || messages.size() == 0 ) {
                                                      // no messages came from the queue, move on
+                                                     limiter.release();
                                                      return null;
                                                  }
 
+                                                 final long startTime = System.currentTimeMillis();
+                                                 long processingTime = -1;
+                                                 boolean success = false;
+                                                 boolean ackFailed = false;
+
                                                  try {
                                                      // process the messages
                                                      List<IndexEventResult> indexEventResults =
@@ -924,6 +983,9 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                                                      List<LegacyQueueMessage> messagesToAck =
                                                          submitToIndex( indexEventResults, isUtilityQueue );
 
+                                                     processingTime = System.currentTimeMillis() - startTime;
+                                                     success = messagesToAck.size() == messages.size();
+
                                                      if ( messagesToAck.size() < messages.size() ) {
                                                          logger.warn(
                                                              "Missing {} message(s) from index processing",
@@ -944,13 +1006,30 @@ public class AsyncEventServiceImpl implements AsyncEventService {
                                                  }
                                                  catch ( Exception e ) {
                                                      logger.error( "Failed to ack messages", e );
+                                                     ackFailed = processingTime >= 0;
                                                      return null;
                                                      //do not rethrow so we can process all of them
                                                  }
+                                                 finally {
+                                                     if ( ackFailed ) {
+                                                         // the queue failed, not the processing, leave the limit
+                                                         limiter.release();
+                                                     }
+                                                     else if ( processingTime < 0 ) {
+                                                         // processing threw, e.g. a timeout, treat as overload
+                                                         limiter.release(
+                                                             System.currentTimeMillis() - startTime, false );
+                                                     }
+                                                     else {
+                                                         // feed latency and failed events back so the limit adapts
+                                                         limiter.release( processingTime, success );
+                                                     }
+                                                 }
                                              } ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() );
 
-                            //end flatMap
-                        }, indexProcessorFig.getEventConcurrencyFactor() );
+                            //end flatMap, the limiter bounds concurrency across all workers
+                        }, Math.max( indexProcessorFig.getEventConcurrencyMax(),
+                            indexProcessorFig.getWorkerCount() * indexProcessorFig.getEventConcurrencyFactor() ) );
 
             //start in the background
 
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.asyncevents;
+
+
+/**
+ * Additive-increase, multiplicative-decrease limit on the number of event batches being processed at once.
+ *
+ * Each batch that completes within the latency threshold with all of its events processed raises the limit by
+ * one batch per limit's worth of batches.  A batch that is too slow or has failed events (e.g. Elasticsearch
+ * rejecting bulk requests under load, or Cassandra timeouts) cuts the limit by a quarter.  Below one batch the
+ * limit shrinks the size of the batches taken from the queue instead.
+ */
+public class EventConcurrencyLimiter {
+
+    /**
+     * Lowest limit, as a fraction of a batch
+     */
+    static final double MIN_LIMIT = 0.1;
+
+    private static final double DECREASE_RATIO = 0.75;
+
+    private final boolean adaptive;
+    private final int maxLimit;
+    private final long latencyThresholdMillis;
+
+    private double limit;
+    private int inFlight = 0;
+    private long lastDecreaseMillis = 0;
+
+
+    /**
+     * @param adaptive False to keep the limit at its initial value
+     * @param initialLimit Number of batches allowed in flight to start with
+     * @param maxLimit Most batches ever allowed in flight
+     * @param latencyThresholdMillis Batches slower than this count as a sign of overload
+     */
+    public EventConcurrencyLimiter( final boolean adaptive, final int initialLimit, final int maxLimit,
+                                    final long latencyThresholdMillis ) {
+        this.adaptive = adaptive;
+        this.maxLimit = Math.max( 1, maxLimit );
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.limit = Math.max( 1, adaptive ? Math.min( initialLimit, this.maxLimit ) : initialLimit );
+    }
+
+
+    /**
+     * Wait until another batch may be taken from the queue
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while ( inFlight >= getMaxInFlight() ) {
+            wait();
+        }
+        inFlight++;
+    }
+
+
+    /**
+     * Release a batch without feedback, e.g. because the queue was empty
+     */
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+
+    /**
+     * Release a processed batch and adjust the limit
+     *
+     * @param latencyMillis Time taken to process the batch
+     * @param success True if every event in the batch was processed
+     */
+    public synchronized void release( final long latencyMillis, final boolean success ) {
+
+        if ( adaptive ) {
+            if ( success && latencyMillis <= latencyThresholdMillis ) {
+                limit = Math.min( maxLimit, limit < 1 ? limit + MIN_LIMIT : limit + 1.0 / limit );
+            }
+            else {
+                // batches started before the last cut finish within one latency period, don't cut for them again
+                final long now = System.currentTimeMillis();
+                if ( now - lastDecreaseMillis >= latencyMillis ) {
+                    limit = Math.max( MIN_LIMIT, limit * DECREASE_RATIO );
+                    lastDecreaseMillis = now;
+                }
+            }
+        }
+
+        release();
+    }
+
+
+    /**
+     * Number of messages to take from the queue for the next batch
+     */
+    public synchronized int getBatchSize( final int maxBatchSize ) {
+        return ( int ) Math.max( 1, Math.round( maxBatchSize * Math.min( 1.0, limit ) ) );
+    }
+
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+
+    private int getMaxInFlight() {
+        return Math.max( 1, ( int ) limit );
+    }
+}
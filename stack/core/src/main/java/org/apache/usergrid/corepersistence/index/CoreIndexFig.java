@@ -67,4 +67,35 @@ public interface CoreIndexFig extends GuicyFig {
     @Default( "0" )
     @Key( "elasticsearch.index_bucket_offset" )
     int getBucketOffset();
+
+
+    /**
+     * How often in milliseconds stale documents found by queries are removed from the index in the background
+     */
+    @Default( "1000" )
+    @Key( "elasticsearch.stale_repair_interval" )
+    long getStaleRepairInterval();
+
+    /**
+     * The most stale documents removed per interval, which limits the write rate repairs add to the index
+     */
+    @Default( "500" )
+    @Key( "elasticsearch.stale_repair_batch_size" )
+    int getStaleRepairBatchSize();
+
+    /**
+     * The most stale documents waiting for removal.  Further documents are dropped until the queue drains, a later
+     * query will report them again
+     */
+    @Default( "100000" )
+    @Key( "elasticsearch.stale_repair_max_pending" )
+    int getStaleRepairMaxPending();
+
+    /**
+     * Skip re-indexing an updated entity when none of its indexed fields changed.  The modified timestamp is indexed
+     * and changes with every update, so only collections that exclude it from indexing benefit
+     */
+    @Default( "false" )
+    @Key( "elasticsearch.skip_unchanged_reindex" )
+    boolean isSkipUnchangedReindex();
 }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * Tracks a fingerprint of the indexed fields of each entity, so updates that change nothing indexed are not
+ * re-indexed.  The documents of an older version then stay current, so queries need to know the version at which the
+ * indexed fields of an entity last changed to tell current documents from stale ones.
+ */
+public interface IndexFingerprintService {
+
+    /**
+     * Compare the fingerprint of a newly written entity version to the recorded one
+     *
+     * @param applicationScope The application scope of the entity
+     * @param entity The written entity
+     *
+     * @return true if the indexed fields changed since the last recorded version, and the entity must be re-indexed
+     */
+    boolean isChanged( ApplicationScope applicationScope, Entity entity );
+
+    /**
+     * Record the fingerprint of an entity version once its index update has been accepted.  Recording it any earlier
+     * would skip the re-index of later updates if the index update of this version were lost
+     *
+     * @param applicationScope The application scope of the entity
+     * @param entity The re-indexed entity
+     */
+    void update( ApplicationScope applicationScope, Entity entity );
+
+    /**
+     * Get the version at which the indexed fields of each entity last changed.  Documents indexed from this version
+     * or a later one are current.  Entities without a fingerprint are left out
+     *
+     * @param applicationScope The application scope of the entities
+     * @param entityIds The ids of the entities
+     */
+    Map<Id, UUID> getIndexedVersions( ApplicationScope applicationScope, Collection<Id> entityIds );
+
+    /**
+     * Remove the fingerprint of a deleted entity, or of an entity whose index update failed
+     *
+     * @param applicationScope The application scope of the entity
+     * @param entityId The id of the entity
+     */
+    void remove( ApplicationScope applicationScope, Id entityId );
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.usergrid.corepersistence.util.CpNamingUtils;
+import org.apache.usergrid.persistence.Schema;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.IndexedFields;
+import org.apache.usergrid.persistence.index.impl.EntityField;
+import org.apache.usergrid.persistence.index.impl.EntityMappingParser;
+import org.apache.usergrid.persistence.map.MapManager;
+import org.apache.usergrid.persistence.map.MapManagerFactory;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.EntityMap;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Meter;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Stores the fingerprint of each entity in a map of its application as "fingerprint:version", where the version is
+ * the one the fingerprint was first seen with.  The fingerprint is a hash of the fields the entity mapping parser
+ * emits for the collection settings of the entity type.
+ */
+@Singleton
+public class IndexFingerprintServiceImpl implements IndexFingerprintService {
+
+    private static final String SEPARATOR = ":";
+
+    private final IndexService indexService;
+    private final MapManagerFactory mapManagerFactory;
+    private final CoreIndexFig coreIndexFig;
+
+    private final Meter skippedMeter;
+
+
+    @Inject
+    public IndexFingerprintServiceImpl( final IndexService indexService, final MapManagerFactory mapManagerFactory,
+                                        final CoreIndexFig coreIndexFig, final MetricsFactory metricsFactory ) {
+        this.indexService = indexService;
+        this.mapManagerFactory = mapManagerFactory;
+        this.coreIndexFig = coreIndexFig;
+
+        this.skippedMeter = metricsFactory.getMeter( IndexFingerprintServiceImpl.class, "index.fingerprint.skipped" );
+    }
+
+
+    @Override
+    public boolean isChanged( final ApplicationScope applicationScope, final Entity entity ) {
+
+        if ( !coreIndexFig.isSkipUnchangedReindex() ) {
+            return true;
+        }
+
+        final String previous = getMapManager( applicationScope ).getString( entity.getId().getUuid().toString() );
+
+        if ( previous != null && previous.startsWith( fingerprint( applicationScope, entity ) + SEPARATOR ) ) {
+            skippedMeter.mark();
+            return false;
+        }
+
+        return true;
+    }
+
+
+    @Override
+    public void update( final ApplicationScope applicationScope, final Entity entity ) {
+
+        if ( !coreIndexFig.isSkipUnchangedReindex() ) {
+            return;
+        }
+
+        getMapManager( applicationScope ).putString( entity.getId().getUuid().toString(),
+            fingerprint( applicationScope, entity ) + SEPARATOR + entity.getVersion() );
+    }
+
+
+    @Override
+    public Map<Id, UUID> getIndexedVersions( final ApplicationScope applicationScope,
+                                             final Collection<Id> entityIds ) {
+
+        //fingerprints are neither written nor trusted while unchanged entities are reindexed anyway
+        if ( !coreIndexFig.isSkipUnchangedReindex() || entityIds.isEmpty() ) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Id> keys = new HashMap<>( entityIds.size() );
+
+        for ( final Id entityId : entityIds ) {
+            keys.put( entityId.getUuid().toString(), entityId );
+        }
+
+        final Map<String, String> fingerprints = getMapManager( applicationScope ).getStrings( keys.keySet() );
+
+        final Map<Id, UUID> versions = new HashMap<>( fingerprints.size() );
+
+        for ( final Map.Entry<String, String> fingerprint : fingerprints.entrySet() ) {
+
+            final String value = fingerprint.getValue();
+
+            if ( value == null ) {
+                continue;
+            }
+
+            versions.put( keys.get( fingerprint.getKey() ),
+                UUID.fromString( value.substring( value.indexOf( SEPARATOR ) + 1 ) ) );
+        }
+
+        return versions;
+    }
+
+
+    @Override
+    public void remove( final ApplicationScope applicationScope, final Id entityId ) {
+        getMapManager( applicationScope ).delete( entityId.getUuid().toString() );
+    }
+
+
+    private String fingerprint( final ApplicationScope applicationScope, final Entity entity ) {
+
+        final IndexedFields indexedFields = indexService
+            .getIndexedFields( applicationScope, Schema.defaultCollectionName( entity.getId().getType() ) );
+
+        return fingerprint( entity, indexedFields );
+    }
+
+
+    /**
+     * Hash the fields of the entity that would be indexed, in a stable order.  The modified timestamp is indexed like
+     * any other field, so updates only keep their fingerprint in collections that exclude it from indexing
+     */
+    static String fingerprint( final Entity entity, final IndexedFields indexedFields ) {
+
+        final List<String> fields = new ArrayList<>();
+
+        for ( final EntityField field : new EntityMappingParser( indexedFields )
+            .parse( EntityMap.fromEntity( entity ) ) ) {
+
+            fields.add( field.toString() );
+        }
+
+        Collections.sort( fields );
+
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+
+        for ( final String field : fields ) {
+            hasher.putString( field, StandardCharsets.UTF_8 );
+        }
+
+        return hasher.hash().toString();
+    }
+
+
+    private MapManager getMapManager( final ApplicationScope applicationScope ) {
+        return mapManagerFactory
+            .createMapManager( CpNamingUtils.getIndexFingerprintMapScope( applicationScope.getApplication() ) );
+    }
+}
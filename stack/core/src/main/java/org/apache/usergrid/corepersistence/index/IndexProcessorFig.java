@@ -40,6 +40,12 @@ public interface IndexProcessorFig extends GuicyFig {
 
     String EVENT_CONCURRENCY_FACTOR = "event.concurrency.factor";
 
+    String EVENT_CONCURRENCY_ADAPTIVE = "event.concurrency.adaptive";
+
+    String EVENT_CONCURRENCY_MAX = "event.concurrency.max";
+
+    String EVENT_CONCURRENCY_LATENCY_THRESHOLD = "event.concurrency.latency_threshold";
+
     String ELASTICSEARCH_QUEUE_IMPL = "elasticsearch.queue_impl";
 
     String INDEX_QUEUE_VISIBILITY_TIMEOUT = "elasticsearch.queue_visibility_timeout";
@@ -74,6 +80,28 @@ public interface IndexProcessorFig extends GuicyFig {
     @Key( EVENT_CONCURRENCY_FACTOR )
     int getEventConcurrencyFactor();
 
+    /**
+     * Adjust the number of event batches processed at once from observed batch latency and failures, starting
+     * from worker count times concurrency factor.  When false that starting number is fixed.
+     */
+    @Default( "true" )
+    @Key( EVENT_CONCURRENCY_ADAPTIVE )
+    boolean isEventConcurrencyAdaptive();
+
+    /**
+     * The most event batches processed at once when concurrency is adaptive
+     */
+    @Default( "100" )
+    @Key( EVENT_CONCURRENCY_MAX )
+    int getEventConcurrencyMax();
+
+    /**
+     * Event batches that take longer than this to process cause adaptive concurrency to back off. (in milliseconds)
+     */
+    @Default( "5000" )
+    @Key( EVENT_CONCURRENCY_LATENCY_THRESHOLD )
+    long getEventConcurrencyLatencyThreshold();
+
 
 
     /**
@@ -25,6 +25,7 @@ import java.util.UUID;
 
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.graph.Edge;
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
@@ -51,6 +52,16 @@ public interface IndexService {
     Observable<IndexOperationMessage> indexEntity( final ApplicationScope applicationScope, final Entity entity );
 
 
+    /**
+     * Get the fields of entities in the collection of the application that are indexed, according to its collection
+     * settings
+     *
+     * @param applicationScope The scope of the application
+     * @param collectionName The name of the collection
+     */
+    IndexedFields getIndexedFields( final ApplicationScope applicationScope, final String collectionName );
+
+
     /**
      * Index the edge when an edge is created or destroyed
      * @param applicationScope
@@ -122,9 +122,7 @@ public class IndexServiceImpl implements IndexService {
                         logger.debug("adding edge {} to batch for entity {}", indexEdge, entity);
                     }
 
-                    final Optional<Set<String>> fieldsToIndex = getFilteredStringObjectMap( indexEdge );
-
-                    batch.index( indexEdge, entity ,fieldsToIndex);
+                    batch.index( indexEdge, entity, getIndexedFields( indexEdge ) );
                 } )
                     //return the future from the batch execution
                 .map( batch -> batch.build() ) );
@@ -155,9 +153,7 @@ public class IndexServiceImpl implements IndexService {
                 logger.debug("adding edge {} to batch for entity {}", indexEdge, entity);
             }
 
-            Optional<Set<String>> fieldsToIndex = getFilteredStringObjectMap( indexEdge );
-
-            batch.index( indexEdge, entity ,fieldsToIndex);
+            batch.index( indexEdge, entity, getIndexedFields( indexEdge ) );
 
 
             return batch.build();
@@ -168,52 +164,85 @@ public class IndexServiceImpl implements IndexService {
     }
 
     /**
-     * This method takes in an entity and flattens it out then begins the process to filter out
-     * properties that we do not want to index. Once flatted we parse through each property
-     * and verify that we want it to be indexed on. The set of default properties that will always be indexed are as follows.
-     * UUID - TYPE - MODIFIED - CREATED. Depending on the schema this may change. For instance, users will always require
-     * NAME, but the above four will always be taken in.
+     * Get the fields of entities on the edge that we index.  If the collection of the edge has settings, its "fields"
+     * are the only properties indexed along with the required properties of the schema.  UUID - TYPE - MODIFIED -
+     * CREATED are always indexed, and users will always require NAME.  Its "excludeFields" are never indexed, and
+     * "maxIndexDepth" and "maxIndexArrayElements" override the limits in the index fig.
 
      * @param indexEdge
-     * @return This returns a filtered map that contains the flatted properties of the entity. If there isn't a schema
-     * associated with the collection then return null ( and index the entity in its entirety )
+     * @return The fields to index.  If there isn't a schema associated with the collection, the entity is indexed in
+     * its entirety up to the limits in the index fig
      */
-    private Optional<Set<String>> getFilteredStringObjectMap( final IndexEdge indexEdge ) {
+    private IndexedFields getIndexedFields( final IndexEdge indexEdge ) {
 
         Id owner = new SimpleId( indexEdge.getNodeId().getUuid(), TYPE_APPLICATION );
 
-        Set<String> defaultProperties;
-
         String collectionName = CpNamingUtils.getCollectionNameFromEdgeName( indexEdge.getEdgeName() );
 
+        return getIndexedFields( owner, collectionName );
+    }
+
+
+    @Override
+    public IndexedFields getIndexedFields( final ApplicationScope applicationScope, final String collectionName ) {
+
+        Id owner = new SimpleId( applicationScope.getApplication().getUuid(), TYPE_APPLICATION );
+
+        return getIndexedFields( owner, collectionName );
+    }
+
+
+    private IndexedFields getIndexedFields( final Id owner, final String collectionName ) {
+
         CollectionSettings collectionSettings =
             collectionSettingsFactory.getInstance( new CollectionSettingsScopeImpl( owner, collectionName) );
 
         Optional<Map<String, Object>> collectionIndexingSchema =
             collectionSettings.getCollectionSettings( collectionName );
 
-        //If we do have a schema then parse it and add it to a list of properties we want to keep.Otherwise return.
-        if ( collectionIndexingSchema.isPresent()) {
+        int maxDepth = indexFig.getIndexMaxDepth();
+        int maxArrayElements = indexFig.getIndexMaxArrayElements();
 
-            Map jsonMapData = collectionIndexingSchema.get();
-            Schema schema = Schema.getDefaultSchema();
-            defaultProperties = schema.getRequiredProperties( collectionName );
+        //If we don't have a schema, index everything up to our limits
+        if ( !collectionIndexingSchema.isPresent() ) {
+            return maxDepth == 0 && maxArrayElements == 0 ? IndexedFields.all()
+                : new IndexedFields( Optional.absent(), Collections.emptyList(), maxDepth, maxArrayElements );
+        }
 
-            Object fields = jsonMapData.get("fields");
+        //Otherwise parse it and add its fields to a list of properties we want to keep.
+        Map jsonMapData = collectionIndexingSchema.get();
 
-            if ( fields != null && fields instanceof String && "all".equalsIgnoreCase(fields.toString())) {
-                return Optional.absent();
-            }
+        Optional<Set<String>> includes = Optional.absent();
+
+        Object fields = jsonMapData.get( "fields" );
+
+        if ( fields == null || !( fields instanceof String && "all".equalsIgnoreCase( fields.toString() ) ) ) {
+
+            //copy the required properties so adding the fields doesn't change the schema
+            Set<String> defaultProperties =
+                new HashSet<>( Schema.getDefaultSchema().getRequiredProperties( collectionName ) );
 
-            if ( fields != null && fields instanceof List ) {
-                defaultProperties.addAll( (List) fields );
+            if ( fields instanceof List ) {
+                defaultProperties.addAll( ( List ) fields );
             }
 
-        } else {
-            return Optional.absent();
+            includes = Optional.of( defaultProperties );
+        }
+
+        Object excludeFields = jsonMapData.get( "excludeFields" );
+
+        List<String> excludes =
+            excludeFields instanceof List ? ( List<String> ) excludeFields : Collections.<String>emptyList();
+
+        if ( jsonMapData.get( "maxIndexDepth" ) instanceof Number ) {
+            maxDepth = ( ( Number ) jsonMapData.get( "maxIndexDepth" ) ).intValue();
+        }
+
+        if ( jsonMapData.get( "maxIndexArrayElements" ) instanceof Number ) {
+            maxArrayElements = ( ( Number ) jsonMapData.get( "maxIndexArrayElements" ) ).intValue();
         }
 
-        return Optional.of(defaultProperties);
+        return new IndexedFields( includes, excludes, maxDepth, maxArrayElements );
     }
 
     //Steps to delete an IndexEdge.
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * Removes stale documents that queries find in the index, off the read path.  Readers only report what they found
+ * and filter it from their results
+ */
+public interface StaleIndexRepairService {
+
+    /**
+     * Queue the document of the entity version on the search edge for removal.  Reports of the same document are
+     * collapsed until it has been removed
+     *
+     * @param applicationScope The application scope of the entity
+     * @param searchEdge The edge the stale document was found on
+     * @param entityId The id of the entity
+     * @param version The stale version that is indexed
+     */
+    void deindexStale( ApplicationScope applicationScope, SearchEdge searchEdge, Id entityId, UUID version );
+}
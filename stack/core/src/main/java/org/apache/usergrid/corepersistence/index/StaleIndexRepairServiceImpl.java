@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.corepersistence.util.BackgroundQueue;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.EntityIndexBatch;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.impl.IndexProducer;
+import org.apache.usergrid.persistence.index.impl.IndexingUtils;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Meter;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Queues stale documents in a {@link BackgroundQueue}, keyed by their document id so repeated reports collapse into
+ * one removal.  Each batch is removed with one index batch per application, and a batch that fails is retried.
+ * Documents dropped while the queue is full are reported again by a later query that finds them
+ */
+@Singleton
+public class StaleIndexRepairServiceImpl implements StaleIndexRepairService {
+
+    private static final Logger logger = LoggerFactory.getLogger( StaleIndexRepairServiceImpl.class );
+
+    private final EntityIndexFactory entityIndexFactory;
+    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
+    private final IndexProducer indexProducer;
+
+    private final Meter repairedMeter;
+
+    private final BackgroundQueue<StaleDocument> queue;
+
+
+    @Inject
+    public StaleIndexRepairServiceImpl( final EntityIndexFactory entityIndexFactory,
+                                        final IndexLocationStrategyFactory indexLocationStrategyFactory,
+                                        final IndexProducer indexProducer, final CoreIndexFig coreIndexFig,
+                                        final MetricsFactory metricsFactory ) {
+        this.entityIndexFactory = entityIndexFactory;
+        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
+        this.indexProducer = indexProducer;
+
+        this.repairedMeter = metricsFactory.getMeter( StaleIndexRepairServiceImpl.class, "stale.repair.repaired" );
+
+        this.queue = new BackgroundQueue<>( "StaleIndexRepair", StaleIndexRepairServiceImpl.class, "stale.repair",
+            metricsFactory, coreIndexFig.getStaleRepairInterval(), coreIndexFig::getStaleRepairMaxPending,
+            coreIndexFig::getStaleRepairBatchSize, this::repair );
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        queue.shutdown();
+    }
+
+
+    @Override
+    public void deindexStale( final ApplicationScope applicationScope, final SearchEdge searchEdge, final Id entityId,
+                              final UUID version ) {
+
+        final String docId = IndexingUtils.createIndexDocId( applicationScope, entityId, version, searchEdge );
+
+        queue.offer( docId, new StaleDocument( applicationScope, searchEdge, entityId, version ) );
+    }
+
+
+    /**
+     * Remove a batch of stale documents, throws if any removal fails so the batch is retried
+     */
+    private List<StaleDocument> repair( final List<StaleDocument> toRepair ) {
+
+        final Map<ApplicationScope, EntityIndexBatch> batches = new HashMap<>();
+
+        for ( final StaleDocument document : toRepair ) {
+
+            final EntityIndexBatch batch = batches.computeIfAbsent( document.applicationScope,
+                applicationScope -> entityIndexFactory
+                    .createEntityIndex( indexLocationStrategyFactory.getIndexLocationStrategy( applicationScope ) )
+                    .createBatch() );
+
+            batch.deindex( document.searchEdge, document.entityId, document.version );
+        }
+
+        for ( final EntityIndexBatch batch : batches.values() ) {
+            indexProducer.put( batch.build() ).toBlocking().lastOrDefault( null );
+        }
+
+        repairedMeter.mark( toRepair.size() );
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Deindexed {} stale documents, {} still pending", toRepair.size(), queue.size() );
+        }
+
+        return Collections.emptyList();
+    }
+
+
+    /**
+     * A stale version of an entity on an edge
+     */
+    private static final class StaleDocument {
+
+        private final ApplicationScope applicationScope;
+        private final SearchEdge searchEdge;
+        private final Id entityId;
+        private final UUID version;
+
+
+        private StaleDocument( final ApplicationScope applicationScope, final SearchEdge searchEdge,
+                               final Id entityId, final UUID version ) {
+            this.applicationScope = applicationScope;
+            this.searchEdge = searchEdge;
+            this.entityId = entityId;
+            this.version = version;
+        }
+    }
+}
@@ -51,4 +51,14 @@ public class EntityBuilder {
         //we must add our resume filter so we drop our previous page first element if it's present
         return pipeline.withFilter( new EntityResumeFilter() ).withFilter(new ResultsPageCollector<>()).execute();
     }
+
+
+    /**
+     * Stream our entities without collecting them into pages.  No cursor is generated, so only use this for results
+     * that are read in full
+     * @return
+     */
+    public Observable<Entity> stream(){
+        return pipeline.execute().map( FilterResult::getValue );
+    }
 }
@@ -32,6 +32,8 @@ import org.apache.usergrid.corepersistence.pipeline.read.collect.IdResumeFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.collect.ResultsPageCollector;
 import org.apache.usergrid.corepersistence.pipeline.read.search.Candidate;
 import org.apache.usergrid.persistence.ConnectionRef;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.SearchEdge;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 import rx.Observable;
@@ -128,6 +130,22 @@ public class IdBuilder {
     }
 
 
+    /**
+     * Emit a page of candidates already read from the index, such as one page of a collection scan.  No cursor is
+     * returned, so this is only meant for walking entire collections
+     * @param searchEdge The search edge the candidates were read from
+     * @param candidateResults The page of candidates
+     * @return  Candidate results
+     */
+    public CandidateBuilder fromCandidates( final SearchEdge searchEdge, final CandidateResults candidateResults ) {
+
+        final Pipeline<FilterResult<Candidate>> newFilter =
+            pipeline.withFilter( filterFactory.candidatePageFilter( searchEdge, candidateResults ) );
+
+        return new CandidateBuilder( newFilter, filterFactory );
+    }
+
+
     /**
      * Search all connections from our input Id and search their connections
      * @param connectionName The connection name to search
@@ -145,6 +163,41 @@ public class IdBuilder {
     }
 
 
+    /**
+     * Count the entities in all collections from our input Id that match the criteria, from the index alone.  Stale
+     * versions that have not been removed from the index yet are included in the count
+     * @param collectionName  The name of the collection
+     * @param ql The user's query to execute
+     * @param entityType The type of the entity
+     * @return The number of matching entities
+     */
+    public Observable<Long> countCollection( final String collectionName, final String ql, final String entityType ) {
+
+        final Pipeline<FilterResult<Long>> newFilter = pipeline.withFilter( filterFactory.searchCollectionCountFilter(
+            ql, collectionName, entityType ) );
+
+        return sum( newFilter );
+    }
+
+
+    /**
+     * Count the entities in all connections from our input Id that match the criteria, from the index alone.  Stale
+     * versions that have not been removed from the index yet are included in the count
+     * @param connectionName The connection name to search
+     * @param ql The query to execute
+     * @param entityType The optional type of entity.  If this is absent, all entity types in the connection will be counted
+     * @return The number of matching entities
+     */
+    public Observable<Long> countConnection( final String connectionName, final String ql,
+                                             final Optional<String> entityType ) {
+
+        final Pipeline<FilterResult<Long>> newFilter = pipeline.withFilter( filterFactory.searchConnectionCountFilter(
+            ql, connectionName, entityType ) );
+
+        return sum( newFilter );
+    }
+
+
     /**
      * Create connection refs from our ids.  This is a legacy operation
      * @param sourceId
@@ -159,6 +212,20 @@ public class IdBuilder {
         return new ConnectionRefBuilder(connectionRefFilter);
     }
 
+    /**
+     * Count all the ids emitted, without collecting them into pages
+     * @return
+     */
+    public Observable<Long> count(){
+        return pipeline.execute().countLong();
+    }
+
+
+    private static Observable<Long> sum( final Pipeline<FilterResult<Long>> counts ){
+        return counts.execute().map( FilterResult::getValue ).reduce( 0L, ( sum, count ) -> sum + count );
+    }
+
+
     public Observable<ResultsPage<Id>> build(){
         //we must add our resume filter so we drop our previous page first element if it's present
         return pipeline.withFilter( new IdResumeFilter() ).withFilter(new ResultsPageCollector<>()).execute();
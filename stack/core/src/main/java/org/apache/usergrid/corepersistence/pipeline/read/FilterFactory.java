@@ -25,9 +25,14 @@ import org.apache.usergrid.corepersistence.pipeline.read.collect.ConnectionRefRe
 import org.apache.usergrid.corepersistence.pipeline.read.collect.EntityResumeFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.CandidateEntityFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.CandidateIdFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.search.CandidatePageFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.search.SearchCollectionCountFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.SearchCollectionFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.search.SearchConnectionCountFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.search.SearchConnectionFilter;
 import org.apache.usergrid.corepersistence.pipeline.read.traverse.*;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.SearchEdge;
 import org.apache.usergrid.persistence.model.entity.Id;
 
 import com.google.common.base.Optional;
@@ -112,6 +117,39 @@ public interface FilterFactory {
                                                    final Optional<String> connectedEntityType );
 
 
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param query The query to use when counting the entities in the collection
+     * @param collectionName The collection name to use when counting
+     */
+    SearchCollectionCountFilter searchCollectionCountFilter( @Assisted( "query" ) final String query,
+                                                             @Assisted( "collectionName" ) final String collectionName,
+                                                             @Assisted( "entityType" ) final String entityType );
+
+
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param searchEdge The search edge the candidates were read from
+     * @param candidateResults The page of candidates to emit
+     */
+    CandidatePageFilter candidatePageFilter( final SearchEdge searchEdge, final CandidateResults candidateResults );
+
+
+    /**
+     * Generate a new instance of the command with the specified parameters
+     *
+     * @param query The query to use when counting the entities in the connection
+     * @param connectionName The type of connection to count
+     * @param connectedEntityType The type of entity in the connection.  Leave absent to count all entity types
+     */
+    SearchConnectionCountFilter searchConnectionCountFilter( @Assisted( "query" ) final String query,
+                                                             @Assisted( "connectionName" ) final String connectionName,
+                                                             @Assisted( "connectedEntityType" )
+                                                             final Optional<String> connectedEntityType );
+
+
     /**
      * Generate a new instance of the command with the specified parameters
      */
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.pipeline.read.search;
+
+
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.pipeline.read.AbstractFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.FilterResult;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import rx.Observable;
+
+
+/**
+ * Counts the documents matching a query in the search edge of each incoming id, without loading the candidates.
+ * Emits one count per incoming id
+ */
+public abstract class AbstractElasticSearchCountFilter extends AbstractFilter<FilterResult<Id>, FilterResult<Long>> {
+
+    private final EntityIndexFactory entityIndexFactory;
+    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
+    private final String query;
+
+
+    public AbstractElasticSearchCountFilter( final EntityIndexFactory entityIndexFactory,
+                                             final IndexLocationStrategyFactory indexLocationStrategyFactory,
+                                             final String query ) {
+        this.entityIndexFactory = entityIndexFactory;
+        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
+        this.query = query;
+    }
+
+
+    @Override
+    public Observable<FilterResult<Long>> call( final Observable<FilterResult<Id>> observable ) {
+
+        final EntityIndex applicationEntityIndex = entityIndexFactory
+            .createEntityIndex( indexLocationStrategyFactory.getIndexLocationStrategy( pipelineContext.getApplicationScope() ) );
+
+        final SearchTypes searchTypes = getSearchTypes();
+
+        return observable.map( idFilterResult -> {
+
+            final SearchEdge searchEdge = getSearchEdge( idFilterResult.getValue() );
+
+            final long count = applicationEntityIndex.count( searchEdge, searchTypes, query );
+
+            return new FilterResult<>( count, idFilterResult.getPath() );
+        } );
+    }
+
+
+    /**
+     * Get the search edge from the id
+     */
+    protected abstract SearchEdge getSearchEdge( final Id id );
+
+    /**
+     * Get the search types
+     */
+    protected abstract SearchTypes getSearchTypes();
+}
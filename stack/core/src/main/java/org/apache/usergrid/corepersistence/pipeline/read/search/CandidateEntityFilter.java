@@ -22,9 +22,9 @@ package org.apache.usergrid.corepersistence.pipeline.read.search;
 
 import java.util.*;
 
-import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
+import org.apache.usergrid.corepersistence.index.StaleIndexRepairService;
 import org.apache.usergrid.persistence.index.*;
-import org.apache.usergrid.persistence.index.impl.IndexProducer;
 import org.apache.usergrid.persistence.model.field.DistanceField;
 import org.apache.usergrid.persistence.model.field.DoubleField;
 import org.apache.usergrid.persistence.model.field.EntityObjectField;
@@ -59,21 +59,17 @@ import rx.Observable;
 public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate>, FilterResult<Entity>> {
 
     private final EntityCollectionManagerFactory entityCollectionManagerFactory;
-    private final EntityIndexFactory entityIndexFactory;
-    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
-    private final IndexProducer indexProducer;
+    private final StaleIndexRepairService staleIndexRepairService;
+    private final IndexFingerprintService indexFingerprintService;
 
 
     @Inject
     public CandidateEntityFilter( final EntityCollectionManagerFactory entityCollectionManagerFactory,
-                                  final EntityIndexFactory entityIndexFactory,
-                                  final IndexLocationStrategyFactory indexLocationStrategyFactory,
-                                  final IndexProducer indexProducer
-                                  ) {
+                                  final StaleIndexRepairService staleIndexRepairService,
+                                  final IndexFingerprintService indexFingerprintService ) {
         this.entityCollectionManagerFactory = entityCollectionManagerFactory;
-        this.entityIndexFactory = entityIndexFactory;
-        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
-        this.indexProducer = indexProducer;
+        this.staleIndexRepairService = staleIndexRepairService;
+        this.indexFingerprintService = indexFingerprintService;
     }
 
 
@@ -92,10 +88,6 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
         final EntityCollectionManager entityCollectionManager =
             entityCollectionManagerFactory.createCollectionManager( applicationScope );
 
-
-        final EntityIndex applicationIndex = entityIndexFactory
-            .createEntityIndex(indexLocationStrategyFactory.getIndexLocationStrategy(applicationScope) );
-
         //buffer them to get a page size we can make 1 network hop
         final Observable<FilterResult<Entity>> searchIdSetObservable =
             candidateResultsObservable.buffer( pipelineContext.getLimit() )
@@ -117,7 +109,8 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
                         //now we have a collection, validate our canidate set is correct.
                         return entitySets.map(
                             entitySet -> new EntityVerifier(
-                                applicationIndex.createBatch(), entitySet, candidateResults,indexProducer)
+                                applicationScope, entitySet, candidateResults, staleIndexRepairService,
+                                getIndexedVersions( applicationScope, entitySet, candidatesList ) )
                         )
                             .doOnNext(entityCollector -> entityCollector.merge())
                             .flatMap(entityCollector -> Observable.from(entityCollector.getResults()))
@@ -217,6 +210,30 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
     }
 
 
+    /**
+     * Get the indexed versions of the candidates that are older than their entity.  Updates that change no indexed
+     * field are not re-indexed, so these candidates may still be current
+     */
+    private Map<Id, UUID> getIndexedVersions( final ApplicationScope applicationScope, final EntitySet entitySet,
+                                              final List<Candidate> candidates ) {
+
+        final Set<Id> olderIds = new HashSet<>();
+
+        for ( final Candidate candidate : candidates ) {
+
+            final CandidateResult candidateResult = candidate.getCandidateResult();
+            final MvccEntity entity = entitySet.getEntity( candidateResult.getId() );
+
+            if ( entity != null && entity.getEntity().isPresent() && entity.getStatus() != MvccEntity.Status.DELETED
+                && UUIDComparator.staticCompare( entity.getVersion(), candidateResult.getVersion() ) > 0 ) {
+                olderIds.add( candidateResult.getId() );
+            }
+        }
+
+        return indexFingerprintService.getIndexedVersions( applicationScope, olderIds );
+    }
+
+
     /**
      * Our collector to collect entities.  Not quite a true collector, but works within our operational
      * flow as this state is mutable and difficult to represent functionally
@@ -226,19 +243,23 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
         private static final Logger logger = LoggerFactory.getLogger( EntityVerifier.class );
         private List<FilterResult<Entity>> results = new ArrayList<>();
 
-        private final EntityIndexBatch batch;
+        private final ApplicationScope applicationScope;
         private final List<FilterResult<Candidate>> candidateResults;
-        private final IndexProducer indexProducer;
+        private final StaleIndexRepairService staleIndexRepairService;
         private final EntitySet entitySet;
+        private final Map<Id, UUID> indexedVersions;
+        private final Set<Id> acceptedIds = new HashSet<>();
 
 
-        public EntityVerifier( final EntityIndexBatch batch, final EntitySet entitySet,
+        public EntityVerifier( final ApplicationScope applicationScope, final EntitySet entitySet,
                                final List<FilterResult<Candidate>> candidateResults,
-                               final IndexProducer indexProducer) {
-            this.batch = batch;
+                               final StaleIndexRepairService staleIndexRepairService,
+                               final Map<Id, UUID> indexedVersions ) {
+            this.applicationScope = applicationScope;
             this.entitySet = entitySet;
             this.candidateResults = candidateResults;
-            this.indexProducer = indexProducer;
+            this.staleIndexRepairService = staleIndexRepairService;
+            this.indexedVersions = indexedVersions;
             this.results = new ArrayList<>( entitySet.size() );
         }
 
@@ -251,9 +272,6 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
             for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
                 validate( candidateResult );
             }
-
-            indexProducer.put(batch.build()).toBlocking().lastOrDefault(null); // want to rethrow if batch fails
-
         }
 
 
@@ -262,11 +280,6 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
         }
 
 
-        public EntityIndexBatch getBatch() {
-            return batch;
-        }
-
-
         private void validate( final FilterResult<Candidate> filterResult ) {
 
             final Candidate candidate = filterResult.getValue();
@@ -297,8 +310,18 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
             final UUID entityVersion = entity.getVersion();
             final Id entityId = entity.getId();
 
+            //the update that made the entity newer changed no indexed field, so this document is still current.
+            //an entity indexed at more than one version on this edge is only returned once
+            final UUID indexedVersion = indexedVersions.get( entityId );
+
+            if ( indexedVersion != null && UUIDComparator.staticCompare( candidateVersion, indexedVersion ) >= 0 ) {
 
+                if ( acceptedIds.add( entityId ) ) {
+                    addResult( filterResult, entity.getEntity().get(), candidateResult, isGeo );
+                }
 
+                return;
+            }
 
 
             //entity is newer than ES version, could be an update or the entity is marked as deleted
@@ -308,11 +331,12 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
 
                 // when updating entities, we don't delete previous versions from ES so this action is expected
                 if(logger.isDebugEnabled()){
-                    logger.debug( "Deindexing stale entity on edge {} for entityId {} and version {}",
-                        searchEdge, entityId, entityVersion);
+                    logger.debug( "Queueing stale entity on edge {} for entityId {} and version {} for deindexing",
+                        searchEdge, entityId, candidateVersion);
                 }
 
-                batch.deindex( searchEdge, entityId, candidateVersion );
+                //removed in the background, so the read never waits on index writes
+                staleIndexRepairService.deindexStale( applicationScope, searchEdge, entityId, candidateVersion );
                 return;
             }
 
@@ -330,8 +354,14 @@ public class CandidateEntityFilter extends AbstractFilter<FilterResult<Candidate
             }
 
             //they're the same add it
+            acceptedIds.add( entityId );
+            addResult( filterResult, entity.getEntity().get(), candidateResult, isGeo );
+        }
+
+
+        private void addResult( final FilterResult<Candidate> filterResult, final Entity returnEntity,
+                                final CandidateResult candidateResult, final boolean isGeo ) {
 
-            final Entity returnEntity = entity.getEntity().get();
             if(isGeo){
                 returnEntity.setField(new DistanceField(((GeoCandidateResult)candidateResult).getDistance()));
             }
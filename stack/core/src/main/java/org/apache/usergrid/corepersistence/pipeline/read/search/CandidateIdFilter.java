@@ -21,12 +21,15 @@ package org.apache.usergrid.corepersistence.pipeline.read.search;
 
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
-import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
+import org.apache.usergrid.corepersistence.index.StaleIndexRepairService;
 import org.apache.usergrid.persistence.index.*;
-import org.apache.usergrid.persistence.index.impl.IndexProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,20 +55,17 @@ import rx.Observable;
 public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, FilterResult<Id>> {
 
     private final EntityCollectionManagerFactory entityCollectionManagerFactory;
-    private final EntityIndexFactory entityIndexFactory;
-    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
-    private final IndexProducer indexProducer;
+    private final StaleIndexRepairService staleIndexRepairService;
+    private final IndexFingerprintService indexFingerprintService;
 
 
     @Inject
     public CandidateIdFilter( final EntityCollectionManagerFactory entityCollectionManagerFactory,
-                              final EntityIndexFactory entityIndexFactory,
-                              final IndexLocationStrategyFactory indexLocationStrategyFactory,
-                              final IndexProducer indexProducer) {
+                              final StaleIndexRepairService staleIndexRepairService,
+                              final IndexFingerprintService indexFingerprintService ) {
         this.entityCollectionManagerFactory = entityCollectionManagerFactory;
-        this.entityIndexFactory = entityIndexFactory;
-        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
-        this.indexProducer = indexProducer;
+        this.staleIndexRepairService = staleIndexRepairService;
+        this.indexFingerprintService = indexFingerprintService;
     }
 
 
@@ -83,10 +83,6 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
         final EntityCollectionManager entityCollectionManager =
             entityCollectionManagerFactory.createCollectionManager( applicationScope );
 
-
-        final EntityIndex applicationIndex =
-            entityIndexFactory.createEntityIndex(indexLocationStrategyFactory.getIndexLocationStrategy(applicationScope));
-
         final Observable<FilterResult<Id>> searchIdSetObservable =
             filterResultObservable.buffer( pipelineContext.getLimit() ).flatMap( candidateResults -> {
                     //flatten toa list of ids to load
@@ -100,8 +96,9 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
                     //now we have a collection, validate our canidate set is correct.
 
                     return versionSetObservable.map(
-                        entitySet -> new EntityCollector( applicationIndex.createBatch(), entitySet,
-                            candidateResults, indexProducer ) ).doOnNext( entityCollector -> entityCollector.merge() ).flatMap(
+                        entitySet -> new EntityCollector( applicationScope, entitySet,
+                            candidateResults, staleIndexRepairService,
+                            getIndexedVersions( applicationScope, entitySet, candidateResults ) ) ).doOnNext( entityCollector -> entityCollector.merge() ).flatMap(
                         entityCollector -> Observable.from( entityCollector.collectResults() ) );
                 } );
 
@@ -109,6 +106,30 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
     }
 
 
+    /**
+     * Get the indexed versions of the candidates that are older than their entity.  Updates that change no indexed
+     * field are not re-indexed, so these candidates may still be current
+     */
+    private Map<Id, UUID> getIndexedVersions( final ApplicationScope applicationScope, final VersionSet versionSet,
+                                              final List<FilterResult<Candidate>> candidateResults ) {
+
+        final Set<Id> olderIds = new HashSet<>();
+
+        for ( final FilterResult<Candidate> filterCandidate : candidateResults ) {
+
+            final CandidateResult candidateResult = filterCandidate.getValue().getCandidateResult();
+            final MvccLogEntry logEntry = versionSet.getMaxVersion( candidateResult.getId() );
+
+            if ( logEntry != null
+                && UUIDComparator.staticCompare( logEntry.getVersion(), candidateResult.getVersion() ) > 0 ) {
+                olderIds.add( candidateResult.getId() );
+            }
+        }
+
+        return indexFingerprintService.getIndexedVersions( applicationScope, olderIds );
+    }
+
+
     /**
      * Map a new cp entity to an old entity.  May be null if not present
      */
@@ -117,18 +138,23 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
         private static final Logger logger = LoggerFactory.getLogger( EntityCollector.class );
         private List<FilterResult<Id>> results = new ArrayList<>();
 
-        private final EntityIndexBatch batch;
+        private final ApplicationScope applicationScope;
         private final List<FilterResult<Candidate>> candidateResults;
-        private final IndexProducer indexProducer;
+        private final StaleIndexRepairService staleIndexRepairService;
         private final VersionSet versionSet;
+        private final Map<Id, UUID> indexedVersions;
+        private final Set<Id> acceptedIds = new HashSet<>();
 
 
-        public EntityCollector( final EntityIndexBatch batch, final VersionSet versionSet,
-                                final List<FilterResult<Candidate>> candidateResults, final IndexProducer indexProducer ) {
-            this.batch = batch;
+        public EntityCollector( final ApplicationScope applicationScope, final VersionSet versionSet,
+                                final List<FilterResult<Candidate>> candidateResults,
+                                final StaleIndexRepairService staleIndexRepairService,
+                                final Map<Id, UUID> indexedVersions ) {
+            this.applicationScope = applicationScope;
             this.versionSet = versionSet;
             this.candidateResults = candidateResults;
-            this.indexProducer = indexProducer;
+            this.staleIndexRepairService = staleIndexRepairService;
+            this.indexedVersions = indexedVersions;
             this.results = new ArrayList<>( versionSet.size() );
         }
 
@@ -141,9 +167,6 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
             for ( final FilterResult<Candidate> candidateResult : candidateResults ) {
                 validate( candidateResult );
             }
-
-            indexProducer.put( batch.build()).toBlocking().lastOrDefault(null);//want to rethrow if batch fails
-
         }
 
 
@@ -169,12 +192,27 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
 
             final Id entityId = logEntry.getEntityId();
 
+            //the update that made the entity newer changed no indexed field, so this document is still current.
+            //an entity indexed at more than one version on this edge is only returned once
+            final UUID indexedVersion = indexedVersions.get( entityId );
+
+            if ( indexedVersion != null && UUIDComparator.staticCompare( candidateVersion, indexedVersion ) >= 0 ) {
+
+                if ( acceptedIds.add( entityId ) ) {
+                    results.add( new FilterResult<>( entityId, filterCandidate.getPath() ) );
+                }
+
+                return;
+            }
+
             //entity is newer than ES version
             if ( UUIDComparator.staticCompare( entityVersion, candidateVersion ) > 0 ) {
 
-                logger.warn( "Deindexing stale entity on edge {} for entityId {} and version {}",
-                        searchEdge, entityId, entityVersion );
-                batch.deindex( searchEdge, entityId, entityVersion );
+                logger.warn( "Queueing stale entity on edge {} for entityId {} and version {} for deindexing",
+                        searchEdge, entityId, candidateVersion );
+
+                //removed in the background, so the read never waits on index writes
+                staleIndexRepairService.deindexStale( applicationScope, searchEdge, entityId, candidateVersion );
                 return;
             }
 
@@ -188,10 +226,8 @@ public class CandidateIdFilter extends AbstractFilter<FilterResult<Candidate>, F
             }
 
             //they're the same add it
-
-            final FilterResult<Id> result = new FilterResult<>( entityId, filterCandidate.getPath() );
-
-            results.add( result );
+            acceptedIds.add( entityId );
+            results.add( new FilterResult<>( entityId, filterCandidate.getPath() ) );
         }
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.pipeline.read.search;
+
+
+import org.apache.usergrid.corepersistence.pipeline.read.AbstractFilter;
+import org.apache.usergrid.corepersistence.pipeline.read.FilterResult;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.google.inject.Inject;
+import com.google.inject.assistedinject.Assisted;
+
+import rx.Observable;
+
+
+/**
+ * Emits a page of candidates that has already been read from the index, such as one page of a collection scan, so
+ * the page can be loaded and verified like the results of a search.  No cursor is generated
+ */
+public class CandidatePageFilter extends AbstractFilter<FilterResult<Id>, FilterResult<Candidate>> {
+
+    private final SearchEdge searchEdge;
+    private final CandidateResults candidateResults;
+
+
+    /**
+     * Create a new instance of our command
+     *
+     * @param searchEdge The search edge the candidates were read from
+     * @param candidateResults The page of candidates
+     */
+    @Inject
+    public CandidatePageFilter( @Assisted final SearchEdge searchEdge,
+                                @Assisted final CandidateResults candidateResults ) {
+        this.searchEdge = searchEdge;
+        this.candidateResults = candidateResults;
+    }
+
+
+    @Override
+    public Observable<FilterResult<Candidate>> call( final Observable<FilterResult<Id>> observable ) {
+
+        return observable.concatMap( idFilterResult -> Observable.from( candidateResults ).map(
+            candidateResult -> new FilterResult<>(
+                new Candidate( candidateResult, searchEdge, candidateResults.getGetFieldMappings() ),
+                idFilterResult.getPath() ) ) );
+    }
+}
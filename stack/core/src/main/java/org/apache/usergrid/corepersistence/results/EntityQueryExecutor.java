@@ -66,11 +66,11 @@ public abstract class EntityQueryExecutor extends ObservableQueryExecutor<Entity
 
 
     /**
-     *
+     * Map a 2.0 entity to its 1.0 representation
      * @param cpEntity
      * @return
      */
-    private org.apache.usergrid.persistence.Entity mapEntity( final Entity cpEntity ) {
+    public static org.apache.usergrid.persistence.Entity mapEntity( final Entity cpEntity ) {
 
 
         final Id entityId = cpEntity.getId();
@@ -19,6 +19,7 @@ package org.apache.usergrid.corepersistence.service;
 
 
 import org.apache.usergrid.corepersistence.pipeline.read.ResultsPage;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.model.entity.Entity;
 
 import org.apache.usergrid.persistence.model.entity.Id;
@@ -40,4 +41,38 @@ public interface CollectionService {
 
 
     Observable<ResultsPage<Id>> searchCollectionIds(final CollectionSearch search);
+
+
+    /**
+     * Count the entities in a collection that match the search, without loading them
+     * @param search The search to count.  The cursor and limit are ignored
+     * @param exact False to count the matching documents in the index alone, unless this node wrote to the collection
+     * too recently for the index to have applied it.  True to verify the versions of the matching entities before
+     * counting them, which reads every match but excludes stale index entries.  Exact counts without a query are
+     * counted from the graph, so they include writes the index has not applied yet
+     * @return An observable with the number of matching entities
+     */
+    Observable<Long> countCollection( final CollectionSearch search, final boolean exact );
+
+
+    /**
+     * Record that this node added to or removed from a collection, so non-exact counts of it are counted exactly until
+     * the index has had time to apply the change
+     * @param applicationScope The application of the collection
+     * @param collectionOwnerId The owner of the collection
+     * @param collectionName The name of the collection
+     */
+    void collectionWritten( final ApplicationScope applicationScope, final Id collectionOwnerId,
+                            final String collectionName );
+
+
+    /**
+     * Iterate every entity in a collection that matches the search with an index scroll.  Each scroll page is read
+     * and loaded only once the entities of the previous page have been consumed, so at most one page is held at a
+     * time.  Entities are returned in no particular order, and each call to iterator() opens a new scroll
+     * @param search The search to scan.  The limit is the size of each page, the cursor and any sort in the query are
+     * ignored
+     * @return An iterable of all matching entities
+     */
+    Iterable<Entity> scanCollection( final CollectionSearch search );
 }
@@ -18,20 +18,35 @@
 package org.apache.usergrid.corepersistence.service;
 
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
 import org.apache.usergrid.corepersistence.pipeline.builder.EntityBuilder;
 import org.apache.usergrid.corepersistence.pipeline.builder.IdBuilder;
 import org.apache.usergrid.corepersistence.pipeline.builder.PipelineBuilderFactory;
 import org.apache.usergrid.corepersistence.pipeline.read.ResultsPage;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
 import org.apache.usergrid.persistence.model.entity.Entity;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterators;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import org.apache.usergrid.persistence.model.entity.Id;
 import rx.Observable;
 
+import static org.apache.usergrid.corepersistence.util.CpNamingUtils.createCollectionSearchEdge;
+
 
 /**
  * Implementation of the collection service
@@ -39,13 +54,39 @@ import rx.Observable;
 @Singleton
 public class CollectionServiceImpl implements CollectionService {
 
+    private static final String SELECT_ALL = "select *";
+
+    /**
+     * The most collections whose recent writes we remember, beyond it the least recent are counted from the index
+     */
+    private static final int MAX_WRITTEN_COLLECTIONS = 10000;
+
 
     private final PipelineBuilderFactory pipelineBuilderFactory;
+    private final EntityIndexFactory entityIndexFactory;
+    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
+
+    /**
+     * Collections this node added to or removed from within the count exact after write window
+     */
+    private final Cache<String, Boolean> recentlyWritten;
 
 
     @Inject
-    public CollectionServiceImpl( final PipelineBuilderFactory pipelineBuilderFactory ) {
+    public CollectionServiceImpl( final PipelineBuilderFactory pipelineBuilderFactory,
+                                  final EntityIndexFactory entityIndexFactory,
+                                  final IndexLocationStrategyFactory indexLocationStrategyFactory,
+                                  final EntityManagerFig entityManagerFig ) {
         this.pipelineBuilderFactory = pipelineBuilderFactory;
+        this.entityIndexFactory = entityIndexFactory;
+        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
+
+        final long countExactAfterWrite = entityManagerFig.getCountExactAfterWriteMs();
+
+        this.recentlyWritten = CacheBuilder.newBuilder()
+                                           .maximumSize( countExactAfterWrite > 0 ? MAX_WRITTEN_COLLECTIONS : 0 )
+                                           .expireAfterWrite( Math.max( countExactAfterWrite, 1 ),
+                                               TimeUnit.MILLISECONDS ).build();
     }
 
 
@@ -75,6 +116,84 @@ public class CollectionServiceImpl implements CollectionService {
         return results.build();
     }
 
+    @Override
+    public Observable<Long> countCollection( final CollectionSearch search, final boolean exact ) {
+
+        final String collectionName = search.getCollectionName();
+        final Optional<String> query = search.getQuery();
+
+        //exact counts page through every match, so use the largest pages we can
+        final IdBuilder pipelineBuilder =
+            pipelineBuilderFactory.create( search.getApplicationScope() ).withLimit( EntityIndex.MAX_LIMIT )
+                                  .fromId( search.getCollectionOwnerId() );
+
+        //the index may not have applied our recent adds and removes yet
+        if ( !exact && recentlyWritten.getIfPresent(
+            getWrittenKey( search.getApplicationScope(), search.getCollectionOwnerId(), collectionName ) ) == null ) {
+            return pipelineBuilder.countCollection( collectionName, query.or( SELECT_ALL ), search.getEntityType() );
+        }
+
+        if ( !query.isPresent() ) {
+            return pipelineBuilder.traverseCollection( collectionName ).count();
+        }
+
+        return pipelineBuilder.searchCollection( collectionName, query.get(), search.getEntityType() ).loadIds()
+                              .count();
+    }
+
+
+    @Override
+    public void collectionWritten( final ApplicationScope applicationScope, final Id collectionOwnerId,
+                                   final String collectionName ) {
+        recentlyWritten.put( getWrittenKey( applicationScope, collectionOwnerId, collectionName ), Boolean.TRUE );
+    }
+
+
+    private static String getWrittenKey( final ApplicationScope applicationScope, final Id collectionOwnerId,
+                                         final String collectionName ) {
+        return applicationScope.getApplication().getUuid() + "/" + collectionOwnerId.getUuid() + "/"
+            + collectionName.toLowerCase();
+    }
+
+
+    @Override
+    public Iterable<Entity> scanCollection( final CollectionSearch search ) {
+
+        final ApplicationScope applicationScope = search.getApplicationScope();
+
+        final SearchEdge searchEdge =
+            createCollectionSearchEdge( search.getCollectionOwnerId(), search.getCollectionName() );
+
+        final SearchTypes searchTypes = SearchTypes.fromTypes( search.getEntityType() );
+
+        final String query = search.getQuery().or( SELECT_ALL );
+
+        return () -> {
+
+            final EntityIndex entityIndex = entityIndexFactory
+                .createEntityIndex( indexLocationStrategyFactory.getIndexLocationStrategy( applicationScope ) );
+
+            final Iterator<CandidateResults> pages =
+                entityIndex.scan( searchEdge, searchTypes, query, search.getLimit() );
+
+            //concat only moves to the next page once every entity of the current one has been returned
+            return Iterators.concat( Iterators.transform( pages, page -> loadPage( search, searchEdge, page ) ) );
+        };
+    }
+
+
+    /**
+     * Load and verify the entities of a single scan page
+     */
+    private Iterator<Entity> loadPage( final CollectionSearch search, final SearchEdge searchEdge,
+                                       final CandidateResults page ) {
+
+        return pipelineBuilderFactory.create( search.getApplicationScope() ).withLimit( search.getLimit() )
+                                     .fromId( search.getCollectionOwnerId() ).fromCandidates( searchEdge, page )
+                                     .loadEntities().stream().toList().toBlocking().last().iterator();
+    }
+
+
     @Override
     public Observable<ResultsPage<Id>> searchCollectionIds(final CollectionSearch search ) {
 
@@ -49,6 +49,16 @@ public interface ConnectionService {
     Observable<ResultsPage<ConnectionRef>> searchConnectionAsRefs( final ConnectionSearch search );
 
 
+    /**
+     * Count the entities in a connection that match the search, without loading them
+     * @param search The search to count.  The cursor and limit are ignored
+     * @param exact False to count the matching documents in the index alone.  True to verify the versions of the
+     * matching entities before counting them, which reads every match but excludes stale index entries
+     * @return An observable with the number of matching entities
+     */
+    Observable<Long> countConnection( final ConnectionSearch search, final boolean exact );
+
+
     /**
      * An observable that will remove duplicate edges from the graph that represent connections.  All emitted scopes are scopes that have been deleted.
      *
@@ -37,6 +37,7 @@ import org.apache.usergrid.persistence.graph.SearchByEdgeType;
 import org.apache.usergrid.persistence.graph.impl.SimpleSearchByEdge;
 import org.apache.usergrid.persistence.graph.impl.SimpleSearchByEdgeType;
 import org.apache.usergrid.persistence.graph.impl.SimpleSearchEdgeType;
+import org.apache.usergrid.persistence.index.EntityIndex;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 
@@ -53,6 +54,8 @@ public class ConnectionServiceImpl implements ConnectionService {
 
     private static final Logger logger = LoggerFactory.getLogger( ConnectionServiceImpl.class );
 
+    private static final String SELECT_ALL = "select *";
+
     private final PipelineBuilderFactory pipelineBuilderFactory;
     private final AllEntityIdsObservable allEntityIdsObservable;
     private final GraphManagerFactory graphManagerFactory;
@@ -147,6 +150,35 @@ public class ConnectionServiceImpl implements ConnectionService {
     }
 
 
+    @Override
+    public Observable<Long> countConnection( final ConnectionSearch search, final boolean exact ) {
+
+        final Optional<String> query = search.getQuery();
+        final String connectionName = search.getConnectionName();
+
+        //exact counts page through every match, so use the largest pages we can
+        final IdBuilder pipelineBuilder =
+            pipelineBuilderFactory.create( search.getApplicationScope() ).withLimit( EntityIndex.MAX_LIMIT )
+                                  .fromId( search.getSourceNodeId() );
+
+        //connecting entities are not indexed by their target, so they can only be counted from the graph
+        if ( search.getIsConnecting() ) {
+            return pipelineBuilder.traverseReverseConnection( connectionName, search.getEntityType() ).count();
+        }
+
+        if ( !exact ) {
+            return pipelineBuilder.countConnection( connectionName, query.or( SELECT_ALL ), search.getEntityType() );
+        }
+
+        if ( !query.isPresent() ) {
+            return pipelineBuilder.traverseConnection( connectionName, search.getEntityType() ).count();
+        }
+
+        return pipelineBuilder.searchConnection( connectionName, query.get(), search.getEntityType() ).loadIds()
+                              .count();
+    }
+
+
     @Override
     public Observable<ConnectionScope> deDupeConnections(
         final Observable<ApplicationScope> applicationScopeObservable ) {
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.service;
+
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * Removes the superseded versions of entities, and their index documents, off the write path.  Writers only report
+ * which entities they updated
+ */
+public interface VersionGcService {
+
+    /**
+     * Queue the entity to have its superseded versions removed.  Reports of the same entity are collapsed until it
+     * has been checked
+     *
+     * @param applicationScope The application scope of the entity
+     * @param entityId The id of the updated entity
+     */
+    void queueEntity( ApplicationScope applicationScope, Id entityId );
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.util.BackgroundQueue;
+import org.apache.usergrid.persistence.collection.EntityCollectionManager;
+import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.utils.UUIDUtils;
+
+import com.codahale.metrics.Meter;
+import com.fasterxml.uuid.UUIDComparator;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Queues updated entities in a {@link BackgroundQueue}, keyed by application and entity id so repeated updates
+ * collapse into one check.  Per application, the index documents of
+ * all superseded versions in the batch are removed with one delete by query, then their entity and log rows with
+ * mutations grouped by row.  Versions kept by the {@link SerializationFig} retention settings, and versions whose
+ * documents are still current in the index, are never removed.  At most {@link EntityManagerFig#getVersionGcMaxVersions()}
+ * versions of an entity are removed per check, entities with more are queued again.  An application batch that fails
+ * is retried, entities dropped while the queue is full are queued again by their next update
+ */
+@Singleton
+public class VersionGcServiceImpl implements VersionGcService {
+
+    private static final Logger logger = LoggerFactory.getLogger( VersionGcServiceImpl.class );
+
+    private final EntityCollectionManagerFactory entityCollectionManagerFactory;
+    private final EntityIndexFactory entityIndexFactory;
+    private final IndexLocationStrategyFactory indexLocationStrategyFactory;
+    private final IndexFingerprintService indexFingerprintService;
+    private final EntityManagerFig entityManagerFig;
+    private final SerializationFig serializationFig;
+
+    private final Meter checkedMeter;
+    private final Meter removedMeter;
+
+    private final BackgroundQueue<PendingEntity> queue;
+
+
+    @Inject
+    public VersionGcServiceImpl( final EntityCollectionManagerFactory entityCollectionManagerFactory,
+                                 final EntityIndexFactory entityIndexFactory,
+                                 final IndexLocationStrategyFactory indexLocationStrategyFactory,
+                                 final IndexFingerprintService indexFingerprintService,
+                                 final EntityManagerFig entityManagerFig, final SerializationFig serializationFig,
+                                 final MetricsFactory metricsFactory ) {
+        this.entityCollectionManagerFactory = entityCollectionManagerFactory;
+        this.entityIndexFactory = entityIndexFactory;
+        this.indexLocationStrategyFactory = indexLocationStrategyFactory;
+        this.indexFingerprintService = indexFingerprintService;
+        this.entityManagerFig = entityManagerFig;
+        this.serializationFig = serializationFig;
+
+        this.checkedMeter = metricsFactory.getMeter( VersionGcServiceImpl.class, "version.gc.checked" );
+        this.removedMeter = metricsFactory.getMeter( VersionGcServiceImpl.class, "version.gc.removed" );
+
+        this.queue = new BackgroundQueue<>( "VersionGc", VersionGcServiceImpl.class, "version.gc", metricsFactory,
+            entityManagerFig.getVersionGcInterval(), entityManagerFig::getVersionGcMaxPending,
+            entityManagerFig::getVersionGcBatchSize, this::collect );
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        queue.shutdown();
+    }
+
+
+    @Override
+    public void queueEntity( final ApplicationScope applicationScope, final Id entityId ) {
+
+        if ( !entityManagerFig.getVersionGcEnabled() ) {
+            return;
+        }
+
+        final String key = applicationScope.getApplication().getUuid() + ":" + entityId.getType() + ":"
+            + entityId.getUuid();
+
+        queue.offer( key, new PendingEntity( applicationScope, entityId ) );
+    }
+
+
+    /**
+     * Remove the superseded versions of a batch of entities, one application at a time
+     *
+     * @return The entities of the applications that failed
+     */
+    private List<PendingEntity> collect( final List<PendingEntity> entities ) {
+
+        final Map<ApplicationScope, List<PendingEntity>> toCheck = new HashMap<>();
+
+        for ( final PendingEntity pendingEntity : entities ) {
+            toCheck.computeIfAbsent( pendingEntity.applicationScope, applicationScope -> new ArrayList<>() )
+                   .add( pendingEntity );
+        }
+
+        final List<PendingEntity> failed = new ArrayList<>();
+
+        for ( final Map.Entry<ApplicationScope, List<PendingEntity>> entry : toCheck.entrySet() ) {
+            try {
+                collect( entry.getKey(), entry.getValue() );
+            }
+            catch ( Throwable t ) {
+                logger.error( "Unable to remove superseded versions of {} entities in {}", entry.getValue().size(),
+                    entry.getKey(), t );
+                failed.addAll( entry.getValue() );
+            }
+        }
+
+        return failed;
+    }
+
+
+    /**
+     * Remove the superseded versions of the entities of one application
+     */
+    private void collect( final ApplicationScope applicationScope, final List<PendingEntity> entities ) {
+
+        final EntityCollectionManager ecm = entityCollectionManagerFactory.createCollectionManager( applicationScope );
+
+        final List<Id> entityIds = new ArrayList<>( entities.size() );
+        for ( final PendingEntity entity : entities ) {
+            entityIds.add( entity.entityId );
+        }
+
+        final Map<Id, UUID> indexedVersions = indexFingerprintService.getIndexedVersions( applicationScope, entityIds );
+
+        final List<MvccLogEntry> toRemove = new ArrayList<>();
+        final Map<Id, List<UUID>> toDeindex = new HashMap<>();
+        final List<Id> remaining = new ArrayList<>();
+
+        final int maxVersions = entityManagerFig.getVersionGcMaxVersions();
+
+        for ( final Id entityId : entityIds ) {
+
+            List<MvccLogEntry> superseded = getSuperseded( ecm, entityId, indexedVersions.get( entityId ) );
+
+            if ( superseded.isEmpty() ) {
+                continue;
+            }
+
+            //the oldest first, the rest on the next check
+            if ( superseded.size() > maxVersions ) {
+                superseded = superseded.subList( superseded.size() - maxVersions, superseded.size() );
+                remaining.add( entityId );
+            }
+
+            final List<UUID> versions = new ArrayList<>( superseded.size() );
+            for ( final MvccLogEntry entry : superseded ) {
+                versions.add( entry.getVersion() );
+            }
+
+            toRemove.addAll( superseded );
+            toDeindex.put( entityId, versions );
+        }
+
+        checkedMeter.mark( entityIds.size() );
+
+        if ( toRemove.isEmpty() ) {
+            return;
+        }
+
+        //deindex first, if the rows were removed first a failure would leave documents no version resolves to
+        final EntityIndex entityIndex = entityIndexFactory
+            .createEntityIndex( indexLocationStrategyFactory.getIndexLocationStrategy( applicationScope ) );
+
+        entityIndex.deleteEntityVersions( toDeindex ).toBlocking().lastOrDefault( null );
+
+        ecm.delete( toRemove ).toBlocking().lastOrDefault( null );
+
+        removedMeter.mark( toRemove.size() );
+
+        for ( final Id entityId : remaining ) {
+            queueEntity( applicationScope, entityId );
+        }
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Removed {} superseded versions of {} entities in {}, {} entities still pending",
+                toRemove.size(), toDeindex.size(), applicationScope, queue.size() );
+        }
+    }
+
+
+    /**
+     * Get the versions of the entity that no retention setting keeps, oldest last.  Deleted entities are left to
+     * the entity delete, which removes all of their versions
+     */
+    private List<MvccLogEntry> getSuperseded( final EntityCollectionManager ecm, final Id entityId,
+                                              final UUID indexedVersion ) {
+
+        final List<MvccLogEntry> versions =
+            ecm.getVersionsFromMaxToMin( entityId, UUIDUtils.newTimeUUID() ).toList().toBlocking().last();
+
+        if ( versions.isEmpty() || versions.get( 0 ).getState() == MvccLogEntry.State.DELETED ) {
+            return Collections.emptyList();
+        }
+
+        final long retainAfter = System.currentTimeMillis() - serializationFig.getVersionRetainMs();
+
+        final List<MvccLogEntry> superseded = new ArrayList<>();
+
+        for ( int i = Math.max( 1, serializationFig.getVersionRetainCount() ); i < versions.size(); i++ ) {
+
+            final MvccLogEntry entry = versions.get( i );
+
+            //still recent enough that a read or index update may need it
+            if ( UUIDUtils.getTimestampInMillis( entry.getVersion() ) >= retainAfter ) {
+                continue;
+            }
+
+            //the current index documents of the entity may have been written from this version
+            if ( indexedVersion != null && UUIDComparator.staticCompare( entry.getVersion(), indexedVersion ) >= 0 ) {
+                continue;
+            }
+
+            superseded.add( entry );
+        }
+
+        return superseded;
+    }
+
+
+    /**
+     * An updated entity waiting to be checked
+     */
+    private static final class PendingEntity {
+
+        private final ApplicationScope applicationScope;
+        private final Id entityId;
+
+
+        private PendingEntity( final ApplicationScope applicationScope, final Id entityId ) {
+            this.applicationScope = applicationScope;
+            this.entityId = entityId;
+        }
+    }
+}
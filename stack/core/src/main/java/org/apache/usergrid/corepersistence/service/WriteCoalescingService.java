@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.service;
+
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.google.common.base.Optional;
+
+
+/**
+ * Merges rapid successive updates of the same entity in memory and commits them as a single version.  Only this node
+ * sees a merged update before it commits, and an update that fails to commit is only reported by the next flush or
+ * read of the entity on this node, so it is only used for collections that opt in
+ */
+public interface WriteCoalescingService {
+
+    /**
+     * Merge the entity into the pending update of the same entity, each field of the newer entity replacing the
+     * field of the same name.  If there is no pending update one is started, and committed once the window elapses
+     *
+     * @param applicationScope The application scope of the entity
+     * @param entity The updated entity
+     * @param windowMs How long in milliseconds to wait for more updates before committing
+     * @param committer Writes the merged entity
+     *
+     * @return False if too many updates are pending, or the entity has unique fields whose conflicts must be reported
+     * to the caller, in which case the caller must write the entity itself
+     */
+    boolean coalesce( ApplicationScope applicationScope, Entity entity, long windowMs, Committer committer );
+
+    /**
+     * Get a copy of the pending update of the entity, so the writes of this node can be read before they commit
+     *
+     * @throws CommitFailedException If the last coalesced update of the entity failed to commit since it was last
+     * flushed or read
+     */
+    Optional<Entity> getPending( ApplicationScope applicationScope, Id entityId );
+
+    /**
+     * Commit the pending update of the entity now, if there is one.  Writes that bypass coalescing must flush first
+     * so the pending update cannot commit over them later
+     *
+     * @throws Exception The exception of the last coalesced update of the entity that failed to commit since it was
+     * last flushed or read
+     */
+    void flush( ApplicationScope applicationScope, Id entityId ) throws Exception;
+
+
+    /**
+     * Writes a merged entity
+     */
+    interface Committer {
+
+        void commit( Entity entity ) throws Exception;
+    }
+
+
+    /**
+     * A coalesced update failed to commit
+     */
+    class CommitFailedException extends RuntimeException {
+
+        public CommitFailedException( final Id entityId, final Throwable cause ) {
+            super( "Coalesced update of entity " + entityId + " failed to commit", cause );
+        }
+    }
+}
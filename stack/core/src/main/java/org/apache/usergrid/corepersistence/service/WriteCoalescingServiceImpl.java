@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.field.Field;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Keeps the pending update of each entity in a map keyed by application and entity id.  Merges, reads and the start
+ * and end of a commit are atomic per entity through the map, and commits of the same entity are serialized by its
+ * pending update, so a merge that arrives while the entity is committing is kept and committed after it.  The pending
+ * update stays readable until its commit is done.  The number of pending entities is bounded, updates of new entities
+ * beyond it, and updates with unique fields, are written by the caller.  A failed commit is kept, within the same
+ * bound, until the next flush or read of the entity reports it
+ */
+@Singleton
+public class WriteCoalescingServiceImpl implements WriteCoalescingService {
+
+    private static final Logger logger = LoggerFactory.getLogger( WriteCoalescingServiceImpl.class );
+
+    private final EntityManagerFig entityManagerFig;
+
+    private final ConcurrentHashMap<PendingKey, Pending> pending = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<PendingKey, Throwable> failures = new ConcurrentHashMap<>();
+
+    private final Meter coalescedMeter;
+    private final Meter committedMeter;
+    private final Meter failedMeter;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean shutdown = false;
+
+
+    @Inject
+    public WriteCoalescingServiceImpl( final EntityManagerFig entityManagerFig, final MetricsFactory metricsFactory ) {
+        this.entityManagerFig = entityManagerFig;
+
+        this.coalescedMeter = metricsFactory.getMeter( WriteCoalescingServiceImpl.class, "write.coalesce.merged" );
+        this.committedMeter = metricsFactory.getMeter( WriteCoalescingServiceImpl.class, "write.coalesce.committed" );
+        this.failedMeter = metricsFactory.getMeter( WriteCoalescingServiceImpl.class, "write.coalesce.failed" );
+        metricsFactory.addGauge( WriteCoalescingServiceImpl.class, "write.coalesce.pending",
+            ( Gauge<Integer> ) pending::size );
+
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        this.scheduler = Executors.newScheduledThreadPool( entityManagerFig.getWriteCoalesceThreads(), runnable -> {
+            final Thread thread = new Thread( runnable, "WriteCoalescing-" + threadCount.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+
+    /**
+     * Stop coalescing and commit every pending update, so the updates of the last window are not lost
+     */
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+
+        scheduler.shutdownNow();
+
+        flushAll();
+    }
+
+
+    @Override
+    public boolean coalesce( final ApplicationScope applicationScope, final Entity entity, final long windowMs,
+                             final Committer committer ) {
+
+        //a conflict of a unique field must fail the caller's write, not a commit nobody waits for
+        if ( shutdown || hasUniqueField( entity ) ) {
+            return false;
+        }
+
+        final PendingKey key = new PendingKey( applicationScope, entity.getId() );
+
+        final boolean[] schedule = new boolean[1];
+
+        final Pending merged = pending.compute( key, ( pendingKey, existing ) -> {
+
+            if ( existing == null ) {
+                if ( pending.size() >= entityManagerFig.getWriteCoalesceMaxPending() ) {
+                    return null;
+                }
+
+                schedule[0] = true;
+                return new Pending( applicationScope, entity, committer );
+            }
+
+            existing.entity.getFieldMap().putAll( entity.getFieldMap() );
+
+            //the last commit took everything merged before it, so this merge needs a commit of its own
+            if ( !existing.scheduled ) {
+                existing.scheduled = true;
+                schedule[0] = true;
+            }
+
+            return existing;
+        } );
+
+        if ( merged == null ) {
+            return false;
+        }
+
+        coalescedMeter.mark();
+
+        if ( schedule[0] ) {
+            try {
+                scheduler.schedule( () -> commit( key ), windowMs, TimeUnit.MILLISECONDS );
+            }
+            catch ( RejectedExecutionException e ) {
+                //shut down since the merge, commit it now
+                commit( key );
+            }
+        }
+
+        return true;
+    }
+
+
+    @Override
+    public Optional<Entity> getPending( final ApplicationScope applicationScope, final Id entityId ) {
+        final PendingKey key = new PendingKey( applicationScope, entityId );
+
+        final Throwable failure = failures.remove( key );
+
+        if ( failure != null ) {
+            throw new CommitFailedException( entityId, failure );
+        }
+
+        final Entity[] copy = new Entity[1];
+
+        pending.computeIfPresent( key, ( pendingKey, existing ) -> {
+            copy[0] = existing.copy();
+            return existing;
+        } );
+
+        return Optional.fromNullable( copy[0] );
+    }
+
+
+    @Override
+    public void flush( final ApplicationScope applicationScope, final Id entityId ) throws Exception {
+        final PendingKey key = new PendingKey( applicationScope, entityId );
+
+        commit( key );
+
+        final Throwable failure = failures.remove( key );
+
+        if ( failure instanceof Exception ) {
+            throw ( Exception ) failure;
+        }
+        if ( failure != null ) {
+            throw new CommitFailedException( entityId, failure );
+        }
+    }
+
+
+    /**
+     * Commit every pending update
+     */
+    private void flushAll() {
+        for ( final PendingKey key : pending.keySet() ) {
+            commit( key );
+        }
+    }
+
+
+    private static boolean hasUniqueField( final Entity entity ) {
+        for ( final Field field : entity.getFields() ) {
+            if ( field.isUnique() ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Commit what has been merged into the pending update of the entity, then drop it unless more was merged during
+     * the commit.  Never throws, a failed commit is logged and kept for the next flush or read of the entity
+     */
+    private void commit( final PendingKey key ) {
+
+        final Pending toCommit = pending.get( key );
+
+        if ( toCommit == null ) {
+            return;
+        }
+
+        synchronized ( toCommit ) {
+
+            final Entity[] snapshot = new Entity[1];
+
+            pending.computeIfPresent( key, ( pendingKey, existing ) -> {
+                if ( existing == toCommit && existing.scheduled ) {
+                    snapshot[0] = existing.copy();
+                    existing.scheduled = false;
+                }
+                return existing;
+            } );
+
+            //already committed by a flush
+            if ( snapshot[0] == null ) {
+                return;
+            }
+
+            try {
+                toCommit.committer.commit( snapshot[0] );
+                committedMeter.mark();
+                failures.remove( key );
+            }
+            catch ( Throwable t ) {
+                failedMeter.mark();
+                logger.error( "Unable to commit coalesced update of entity {} in {}", key.entityId,
+                    toCommit.applicationScope, t );
+
+                if ( failures.size() < entityManagerFig.getWriteCoalesceMaxPending() ) {
+                    failures.put( key, t );
+                }
+            }
+            finally {
+                pending.computeIfPresent( key,
+                    ( pendingKey, existing ) -> existing == toCommit && !existing.scheduled ? null : existing );
+            }
+        }
+    }
+
+
+    /**
+     * The application and id of an entity
+     */
+    private static final class PendingKey {
+
+        private final Id applicationId;
+        private final Id entityId;
+
+
+        private PendingKey( final ApplicationScope applicationScope, final Id entityId ) {
+            this.applicationId = applicationScope.getApplication();
+            this.entityId = entityId;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof PendingKey ) ) {
+                return false;
+            }
+
+            final PendingKey that = ( PendingKey ) o;
+
+            return applicationId.equals( that.applicationId ) && entityId.equals( that.entityId );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return 31 * applicationId.hashCode() + entityId.hashCode();
+        }
+    }
+
+
+    /**
+     * The merged updates of an entity.  Only changed inside the map's compute functions
+     */
+    private static final class Pending {
+
+        private final ApplicationScope applicationScope;
+        private final Entity entity;
+        private final Committer committer;
+
+        /**
+         * True if updates were merged since the last commit started, and a commit of them is scheduled
+         */
+        private boolean scheduled = true;
+
+
+        private Pending( final ApplicationScope applicationScope, final Entity entity, final Committer committer ) {
+            this.applicationScope = applicationScope;
+            this.entity = new Entity( entity.getId() );
+            this.entity.setFieldMap( entity.getFieldMap() );
+            this.committer = committer;
+        }
+
+
+        private Entity copy() {
+            final Entity copy = new Entity( entity.getId() );
+            copy.setFieldMap( entity.getFieldMap() );
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.util;
+
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+
+
+/**
+ * Queues work in memory for a single background thread, which hands it to a consumer at most a batch per interval.
+ * Work is keyed so repeated reports collapse into one item while it's pending.  The queue is bounded, work reported
+ * while it is full is dropped.  Work that fails is queued again, up to {@link #MAX_ATTEMPTS} times in all
+ *
+ * @param <T> The work item
+ */
+public class BackgroundQueue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger( BackgroundQueue.class );
+
+    /**
+     * The most times an item is handed to the consumer before it's dropped
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final String name;
+    private final IntSupplier maxPending;
+    private final IntSupplier batchSize;
+    private final Function<List<T>, List<T>> consumer;
+
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Queue<Pending<T>> pending = new ConcurrentLinkedQueue<>();
+
+    private final Meter queuedMeter;
+    private final Meter droppedMeter;
+
+    private final ScheduledExecutorService scheduler;
+
+
+    /**
+     * @param name The name of the background thread
+     * @param metricsClass The class to register the queued, dropped and pending metrics under
+     * @param metricsPrefix The prefix of the metric names
+     * @param metricsFactory The metrics factory
+     * @param interval The delay in milliseconds between batches
+     * @param maxPending The most work items pending at once
+     * @param batchSize The most work items in a batch
+     * @param consumer Processes each batch on the background thread, and returns the items that failed.  If it
+     * throws, every item of the batch failed
+     */
+    public BackgroundQueue( final String name, final Class<?> metricsClass, final String metricsPrefix,
+                            final MetricsFactory metricsFactory, final long interval, final IntSupplier maxPending,
+                            final IntSupplier batchSize, final Function<List<T>, List<T>> consumer ) {
+        this.name = name;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.consumer = consumer;
+
+        this.queuedMeter = metricsFactory.getMeter( metricsClass, metricsPrefix + ".queued" );
+        this.droppedMeter = metricsFactory.getMeter( metricsClass, metricsPrefix + ".dropped" );
+        metricsFactory.addGauge( metricsClass, metricsPrefix + ".pending", ( Gauge<Integer> ) pendingKeys::size );
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            final Thread thread = new Thread( runnable, name );
+            thread.setDaemon( true );
+            return thread;
+        } );
+
+        scheduler.scheduleWithFixedDelay( this::drain, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+
+    /**
+     * Queue the work unless work with the same key is already pending or the queue is full
+     *
+     * @return True if the work was queued
+     */
+    public boolean offer( final String key, final T item ) {
+
+        if ( pendingKeys.size() >= maxPending.getAsInt() ) {
+            droppedMeter.mark();
+            return false;
+        }
+
+        //already queued, collapse into the pending item
+        if ( !pendingKeys.add( key ) ) {
+            return false;
+        }
+
+        pending.add( new Pending<>( key, item, 0 ) );
+        queuedMeter.mark();
+        return true;
+    }
+
+
+    /**
+     * Get the number of work items pending
+     */
+    public int size() {
+        return pendingKeys.size();
+    }
+
+
+    /**
+     * Stop processing, work still pending is dropped
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+
+    /**
+     * Hand the next batch to the consumer.  Never throws, so the schedule keeps running
+     */
+    private void drain() {
+
+        final Map<T, Pending<T>> batch = new IdentityHashMap<>();
+        final List<T> items = new ArrayList<>();
+
+        final int size = batchSize.getAsInt();
+
+        Pending<T> next;
+
+        while ( items.size() < size && ( next = pending.poll() ) != null ) {
+            batch.put( next.item, next );
+            items.add( next.item );
+        }
+
+        if ( items.isEmpty() ) {
+            return;
+        }
+
+        //no longer pending once handed over, so the consumer can queue the work again
+        for ( final Pending<T> item : batch.values() ) {
+            pendingKeys.remove( item.key );
+        }
+
+        List<T> failed;
+
+        try {
+            failed = consumer.apply( items );
+        }
+        catch ( Throwable t ) {
+            logger.error( "{} was unable to process {} queued items", name, items.size(), t );
+            failed = items;
+        }
+
+        if ( failed == null ) {
+            return;
+        }
+
+        for ( final T item : failed ) {
+            final Pending<T> failedItem = batch.get( item );
+
+            if ( failedItem == null ) {
+                continue;
+            }
+
+            if ( failedItem.attempts + 1 >= MAX_ATTEMPTS ) {
+                logger.warn( "{} dropped an item that failed {} times", name, MAX_ATTEMPTS );
+                droppedMeter.mark();
+                continue;
+            }
+
+            //reported again meanwhile, that one is processed instead
+            if ( pendingKeys.add( failedItem.key ) ) {
+                pending.add( new Pending<>( failedItem.key, item, failedItem.attempts + 1 ) );
+            }
+        }
+    }
+
+
+    /**
+     * A work item waiting for the background thread
+     */
+    private static final class Pending<T> {
+
+        private final String key;
+        private final T item;
+        private final int attempts;
+
+
+        private Pending( final String key, final T item, final int attempts ) {
+            this.key = key;
+            this.item = item;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -86,6 +86,8 @@ public class CpNamingUtils {
      */
     public static String TYPES_BY_UUID_MAP = "zzz_typesbyuuid_zzz";
 
+    public static String INDEX_FINGERPRINTS_MAP = "zzz_indexfingerprints_zzz";
+
 
     /**
      * Generate a standard edge name for our graph using the connection name. To be used only for searching.  DO NOT use
@@ -316,6 +318,14 @@ public class CpNamingUtils {
     }
 
 
+    /**
+     * Get the map scope for the applicationId to store the index fingerprint of each entity
+     */
+    public static MapScope getIndexFingerprintMapScope( final Id applicationId ) {
+        return new MapScopeImpl( applicationId, CpNamingUtils.INDEX_FINGERPRINTS_MAP );
+    }
+
+
     /**
      * Generate either the collection name or connection name from the edgeName
      */
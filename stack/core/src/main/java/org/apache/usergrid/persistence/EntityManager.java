@@ -100,6 +100,32 @@ public interface EntityManager {
      */
     public Entity create(Id id, Map<String, Object> properties )
         throws Exception;
+
+    /**
+     * Creates a batch of entities of the specified type attached to the specified application.  The entities are
+     * written together and added to the application collection with a single batch of index events.  Entities that
+     * can't be created, such as ones violating a unique property, are logged and left out of the results.
+     *
+     * @param entityType the type of the entities to create.
+     * @param propertiesList property values of each new entity.
+     *
+     * @return the newly created entity objects.
+     */
+    public List<Entity> createBatch( String entityType, List<Map<String, Object>> propertiesList )
+        throws Exception;
+
+    /**
+     * Creates a batch of imported entities of the specified type attached to the specified application.
+     *
+     * @param entityType the type of the entities to create.
+     * @param importedProperties property values of each new entity, keyed by the UUID to assign to it
+     *
+     * @return the newly created entity objects.
+     *
+     * @see #createBatch(String, List)
+     */
+    public List<Entity> createBatch( String entityType, Map<UUID, Map<String, Object>> importedProperties )
+        throws Exception;
     public void createApplicationCollection( String entityType ) throws Exception;
 
     public EntityRef getAlias( String aliasType, String alias ) throws Exception;
@@ -393,6 +419,18 @@ public interface EntityManager {
     public Entity createItemInCollection( EntityRef entityRef, String collectionName, String itemType,
                                           Map<String, Object> properties ) throws Exception;
 
+    /**
+     * Create a batch of items in a sub collection.  Items that can't be created are logged and left out of the
+     * results.
+     *
+     * @param entityRef The owning entity
+     * @param collectionName The name of the collection
+     * @param itemType The type of the items
+     * @param propertiesList The properties for each item
+     */
+    public List<Entity> createItemsInCollection( EntityRef entityRef, String collectionName, String itemType,
+                                                 List<Map<String, Object>> propertiesList ) throws Exception;
+
     /**
      * Deletes an entity from the specified collection.
      *
@@ -423,6 +461,20 @@ public interface EntityManager {
     public Results searchCollectionConsistent( EntityRef entityRef, String collectionName, Query query, int expectedHits)
         throws Exception;
 
+    /**
+     * Stream every entity in the collection that matches the query, without paging through the results with cursors.
+     * Meant for walking entire collections, such as exports.  The entities are unordered and are fetched in batches of
+     * the query limit as the iterable is consumed
+     *
+     * @param entityRef the owner of the collection
+     * @param collectionName the collection name.
+     * @param query the query to match, the sort order is ignored
+     *
+     * @return the matching entities
+     */
+    public Iterable<Entity> scanCollection( EntityRef entityRef, String collectionName, Query query )
+            throws Exception;
+
     public Set<String> getCollectionIndexes( EntityRef entity, String collectionName )
             throws Exception;
 
@@ -72,6 +72,8 @@ public class Query {
     private Long finishTime;
     private boolean pad;
     private boolean connecting = false;
+    private boolean countOnly = false;
+    private boolean exactCount = false;
     private CounterResolution resolution = CounterResolution.ALL;
     private List<Identifier> identifiers;
     private List<CounterFilterPredicate> counterFilters;
@@ -113,6 +115,8 @@ public class Query {
         finishTime = q.finishTime;
         resolution = q.resolution;
         pad = q.pad;
+        countOnly = q.countOnly;
+        exactCount = q.exactCount;
         rootOperand = q.rootOperand;
         identifiers = q.identifiers != null
                 ? new ArrayList<>( q.identifiers ) : null;
@@ -222,6 +226,9 @@ public class Query {
 
         Boolean pad = ListUtils.firstBoolean( params.get( "pad" ) );
 
+        // count=true counts matches in the index, count=exact verifies each match before counting it
+        String count = ListUtils.first( params.get( "count" ) );
+
         for ( Entry<String, List<String>> param : params.entrySet() ) {
             Identifier identifier = Identifier.from( param.getKey() );
             if ( ( param.getValue() == null ) || ( param.getValue().size() == 0 ) || identifier.isUUID() ) {
@@ -294,6 +301,16 @@ public class Query {
             q.setPad( pad );
         }
 
+        if ( "exact".equalsIgnoreCase( count ) ) {
+            q = newQueryIfNull( q );
+            q.setCountOnly( true );
+            q.setExactCount( true );
+        }
+        else if ( Boolean.parseBoolean( count ) ) {
+            q = newQueryIfNull( q );
+            q.setCountOnly( true );
+        }
+
         if ( identifiers != null ) {
             q = newQueryIfNull( q );
             q.setIdentifiers( identifiers );
@@ -601,6 +618,33 @@ public class Query {
         this.pad = pad;
     }
 
+    /**
+     * Only count the results of this query instead of returning them
+     */
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+
+    public void setCountOnly( boolean countOnly ) {
+        this.countOnly = countOnly;
+    }
+
+
+    /**
+     * When only counting, verify each result before counting it instead of counting the index matches.  Slower, but
+     * excludes stale index entries
+     */
+    public boolean isExactCount() {
+        return exactCount;
+    }
+
+
+    public void setExactCount( boolean exactCount ) {
+        this.exactCount = exactCount;
+    }
+
+
     //set the flag to retrieve the edges in the reverse direction.
     public void setConnecting( boolean connecting ) {
         this.connecting = connecting;
@@ -57,6 +57,9 @@ public interface RelationManager {
     public Entity createItemInCollection( String collectionName, String itemType, Map<String, Object> properties )
             throws Exception;
 
+    public List<Entity> createItemsInCollection( String collectionName, String itemType,
+                                                 List<Map<String, Object>> propertiesList ) throws Exception;
+
     public void removeFromCollection( String collectionName, EntityRef itemRef ) throws Exception;
 
     public void removeItemFromCollection( String collectionName, EntityRef itemRef ) throws Exception;
@@ -66,6 +69,12 @@ public interface RelationManager {
 
     public Results searchCollection( String collectionName, Query query ) throws Exception;
 
+    /**
+     * Stream every entity in the collection that matches the query, without paging through the results with cursors.
+     * The entities are unordered and are fetched in batches of the query limit as the iterable is consumed
+     */
+    public Iterable<Entity> scanCollection( String collectionName, Query query ) throws Exception;
+
     /**
      * this loops for consistentcy and is dangerous to run often
      * @param collectionName
@@ -64,6 +64,8 @@ public class Results implements Iterable<Entity> {
 
     List<AggregateCounterSet> counters;
 
+    Long count;
+
     Set<String> types;
 
     Map<UUID, Map<String, Object>> metadata;
@@ -105,6 +107,8 @@ public class Results implements Iterable<Entity> {
 
             counters = r.counters;
 
+            count = r.count;
+
             types = r.types;
 
             metadata = r.metadata;
@@ -142,6 +146,8 @@ public class Results implements Iterable<Entity> {
 
         counters = null;
 
+        count = null;
+
         types = null;
 
         // metadata = null;
@@ -239,6 +245,13 @@ public class Results implements Iterable<Entity> {
     }
 
 
+    public static Results fromCount( long count ) {
+        Results r = new Results();
+        r.setCount( count );
+        return r;
+    }
+
+
     @SuppressWarnings("unchecked")
     public static Results fromConnections( List<? extends ConnectionRef> connections ) {
         Results r = new Results();
@@ -1078,6 +1091,20 @@ public class Results implements Iterable<Entity> {
     }
 
 
+    /**
+     * The number of matches of a count only query, null if the results are not from a count only query
+     */
+    @JsonSerialize(include = Inclusion.NON_NULL)
+    public Long getCount() {
+        return count;
+    }
+
+
+    public void setCount( Long count ) {
+        this.count = count;
+    }
+
+
     public int size() {
         if ( entities != null ) {
             return entities.size();
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.asyncevents;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class EventConcurrencyLimiterTest {
+
+
+    @Test
+    public void testAdditiveIncrease() throws InterruptedException {
+
+        EventConcurrencyLimiter limiter = new EventConcurrencyLimiter( true, 2, 4, 100 );
+
+        // each fast successful batch adds 1/limit, so about a limit's worth of batches adds one
+        for ( int i = 0; i < 2; i++ ) {
+            limiter.acquire();
+            limiter.release( 10, true );
+        }
+        assertEquals( 2.9, limiter.getLimit(), 0.01 );
+
+        // never above max
+        for ( int i = 0; i < 100; i++ ) {
+            limiter.acquire();
+            limiter.release( 10, true );
+        }
+        assertEquals( 4.0, limiter.getLimit(), 0.01 );
+        assertEquals( 0, limiter.getInFlight() );
+    }
+
+
+    @Test
+    public void testMultiplicativeDecrease() throws InterruptedException {
+
+        EventConcurrencyLimiter limiter = new EventConcurrencyLimiter( true, 8, 10, 100 );
+
+        // slow batch
+        limiter.acquire();
+        limiter.release( 200, true );
+        assertEquals( 6.0, limiter.getLimit(), 0.01 );
+
+        // another slow batch within the same latency period started before the cut, no further cut
+        limiter.acquire();
+        limiter.release( 200, true );
+        assertEquals( 6.0, limiter.getLimit(), 0.01 );
+
+        // failed batch
+        limiter.acquire();
+        limiter.release( 0, false );
+        assertEquals( 4.5, limiter.getLimit(), 0.01 );
+
+        // below one batch the batch size shrinks instead, but never below one message
+        for ( int i = 0; i < 100; i++ ) {
+            limiter.acquire();
+            limiter.release( 0, false );
+        }
+        assertEquals( EventConcurrencyLimiter.MIN_LIMIT, limiter.getLimit(), 0.001 );
+        assertEquals( 1, limiter.getBatchSize( 10 ) );
+
+        limiter.acquire();
+        limiter.release( 10, true );
+        assertEquals( 2, limiter.getBatchSize( 10 ) );
+    }
+
+
+    @Test
+    public void testNeutralRelease() throws InterruptedException {
+
+        EventConcurrencyLimiter limiter = new EventConcurrencyLimiter( true, 8, 10, 100 );
+
+        // e.g. a failed dequeue, frees the slot without moving the limit either way
+        for ( int i = 0; i < 10; i++ ) {
+            limiter.acquire();
+            limiter.release();
+        }
+        assertEquals( 8.0, limiter.getLimit(), 0.01 );
+        assertEquals( 0, limiter.getInFlight() );
+    }
+
+
+    @Test
+    public void testFixedLimit() throws InterruptedException {
+
+        EventConcurrencyLimiter limiter = new EventConcurrencyLimiter( false, 40, 10, 100 );
+
+        limiter.acquire();
+        limiter.release( 1000, false );
+        assertEquals( 40.0, limiter.getLimit(), 0.01 );
+        assertEquals( 10, limiter.getBatchSize( 10 ) );
+    }
+
+
+    @Test
+    public void testAcquireBlocksAtLimit() throws InterruptedException {
+
+        EventConcurrencyLimiter limiter = new EventConcurrencyLimiter( false, 1, 1, 100 );
+        limiter.acquire();
+
+        CountDownLatch acquired = new CountDownLatch( 1 );
+        Thread waiter = new Thread( () -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            }
+            catch ( InterruptedException ignored ) {
+            }
+        } );
+        waiter.start();
+
+        assertFalse( acquired.await( 200, TimeUnit.MILLISECONDS ) );
+
+        limiter.release();
+        assertTrue( acquired.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( 1, limiter.getInFlight() );
+    }
+}
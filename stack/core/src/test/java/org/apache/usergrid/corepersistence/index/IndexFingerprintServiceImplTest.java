@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.IndexedFields;
+import org.apache.usergrid.persistence.map.MapManagerFactory;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.field.LongField;
+import org.apache.usergrid.persistence.model.field.StringField;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+
+public class IndexFingerprintServiceImplTest {
+
+    private final IndexedFields indexedFields =
+        new IndexedFields( Optional.absent(), Collections.singletonList( "notes" ), 0, 0 );
+
+
+    @Test
+    public void noIndexedVersionsWhenDisabled() {
+
+        final CoreIndexFig coreIndexFig = mock( CoreIndexFig.class );
+        when( coreIndexFig.isSkipUnchangedReindex() ).thenReturn( false );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenReturn( new Meter() );
+
+        final MapManagerFactory mapManagerFactory = mock( MapManagerFactory.class );
+
+        final IndexFingerprintServiceImpl fingerprintService =
+            new IndexFingerprintServiceImpl( mock( IndexService.class ), mapManagerFactory, coreIndexFig,
+                metricsFactory );
+
+        //fingerprints left over from when skipping was enabled must not be trusted
+        assertTrue( fingerprintService.getIndexedVersions( mock( ApplicationScope.class ),
+            Arrays.asList( createId( "thing" ) ) ).isEmpty() );
+
+        verifyZeroInteractions( mapManagerFactory );
+    }
+
+
+    @Test
+    public void unindexedChangesKeepFingerprint() {
+
+        final Entity entity = new Entity( createId( "thing" ) );
+        entity.setField( new StringField( "name", "first" ) );
+        entity.setField( new StringField( "notes", "unindexed" ) );
+
+        final String fingerprint = IndexFingerprintServiceImpl.fingerprint( entity, indexedFields );
+
+        entity.setField( new StringField( "notes", "still unindexed" ) );
+
+        assertEquals( fingerprint, IndexFingerprintServiceImpl.fingerprint( entity, indexedFields ) );
+    }
+
+
+    @Test
+    public void modifiedChangesFingerprint() {
+
+        final Entity entity = new Entity( createId( "thing" ) );
+        entity.setField( new StringField( "name", "first" ) );
+        entity.setField( new LongField( "modified", 1L ) );
+
+        final String fingerprint = IndexFingerprintServiceImpl.fingerprint( entity, indexedFields );
+
+        entity.setField( new LongField( "modified", 2L ) );
+
+        assertNotEquals( fingerprint, IndexFingerprintServiceImpl.fingerprint( entity, indexedFields ) );
+    }
+
+
+    @Test
+    public void excludedModifiedKeepsFingerprint() {
+
+        final IndexedFields excludingModified =
+            new IndexedFields( Optional.absent(), Arrays.asList( "notes", "modified" ), 0, 0 );
+
+        final Entity entity = new Entity( createId( "thing" ) );
+        entity.setField( new StringField( "name", "first" ) );
+        entity.setField( new LongField( "modified", 1L ) );
+
+        final String fingerprint = IndexFingerprintServiceImpl.fingerprint( entity, excludingModified );
+
+        entity.setField( new LongField( "modified", 2L ) );
+
+        assertEquals( fingerprint, IndexFingerprintServiceImpl.fingerprint( entity, excludingModified ) );
+    }
+
+
+    @Test
+    public void indexedChangesChangeFingerprint() {
+
+        final Entity entity = new Entity( createId( "thing" ) );
+        entity.setField( new StringField( "name", "first" ) );
+
+        final String fingerprint = IndexFingerprintServiceImpl.fingerprint( entity, indexedFields );
+
+        entity.setField( new StringField( "name", "second" ) );
+
+        assertNotEquals( fingerprint, IndexFingerprintServiceImpl.fingerprint( entity, indexedFields ) );
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.index;
+
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexBatch;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.IndexLocationStrategy;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
+import org.apache.usergrid.persistence.index.impl.IndexProducer;
+import org.apache.usergrid.persistence.index.impl.SearchEdgeImpl;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.codahale.metrics.Meter;
+
+import rx.Observable;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class StaleIndexRepairServiceImplTest {
+
+    private final ApplicationScope applicationScope = new ApplicationScopeImpl( createId( "application" ) );
+    private final SearchEdge searchEdge =
+        new SearchEdgeImpl( createId( "owner" ), "zzzcollzzz|things", SearchEdge.NodeType.SOURCE );
+
+
+    @Test
+    public void repeatedReportsCollapse() {
+
+        final EntityIndexBatch batch = mock( EntityIndexBatch.class );
+        final IndexProducer indexProducer = mock( IndexProducer.class );
+
+        final Id entityId = createId( "thing" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        final StaleIndexRepairService repairService = create( batch, indexProducer, 100000 );
+
+        repairService.deindexStale( applicationScope, searchEdge, entityId, version );
+        repairService.deindexStale( applicationScope, searchEdge, entityId, version );
+        repairService.deindexStale( applicationScope, searchEdge, entityId, version );
+
+        verify( indexProducer, timeout( 2000 ) ).put( any( IndexOperationMessage.class ) );
+        verify( batch, times( 1 ) ).deindex( searchEdge, entityId, version );
+    }
+
+
+    @Test
+    public void reportsOverCapacityDropped() throws InterruptedException {
+
+        final EntityIndexBatch batch = mock( EntityIndexBatch.class );
+        final IndexProducer indexProducer = mock( IndexProducer.class );
+
+        final StaleIndexRepairService repairService = create( batch, indexProducer, 1 );
+
+        final Id entityId = createId( "thing" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+        final UUID droppedVersion = UUIDGenerator.newTimeUUID();
+
+        repairService.deindexStale( applicationScope, searchEdge, entityId, version );
+        repairService.deindexStale( applicationScope, searchEdge, entityId, droppedVersion );
+
+        verify( indexProducer, timeout( 2000 ) ).put( any( IndexOperationMessage.class ) );
+        verify( batch ).deindex( searchEdge, entityId, version );
+        verify( batch, never() ).deindex( searchEdge, entityId, droppedVersion );
+    }
+
+
+    private StaleIndexRepairService create( final EntityIndexBatch batch, final IndexProducer indexProducer,
+                                            final int maxPending ) {
+
+        final CoreIndexFig coreIndexFig = mock( CoreIndexFig.class );
+        when( coreIndexFig.getStaleRepairInterval() ).thenReturn( 200L );
+        when( coreIndexFig.getStaleRepairBatchSize() ).thenReturn( 100 );
+        when( coreIndexFig.getStaleRepairMaxPending() ).thenReturn( maxPending );
+
+        final EntityIndex entityIndex = mock( EntityIndex.class );
+        when( entityIndex.createBatch() ).thenReturn( batch );
+
+        final EntityIndexFactory entityIndexFactory = mock( EntityIndexFactory.class );
+        when( entityIndexFactory.createEntityIndex( any( IndexLocationStrategy.class ) ) ).thenReturn( entityIndex );
+
+        when( batch.build() ).thenReturn( new IndexOperationMessage() );
+        when( indexProducer.put( any( IndexOperationMessage.class ) ) )
+            .thenReturn( Observable.<IndexOperationMessage>empty() );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), any( String.class ) ) ).thenReturn( new Meter() );
+
+        return new StaleIndexRepairServiceImpl( entityIndexFactory, mock( IndexLocationStrategyFactory.class ),
+            indexProducer, coreIndexFig, metricsFactory );
+    }
+}
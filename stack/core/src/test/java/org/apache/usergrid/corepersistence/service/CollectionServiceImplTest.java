@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.corepersistence.pipeline.builder.CandidateBuilder;
+import org.apache.usergrid.corepersistence.pipeline.builder.EntityBuilder;
+import org.apache.usergrid.corepersistence.pipeline.builder.IdBuilder;
+import org.apache.usergrid.corepersistence.pipeline.builder.PipelineBuilderFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.index.CandidateResult;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.google.common.base.Optional;
+
+import rx.Observable;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class CollectionServiceImplTest {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int PAGES = 5;
+
+    private final ApplicationScope applicationScope = new ApplicationScopeImpl( createId( "application" ) );
+
+    private final AtomicInteger pagesRead = new AtomicInteger();
+    private final AtomicInteger pagesLoaded = new AtomicInteger();
+
+    private EntityManagerFig entityManagerFig;
+
+    private CollectionService collectionService;
+
+
+    @Before
+    public void setup() {
+
+        entityManagerFig = mock( EntityManagerFig.class );
+        when( entityManagerFig.getCountExactAfterWriteMs() ).thenReturn( 60000L );
+
+        final EntityIndex entityIndex = mock( EntityIndex.class );
+        when( entityIndex.scan( any( SearchEdge.class ), any( SearchTypes.class ), anyString(), anyInt() ) )
+            .thenAnswer( invocation -> new PageIterator() );
+
+        final EntityIndexFactory entityIndexFactory = mock( EntityIndexFactory.class );
+        when( entityIndexFactory.createEntityIndex( any() ) ).thenReturn( entityIndex );
+
+        //each page is loaded into one entity per candidate
+        final PipelineBuilderFactory pipelineBuilderFactory = mock( PipelineBuilderFactory.class, RETURNS_DEEP_STUBS );
+        final IdBuilder idBuilder = pipelineBuilderFactory.create( any() ).withLimit( anyInt() ).fromId( any() );
+
+        when( idBuilder.fromCandidates( any( SearchEdge.class ), any( CandidateResults.class ) ) )
+            .thenAnswer( invocation -> {
+                final CandidateResults page = ( CandidateResults ) invocation.getArguments()[1];
+
+                final List<Entity> entities = new ArrayList<>();
+                page.forEach( candidate -> entities.add( new Entity( candidate.getId() ) ) );
+
+                final EntityBuilder entityBuilder = mock( EntityBuilder.class );
+                when( entityBuilder.stream() ).thenAnswer( streamInvocation -> {
+                    pagesLoaded.incrementAndGet();
+                    return Observable.from( entities );
+                } );
+
+                final CandidateBuilder candidateBuilder = mock( CandidateBuilder.class );
+                when( candidateBuilder.loadEntities() ).thenReturn( entityBuilder );
+
+                return candidateBuilder;
+            } );
+
+        collectionService = new CollectionServiceImpl( pipelineBuilderFactory, entityIndexFactory,
+            mock( IndexLocationStrategyFactory.class ), entityManagerFig );
+    }
+
+
+    @Test
+    public void scanReadsOnePageAtATime() {
+
+        final CollectionSearch search =
+            new CollectionSearch( applicationScope, applicationScope.getApplication(), "users", "user", PAGE_SIZE,
+                Optional.<String>absent(), Optional.<String>absent() );
+
+        final Iterator<Entity> entities = collectionService.scanCollection( search ).iterator();
+
+        assertEquals( "Nothing is read until the iterator is advanced", 0, pagesRead.get() );
+
+        entities.next();
+
+        assertEquals( "Only the first page is read for the first entity", 1, pagesRead.get() );
+        assertEquals( 1, pagesLoaded.get() );
+
+        for ( int i = 1; i < PAGE_SIZE; i++ ) {
+            entities.next();
+        }
+
+        assertEquals( "The first page holds all of its own entities", 1, pagesRead.get() );
+
+        int count = PAGE_SIZE;
+
+        while ( entities.hasNext() ) {
+            entities.next();
+            count++;
+
+            //never more than one page ahead of the caller
+            assertEquals( ( count - 1 ) / PAGE_SIZE + 1, pagesRead.get() );
+        }
+
+        assertEquals( PAGES * PAGE_SIZE, count );
+        assertEquals( PAGES, pagesLoaded.get() );
+        assertFalse( entities.hasNext() );
+    }
+
+
+    @Test
+    public void countExactAfterWrite() {
+
+        //the index hasn't applied the last write, the graph has
+        final PipelineBuilderFactory pipelineBuilderFactory = mock( PipelineBuilderFactory.class, RETURNS_DEEP_STUBS );
+        final IdBuilder idBuilder = pipelineBuilderFactory.create( any() ).withLimit( anyInt() ).fromId( any() );
+        when( idBuilder.countCollection( anyString(), anyString(), anyString() ) ).thenReturn( Observable.just( 4L ) );
+        when( idBuilder.traverseCollection( anyString() ).count() ).thenReturn( Observable.just( 5L ) );
+
+        final CollectionService countService =
+            new CollectionServiceImpl( pipelineBuilderFactory, mock( EntityIndexFactory.class ),
+                mock( IndexLocationStrategyFactory.class ), entityManagerFig );
+
+        final CollectionSearch search =
+            new CollectionSearch( applicationScope, applicationScope.getApplication(), "users", "user", PAGE_SIZE,
+                Optional.<String>absent(), Optional.<String>absent() );
+
+        assertEquals( 4L, countService.countCollection( search, false ).toBlocking().last().longValue() );
+
+        countService.collectionWritten( applicationScope, applicationScope.getApplication(), "Users" );
+
+        assertEquals( 5L, countService.countCollection( search, false ).toBlocking().last().longValue() );
+
+        //other collections are still counted from the index
+        countService.collectionWritten( applicationScope, createId( "user" ), "users" );
+
+        final CollectionSearch other =
+            new CollectionSearch( applicationScope, createId( "group" ), "users", "user", PAGE_SIZE,
+                Optional.<String>absent(), Optional.<String>absent() );
+
+        assertEquals( 4L, countService.countCollection( other, false ).toBlocking().last().longValue() );
+    }
+
+
+    /**
+     * Reads a page of candidates the way a scroll does, when hasNext finds no page waiting
+     */
+    private final class PageIterator implements Iterator<CandidateResults> {
+
+        private CandidateResults next;
+
+
+        @Override
+        public boolean hasNext() {
+            if ( next == null && pagesRead.get() < PAGES ) {
+                pagesRead.incrementAndGet();
+
+                final List<CandidateResult> candidates = new ArrayList<>( PAGE_SIZE );
+
+                for ( int i = 0; i < PAGE_SIZE; i++ ) {
+                    final Id id = createId( "user" );
+                    candidates.add( new CandidateResult( id, UUIDGenerator.newTimeUUID(), id.toString() ) );
+                }
+
+                next = new CandidateResults( candidates, Collections.emptyList() );
+            }
+
+            return next != null;
+        }
+
+
+        @Override
+        public CandidateResults next() {
+            hasNext();
+
+            final CandidateResults results = next;
+            next = null;
+            return results;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.corepersistence.index.IndexFingerprintService;
+import org.apache.usergrid.corepersistence.index.IndexLocationStrategyFactory;
+import org.apache.usergrid.persistence.collection.EntityCollectionManager;
+import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccLogEntryImpl;
+import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.index.EntityIndex;
+import org.apache.usergrid.persistence.index.EntityIndexFactory;
+import org.apache.usergrid.persistence.index.IndexLocationStrategy;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.utils.UUIDUtils;
+
+import com.codahale.metrics.Meter;
+
+import rx.Observable;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class VersionGcServiceImplTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private final ApplicationScope applicationScope = new ApplicationScopeImpl( createId( "application" ) );
+
+    private final EntityCollectionManager ecm = mock( EntityCollectionManager.class );
+    private final EntityIndex entityIndex = mock( EntityIndex.class );
+    private final IndexFingerprintService indexFingerprintService = mock( IndexFingerprintService.class );
+
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void retainedVersionsKept() {
+
+        final Id entityId = createId( "thing" );
+        final long now = System.currentTimeMillis();
+
+        final MvccLogEntry latest = entry( entityId, now - 5 * HOUR );
+        final MvccLogEntry previous = entry( entityId, now - 6 * HOUR );
+        final MvccLogEntry indexed = entry( entityId, now - 7 * HOUR );
+        final MvccLogEntry superseded = entry( entityId, now - 8 * HOUR );
+        final MvccLogEntry oldest = entry( entityId, now - 9 * HOUR );
+
+        when( ecm.getVersionsFromMaxToMin( eq( entityId ), any( UUID.class ) ) )
+            .thenReturn( Observable.just( latest, previous, indexed, superseded, oldest ) );
+        when( indexFingerprintService.getIndexedVersions( eq( applicationScope ), anyCollectionOf( Id.class ) ) )
+            .thenReturn( Collections.singletonMap( entityId, indexed.getVersion() ) );
+
+        create( 2, HOUR, 100000 ).queueEntity( applicationScope, entityId );
+
+        final ArgumentCaptor<Collection> removed = ArgumentCaptor.forClass( Collection.class );
+        verify( ecm, timeout( 2000 ) ).delete( removed.capture() );
+        assertEquals( Arrays.asList( superseded, oldest ), removed.getValue() );
+
+        final ArgumentCaptor<Map> deindexed = ArgumentCaptor.forClass( Map.class );
+        verify( entityIndex ).deleteEntityVersions( deindexed.capture() );
+        assertEquals( Collections.singletonMap( entityId,
+            Arrays.asList( superseded.getVersion(), oldest.getVersion() ) ), deindexed.getValue() );
+    }
+
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void recentAndDeletedVersionsKept() throws InterruptedException {
+
+        final Id recentId = createId( "thing" );
+        final Id deletedId = createId( "thing" );
+        final long now = System.currentTimeMillis();
+
+        final List<MvccLogEntry> recent =
+            Arrays.asList( entry( recentId, now - 3000 ), entry( recentId, now - 2000 ), entry( recentId, now - 1000 ) );
+
+        final List<MvccLogEntry> deleted = Arrays.asList(
+            new MvccLogEntryImpl( deletedId, UUIDUtils.newTimeUUID( now - 3 * HOUR ), Stage.COMMITTED,
+                MvccLogEntry.State.DELETED ), entry( deletedId, now - 4 * HOUR ), entry( deletedId, now - 5 * HOUR ) );
+
+        when( ecm.getVersionsFromMaxToMin( eq( recentId ), any( UUID.class ) ) )
+            .thenReturn( Observable.from( recent ) );
+        when( ecm.getVersionsFromMaxToMin( eq( deletedId ), any( UUID.class ) ) )
+            .thenReturn( Observable.from( deleted ) );
+        when( indexFingerprintService.getIndexedVersions( eq( applicationScope ), anyCollectionOf( Id.class ) ) )
+            .thenReturn( Collections.<Id, UUID>emptyMap() );
+
+        final VersionGcService versionGcService = create( 1, HOUR, 100000 );
+        versionGcService.queueEntity( applicationScope, recentId );
+        versionGcService.queueEntity( applicationScope, deletedId );
+
+        verify( indexFingerprintService, timeout( 2000 ) )
+            .getIndexedVersions( eq( applicationScope ), anyCollectionOf( Id.class ) );
+        Thread.sleep( 200 );
+
+        verify( ecm, never() ).delete( anyCollectionOf( MvccLogEntry.class ) );
+        verify( entityIndex, never() ).deleteEntityVersions( anyMap() );
+    }
+
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void versionsOverMaxRemovedOnNextCheck() {
+
+        final Id entityId = createId( "thing" );
+        final long now = System.currentTimeMillis();
+
+        final MvccLogEntry latest = entry( entityId, now - 5 * HOUR );
+        final MvccLogEntry superseded = entry( entityId, now - 8 * HOUR );
+        final MvccLogEntry oldest = entry( entityId, now - 9 * HOUR );
+
+        when( ecm.getVersionsFromMaxToMin( eq( entityId ), any( UUID.class ) ) )
+            .thenReturn( Observable.just( latest, superseded, oldest ), Observable.just( latest, superseded ) );
+        when( indexFingerprintService.getIndexedVersions( eq( applicationScope ), anyCollectionOf( Id.class ) ) )
+            .thenReturn( Collections.<Id, UUID>emptyMap() );
+
+        create( 1, HOUR, 100000, 1 ).queueEntity( applicationScope, entityId );
+
+        //the oldest first, then the entity is queued again for the rest
+        final ArgumentCaptor<Collection> removed = ArgumentCaptor.forClass( Collection.class );
+        verify( ecm, timeout( 2000 ).times( 2 ) ).delete( removed.capture() );
+        assertEquals( Arrays.asList( Collections.singletonList( oldest ), Collections.singletonList( superseded ) ),
+            removed.getAllValues() );
+    }
+
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void failedCheckRetried() {
+
+        final Id entityId = createId( "thing" );
+        final long now = System.currentTimeMillis();
+
+        final MvccLogEntry latest = entry( entityId, now - 5 * HOUR );
+        final MvccLogEntry superseded = entry( entityId, now - 8 * HOUR );
+
+        when( ecm.getVersionsFromMaxToMin( eq( entityId ), any( UUID.class ) ) )
+            .thenReturn( Observable.just( latest, superseded ) );
+        when( indexFingerprintService.getIndexedVersions( eq( applicationScope ), anyCollectionOf( Id.class ) ) )
+            .thenReturn( Collections.<Id, UUID>emptyMap() );
+
+        final VersionGcService versionGcService = create( 1, HOUR, 100000 );
+
+        when( entityIndex.deleteEntityVersions( anyMap() ) )
+            .thenReturn( Observable.error( new RuntimeException( "Test failure" ) ), Observable.empty() );
+
+        versionGcService.queueEntity( applicationScope, entityId );
+
+        //the rows are only removed once the documents are
+        final ArgumentCaptor<Collection> removed = ArgumentCaptor.forClass( Collection.class );
+        verify( ecm, timeout( 2000 ) ).delete( removed.capture() );
+        assertEquals( Collections.singletonList( superseded ), removed.getValue() );
+        verify( entityIndex, times( 2 ) ).deleteEntityVersions( anyMap() );
+    }
+
+
+    private MvccLogEntry entry( final Id entityId, final long timestamp ) {
+        return new MvccLogEntryImpl( entityId, UUIDUtils.newTimeUUID( timestamp ), Stage.COMMITTED,
+            MvccLogEntry.State.COMPLETE );
+    }
+
+
+    @SuppressWarnings( "unchecked" )
+    private VersionGcService create( final int retainCount, final long retainMs, final int maxPending ) {
+        return create( retainCount, retainMs, maxPending, 100 );
+    }
+
+
+    @SuppressWarnings( "unchecked" )
+    private VersionGcService create( final int retainCount, final long retainMs, final int maxPending,
+                                     final int maxVersions ) {
+
+        final EntityManagerFig entityManagerFig = mock( EntityManagerFig.class );
+        when( entityManagerFig.getVersionGcEnabled() ).thenReturn( true );
+        when( entityManagerFig.getVersionGcInterval() ).thenReturn( 200L );
+        when( entityManagerFig.getVersionGcBatchSize() ).thenReturn( 100 );
+        when( entityManagerFig.getVersionGcMaxPending() ).thenReturn( maxPending );
+        when( entityManagerFig.getVersionGcMaxVersions() ).thenReturn( maxVersions );
+
+        final SerializationFig serializationFig = mock( SerializationFig.class );
+        when( serializationFig.getVersionRetainCount() ).thenReturn( retainCount );
+        when( serializationFig.getVersionRetainMs() ).thenReturn( retainMs );
+
+        final EntityCollectionManagerFactory ecmFactory = mock( EntityCollectionManagerFactory.class );
+        when( ecmFactory.createCollectionManager( applicationScope ) ).thenReturn( ecm );
+        when( ecm.delete( anyCollectionOf( MvccLogEntry.class ) ) ).thenReturn( Observable.<MvccLogEntry>empty() );
+
+        final EntityIndexFactory entityIndexFactory = mock( EntityIndexFactory.class );
+        when( entityIndexFactory.createEntityIndex( any( IndexLocationStrategy.class ) ) ).thenReturn( entityIndex );
+        when( entityIndex.deleteEntityVersions( anyMap() ) ).thenReturn( Observable.empty() );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), any( String.class ) ) ).thenReturn( new Meter() );
+
+        return new VersionGcServiceImpl( ecmFactory, entityIndexFactory, mock( IndexLocationStrategyFactory.class ),
+            indexFingerprintService, entityManagerFig, serializationFig, metricsFactory );
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.service;
+
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.corepersistence.EntityManagerFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.field.IntegerField;
+import org.apache.usergrid.persistence.model.field.StringField;
+
+import com.codahale.metrics.Meter;
+
+import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class WriteCoalescingServiceImplTest {
+
+    private final ApplicationScope applicationScope = new ApplicationScopeImpl( createId( "application" ) );
+
+    private final List<Entity> committed = new CopyOnWriteArrayList<>();
+
+    private WriteCoalescingServiceImpl writeCoalescingService;
+
+
+    @Before
+    public void setup() {
+        final EntityManagerFig entityManagerFig = mock( EntityManagerFig.class );
+        when( entityManagerFig.getWriteCoalesceMaxPending() ).thenReturn( 1 );
+        when( entityManagerFig.getWriteCoalesceThreads() ).thenReturn( 1 );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenReturn( new Meter() );
+
+        writeCoalescingService = new WriteCoalescingServiceImpl( entityManagerFig, metricsFactory );
+    }
+
+
+    @Test
+    public void updatesMergedIntoOneCommit() throws InterruptedException {
+
+        final Id entityId = createId( "heartbeat" );
+
+        assertTrue( writeCoalescingService.coalesce( applicationScope,
+            entity( entityId, new StringField( "status", "up" ), new IntegerField( "beat", 1 ) ), 200,
+            committed::add ) );
+        assertTrue( writeCoalescingService.coalesce( applicationScope,
+            entity( entityId, new IntegerField( "beat", 2 ) ), 200, committed::add ) );
+
+        //read your writes before the commit
+        final Entity pending = writeCoalescingService.getPending( applicationScope, entityId ).get();
+        assertEquals( "up", pending.getField( "status" ).getValue() );
+        assertEquals( 2, pending.getField( "beat" ).getValue() );
+
+        //only one entity may be pending
+        assertFalse( writeCoalescingService.coalesce( applicationScope,
+            entity( createId( "heartbeat" ), new IntegerField( "beat", 1 ) ), 200, committed::add ) );
+
+        final long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 5 );
+        while ( writeCoalescingService.getPending( applicationScope, entityId ).isPresent()
+            && System.currentTimeMillis() < timeout ) {
+            Thread.sleep( 10 );
+        }
+
+        assertEquals( 1, committed.size() );
+        assertEquals( "up", committed.get( 0 ).getField( "status" ).getValue() );
+        assertEquals( 2, committed.get( 0 ).getField( "beat" ).getValue() );
+        assertFalse( writeCoalescingService.getPending( applicationScope, entityId ).isPresent() );
+    }
+
+
+    @Test
+    public void flushCommitsNow() throws Exception {
+
+        final Id entityId = createId( "heartbeat" );
+
+        writeCoalescingService.coalesce( applicationScope, entity( entityId, new IntegerField( "beat", 1 ) ),
+            TimeUnit.HOURS.toMillis( 1 ), committed::add );
+
+        writeCoalescingService.flush( applicationScope, entityId );
+
+        assertEquals( 1, committed.size() );
+        assertFalse( writeCoalescingService.getPending( applicationScope, entityId ).isPresent() );
+
+        //nothing left for the scheduled commit
+        writeCoalescingService.flush( applicationScope, entityId );
+        assertEquals( 1, committed.size() );
+    }
+
+
+    @Test
+    public void failedCommitThrownOnNextFlush() throws Exception {
+
+        final Id entityId = createId( "heartbeat" );
+
+        final IllegalStateException failure = new IllegalStateException( "write failed" );
+
+        writeCoalescingService.coalesce( applicationScope, entity( entityId, new IntegerField( "beat", 1 ) ),
+            TimeUnit.HOURS.toMillis( 1 ), merged -> {
+                throw failure;
+            } );
+
+        try {
+            writeCoalescingService.flush( applicationScope, entityId );
+            fail( "The failed commit must be thrown" );
+        }
+        catch ( IllegalStateException e ) {
+            assertTrue( e == failure );
+        }
+
+        //reported once
+        writeCoalescingService.flush( applicationScope, entityId );
+        assertFalse( writeCoalescingService.getPending( applicationScope, entityId ).isPresent() );
+    }
+
+
+    @Test
+    public void failedCommitThrownOnNextRead() throws Exception {
+
+        final Id entityId = createId( "heartbeat" );
+
+        writeCoalescingService.coalesce( applicationScope, entity( entityId, new IntegerField( "beat", 1 ) ), 10,
+            merged -> {
+                throw new IllegalStateException( "write failed" );
+            } );
+
+        final long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 5 );
+        while ( System.currentTimeMillis() < timeout ) {
+            try {
+                writeCoalescingService.getPending( applicationScope, entityId );
+            }
+            catch ( WriteCoalescingService.CommitFailedException e ) {
+                assertTrue( e.getCause() instanceof IllegalStateException );
+                assertFalse( writeCoalescingService.getPending( applicationScope, entityId ).isPresent() );
+                return;
+            }
+            Thread.sleep( 10 );
+        }
+
+        fail( "The failed commit must be thrown" );
+    }
+
+
+    @Test
+    public void uniqueFieldsNotCoalesced() {
+
+        final Id entityId = createId( "user" );
+
+        assertFalse( writeCoalescingService.coalesce( applicationScope,
+            entity( entityId, new StringField( "username", "bob", true ) ), TimeUnit.HOURS.toMillis( 1 ),
+            committed::add ) );
+
+        assertFalse( writeCoalescingService.getPending( applicationScope, entityId ).isPresent() );
+    }
+
+
+    @Test
+    public void shutdownCommitsPending() {
+
+        final Id entityId = createId( "heartbeat" );
+
+        writeCoalescingService.coalesce( applicationScope, entity( entityId, new IntegerField( "beat", 1 ) ),
+            TimeUnit.HOURS.toMillis( 1 ), committed::add );
+
+        writeCoalescingService.shutdown();
+
+        assertEquals( 1, committed.size() );
+
+        //written by the caller once shut down
+        assertFalse( writeCoalescingService.coalesce( applicationScope,
+            entity( entityId, new IntegerField( "beat", 2 ) ), TimeUnit.HOURS.toMillis( 1 ), committed::add ) );
+    }
+
+
+    private static Entity entity( final Id entityId, final org.apache.usergrid.persistence.model.field.Field... fields ) {
+        final Entity entity = new Entity( entityId );
+        for ( final org.apache.usergrid.persistence.model.field.Field field : fields ) {
+            entity.setField( field );
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.corepersistence.util;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class BackgroundQueueTest {
+
+
+    @Test
+    public void repeatedKeysCollapse() throws InterruptedException {
+
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+
+        final BackgroundQueue<String> queue = create( 100, items -> { batches.add( items ); } );
+
+        assertTrue( queue.offer( "a", "first" ) );
+        assertFalse( queue.offer( "a", "second" ) );
+        assertTrue( queue.offer( "b", "third" ) );
+        assertEquals( 2, queue.size() );
+
+        assertEquals( list( "first", "third" ), batches.poll( 2, TimeUnit.SECONDS ) );
+
+        queue.shutdown();
+    }
+
+
+    @Test
+    public void overCapacityDropped() throws InterruptedException {
+
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+
+        final BackgroundQueue<String> queue = create( 1, items -> { batches.add( items ); } );
+
+        assertTrue( queue.offer( "a", "first" ) );
+        assertFalse( queue.offer( "b", "second" ) );
+
+        assertEquals( list( "first" ), batches.poll( 2, TimeUnit.SECONDS ) );
+
+        //room again once the batch is processed
+        awaitEmpty( queue );
+        assertTrue( queue.offer( "b", "second" ) );
+        assertEquals( list( "second" ), batches.poll( 2, TimeUnit.SECONDS ) );
+
+        queue.shutdown();
+    }
+
+
+    @Test
+    public void failedItemsRetried() throws InterruptedException {
+
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+
+        final BackgroundQueue<String> queue = create( 100, items -> {
+            batches.add( items );
+            final List<String> failed = new ArrayList<>();
+            for ( final String item : items ) {
+                if ( item.startsWith( "fail" ) ) {
+                    failed.add( item );
+                }
+            }
+            return failed;
+        } );
+
+        queue.offer( "a", "fail" );
+        queue.offer( "b", "ok" );
+
+        assertEquals( list( "fail", "ok" ), batches.poll( 2, TimeUnit.SECONDS ) );
+
+        //only the failed item comes back, until it has been tried the most times
+        for ( int i = 1; i < BackgroundQueue.MAX_ATTEMPTS; i++ ) {
+            assertEquals( list( "fail" ), batches.poll( 2, TimeUnit.SECONDS ) );
+        }
+
+        assertNull( batches.poll( 300, TimeUnit.MILLISECONDS ) );
+        assertEquals( 0, queue.size() );
+
+        queue.shutdown();
+    }
+
+
+    @Test
+    public void thrownBatchRetried() throws InterruptedException {
+
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        final BackgroundQueue<String> queue = create( 100, items -> {
+            batches.add( items );
+            if ( calls.incrementAndGet() == 1 ) {
+                throw new RuntimeException( "Test failure" );
+            }
+            return null;
+        } );
+
+        queue.offer( "a", "first" );
+        queue.offer( "b", "second" );
+
+        assertEquals( list( "first", "second" ), batches.poll( 2, TimeUnit.SECONDS ) );
+        assertEquals( list( "first", "second" ), batches.poll( 2, TimeUnit.SECONDS ) );
+
+        queue.shutdown();
+    }
+
+
+    @Test
+    public void shutdownStopsProcessing() throws InterruptedException {
+
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+
+        final BackgroundQueue<String> queue = create( 100, items -> { batches.add( items ); } );
+
+        queue.shutdown();
+
+        queue.offer( "a", "first" );
+
+        assertNull( batches.poll( 500, TimeUnit.MILLISECONDS ) );
+    }
+
+
+    private BackgroundQueue<String> create( final int maxPending, final Consumer<List<String>> consumer ) {
+        return create( maxPending, items -> {
+            consumer.accept( items );
+            return null;
+        } );
+    }
+
+
+    private BackgroundQueue<String> create( final int maxPending,
+                                            final Function<List<String>, List<String>> consumer ) {
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), any( String.class ) ) ).thenReturn( new Meter() );
+
+        return new BackgroundQueue<>( "BackgroundQueueTest", BackgroundQueueTest.class, "test", metricsFactory, 50,
+            () -> maxPending, () -> 100, consumer );
+    }
+
+
+    /**
+     * Keys are released once the consumer returns, after it has handed over the batch
+     */
+    private static void awaitEmpty( final BackgroundQueue<String> queue ) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 2000;
+        while ( queue.size() > 0 && System.currentTimeMillis() < end ) {
+            Thread.sleep( 10 );
+        }
+        assertEquals( 0, queue.size() );
+    }
+
+
+    private static List<String> list( final String... items ) {
+        final List<String> list = new ArrayList<>( items.length );
+        Collections.addAll( list, items );
+        return list;
+    }
+}
@@ -337,6 +337,84 @@ public class CollectionIT extends AbstractCoreIT {
     }
 
 
+    @Test
+    public void countOnlySearch() throws Exception {
+        logger.debug( "countOnlySearch" );
+
+        EntityManager em = app.getEntityManager();
+        assertNotNull( em );
+
+        String team = "team" + UUIDUtils.newTimeUUID();
+
+        for ( int i = 0; i < 3; i++ ) {
+            Map<String, Object> properties = new LinkedHashMap<String, Object>();
+            properties.put( "name", "player" + i );
+            properties.put( "team", team );
+            properties.put( "number", i );
+
+            assertNotNull( em.create( "player", properties ) );
+        }
+
+        app.refreshIndex();
+
+        final Query query = Query.fromQL( "team = '" + team + "' and number > 0" );
+        query.setCountOnly( true );
+
+        Results r = em.searchCollection( em.getApplicationRef(), "players", query );
+
+        assertEquals( 2L, r.getCount().longValue() );
+        assertEquals( 0, r.size() );
+
+        query.setExactCount( true );
+
+        r = em.searchCollection( em.getApplicationRef(), "players", query );
+
+        assertEquals( 2L, r.getCount().longValue() );
+    }
+
+
+    @Test
+    public void scanCollection() throws Exception {
+        logger.debug( "scanCollection" );
+
+        EntityManager em = app.getEntityManager();
+        assertNotNull( em );
+
+        String team = "team" + UUIDUtils.newTimeUUID();
+
+        Set<UUID> expected = new HashSet<UUID>();
+
+        for ( int i = 0; i < 5; i++ ) {
+            Map<String, Object> properties = new LinkedHashMap<String, Object>();
+            properties.put( "name", "scanned" + i );
+            properties.put( "team", team );
+            properties.put( "number", i );
+
+            Entity player = em.create( "player", properties );
+            assertNotNull( player );
+
+            if ( i > 0 ) {
+                expected.add( player.getUuid() );
+            }
+        }
+
+        app.refreshIndex();
+
+        //a limit smaller than the matches, so the scan spans several scroll batches
+        final Query query = Query.fromQL( "team = '" + team + "' and number > 0" );
+        query.setLimit( 2 );
+
+        Set<UUID> scanned = new HashSet<UUID>();
+
+        for ( Entity entity : em.scanCollection( em.getApplicationRef(), "players", query ) ) {
+            assertTrue( "Each entity is emitted once", scanned.add( entity.getUuid() ) );
+            assertEquals( team, entity.getProperty( "team" ) );
+        }
+
+        assertEquals( expected, scanned );
+    }
+
+
     @Test
     public void userMiddleNameSearch() throws Exception {
         logger.debug( "userMiddleNameSearch" );
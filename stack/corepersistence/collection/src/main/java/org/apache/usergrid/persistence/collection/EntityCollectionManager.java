@@ -46,6 +46,19 @@ public interface EntityCollectionManager {
      */
     Observable<Entity> write( Entity entity, String region );
 
+    /**
+     * Write a batch of entities in the entity collection.  Each entity is verified the same way as a single write,
+     * but the log entries and entity data are committed together in chunks of collection.write.batch.commit.size.
+     * Entities that fail unique or optimistic verification, or whose chunk fails to commit, are left out of the batch
+     * and are not emitted, callers should compare the emitted ids with the ones they passed in to find them.
+     *
+     * @param entities The entities to write
+     * @param region The authoritative region for the entity type or null to use current region.
+     *
+     * @return the Observable with each written entity
+     */
+    Observable<Entity> write( Collection<Entity> entities, String region );
+
 
     /**
      * @param entityId MarkCommit the entity as deleted.  Will not actually remove it from cassandra.  This operation will
@@ -101,6 +114,15 @@ public interface EntityCollectionManager {
      */
     Observable<EntitySet> load( Collection<Id> entityIds );
 
+    /**
+     * @param entityIds The entityIds to load, of any number
+     * Load all the entityIds, emitting each entity as soon as it is read rather than once the whole set is loaded.
+     * Use this for bulk reads where the ids may exceed the maximum load size
+     *
+     * @return The latest version of every entity that could be located, in no particular order
+     */
+    Observable<MvccEntity> loadStream( Collection<Id> entityIds );
+
     /**
      * Get all versions of the log entry, from min to max
      * @param entityId
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
+import org.apache.usergrid.persistence.collection.uniquevalues.UniqueValuesFig;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.field.Field;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Keeps the entity id each unique field value resolves to, so looking entities up by name, username or email doesn't
+ * read the unique values table every time.  Values that resolve to nothing are cached as well.
+ *
+ * Commits and deletes on this node invalidate the affected values.  When unique values are verified through the
+ * cluster the invalidations are published to every node, otherwise values changed elsewhere are read again after the
+ * cache timeout.
+ */
+@Singleton
+public class AliasCache {
+
+    private static final Logger logger = LoggerFactory.getLogger( AliasCache.class );
+
+    /**
+     * The topic the reservation cache actors of every node subscribe to
+     */
+    public static final String TOPIC = "content";
+
+    private final boolean enabled;
+    private final Cache<String, Optional<Id>> aliases;
+    private final Cache<String, Set<String>> aliasesByEntity;
+
+    /**
+     * Counts invalidations, so a lookup that raced with one doesn't cache what it read
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final ActorSystemFig actorSystemFig;
+    private final UniqueValuesFig uniqueValuesFig;
+    private final ActorSystemManager actorSystemManager;
+
+    private final Meter hitMeter;
+    private final Meter missMeter;
+
+
+    @Inject
+    public AliasCache( final EntityCacheFig entityCacheFig, final ActorSystemFig actorSystemFig,
+                       final UniqueValuesFig uniqueValuesFig, final ActorSystemManager actorSystemManager,
+                       final MetricsFactory metricsFactory ) {
+
+        this.enabled = entityCacheFig.getAliasCacheSize() > 0;
+
+        final int size = Math.max( entityCacheFig.getAliasCacheSize(), 0 );
+
+        this.aliases = CacheBuilder.newBuilder().maximumSize( size )
+                                   .expireAfterWrite( entityCacheFig.getAliasCacheTimeout(), TimeUnit.MILLISECONDS )
+                                   .build();
+
+        this.aliasesByEntity = CacheBuilder.newBuilder().maximumSize( size )
+                                   .expireAfterWrite( entityCacheFig.getAliasCacheTimeout(), TimeUnit.MILLISECONDS )
+                                   .build();
+
+        this.actorSystemFig = actorSystemFig;
+        this.uniqueValuesFig = uniqueValuesFig;
+        this.actorSystemManager = actorSystemManager;
+
+        this.hitMeter = metricsFactory.getMeter( AliasCache.class, "alias.cache.hit" );
+        this.missMeter = metricsFactory.getMeter( AliasCache.class, "alias.cache.miss" );
+    }
+
+
+    /**
+     * Get the cached entity id of a unique field value
+     *
+     * @return null if the value isn't cached, absent if it's cached as resolving to no entity
+     */
+    public Optional<Id> get( final ApplicationScope applicationScope, final String type, final Field field ) {
+
+        if ( !enabled ) {
+            return null;
+        }
+
+        final Optional<Id> entityId = aliases.getIfPresent( aliasKey( applicationScope, type, field ) );
+
+        if ( entityId == null ) {
+            missMeter.mark();
+        }
+        else {
+            hitMeter.mark();
+        }
+
+        return entityId;
+    }
+
+
+    /**
+     * Get the stamp to pass to {@link #put(ApplicationScope, String, Field, Id, long)}.  Take it before reading the
+     * unique values table
+     */
+    public long getStamp() {
+        return invalidations.get();
+    }
+
+
+    /**
+     * Cache the entity id a unique field value resolved to, unless something was invalidated since the stamp was taken
+     *
+     * @param entityId The entity id, or null if the value resolved to no entity
+     */
+    public void put( final ApplicationScope applicationScope, final String type, final Field field,
+                     final Id entityId, final long stamp ) {
+
+        if ( !enabled || invalidations.get() != stamp ) {
+            return;
+        }
+
+        final String aliasKey = aliasKey( applicationScope, type, field );
+
+        if ( entityId != null ) {
+            try {
+                aliasesByEntity.get( entityKey( applicationScope, entityId ), ConcurrentHashMap::newKeySet )
+                               .add( aliasKey );
+            }
+            catch ( Exception e ) {
+                throw new RuntimeException( "Unable to track alias of entity " + entityId, e );
+            }
+        }
+
+        aliases.put( aliasKey, Optional.fromNullable( entityId ) );
+    }
+
+
+    /**
+     * Invalidate the given unique field values of the entity, and every value cached as resolving to it
+     */
+    public void invalidate( final ApplicationScope applicationScope, final Id entityId,
+                            final Collection<Field> fields ) {
+
+        final Collection<String> aliasKeys = new ArrayList<>( fields.size() );
+
+        for ( final Field field : fields ) {
+            aliasKeys.add( aliasKey( applicationScope, entityId.getType(), field ) );
+        }
+
+        invalidate( aliasKeys, Collections.singleton( entityKey( applicationScope, entityId ) ) );
+    }
+
+
+    /**
+     * Invalidate every value cached as resolving to the entity
+     */
+    public void invalidate( final ApplicationScope applicationScope, final Id entityId ) {
+        invalidate( Collections.<String>emptyList(), Collections.singleton( entityKey( applicationScope, entityId ) ) );
+    }
+
+
+    /**
+     * Apply an invalidation published by another node
+     */
+    public void invalidate( final Invalidation invalidation ) {
+        invalidateLocal( invalidation.getAliasKeys(), invalidation.getEntityKeys() );
+    }
+
+
+    private void invalidate( final Collection<String> aliasKeys, final Collection<String> entityKeys ) {
+
+        invalidateLocal( aliasKeys, entityKeys );
+
+        if ( actorSystemFig == null || !actorSystemFig.getEnabled() || !uniqueValuesFig.getUnqiueValueViaCluster() ) {
+            return;
+        }
+
+        try {
+            actorSystemManager.publishToAllRegions( TOPIC, new Invalidation( aliasKeys, entityKeys ), null );
+        }
+        catch ( Exception e ) {
+            logger.warn( "Unable to publish alias invalidation, other nodes will expire their entries", e );
+        }
+    }
+
+
+    private void invalidateLocal( final Collection<String> aliasKeys, final Collection<String> entityKeys ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        invalidations.incrementAndGet();
+
+        aliases.invalidateAll( aliasKeys );
+
+        for ( final String entityKey : entityKeys ) {
+
+            final Set<String> entityAliases = aliasesByEntity.getIfPresent( entityKey );
+
+            if ( entityAliases != null ) {
+                aliasesByEntity.invalidate( entityKey );
+                aliases.invalidateAll( entityAliases );
+            }
+        }
+    }
+
+
+    /**
+     * Unique values are stored lower case, so lookups ignore case as well
+     */
+    private static String aliasKey( final ApplicationScope applicationScope, final String type, final Field field ) {
+        return applicationScope.getApplication().getUuid() + ":" + type + ":" + field.getName() + ":" + field
+            .getValue().toString().toLowerCase();
+    }
+
+
+    private static String entityKey( final ApplicationScope applicationScope, final Id entityId ) {
+        return applicationScope.getApplication().getUuid() + ":" + entityId.getType() + ":" + entityId.getUuid();
+    }
+
+
+    /**
+     * Published to every node when unique values are invalidated
+     */
+    public static class Invalidation implements Serializable {
+
+        private final Collection<String> aliasKeys;
+        private final Collection<String> entityKeys;
+
+
+        public Invalidation( final Collection<String> aliasKeys, final Collection<String> entityKeys ) {
+            this.aliasKeys = new ArrayList<>( aliasKeys );
+            this.entityKeys = new ArrayList<>( entityKeys );
+        }
+
+
+        public Collection<String> getAliasKeys() {
+            return aliasKeys;
+        }
+
+
+        public Collection<String> getEntityKeys() {
+            return entityKeys;
+        }
+    }
+}
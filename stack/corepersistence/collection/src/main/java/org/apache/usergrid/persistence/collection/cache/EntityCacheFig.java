@@ -42,5 +42,37 @@ public interface EntityCacheFig extends GuicyFig {
     int getCacheTimeout();
 
 
+    /**
+     * The number of entity ids whose latest version is kept in memory.  Set to 0 to always read the latest version
+     */
+    @Key( "usergrid.latest_version_cache_size" )
+    @Default( "50000" )
+    int getLatestVersionCacheSize();
+
+    /**
+     * How long the latest version of an entity is trusted for before it's read again.  Versions written by this node
+     * are always current, this bounds how long versions written by other nodes can be missed for.
+     */
+    @Key( "usergrid.latest_version_cache_timeout_ms" )
+    @Default( "5000" )
+    int getLatestVersionCacheTimeout();
+
+
+    /**
+     * The number of unique field values whose entity id is kept in memory.  Set to 0 to always read the unique values
+     */
+    @Key( "usergrid.alias_cache_size" )
+    @Default( "10000" )
+    int getAliasCacheSize();
+
+    /**
+     * How long the entity id of a unique field value is trusted for before it's read again.  This bounds how long
+     * changes made by other nodes can be missed for when they aren't published through the cluster.
+     */
+    @Key( "usergrid.alias_cache_timeout_ms" )
+    @Default( "10000" )
+    int getAliasCacheTimeout();
+
+
 
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.serialization.impl.VersionSetImpl;
+import org.apache.usergrid.persistence.core.astyanax.ScopedRowKey;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Meter;
+import com.fasterxml.uuid.UUIDComparator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Keeps the latest log entry of entities, so verifying the versions of query results doesn't have to read the entity
+ * log.  Commits on this node update it, and entries written elsewhere are read again after the cache timeout.
+ */
+@Singleton
+public class LatestVersionCache {
+
+    private final boolean enabled;
+    private final Cache<ScopedRowKey<Id>, MvccLogEntry> latestVersions;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+
+
+    @Inject
+    public LatestVersionCache( final EntityCacheFig entityCacheFig, final MetricsFactory metricsFactory ) {
+
+        this.enabled = entityCacheFig.getLatestVersionCacheSize() > 0;
+
+        this.latestVersions =
+            CacheBuilder.newBuilder().maximumSize( Math.max( entityCacheFig.getLatestVersionCacheSize(), 0 ) )
+                        .expireAfterWrite( entityCacheFig.getLatestVersionCacheTimeout(), TimeUnit.MILLISECONDS )
+                        .build();
+
+        this.hitMeter = metricsFactory.getMeter( LatestVersionCache.class, "latest.cache.hit" );
+        this.missMeter = metricsFactory.getMeter( LatestVersionCache.class, "latest.cache.miss" );
+    }
+
+
+    /**
+     * Add the cached log entries of the entities to the version set
+     *
+     * @return The entity ids that aren't cached and have to be read
+     */
+    public List<Id> get( final ApplicationScope applicationScope, final Collection<Id> entityIds,
+                         final VersionSetImpl versionSet ) {
+
+        final List<Id> missing = new ArrayList<>();
+
+        for ( final Id entityId : entityIds ) {
+
+            final MvccLogEntry logEntry = enabled ?
+                latestVersions.getIfPresent( new ScopedRowKey<>( applicationScope.getApplication(), entityId ) ) : null;
+
+            if ( logEntry == null ) {
+                missing.add( entityId );
+            }
+            else {
+                versionSet.addEntry( logEntry );
+            }
+        }
+
+        hitMeter.mark( entityIds.size() - missing.size() );
+        missMeter.mark( missing.size() );
+
+        return missing;
+    }
+
+
+    /**
+     * Cache the log entry unless a newer one already is
+     */
+    public void put( final ApplicationScope applicationScope, final MvccLogEntry logEntry ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        latestVersions.asMap().merge( new ScopedRowKey<>( applicationScope.getApplication(), logEntry.getEntityId() ),
+            logEntry, ( cached, written ) ->
+                UUIDComparator.staticCompare( written.getVersion(), cached.getVersion() ) >= 0 ? written : cached );
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.changes;
+
+
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * A committed write or delete of an entity, as recorded in the change log of its application
+ */
+public class EntityChange {
+
+    /**
+     * The kind of change, stored by its id
+     */
+    public enum Type {
+        WRITE( 0 ),
+        DELETE( 1 );
+
+        private final int id;
+
+
+        Type( final int id ) {
+            this.id = id;
+        }
+
+
+        public int getId() {
+            return id;
+        }
+
+
+        public static Type fromId( final int id ) {
+            for ( final Type type : values() ) {
+                if ( type.id == id ) {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException( "Unknown change type " + id );
+        }
+    }
+
+
+    private final Id entityId;
+    private final UUID version;
+    private final Type type;
+
+
+    public EntityChange( final Id entityId, final UUID version, final Type type ) {
+        this.entityId = entityId;
+        this.version = version;
+        this.type = type;
+    }
+
+
+    public Id getEntityId() {
+        return entityId;
+    }
+
+
+    /**
+     * The version the change committed.  Changes are ordered by version, so it is also the cursor to resume after
+     * this change
+     */
+    public UUID getVersion() {
+        return version;
+    }
+
+
+    public Type getType() {
+        return type;
+    }
+
+
+    @Override
+    public boolean equals( final Object o ) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( !( o instanceof EntityChange ) ) {
+            return false;
+        }
+
+        final EntityChange that = ( EntityChange ) o;
+
+        return entityId.equals( that.entityId ) && version.equals( that.version ) && type == that.type;
+    }
+
+
+    @Override
+    public int hashCode() {
+        int result = entityId.hashCode();
+        result = 31 * result + version.hashCode();
+        result = 31 * result + type.hashCode();
+        return result;
+    }
+
+
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+            "entityId=" + entityId +
+            ", version=" + version +
+            ", type=" + type +
+            '}';
+    }
+}
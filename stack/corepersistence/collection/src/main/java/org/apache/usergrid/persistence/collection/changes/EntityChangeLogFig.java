@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.changes;
+
+
+import org.safehaus.guicyfig.Default;
+import org.safehaus.guicyfig.FigSingleton;
+import org.safehaus.guicyfig.GuicyFig;
+import org.safehaus.guicyfig.Key;
+
+
+/**
+ * The config for the per application change log of entity writes and deletes
+ */
+@FigSingleton
+public interface EntityChangeLogFig extends GuicyFig {
+
+    /**
+     * Record committed writes and deletes in the change log
+     */
+    @Key( "collection.changelog.enabled" )
+    @Default( "true" )
+    boolean getEnabled();
+
+    /**
+     * The time span in milliseconds of each change log row.  Rows are found by their start time, so this must not be
+     * changed once changes have been written
+     */
+    @Key( "collection.changelog.bucket.ms" )
+    @Default( "3600000" )
+    long getBucketSize();
+
+    /**
+     * How long in seconds changes are kept.  Consumers must resume more often than this to not miss changes
+     */
+    @Key( "collection.changelog.ttl.seconds" )
+    @Default( "604800" )
+    int getTtl();
+
+    /**
+     * Changes younger than this many milliseconds are not read yet.  A version is created before its write commits,
+     * so a change can appear behind a cursor that has already passed its version.  This must be longer than a
+     * write takes to commit
+     */
+    @Key( "collection.changelog.read.delay.ms" )
+    @Default( "10000" )
+    long getReadDelay();
+
+    /**
+     * The number of changes read from each row per request
+     */
+    @Key( "collection.changelog.page.size" )
+    @Default( "1000" )
+    int getPageSize();
+}
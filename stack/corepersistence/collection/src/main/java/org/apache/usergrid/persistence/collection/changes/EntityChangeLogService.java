@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.changes;
+
+
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+
+import rx.Observable;
+
+
+/**
+ * Reads the committed writes and deletes of an application in version order, for consumers that follow changes
+ * instead of polling queries
+ */
+public interface EntityChangeLogService {
+
+    /**
+     * Get the changes of the application after the cursor.  Changes younger than the read delay are not returned yet,
+     * so resuming from the version of the last change emitted will not miss writes that commit late
+     *
+     * @param applicationScope The application to read
+     * @param cursor The version of the last change already consumed.  Null to read from the oldest change kept
+     */
+    Observable<EntityChange> getChanges( ApplicationScope applicationScope, UUID cursor );
+}
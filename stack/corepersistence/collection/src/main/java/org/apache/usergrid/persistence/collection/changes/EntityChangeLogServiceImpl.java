@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.changes;
+
+
+import java.util.Iterator;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
+import org.apache.usergrid.persistence.core.rx.ObservableIterator;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.util.ValidationUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import rx.Observable;
+
+
+@Singleton
+public class EntityChangeLogServiceImpl implements EntityChangeLogService {
+
+    private final EntityChangeLogSerialization entityChangeLogSerialization;
+    private final EntityChangeLogFig entityChangeLogFig;
+
+
+    @Inject
+    public EntityChangeLogServiceImpl( final EntityChangeLogSerialization entityChangeLogSerialization,
+                                       final EntityChangeLogFig entityChangeLogFig ) {
+        this.entityChangeLogSerialization = entityChangeLogSerialization;
+        this.entityChangeLogFig = entityChangeLogFig;
+    }
+
+
+    @Override
+    public Observable<EntityChange> getChanges( final ApplicationScope applicationScope, final UUID cursor ) {
+
+        ValidationUtils.validateApplicationScope( applicationScope );
+
+        return Observable.create( new ObservableIterator<EntityChange>( "getEntityChanges" ) {
+            @Override
+            protected Iterator<EntityChange> getIterator() {
+                final long until = System.currentTimeMillis() - entityChangeLogFig.getReadDelay();
+
+                return entityChangeLogSerialization.getChanges( applicationScope, cursor, until );
+            }
+        } );
+    }
+}
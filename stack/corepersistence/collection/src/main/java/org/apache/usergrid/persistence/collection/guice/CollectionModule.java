@@ -27,6 +27,9 @@ import org.safehaus.guicyfig.GuicyFigModule;
 
 import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
 import org.apache.usergrid.persistence.collection.cache.EntityCacheFig;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogFig;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogService;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogServiceImpl;
 import org.apache.usergrid.persistence.collection.impl.EntityCollectionManagerFactoryImpl;
 import org.apache.usergrid.persistence.collection.mvcc.changelog.ChangeLogGenerator;
 import org.apache.usergrid.persistence.collection.mvcc.changelog.ChangeLogGeneratorImpl;
@@ -60,6 +63,7 @@ public abstract class CollectionModule extends AbstractModule {
         install( new GuicyFigModule( SerializationFig.class ) );
         install( new GuicyFigModule( CollectionSchedulerFig.class ) );
         install( new GuicyFigModule( UniqueValuesFig.class ) );
+        install( new GuicyFigModule( EntityChangeLogFig.class ) );
         install( new SerializationModule() );
         install( new ServiceModule() );
         install( new ActorSystemModule() );
@@ -77,6 +81,8 @@ public abstract class CollectionModule extends AbstractModule {
 
         bind( ChangeLogGenerator.class).to( ChangeLogGeneratorImpl.class);
 
+        bind( EntityChangeLogService.class ).to( EntityChangeLogServiceImpl.class );
+
         configureMigrationProvider();
 
     }
@@ -31,6 +31,8 @@ import com.netflix.astyanax.Keyspace;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManager;
 import org.apache.usergrid.persistence.collection.EntityCollectionManagerFactory;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkCommit;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkStart;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.UniqueCleanup;
@@ -78,6 +80,8 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
     private final RxTaskScheduler rxTaskScheduler;
     private final ActorSystemManager actorSystemManager;
     private final UniqueValuesService uniqueValuesService;
+    private final LatestVersionCache latestVersionCache;
+    private final AliasCache aliasCache;
 
     private final CassandraConfig cassandraConfig;
 
@@ -108,6 +112,8 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
                                 rxTaskScheduler,
                                 actorSystemManager,
                                 uniqueValuesService,
+                                latestVersionCache,
+                                aliasCache,
                                 cassandraConfig,
                                 scope,
                                 session);
@@ -138,6 +144,8 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
             final RxTaskScheduler       rxTaskScheduler,
             final ActorSystemManager    actorSystemManager,
             final UniqueValuesService   uniqueValuesService,
+            final LatestVersionCache    latestVersionCache,
+            final AliasCache            aliasCache,
             final CassandraConfig       cassandraConfig,
             final Session session ) {
 
@@ -159,6 +167,8 @@ public class EntityCollectionManagerFactoryImpl implements EntityCollectionManag
         this.rxTaskScheduler =          rxTaskScheduler;
         this.actorSystemManager =       actorSystemManager;
         this.uniqueValuesService =      uniqueValuesService;
+        this.latestVersionCache =       latestVersionCache;
+        this.aliasCache =               aliasCache;
         this.cassandraConfig =          cassandraConfig;
         this.session = session;
 
@@ -23,7 +23,9 @@ package org.apache.usergrid.persistence.collection.impl;
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.Session;
 import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.netflix.astyanax.Keyspace;
@@ -36,6 +38,11 @@ import com.netflix.astyanax.model.CqlResult;
 import com.netflix.astyanax.serializers.StringSerializer;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemManager;
 import org.apache.usergrid.persistence.collection.*;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
+import org.apache.usergrid.persistence.collection.exception.WriteCommitException;
+import org.apache.usergrid.persistence.collection.exception.WriteOptimisticVerifyException;
+import org.apache.usergrid.persistence.collection.exception.WriteUniqueVerifyException;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkCommit;
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.MarkStart;
@@ -43,9 +50,11 @@ import org.apache.usergrid.persistence.collection.mvcc.stage.delete.UniqueCleanu
 import org.apache.usergrid.persistence.collection.mvcc.stage.delete.VersionCompact;
 import org.apache.usergrid.persistence.collection.mvcc.stage.write.*;
 import org.apache.usergrid.persistence.collection.serialization.*;
+import org.apache.usergrid.persistence.collection.serialization.impl.EntitySetImpl;
 import org.apache.usergrid.persistence.collection.serialization.impl.LogEntryIterator;
 import org.apache.usergrid.persistence.collection.serialization.impl.MinMaxLogEntryIterator;
 import org.apache.usergrid.persistence.collection.serialization.impl.MutableFieldSet;
+import org.apache.usergrid.persistence.collection.serialization.impl.VersionSetImpl;
 import org.apache.usergrid.persistence.collection.uniquevalues.UniqueValuesService;
 import org.apache.usergrid.persistence.core.CassandraConfig;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
@@ -104,6 +113,7 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     private final Timer fieldIdTimer;
     private final Timer fieldEntityTimer;
     private final Timer loadTimer;
+    private final Timer loadStreamTimer;
     private final Timer getLatestTimer;
 
     private final ApplicationScope applicationScope;
@@ -111,6 +121,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
     private final UniqueValuesService uniqueValuesService;
     private final ActorSystemManager actorSystemManager;
+    private final LatestVersionCache latestVersionCache;
+    private final AliasCache aliasCache;
 
 
     @Inject
@@ -135,6 +147,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         final RxTaskScheduler       rxTaskScheduler,
         final ActorSystemManager    actorSystemManager,
         final UniqueValuesService   uniqueValuesService,
+        final LatestVersionCache    latestVersionCache,
+        final AliasCache            aliasCache,
         final CassandraConfig       cassandraConfig,
         @Assisted final ApplicationScope applicationScope,
         final Session session ) {
@@ -148,6 +162,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
         this.actorSystemManager = actorSystemManager;
         this.uniqueValuesService = uniqueValuesService;
+        this.latestVersionCache = latestVersionCache;
+        this.aliasCache = aliasCache;
 
         ValidationUtils.validateApplicationScope( applicationScope );
 
@@ -172,6 +188,7 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         this.fieldIdTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.fieldId");
         this.fieldEntityTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.fieldEntity");
         this.loadTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.load");
+        this.loadStreamTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.load.stream");
         this.getLatestTimer = metricsFactory.getTimer(EntityCollectionManagerImpl.class, "base.latest");
 
         this.cassandraConfig = cassandraConfig;
@@ -209,6 +226,65 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     }
 
 
+    @Override
+    public Observable<Entity> write( final Collection<Entity> entities, final String region ) {
+
+        //do our input validation
+        Preconditions.checkNotNull( entities, "Entities are required in the new stage of the mvcc write" );
+
+        for ( final Entity entity : entities ) {
+            Preconditions.checkNotNull( entity, "Entity is required in the new stage of the mvcc write" );
+            ValidationUtils.verifyIdentity( entity.getId() );
+        }
+
+        final Observable<Entity> write = Observable.from( entities )
+            .map( entity -> writeStart.call( new CollectionIoEvent<>( applicationScope, entity, region ) ) )
+
+            // verify the entities concurrently, a violation only drops that entity from the batch
+            .flatMap( ioEvent -> verify( ioEvent ).onErrorResumeNext( throwable -> {
+
+                if ( throwable instanceof WriteUniqueVerifyException
+                    || throwable instanceof WriteOptimisticVerifyException ) {
+
+                    logger.warn( "Entity {} failed verification and was dropped from the batch write: {}",
+                        ioEvent.getEvent().getId(), throwable.getMessage() );
+
+                    return Observable.empty();
+                }
+
+                return Observable.error( throwable );
+
+            } ), serializationFig.getWriteBatchConcurrency() )
+
+            // commit what was verified in chunks, a failed chunk is dropped and leaves the others committed
+            .buffer( serializationFig.getWriteBatchCommitSize() ).filter( verified -> !verified.isEmpty() )
+            .concatMap( verified -> Observable.just( verified ).map( writeCommit::commit )
+                .onErrorResumeNext( throwable -> {
+
+                    if ( throwable instanceof WriteCommitException ) {
+
+                        logger.error( "Unable to commit {} entities of the batch write, they were dropped",
+                            verified.size(), throwable );
+
+                        return Observable.empty();
+                    }
+
+                    return Observable.error( throwable );
+                } ) )
+            .flatMap( committed -> {
+
+                // fire this in the background so we don't block writes
+                Observable.from( committed ).compose( uniqueCleanup )
+                    .subscribeOn( rxTaskScheduler.getAsyncIOScheduler() ).subscribe();
+
+                return Observable.from( committed );
+
+            } ).map( ioEvent -> ioEvent.getEvent().getEntity().get() );
+
+        return ObservableTimer.time( write, writeTimer );
+    }
+
+
     @Override
     public Observable<Id> mark(final Id entityId, String region) {
 
@@ -251,6 +327,15 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
         Preconditions.checkNotNull( entityIds, "entityIds cannot be null" );
 
+        //too many for a single load, assemble the set from the stream instead of failing
+        if ( entityIds.size() > serializationFig.getMaxLoadSize() ) {
+            final Observable<EntitySet> entitySetObservable = loadStream( entityIds )
+                .collect( () -> new EntitySetImpl( entityIds.size() ), EntitySetImpl::addEntity )
+                .cast( EntitySet.class );
+
+            return ObservableTimer.time( entitySetObservable, loadTimer );
+        }
+
         final Observable<EntitySet> entitySetObservable =
             Observable.create( new Observable.OnSubscribe<EntitySet>() {
 
@@ -274,6 +359,18 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     }
 
 
+    @Override
+    public Observable<MvccEntity> loadStream( final Collection<Id> entityIds ) {
+
+        Preconditions.checkNotNull( entityIds, "entityIds cannot be null" );
+
+        final Observable<MvccEntity> entityObservable = Observable.defer(
+            () -> entitySerializationStrategy.loadStream( applicationScope, entityIds, UUIDGenerator.newTimeUUID() ) );
+
+        return ObservableTimer.time( entityObservable, loadStreamTimer );
+    }
+
+
     @Override
     public Observable<MvccLogEntry> getVersions( final Id entityId ) {
         ValidationUtils.verifyIdentity( entityId );
@@ -316,9 +413,21 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
         final List<Field> fields = Collections.singletonList( field );
         final Observable<Id> idObservable = Observable.from( fields ).map( field1 -> {
 
+            final Optional<Id> cachedId = aliasCache.get( applicationScope, type, field1 );
+
+            if ( cachedId != null ) {
+                return cachedId.orNull();
+            }
+
+            final long stamp = aliasCache.getStamp();
+
             final UniqueValueSet set = uniqueValueSerializationStrategy.load( applicationScope, type, fields );
             final UniqueValue value = set.getValue( field1.getName() );
-            return value == null ? null : value.getEntityId();
+            final Id entityId = value == null ? null : value.getEntityId();
+
+            aliasCache.put( applicationScope, type, field1, entityId, stamp );
+
+            return entityId;
 
         } );
 
@@ -336,6 +445,18 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
             final UUID startTime = UUIDGenerator.newTimeUUID();
 
+            //a single field is how entities are looked up by name, try the cached entity id first
+            if ( fields1.size() == 1 ) {
+
+                final FieldSet cached = getCachedEntity( type, fields1.iterator().next(), startTime );
+
+                if ( cached != null ) {
+                    return cached;
+                }
+            }
+
+            final long stamp = aliasCache.getStamp();
+
                 //Get back set of unique values that correspond to collection of fields
                 //Purposely use string consistency as it's extremely important here, regardless of performance
                 UniqueValueSet set =
@@ -358,6 +479,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
                         logger.trace("No unique values found for requested fields, returning empty FieldSet");
                     }
 
+                    fields1.forEach( field -> aliasCache.put( applicationScope, type, field, null, stamp ) );
+
                     return new MutableFieldSet( 0 );
                 }
 
@@ -417,6 +540,8 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
 
                 //else add it to our result set
                 response.addEntity( expectedUnique.getField(), entity );
+
+                aliasCache.put( applicationScope, type, expectedUnique.getField(), entity.getId(), stamp );
             }
 
 
@@ -437,29 +562,88 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     }
 
 
+    /**
+     * Load the entity a unique field is cached as resolving to
+     *
+     * @return The field set, or null if the field isn't cached or its entity no longer exists
+     */
+    private FieldSet getCachedEntity( final String type, final Field field, final UUID startTime ) {
+
+        final Optional<Id> cachedId = aliasCache.get( applicationScope, type, field );
+
+        if ( cachedId == null ) {
+            return null;
+        }
+
+        if ( !cachedId.isPresent() ) {
+            return new MutableFieldSet( 0 );
+        }
+
+        final MvccEntity entity = entitySerializationStrategy
+            .load( applicationScope, Collections.singleton( cachedId.get() ), startTime ).getEntity( cachedId.get() );
+
+        //removed since it was cached, read the unique value again so it's repaired
+        if ( entity == null || !entity.getEntity().isPresent() ) {
+            aliasCache.invalidate( applicationScope, cachedId.get() );
+            return null;
+        }
+
+        //the entity no longer holds the value it was cached under, read the unique value again
+        if ( !matchesField( entity.getEntity().get(), field ) ) {
+            aliasCache.invalidate( applicationScope, cachedId.get(), Collections.singleton( field ) );
+            return null;
+        }
+
+        final MutableFieldSet response = new MutableFieldSet( 1 );
+        response.addEntity( field, entity );
+
+        return response;
+    }
+
+
+    /**
+     * True if the entity still has the unique field value.  Unique values are stored lower case, so compare ignoring
+     * case the same way
+     */
+    protected static boolean matchesField( final Entity entity, final Field field ) {
+
+        final Field entityField = entity.getField( field.getName() );
+
+        if ( entityField == null || entityField.getValue() == null ) {
+            return false;
+        }
+
+        return entityField.getValue().toString().equalsIgnoreCase( field.getValue().toString() );
+    }
+
+
 
 
     // fire the stages
     public Observable<CollectionIoEvent<MvccEntity>> stageRunner( CollectionIoEvent<Entity> writeData,
                                                                   WriteStart writeState ) {
 
-        return Observable.just( writeData ).map( writeState ).flatMap( mvccEntityCollectionIoEvent -> {
+        return Observable.just( writeData ).map( writeState ).flatMap( this::verify );
+    }
 
-            Observable<CollectionIoEvent<MvccEntity>> uniqueObservable =
-                Observable.just( mvccEntityCollectionIoEvent ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
-                    .doOnNext( writeVerifyUnique );
 
+    /**
+     * Run the unique and optimistic verification of a started write in parallel
+     */
+    private Observable<CollectionIoEvent<MvccEntity>> verify(
+        final CollectionIoEvent<MvccEntity> mvccEntityCollectionIoEvent ) {
 
-            // optimistic verification
-            Observable<CollectionIoEvent<MvccEntity>> optimisticObservable =
-                Observable.just( mvccEntityCollectionIoEvent ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
-                    .doOnNext( writeOptimisticVerify );
+        Observable<CollectionIoEvent<MvccEntity>> uniqueObservable =
+            Observable.just( mvccEntityCollectionIoEvent ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
+                .doOnNext( writeVerifyUnique );
 
-            final Observable<CollectionIoEvent<MvccEntity>> zip =
-                Observable.zip( uniqueObservable, optimisticObservable, ( unique, optimistic ) -> optimistic );
 
-            return zip;
-        } );
+        // optimistic verification
+        Observable<CollectionIoEvent<MvccEntity>> optimisticObservable =
+            Observable.just( mvccEntityCollectionIoEvent ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
+                .doOnNext( writeOptimisticVerify );
+
+        return Observable.zip( uniqueObservable, optimisticObservable, ( unique, optimistic ) -> optimistic );
     }
 
 
@@ -467,28 +651,64 @@ public class EntityCollectionManagerImpl implements EntityCollectionManager {
     public Observable<VersionSet> getLatestVersion( final Collection<Id> entityIds ) {
 
 
-        final Observable<VersionSet> observable =
-            Observable.create( new Observable.OnSubscribe<VersionSet>() {
+        final Observable<VersionSet> observable = Observable.defer( () -> {
 
-            @Override
-            public void call( final Subscriber<? super VersionSet> subscriber ) {
-                try {
-                    final VersionSet logEntries = mvccLogEntrySerializationStrategy
-                        .load( applicationScope, entityIds, UUIDGenerator.newTimeUUID() );
+            final UUID maxVersion = UUIDGenerator.newTimeUUID();
 
-                    subscriber.onNext( logEntries );
-                    subscriber.onCompleted();
-                }
-                catch ( Exception e ) {
-                    subscriber.onError( e );
-                }
+            final VersionSetImpl versionSet = new VersionSetImpl( entityIds.size() );
+
+            //only the entities we don't have cached are read from the log
+            final List<Id> missing = latestVersionCache.get( applicationScope, entityIds, versionSet );
+
+            if ( missing.isEmpty() ) {
+                return Observable.just( versionSet );
+            }
+
+            final int batchSize = serializationFig.getLogLoadBatchSize();
+
+            final Observable<List<MvccLogEntry>> logEntries;
+
+            //a single batch is read on the caller's thread, otherwise read the rows in batches a few at a time
+            if ( missing.size() <= batchSize ) {
+                logEntries = Observable.just( missing ).map( ids -> loadLatestVersions( ids, maxVersion ) );
+            }
+            else {
+                logEntries = Observable.from( Lists.partition( missing, batchSize ) ).flatMap(
+                    ids -> Observable.just( ids ).subscribeOn( rxTaskScheduler.getAsyncIOScheduler() )
+                                     .map( batch -> loadLatestVersions( batch, maxVersion ) ),
+                    serializationFig.getLogLoadConcurrency() );
             }
+
+            return logEntries.collect( () -> versionSet,
+                ( set, loaded ) -> loaded.forEach( logEntry -> versionSet.addEntry( logEntry ) ) );
         } );
 
         return ObservableTimer.time( observable, getLatestTimer );
     }
 
 
+    /**
+     * Read the latest log entries of the entities and cache them
+     */
+    private List<MvccLogEntry> loadLatestVersions( final List<Id> entityIds, final UUID maxVersion ) {
+
+        final VersionSet loaded = mvccLogEntrySerializationStrategy.load( applicationScope, entityIds, maxVersion );
+
+        final List<MvccLogEntry> logEntries = new ArrayList<>( loaded.size() );
+
+        for ( final Id entityId : entityIds ) {
+            final MvccLogEntry logEntry = loaded.getMaxVersion( entityId );
+
+            if ( logEntry != null ) {
+                latestVersionCache.put( applicationScope, logEntry );
+                logEntries.add( logEntry );
+            }
+        }
+
+        return logEntries;
+    }
+
+
     @Override
     public Health getHealth() {
 
@@ -30,10 +30,14 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
 import org.apache.usergrid.persistence.collection.mvcc.entity.MvccValidationUtils;
 import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
 import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccLogEntryImpl;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
@@ -67,6 +71,9 @@ public class MarkCommit implements Action1<CollectionIoEvent<MvccEntity>> {
     private final ActorSystemFig actorSystemFig;
     private final UniqueValuesFig uniqueValuesFig;
     private final UniqueValuesService uniqueValuesService;
+    private final LatestVersionCache latestVersionCache;
+    private final AliasCache aliasCache;
+    private final EntityChangeLogSerialization entityChangeLogSerialization;
 
 
     @Inject
@@ -77,7 +84,10 @@ public class MarkCommit implements Action1<CollectionIoEvent<MvccEntity>> {
                        final ActorSystemFig actorSystemFig,
                        final UniqueValuesFig uniqueValuesFig,
                        final UniqueValuesService uniqueValuesService,
-                       final Keyspace keyspace ) {
+                       final Keyspace keyspace,
+                       final LatestVersionCache latestVersionCache,
+                       final AliasCache aliasCache,
+                       final EntityChangeLogSerialization entityChangeLogSerialization ) {
 
 
         Preconditions.checkNotNull( logStrat, "logEntrySerializationStrategy is required" );
@@ -91,6 +101,9 @@ public class MarkCommit implements Action1<CollectionIoEvent<MvccEntity>> {
         this.uniqueValuesFig = uniqueValuesFig;
         this.uniqueValuesService = uniqueValuesService;
         this.keyspace = keyspace;
+        this.latestVersionCache = latestVersionCache;
+        this.aliasCache = aliasCache;
+        this.entityChangeLogSerialization = entityChangeLogSerialization;
     }
 
 
@@ -120,12 +133,20 @@ public class MarkCommit implements Action1<CollectionIoEvent<MvccEntity>> {
         try {
             final MutationBatch entityBatch = entityStrat.mark( applicationScope, entityId, version );
             entityStateBatch.mergeShallow( entityBatch );
+            entityStateBatch.mergeShallow( entityChangeLogSerialization
+                .write( applicationScope, new EntityChange( entityId, version, EntityChange.Type.DELETE ) ) );
             entityStateBatch.execute();
         }
         catch ( ConnectionException e ) {
             throw new RuntimeException( "Unable to mark entry as deleted" );
         }
 
+        //the tombstone is now the latest version
+        latestVersionCache.put( applicationScope, startEntry );
+
+        //the unique values of a deleted entity no longer resolve to it
+        aliasCache.invalidate( applicationScope, entityId );
+
         // TODO: do we need this or can we rely on UniqueCleanup + Cassandra replication?
 //
 //        // actorSystemFig may be null in testing
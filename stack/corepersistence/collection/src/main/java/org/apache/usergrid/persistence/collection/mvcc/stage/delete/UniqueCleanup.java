@@ -32,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.usergrid.persistence.collection.MvccEntity;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
 import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValue;
@@ -69,18 +70,21 @@ public class UniqueCleanup
 
     private final SerializationFig serializationFig;
 
+    private final AliasCache aliasCache;
+
 
     @Inject
     public UniqueCleanup( final SerializationFig serializationFig,
                           final UniqueValueSerializationStrategy uniqueValueSerializationStrategy,
                           final Keyspace keyspace, final MetricsFactory metricsFactory,
-                          final Session session ) {
+                          final Session session, final AliasCache aliasCache ) {
 
         this.serializationFig = serializationFig;
         this.uniqueValueSerializationStrategy = uniqueValueSerializationStrategy;
         this.keyspace = keyspace;
         this.uniqueCleanupTimer = metricsFactory.getTimer( UniqueCleanup.class, "uniquecleanup.base" );
         this.session = session;
+        this.aliasCache = aliasCache;
     }
 
 
@@ -146,6 +150,11 @@ public class UniqueCleanup
 
                             session.execute(uniqueCleanupBatch);
 
+                            for ( UniqueValue value : uniqueValues ) {
+                                aliasCache.invalidate( applicationScope, value.getEntityId(),
+                                    Collections.singleton( value.getField() ) );
+                            }
+
                         } ).lastOrDefault( Collections.emptyList() ).map( list -> mvccEntityCollectionIoEvent );
 
                 return ObservableTimer.time( uniqueValueCleanup, uniqueCleanupTimer );
@@ -18,13 +18,18 @@
 package org.apache.usergrid.persistence.collection.mvcc.stage.write;
 
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 
 import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.DriverException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
@@ -38,11 +43,15 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
 import org.apache.usergrid.persistence.collection.exception.WriteCommitException;
 import org.apache.usergrid.persistence.collection.mvcc.entity.MvccValidationUtils;
 import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
 import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccLogEntryImpl;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValue;
@@ -86,6 +95,12 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
 
     private final Session session;
 
+    private final LatestVersionCache latestVersionCache;
+
+    private final AliasCache aliasCache;
+
+    private final EntityChangeLogSerialization entityChangeLogSerialization;
+
 
     @Inject
     public WriteCommit( final MvccLogEntrySerializationStrategy logStrat,
@@ -94,7 +109,10 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
                         final ActorSystemFig actorSystemFig,
                         final UniqueValuesFig uniqueValuesFig,
                         final UniqueValuesService akkaUvService,
-                        final Session session ) {
+                        final Session session,
+                        final LatestVersionCache latestVersionCache,
+                        final AliasCache aliasCache,
+                        final EntityChangeLogSerialization entityChangeLogSerialization ) {
 
 
         Preconditions.checkNotNull( logStrat, "MvccLogEntrySerializationStrategy is required" );
@@ -108,6 +126,9 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
         this.uniqueValuesFig = uniqueValuesFig;
         this.akkaUvService = akkaUvService;
         this.session = session;
+        this.latestVersionCache = latestVersionCache;
+        this.aliasCache = aliasCache;
+        this.entityChangeLogSerialization = entityChangeLogSerialization;
 
     }
 
@@ -118,13 +139,150 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
     }
 
 
+    /**
+     * Commit a chunk of entities that have all passed verification.  The permanent unique values of the chunk are
+     * written first, each as its own small statement, so a failure leaves no committed entity without its unique
+     * values.  The log entries and entity data of the chunk are then merged into a single mutation.  Callers bound
+     * the chunk size with collection.write.batch.commit.size
+     *
+     * When unique values are confirmed via Akka, an entity whose unique values are taken by another entity is
+     * dropped from the chunk and the rest are committed.
+     *
+     * @return The entities that were committed
+     */
+    public List<CollectionIoEvent<MvccEntity>> commit( final List<CollectionIoEvent<MvccEntity>> ioEvents ) {
+
+        Preconditions.checkArgument( !ioEvents.isEmpty(), "At least one entity is required to commit" );
+
+        final CollectionIoEvent<MvccEntity> first = ioEvents.get( 0 );
+        final ApplicationScope applicationScope = first.getEntityCollection();
+
+        final List<CollectionIoEvent<MvccEntity>> committed = new ArrayList<>( ioEvents.size() );
+        final List<MvccLogEntry> commitEntries = new ArrayList<>( ioEvents.size() );
+        final List<Statement> uniqueStatements = new ArrayList<>();
+
+        MutationBatch mutation = null;
+
+        for ( final CollectionIoEvent<MvccEntity> ioEvent : ioEvents ) {
+
+            final MvccEntity mvccEntity = ioEvent.getEvent();
+            final MvccLogEntry commitEntry = prepareCommit( ioEvent );
+
+            if ( isAkkaUniqueValues() ) {
+                try {
+                    confirmUniqueFieldsAkka( mvccEntity, commitEntry.getVersion(), applicationScope,
+                        getAuthoritativeRegion( ioEvent ) );
+                }
+                catch ( WriteUniqueVerifyException e ) {
+                    logger.warn( "Entity {} failed verification and was dropped from the batch write: {}",
+                        mvccEntity.getId(), e.getMessage() );
+                    continue;
+                }
+            }
+            else {
+                uniqueStatements.addAll( uniqueFieldStatements( mvccEntity, commitEntry.getVersion(),
+                    applicationScope ) );
+            }
+
+            final MutationBatch entityMutation = commitMutation( applicationScope, mvccEntity, commitEntry );
+
+            if ( mutation == null ) {
+                mutation = entityMutation;
+            }
+            else {
+                mutation.mergeShallow( entityMutation );
+            }
+
+            committed.add( ioEvent );
+            commitEntries.add( commitEntry );
+        }
+
+        if ( committed.isEmpty() ) {
+            return committed;
+        }
+
+        try {
+            //each unique value is its own partition, so write them concurrently rather than in one large batch
+            final List<ResultSetFuture> uniqueWrites = new ArrayList<>( uniqueStatements.size() );
+
+            for ( final Statement statement : uniqueStatements ) {
+                uniqueWrites.add( session.executeAsync( statement ) );
+            }
+
+            for ( final ResultSetFuture uniqueWrite : uniqueWrites ) {
+                uniqueWrite.getUninterruptibly();
+            }
+        }
+        catch ( DriverException e ) {
+            logger.error( "Failed to write unique values of batch ", e );
+            throw new WriteCommitException( first.getEvent(), applicationScope,
+                "Failed to write unique values of batch ", e );
+        }
+
+        try {
+            mutation.execute();
+        }
+        catch ( ConnectionException e ) {
+            logger.error( "Failed to execute batch write ", e );
+            throw new WriteCommitException( first.getEvent(), applicationScope, "Failed to execute batch write ",
+                e );
+        }
+
+        for ( final MvccLogEntry commitEntry : commitEntries ) {
+            latestVersionCache.put( applicationScope, commitEntry );
+        }
+
+        for ( final CollectionIoEvent<MvccEntity> ioEvent : committed ) {
+            invalidateAliases( applicationScope, ioEvent.getEvent() );
+        }
+
+        return committed;
+    }
+
+
     private CollectionIoEvent<MvccEntity> confirmUniqueFields(CollectionIoEvent<MvccEntity> ioEvent) {
+        final MvccEntity mvccEntity = ioEvent.getEvent();
+        final ApplicationScope applicationScope = ioEvent.getEntityCollection();
+
+        final MvccLogEntry startEntry = prepareCommit( ioEvent );
+        final UUID version = startEntry.getVersion();
+
+        MutationBatch logMutation = commitMutation( applicationScope, mvccEntity, startEntry );
+
+        // akkaFig may be null when this is called from JUnit tests
+        if ( isAkkaUniqueValues() ) {
+            confirmUniqueFieldsAkka( mvccEntity, version, applicationScope, getAuthoritativeRegion( ioEvent ) );
+        } else {
+            confirmUniqueFields( mvccEntity, version, applicationScope, logMutation );
+        }
+
+        try {
+            logMutation.execute();
+        }
+        catch ( ConnectionException e ) {
+            logger.error( "Failed to execute write asynchronously ", e );
+            throw new WriteCommitException( mvccEntity, applicationScope,
+                "Failed to execute write asynchronously ", e );
+        }
+
+        //the committed version is now the latest
+        latestVersionCache.put( applicationScope, startEntry );
+
+        invalidateAliases( applicationScope, mvccEntity );
+
+        return ioEvent;
+    }
+
+
+    /**
+     * Validate the entity, set its version and create the log entry that marks it committed
+     */
+    private MvccLogEntry prepareCommit( final CollectionIoEvent<MvccEntity> ioEvent ) {
         final MvccEntity mvccEntity = ioEvent.getEvent();
         MvccValidationUtils.verifyMvccEntityWithEntity( mvccEntity );
 
         final Id entityId = mvccEntity.getId();
         final UUID version = mvccEntity.getVersion();
-        final ApplicationScope applicationScope = ioEvent.getEntityCollection();
 
         //set the version into the entity
         final Entity entity = mvccEntity.getEntity().get();
@@ -134,12 +292,17 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
         MvccValidationUtils.verifyMvccEntityWithEntity( ioEvent.getEvent() );
         ValidationUtils.verifyTimeUuid( version ,"version" );
 
-        final MvccLogEntry startEntry =
-            new MvccLogEntryImpl( entityId, version, Stage.COMMITTED, MvccLogEntry.State.COMPLETE );
+        return new MvccLogEntryImpl( entityId, version, Stage.COMMITTED, MvccLogEntry.State.COMPLETE );
+    }
 
 
+    /**
+     * Merge the log entry, the entity data and the change log entry into a single mutation
+     */
+    private MutationBatch commitMutation( final ApplicationScope applicationScope, final MvccEntity mvccEntity,
+                                          final MvccLogEntry commitEntry ) {
 
-        MutationBatch logMutation = logEntryStrat.write( applicationScope, startEntry );
+        MutationBatch logMutation = logEntryStrat.write( applicationScope, commitEntry );
 
         // now get our actual insert into the entity data
         MutationBatch entityMutation = entityStrat.write( applicationScope, mvccEntity );
@@ -147,61 +310,98 @@ public class WriteCommit implements Func1<CollectionIoEvent<MvccEntity>, Collect
         // merge the 2 into 1 mutation
         logMutation.mergeShallow( entityMutation );
 
-        // akkaFig may be null when this is called from JUnit tests
-        if ( actorSystemFig != null && actorSystemFig.getEnabled() && uniqueValuesFig.getUnqiueValueViaCluster() ) {
-            String authoritativeRegion = ioEvent.getAuthoritativeRegion();
-            if ( StringUtils.isEmpty(authoritativeRegion) ) {
-                authoritativeRegion = uniqueValuesFig.getAuthoritativeRegion();
-            }
-            if ( StringUtils.isEmpty(authoritativeRegion) ) {
-                authoritativeRegion = actorSystemFig.getRegionLocal();
+        // record the change in the same mutation so it is only visible once the write commits
+        logMutation.mergeShallow( entityChangeLogSerialization.write( applicationScope,
+            new EntityChange( mvccEntity.getId(), mvccEntity.getVersion(), EntityChange.Type.WRITE ) ) );
+
+        return logMutation;
+    }
+
+
+    /**
+     * The unique values of the entity now resolve to it, and the values it had before may resolve to nothing
+     */
+    private void invalidateAliases( final ApplicationScope applicationScope, final MvccEntity mvccEntity ) {
+
+        final List<Field> uniqueFields = new ArrayList<>();
+
+        for ( final Field field : mvccEntity.getEntity().get().getFields() ) {
+            if ( field.isUnique() ) {
+                uniqueFields.add( field );
             }
-            confirmUniqueFieldsAkka( mvccEntity, version, applicationScope, authoritativeRegion );
-        } else {
-            confirmUniqueFields( mvccEntity, version, applicationScope, logMutation );
         }
 
+        aliasCache.invalidate( applicationScope, mvccEntity.getId(), uniqueFields );
+    }
+
+
+    private boolean isAkkaUniqueValues() {
+        return actorSystemFig != null && actorSystemFig.getEnabled() && uniqueValuesFig.getUnqiueValueViaCluster();
+    }
+
+
+    private String getAuthoritativeRegion( final CollectionIoEvent<MvccEntity> ioEvent ) {
+        String authoritativeRegion = ioEvent.getAuthoritativeRegion();
+        if ( StringUtils.isEmpty(authoritativeRegion) ) {
+            authoritativeRegion = uniqueValuesFig.getAuthoritativeRegion();
+        }
+        if ( StringUtils.isEmpty(authoritativeRegion) ) {
+            authoritativeRegion = actorSystemFig.getRegionLocal();
+        }
+        return authoritativeRegion;
+    }
+
+
+    private void confirmUniqueFields(
+        MvccEntity mvccEntity, UUID version, ApplicationScope scope, MutationBatch logMutation) {
+
+        // re-write the unique values but this time with no TTL
+        final BatchStatement uniqueBatch = new BatchStatement();
+
+        addUniqueFields( mvccEntity, version, scope, uniqueBatch );
+
         try {
             logMutation.execute();
+            session.execute(uniqueBatch);
         }
         catch ( ConnectionException e ) {
             logger.error( "Failed to execute write asynchronously ", e );
-            throw new WriteCommitException( mvccEntity, applicationScope,
+            throw new WriteCommitException( mvccEntity, scope,
                 "Failed to execute write asynchronously ", e );
         }
+    }
 
-        return ioEvent;
+
+    private void addUniqueFields(
+        MvccEntity mvccEntity, UUID version, ApplicationScope scope, BatchStatement uniqueBatch ) {
+
+        for ( Statement statement : uniqueFieldStatements( mvccEntity, version, scope ) ) {
+            uniqueBatch.add( statement );
+        }
     }
 
 
-    private void confirmUniqueFields(
-        MvccEntity mvccEntity, UUID version, ApplicationScope scope, MutationBatch logMutation) {
+    /**
+     * The statements that write the unique values of the entity with no TTL
+     */
+    private List<Statement> uniqueFieldStatements( MvccEntity mvccEntity, UUID version, ApplicationScope scope ) {
 
         final Entity entity = mvccEntity.getEntity().get();
 
-        // re-write the unique values but this time with no TTL
-        final BatchStatement uniqueBatch = new BatchStatement();
+        final List<Statement> statements = new ArrayList<>();
 
-        for ( Field field : EntityUtils.getUniqueFields(mvccEntity.getEntity().get()) ) {
+        for ( Field field : EntityUtils.getUniqueFields(entity) ) {
 
                 UniqueValue written  = new UniqueValueImpl( field, entity.getId(), version);
 
-                uniqueBatch.add(uniqueValueStrat.writeCQL(scope,  written, -1 ));
+                statements.add(uniqueValueStrat.writeCQL(scope,  written, -1 ));
 
                 logger.debug("Finalizing {} unique value {}", field.getName(), field.getValue().toString());
 
 
         }
 
-        try {
-            logMutation.execute();
-            session.execute(uniqueBatch);
-        }
-        catch ( ConnectionException e ) {
-            logger.error( "Failed to execute write asynchronously ", e );
-            throw new WriteCommitException( mvccEntity, scope,
-                "Failed to execute write asynchronously ", e );
-        }
+        return statements;
     }
 
 
@@ -169,41 +169,39 @@ public class WriteUniqueVerify implements Action1<CollectionIoEvent<MvccEntity>>
 
         final Map<String, Field> preWriteUniquenessViolations = new HashMap<>( uniqueFields.size() );
 
-        for ( final Field field : EntityUtils.getUniqueFields(entity)) {
+        final List<Field> entityUniqueFields = EntityUtils.getUniqueFields( entity );
 
-            // if it's unique, create a function to validate it and add it to the list of
-            // concurrent validations
+        // don't use read repair on this pre-write check, and read every unique field in one go rather than a
+        // round trip per field
+        final UniqueValueSet existingValues = entityUniqueFields.isEmpty() ? null :
+            uniqueValueStrat.load( scope, cassandraFig.getDataStaxReadCl(), mvccEntity.getId().getType(),
+                entityUniqueFields, false );
+
+        for ( final Field field : entityUniqueFields ) {
 
             // use write-first then read strategy
             final UniqueValue written = new UniqueValueImpl( field, mvccEntity.getId(), mvccEntity.getVersion() );
 
-
-            // don't use read repair on this pre-write check
-            UniqueValueSet set = uniqueValueStrat.load(scope, cassandraFig.getDataStaxReadCl(),
-                written.getEntityId().getType(), Collections.singletonList(written.getField()), false);
-
-            set.forEach(uniqueValue -> {
-
-                if(!uniqueValue.getEntityId().getUuid().equals(written.getEntityId().getUuid())){
-
-                    if(logger.isTraceEnabled()){
-                        logger.trace("Pre-write violation detected. Attempted write for unique value [{}={}] and " +
-                            "entity id [{}], entity version [{}] conflicts with already existing entity id [{}], " +
-                            "entity version [{}]",
-                            written.getField().getName(),
-                            written.getField().getValue().toString(),
-                            written.getEntityId().getUuid(),
-                            written.getEntityVersion(),
-                            uniqueValue.getEntityId().getUuid(),
-                            uniqueValue.getEntityVersion());
-                    }
-
-                    preWriteUniquenessViolations.put(field.getName(), field);
-
+            final UniqueValue uniqueValue = existingValues.getValue( field.getName() );
+
+            if ( uniqueValue != null
+                && !uniqueValue.getEntityId().getUuid().equals( written.getEntityId().getUuid() ) ) {
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("Pre-write violation detected. Attempted write for unique value [{}={}] and " +
+                        "entity id [{}], entity version [{}] conflicts with already existing entity id [{}], " +
+                        "entity version [{}]",
+                        written.getField().getName(),
+                        written.getField().getValue().toString(),
+                        written.getEntityId().getUuid(),
+                        written.getEntityVersion(),
+                        uniqueValue.getEntityId().getUuid(),
+                        uniqueValue.getEntityVersion());
                 }
 
-            });
+                preWriteUniquenessViolations.put(field.getName(), field);
 
+            }
 
 
             // only build the batch statement if we don't have a violation for the field
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.serialization;
+
+
+import java.util.Iterator;
+import java.util.UUID;
+
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
+import org.apache.usergrid.persistence.core.migration.schema.Migration;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+
+import com.netflix.astyanax.MutationBatch;
+
+
+/**
+ * Serializes the change log of each application.  Changes are kept in rows per time bucket of their version, and
+ * each bucket is sharded by entity id so busy applications don't write a single hot row
+ */
+public interface EntityChangeLogSerialization extends Migration {
+
+    /**
+     * Write the change, to be merged into the mutation that commits it
+     *
+     * @param applicationScope The application scope of the changed entity
+     * @param change The change to record
+     *
+     * @return The mutation batch with the change, empty if the change log is disabled
+     */
+    MutationBatch write( ApplicationScope applicationScope, EntityChange change );
+
+    /**
+     * Get the changes of the application ordered by version, from the shards of each time bucket merged together
+     *
+     * @param applicationScope The application scope to read
+     * @param after The version of the last change already read, exclusive.  Null to read from the oldest change kept
+     * @param until The latest version timestamp in milliseconds to return changes up to, inclusive
+     */
+    Iterator<EntityChange> getChanges( ApplicationScope applicationScope, UUID after, long until );
+}
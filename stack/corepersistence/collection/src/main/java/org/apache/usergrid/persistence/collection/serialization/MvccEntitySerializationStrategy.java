@@ -33,6 +33,8 @@ import org.apache.usergrid.persistence.model.entity.Id;
 import com.google.common.base.Optional;
 import com.netflix.astyanax.MutationBatch;
 
+import rx.Observable;
+
 
 /**
  * The interface that allows us to serialize an entity to disk
@@ -57,6 +59,15 @@ public interface MvccEntitySerializationStrategy extends Migration, VersionedDat
      */
     EntitySet load( ApplicationScope scope, Collection<Id> entityIds, UUID maxVersion );
 
+    /**
+     * Load the entities with the specified Ids, emitting each one as soon as the slice of rows containing it is
+     * read.  Loads versions <= the maxVersion.  Unlike {@link #load(ApplicationScope, Collection, UUID)} there is
+     * no limit on the number of Ids, and the whole set is never held in memory at once
+     *
+     * @return An observable of every entity that could be located, in no particular order
+     */
+    Observable<MvccEntity> loadStream( ApplicationScope scope, Collection<Id> entityIds, UUID maxVersion );
+
     /**
      * Load a list, from highest to lowest of the entity with versions <= version up to maxSize elements
      *
@@ -58,4 +58,56 @@ public interface SerializationFig extends GuicyFig {
     @Default( "150" )
     int getUniqueVerifyPoolSize();
 
+
+    /**
+     * The number of entity log rows read in each request when loading the latest versions of many entities
+     */
+    @Key( "collection.log.load.batch.size" )
+    @Default( "100" )
+    int getLogLoadBatchSize();
+
+    /**
+     * The number of log row requests run at once when loading the latest versions of many entities
+     */
+    @Key( "collection.log.load.concurrency" )
+    @Default( "4" )
+    int getLogLoadConcurrency();
+
+    /**
+     * The number of entity row slices requested at once when streaming the load of many entities
+     */
+    @Key( "collection.load.stream.concurrency" )
+    @Default( "4" )
+    int getLoadStreamConcurrency();
+
+    /**
+     * The number of entities verified at once when writing a batch of entities
+     */
+    @Key( "collection.write.batch.concurrency" )
+    @Default( "10" )
+    int getWriteBatchConcurrency();
+
+    /**
+     * The most entities committed with one mutation when writing a batch of entities.  Larger batches are committed in
+     * chunks of this size so their statements stay under the Cassandra batch size limits
+     */
+    @Key( "collection.write.batch.commit.size" )
+    @Default( "100" )
+    int getWriteBatchCommitSize();
+
+    /**
+     * The number of the newest versions of an entity that are kept when superseded versions are removed
+     */
+    @Key( "collection.version.retain.count" )
+    @Default( "2" )
+    int getVersionRetainCount();
+
+    /**
+     * Versions written within this many milliseconds are never removed, so reads and index updates still in flight
+     * find them
+     */
+    @Key( "collection.version.retain.ms" )
+    @Default( "60000" )
+    long getVersionRetainMs();
+
 }
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.serialization.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.cassandra.db.marshal.BytesType;
+import org.apache.cassandra.db.marshal.UUIDType;
+
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogFig;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
+import org.apache.usergrid.persistence.core.CassandraConfig;
+import org.apache.usergrid.persistence.core.astyanax.BucketScopedRowKey;
+import org.apache.usergrid.persistence.core.astyanax.BucketScopedRowKeySerializer;
+import org.apache.usergrid.persistence.core.astyanax.ColumnParser;
+import org.apache.usergrid.persistence.core.astyanax.ColumnSearch;
+import org.apache.usergrid.persistence.core.astyanax.CompositeFieldSerializer;
+import org.apache.usergrid.persistence.core.astyanax.IdRowCompositeSerializer;
+import org.apache.usergrid.persistence.core.astyanax.MultiRowColumnIterator;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamily;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.shard.ExpandingShardLocator;
+import org.apache.usergrid.persistence.core.shard.StringHashUtils;
+import org.apache.usergrid.persistence.core.util.ValidationUtils;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.fasterxml.uuid.UUIDComparator;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.hash.Funnel;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.MutationBatch;
+import com.netflix.astyanax.model.CompositeBuilder;
+import com.netflix.astyanax.model.CompositeParser;
+import com.netflix.astyanax.model.Composites;
+import com.netflix.astyanax.serializers.UUIDSerializer;
+import com.netflix.astyanax.util.RangeBuilder;
+
+
+/**
+ * Stores changes in rows keyed by application, shard and the start time of their time bucket, with a column per
+ * change named by its version.  Entities are hashed to shards with the same expanding shard settings as the graph
+ */
+@Singleton
+public class EntityChangeLogSerializationImpl implements EntityChangeLogSerialization {
+
+    /**
+     * The number of 100ns intervals between the uuid epoch and the unix epoch
+     */
+    private static final long UUID_EPOCH_OFFSET = 0x01b21dd213814000L;
+
+    private static final IdRowCompositeSerializer ID_SER = IdRowCompositeSerializer.get();
+
+    /**
+     * Serializes the start time of the bucket into the row key
+     */
+    private static final CompositeFieldSerializer<Long> BUCKET_SER = new CompositeFieldSerializer<Long>() {
+
+        @Override
+        public void toComposite( final CompositeBuilder builder, final Long bucket ) {
+            builder.addLong( bucket );
+        }
+
+
+        @Override
+        public Long fromComposite( final CompositeParser composite ) {
+            return composite.readLong();
+        }
+    };
+
+    private static final BucketScopedRowKeySerializer<Long> ROW_KEY_SER =
+        new BucketScopedRowKeySerializer<>( BUCKET_SER );
+
+    private static final MultiTenantColumnFamily<BucketScopedRowKey<Long>, UUID> CF_ENTITY_CHANGE_LOG =
+        new MultiTenantColumnFamily<>( "Entity_Change_Log", ROW_KEY_SER, UUIDSerializer.get() );
+
+
+    /**
+     * Funnel for hashing ids
+     */
+    private static final Funnel<Id> ID_FUNNEL = ( from, into ) -> {
+        final UUID id = from.getUuid();
+
+        into.putLong( id.getMostSignificantBits() );
+        into.putLong( id.getLeastSignificantBits() );
+        into.putString( from.getType(), StringHashUtils.UTF8 );
+    };
+
+    private static final Comparator<EntityChange> VERSION_COMPARATOR =
+        ( first, second ) -> UUIDComparator.staticCompare( first.getVersion(), second.getVersion() );
+
+    private static final ColumnParser<UUID, EntityChange> PARSER = column -> {
+        final CompositeParser parser = Composites.newCompositeParser( column.getByteBufferValue() );
+
+        final Id entityId = ID_SER.fromComposite( parser );
+        final EntityChange.Type type = EntityChange.Type.fromId( parser.readInteger() );
+
+        return new EntityChange( entityId, column.getName(), type );
+    };
+
+
+    private final Keyspace keyspace;
+    private final CassandraConfig cassandraConfig;
+    private final EntityChangeLogFig entityChangeLogFig;
+
+    private final ExpandingShardLocator<Id> shardLocator;
+
+    /**
+     * Every shard any of the shard settings writes to
+     */
+    private final int[] shards;
+
+
+    @Inject
+    public EntityChangeLogSerializationImpl( final Keyspace keyspace, final CassandraConfig cassandraConfig,
+                                             final EntityChangeLogFig entityChangeLogFig ) {
+        this.keyspace = keyspace;
+        this.cassandraConfig = cassandraConfig;
+        this.entityChangeLogFig = entityChangeLogFig;
+
+        final int[] shardSettings = cassandraConfig.getShardSettings();
+
+        this.shardLocator = new ExpandingShardLocator<>( ID_FUNNEL, shardSettings );
+
+        int maxShards = 0;
+        for ( final int shardSetting : shardSettings ) {
+            maxShards = Math.max( maxShards, shardSetting );
+        }
+
+        this.shards = new int[maxShards];
+        for ( int i = 0; i < maxShards; i++ ) {
+            shards[i] = i;
+        }
+    }
+
+
+    @Override
+    public MutationBatch write( final ApplicationScope applicationScope, final EntityChange change ) {
+
+        ValidationUtils.validateApplicationScope( applicationScope );
+        Preconditions.checkNotNull( change, "change is required" );
+
+        final MutationBatch batch = keyspace.prepareMutationBatch();
+
+        if ( !entityChangeLogFig.getEnabled() ) {
+            return batch;
+        }
+
+        final Id entityId = change.getEntityId();
+        final UUID version = change.getVersion();
+
+        final BucketScopedRowKey<Long> rowKey = BucketScopedRowKey
+            .fromKey( applicationScope.getApplication(), getBucket( getTimestamp( version ) ),
+                shardLocator.getCurrentBucket( entityId ) );
+
+        final CompositeBuilder value = Composites.newCompositeBuilder();
+        ID_SER.toComposite( value, entityId );
+        value.addInteger( change.getType().getId() );
+
+        batch.withRow( CF_ENTITY_CHANGE_LOG, rowKey ).putColumn( version, value.build(), entityChangeLogFig.getTtl() );
+
+        return batch;
+    }
+
+
+    @Override
+    public Iterator<EntityChange> getChanges( final ApplicationScope applicationScope, final UUID after,
+                                              final long until ) {
+
+        ValidationUtils.validateApplicationScope( applicationScope );
+        Preconditions.checkArgument( after == null || after.version() == 1, "after must be a time uuid" );
+
+        final long bucketSize = entityChangeLogFig.getBucketSize();
+
+        //nothing older than the ttl is left to read
+        final long oldest = System.currentTimeMillis() - entityChangeLogFig.getTtl() * 1000L;
+        final long firstBucket = getBucket( after == null ? oldest : Math.max( getTimestamp( after ), oldest ) );
+        final long lastBucket = getBucket( until );
+
+        //only query each bucket once the one before it is exhausted
+        final Iterator<Iterator<EntityChange>> buckets = new AbstractIterator<Iterator<EntityChange>>() {
+
+            private long bucket = firstBucket;
+
+
+            @Override
+            protected Iterator<EntityChange> computeNext() {
+                if ( bucket > lastBucket ) {
+                    return endOfData();
+                }
+
+                final Iterator<EntityChange> changes = getChanges( applicationScope, bucket, after );
+                bucket += bucketSize;
+                return changes;
+            }
+        };
+
+        final Iterator<EntityChange> changes = Iterators.concat( buckets );
+
+        return new AbstractIterator<EntityChange>() {
+
+            @Override
+            protected EntityChange computeNext() {
+                if ( changes.hasNext() ) {
+                    final EntityChange change = changes.next();
+
+                    if ( getTimestamp( change.getVersion() ) <= until ) {
+                        return change;
+                    }
+                }
+
+                return endOfData();
+            }
+        };
+    }
+
+
+    /**
+     * Merge the shards of the bucket in version order, starting after the given version if there is one
+     */
+    private Iterator<EntityChange> getChanges( final ApplicationScope applicationScope, final long bucket,
+                                               final UUID after ) {
+
+        final List<BucketScopedRowKey<Long>> rowKeys = new ArrayList<>( shards.length );
+
+        for ( final int shard : shards ) {
+            rowKeys.add( BucketScopedRowKey.fromKey( applicationScope.getApplication(), bucket, shard ) );
+        }
+
+        final ColumnSearch<EntityChange> search = new ColumnSearch<EntityChange>() {
+
+            @Override
+            public void buildRange( final RangeBuilder rangeBuilder, final EntityChange start,
+                                    final EntityChange end ) {
+                rangeBuilder.setStart( start.getVersion() );
+            }
+
+
+            @Override
+            public void buildRange( final RangeBuilder rangeBuilder ) {
+                if ( after != null ) {
+                    rangeBuilder.setStart( after );
+                }
+            }
+
+
+            @Override
+            public boolean skipFirst( final EntityChange first ) {
+                return after != null && first.getVersion().equals( after );
+            }
+        };
+
+        return new MultiRowColumnIterator<>( keyspace, CF_ENTITY_CHANGE_LOG, cassandraConfig.getReadCL(), PARSER,
+            search, VERSION_COMPARATOR, rowKeys, entityChangeLogFig.getPageSize() );
+    }
+
+
+    /**
+     * Get the start time of the bucket holding the timestamp
+     */
+    private long getBucket( final long timestamp ) {
+        return timestamp - timestamp % entityChangeLogFig.getBucketSize();
+    }
+
+
+    /**
+     * Get the unix timestamp in milliseconds of the version
+     */
+    private static long getTimestamp( final UUID version ) {
+        return ( version.timestamp() - UUID_EPOCH_OFFSET ) / 10000;
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        final MultiTenantColumnFamilyDefinition cf =
+            new MultiTenantColumnFamilyDefinition( CF_ENTITY_CHANGE_LOG, BytesType.class.getSimpleName(),
+                UUIDType.class.getSimpleName(), BytesType.class.getSimpleName(),
+                MultiTenantColumnFamilyDefinition.CacheOption.KEYS );
+
+        return Collections.singleton( cf );
+    }
+
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
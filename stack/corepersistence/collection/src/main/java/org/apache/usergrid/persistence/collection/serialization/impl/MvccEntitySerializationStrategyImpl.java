@@ -229,6 +229,23 @@ public abstract class MvccEntitySerializationStrategyImpl implements MvccEntityS
     }
 
 
+    /**
+     * These versions read the rows of each slice in a single column range, so stream by loading sets of at most
+     * the maximum load size one after another
+     */
+    @Override
+    public Observable<MvccEntity> loadStream( final ApplicationScope applicationScope,
+                                              final Collection<Id> entityIds, final UUID maxVersion ) {
+
+        Preconditions.checkNotNull( applicationScope, "applicationScope is required" );
+        Preconditions.checkNotNull( entityIds, "entityIds is required" );
+        Preconditions.checkNotNull( maxVersion, "version is required" );
+
+        return Observable.from( entityIds ).buffer( serializationFig.getMaxLoadSize() ).concatMap(
+            ids -> Observable.from( load( applicationScope, ids, maxVersion ).getEntities() ) );
+    }
+
+
     @Override
     public Iterator<MvccEntity> loadDescendingHistory( final ApplicationScope applicationScope, final Id entityId,
                                                        final UUID version, final int fetchSize ) {
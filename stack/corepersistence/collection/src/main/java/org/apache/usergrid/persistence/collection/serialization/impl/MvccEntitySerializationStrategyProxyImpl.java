@@ -40,6 +40,8 @@ import com.google.inject.Singleton;
 import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.MutationBatch;
 
+import rx.Observable;
+
 
 /**
  * Version 4 implementation of entity serialization. This will proxy writes and reads so that during
@@ -97,6 +99,20 @@ public class MvccEntitySerializationStrategyProxyImpl implements MvccEntitySeria
     }
 
 
+    @Override
+    public Observable<MvccEntity> loadStream( final ApplicationScope scope, final Collection<Id> entityIds,
+                                              final UUID maxVersion ) {
+
+        final MigrationRelationship<MvccEntitySerializationStrategy> migration = getMigrationRelationShip();
+
+        if ( migration.needsMigration() ) {
+            return migration.from.loadStream( scope, entityIds, maxVersion );
+        }
+
+        return migration.to.loadStream( scope, entityIds, maxVersion );
+    }
+
+
 
     @Override
     public Iterator<MvccEntity> loadDescendingHistory( final ApplicationScope context, final Id entityId,
@@ -2,11 +2,9 @@ package org.apache.usergrid.persistence.collection.serialization.impl;
 
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.List;
 import java.util.UUID;
 
 import com.codahale.metrics.Histogram;
@@ -17,6 +15,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.netflix.astyanax.serializers.StringSerializer;
 import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.core.metrics.HotKeyTracker;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,8 +54,6 @@ import com.netflix.astyanax.Keyspace;
 import com.netflix.astyanax.MutationBatch;
 import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
 import com.netflix.astyanax.model.Column;
-import com.netflix.astyanax.model.ColumnList;
-import com.netflix.astyanax.model.Row;
 import com.netflix.astyanax.serializers.AbstractSerializer;
 import com.netflix.astyanax.serializers.BooleanSerializer;
 
@@ -91,14 +88,17 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
     protected final Keyspace keyspace;
     protected final SerializationFig serializationFig;
     protected final CassandraFig cassandraFig;
+    protected final HotKeyTracker hotKeyTracker;
 
 
     @Inject
     public MvccEntitySerializationStrategyV3Impl( final Keyspace keyspace, final SerializationFig serializationFig,
-                                                  final CassandraFig cassandraFig, final MetricsFactory metricsFactory ) {
+                                                  final CassandraFig cassandraFig, final MetricsFactory metricsFactory,
+                                                  final HotKeyTracker hotKeyTracker ) {
         this.keyspace = keyspace;
         this.serializationFig = serializationFig;
         this.cassandraFig = cassandraFig;
+        this.hotKeyTracker = hotKeyTracker;
         this.entitySerializer = new EntitySerializer( serializationFig, metricsFactory );
     }
 
@@ -118,6 +118,8 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
 
         entity.setSize(byteBuffer.array().length);
 
+        hotKeyTracker.recordWrite( HotKeyTracker.Store.ENTITY, applicationScope, entityId, entity.getSize() );
+
         return doWrite( applicationScope, entityId, version, colMutation -> colMutation.putColumn( COL_VALUE, byteBuffer ) );
     }
 
@@ -139,20 +141,6 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
         }
 
 
-        final Id applicationId = applicationScope.getApplication();
-
-        final List<ScopedRowKey<Id>> rowKeys = new ArrayList<>( entityIds.size() );
-
-
-        for ( final Id entityId : entityIds ) {
-
-            final ScopedRowKey<Id> rowKey =
-                    ScopedRowKey.fromKey( applicationId, entityId );
-
-
-            rowKeys.add( rowKey );
-        }
-
         /**
          * Our settings may mean we exceed our maximum thrift buffer size. If we do, we have to make multiple
          * requests, not just one.
@@ -182,9 +170,49 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
         }
 
 
-        final EntitySetImpl entitySetResults = Observable.from( rowKeys )
+        final EntitySetImpl entitySetResults =
+            loadSlices( applicationScope, entityIds, ( int ) entitiesPerRequest, scheduler, 10 )
+                .collect( () -> new EntitySetImpl( entityIds.size() ),
+                    ( entitySet, entity ) -> entitySet.addEntity( entity ) ).toBlocking().last();
+
+
+
+        return entitySetResults;
+    }
+
+
+    @Override
+    public Observable<MvccEntity> loadStream( final ApplicationScope applicationScope,
+                                              final Collection<Id> entityIds, final UUID maxVersion ) {
+
+        Preconditions.checkNotNull( applicationScope, "applicationScope is required" );
+        Preconditions.checkNotNull( entityIds, "entityIds is required" );
+        Preconditions.checkNotNull( maxVersion, "version is required" );
+
+        //the most entities whose largest possible rows still fit in a single thrift buffer
+        final long entitiesPerBuffer = cassandraFig.getThriftBufferSize() / serializationFig.getMaxEntitySize();
+
+        final int entitiesPerRequest =
+            ( int ) Math.max( 1, Math.min( entitiesPerBuffer, serializationFig.getMaxLoadSize() ) );
+
+        return loadSlices( applicationScope, entityIds, entitiesPerRequest, Schedulers.io(),
+            serializationFig.getLoadStreamConcurrency() );
+    }
+
+
+    /**
+     * Read the latest rows of the entities in slices of entitiesPerRequest, with at most maxConcurrent slices in
+     * flight, emitting the entities of each slice as soon as it is returned
+     */
+    private Observable<MvccEntity> loadSlices( final ApplicationScope applicationScope,
+                                               final Collection<Id> entityIds, final int entitiesPerRequest,
+                                               final Scheduler scheduler, final int maxConcurrent ) {
+
+        final Id applicationId = applicationScope.getApplication();
+
+        return Observable.from( entityIds ).map( entityId -> ScopedRowKey.fromKey( applicationId, entityId ) )
             //buffer our entities per request, then for that buffer, execute the query in parallel (if neccessary)
-            .buffer( (int)entitiesPerRequest ).flatMap( listObservable -> {
+            .buffer( entitiesPerRequest ).flatMap( listObservable -> {
 
 
                 // here, we execute our query then emit the items either in parallel, or on the current thread
@@ -201,33 +229,24 @@ public class MvccEntitySerializationStrategyV3Impl implements MvccEntitySerializ
                             "An error occurred connecting to cassandra", e );
                     }
                 } ).subscribeOn( scheduler );
-            }, 10 ).collect( () -> new EntitySetImpl( entityIds.size() ), ( ( entitySet, rows ) -> {
-                final Iterator<Row<ScopedRowKey<Id>, Boolean>> latestEntityColumns = rows.iterator();
-
-                while ( latestEntityColumns.hasNext() ) {
-                    final Row<ScopedRowKey<Id>, Boolean> row = latestEntityColumns.next();
-
-                    final ColumnList<Boolean> columns = row.getColumns();
+            }, maxConcurrent ).concatMap( rows -> Observable.from( rows ) )
 
-                    if ( columns.size() == 0 ) {
-                        continue;
-                    }
-
-                    final Id entityId = row.getKey().getKey();
+            //rows with no columns were never written
+            .filter( row -> row.getColumns().size() > 0 ).map( row -> {
 
-                    final Column<Boolean> column = columns.getColumnByIndex( 0 );
+                final Id entityId = row.getKey().getKey();
 
-                    final MvccEntity parsedEntity =
-                        new MvccColumnParser( entityId, entitySerializer ).parseColumn( column );
+                final Column<Boolean> column = row.getColumns().getColumnByIndex( 0 );
 
+                final MvccEntity parsedEntity =
+                    new MvccColumnParser( entityId, entitySerializer ).parseColumn( column );
 
-                    entitySet.addEntity( parsedEntity );
-                }
-               } ) ).toBlocking().last();
 
+                hotKeyTracker.recordRead( HotKeyTracker.Store.ENTITY, applicationScope, entityId,
+                    parsedEntity.getSize() );
 
-
-        return entitySetResults;
+                return parsedEntity;
+            } );
     }
 
 
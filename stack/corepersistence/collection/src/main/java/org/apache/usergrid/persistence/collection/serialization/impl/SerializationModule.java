@@ -18,6 +18,7 @@
 package org.apache.usergrid.persistence.collection.serialization.impl;
 
 
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValueSerializationStrategy;
@@ -75,6 +76,9 @@ public class SerializationModule extends AbstractModule {
 
         bind( UniqueValueSerializationStrategy.class ).to( UniqueValueSerializationStrategyProxyImpl.class );
 
+        bind( EntityChangeLogSerializationImpl.class );
+        bind( EntityChangeLogSerialization.class ).to( EntityChangeLogSerializationImpl.class );
+
         //do multibindings for migrations
         Multibinder<Migration> migrationBinder = Multibinder.newSetBinder( binder(), Migration.class );
         //entity serialization versions
@@ -90,6 +94,9 @@ public class SerializationModule extends AbstractModule {
         migrationBinder.addBinding().to( Key.get( UniqueValueSerializationStrategyV1Impl.class ) );
         migrationBinder.addBinding().to( Key.get( UniqueValueSerializationStrategyV2Impl.class ) );
 
+        //change log serialization
+        migrationBinder.addBinding().to( Key.get( EntityChangeLogSerializationImpl.class ) );
+
 
         //bind our settings as an eager singleton so it's checked on startup
         bind( SettingsValidation.class ).asEagerSingleton();
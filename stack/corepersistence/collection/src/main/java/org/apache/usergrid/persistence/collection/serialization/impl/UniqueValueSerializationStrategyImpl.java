@@ -270,6 +270,9 @@ public abstract class UniqueValueSerializationStrategyImpl<FieldKey, EntityKey>
         final UniqueValueSetImpl uniqueValueSet = new UniqueValueSetImpl( fields.size() );
 
 
+        // every field is its own partition, so read them all at once rather than one after another
+        final List<ResultSetFuture> reads = new ArrayList<>( fields.size() );
+
         for ( Field field : fields ) {
 
             //log.info(Bytes.toHexString(getPartitionKey(applicationId, type,
@@ -285,7 +288,15 @@ public abstract class UniqueValueSerializationStrategyImpl<FieldKey, EntityKey>
                 .where(inKey)
                 .setConsistencyLevel(consistencyLevel);
 
-            final ResultSet resultSet = session.execute(statement);
+            reads.add( session.executeAsync( statement ) );
+        }
+
+
+        final Iterator<ResultSetFuture> readIterator = reads.iterator();
+
+        for ( Field field : fields ) {
+
+            final ResultSet resultSet = readIterator.next().getUninterruptibly();
 
 
             Iterator<com.datastax.driver.core.Row> results = resultSet.iterator();
@@ -22,12 +22,15 @@ import akka.actor.ActorRef;
 import akka.actor.UntypedActor;
 import akka.cluster.pubsub.DistributedPubSub;
 import akka.cluster.pubsub.DistributedPubSubMediator;
+import com.google.inject.Inject;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
- * Updates local unique values cache based on reservations and cancellations.
+ * Updates local unique values cache based on reservations and cancellations, and the local alias cache based on
+ * invalidations published by other nodes.
  */
 public class ReservationCacheActor extends UntypedActor {
     private static final Logger logger = LoggerFactory.getLogger( ReservationCacheActor.class );
@@ -35,7 +38,12 @@ public class ReservationCacheActor extends UntypedActor {
     int reservationCount = 0;
     int cancellationCount = 0;
 
-    public ReservationCacheActor() {
+    private final AliasCache aliasCache;
+
+    @Inject
+    public ReservationCacheActor( AliasCache aliasCache ) {
+
+        this.aliasCache = aliasCache;
 
         // subscribe to the topic named "content"
         ActorRef mediator = DistributedPubSub.get(getContext().system()).mediator();
@@ -75,6 +83,9 @@ public class ReservationCacheActor extends UntypedActor {
                 logger.debug("Removing completed {} from reservation cache", response.getConsistentHashKey());
             }
 
+        } else if ( msg instanceof AliasCache.Invalidation ) {
+            aliasCache.invalidate( (AliasCache.Invalidation) msg );
+
         } else if (msg instanceof DistributedPubSubMediator.SubscribeAck) {
             if(logger.isDebugEnabled()) {
                 logger.debug("subscribing");
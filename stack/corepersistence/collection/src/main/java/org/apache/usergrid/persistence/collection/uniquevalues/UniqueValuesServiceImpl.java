@@ -84,7 +84,7 @@ public class UniqueValuesServiceImpl implements UniqueValuesService {
 
     private void subscribeToReservations( ActorSystem localSystem ) {
         logger.info("Starting ReservationCacheUpdater");
-        localSystem.actorOf( Props.create( ReservationCacheActor.class ), "subscriber");
+        localSystem.actorOf( Props.create( GuiceActorProducer.class, ReservationCacheActor.class ), "subscriber");
     }
 
 
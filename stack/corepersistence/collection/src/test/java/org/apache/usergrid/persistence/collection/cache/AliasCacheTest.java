@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.Field;
+import org.apache.usergrid.persistence.model.field.StringField;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class AliasCacheTest {
+
+    private final ApplicationScope scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+    private AliasCache aliasCache;
+
+
+    @Before
+    public void setup() {
+        final EntityCacheFig entityCacheFig = mock( EntityCacheFig.class );
+        when( entityCacheFig.getAliasCacheSize() ).thenReturn( 100 );
+        when( entityCacheFig.getAliasCacheTimeout() ).thenReturn( 60000 );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenAnswer( invocation -> new Meter() );
+
+        aliasCache = new AliasCache( entityCacheFig, null, null, null, metricsFactory );
+    }
+
+
+    @Test
+    public void aliasesIgnoreCase() {
+
+        final Id entityId = new SimpleId( "user" );
+
+        aliasCache.put( scope, "user", new StringField( "username", "Bob" ), entityId, aliasCache.getStamp() );
+
+        assertEquals( Optional.of( entityId ), aliasCache.get( scope, "user", new StringField( "username", "bob" ) ) );
+        assertNull( aliasCache.get( scope, "group", new StringField( "username", "bob" ) ) );
+        assertNull( aliasCache
+            .get( new ApplicationScopeImpl( new SimpleId( "application" ) ), "user",
+                new StringField( "username", "bob" ) ) );
+    }
+
+
+    @Test
+    public void missingAliasesAreCached() {
+
+        final Field field = new StringField( "username", "nobody" );
+
+        aliasCache.put( scope, "user", field, null, aliasCache.getStamp() );
+
+        assertFalse( aliasCache.get( scope, "user", field ).isPresent() );
+
+        //creating the entity invalidates the missing value
+        aliasCache.invalidate( scope, new SimpleId( "user" ), Collections.singleton( field ) );
+
+        assertNull( aliasCache.get( scope, "user", field ) );
+    }
+
+
+    @Test
+    public void deletesInvalidateEveryAlias() {
+
+        final Id entityId = new SimpleId( "user" );
+        final Field username = new StringField( "username", "bob" );
+        final Field email = new StringField( "email", "bob@example.com" );
+
+        aliasCache.put( scope, "user", username, entityId, aliasCache.getStamp() );
+        aliasCache.put( scope, "user", email, entityId, aliasCache.getStamp() );
+
+        aliasCache.invalidate( scope, entityId );
+
+        assertNull( aliasCache.get( scope, "user", username ) );
+        assertNull( aliasCache.get( scope, "user", email ) );
+    }
+
+
+    @Test
+    public void racingLookupsAreNotCached() {
+
+        final Field field = new StringField( "username", "bob" );
+
+        //the lookup started before the entity was committed
+        final long stamp = aliasCache.getStamp();
+
+        aliasCache.invalidate( scope, new SimpleId( "user" ), Collections.singleton( field ) );
+        aliasCache.put( scope, "user", field, null, stamp );
+
+        assertNull( aliasCache.get( scope, "user", field ) );
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.cache;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
+import org.apache.usergrid.persistence.collection.mvcc.entity.impl.MvccLogEntryImpl;
+import org.apache.usergrid.persistence.collection.serialization.impl.VersionSetImpl;
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class LatestVersionCacheTest {
+
+    private final ApplicationScope scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+    private LatestVersionCache latestVersionCache;
+
+
+    @Before
+    public void setup() {
+        final EntityCacheFig entityCacheFig = mock( EntityCacheFig.class );
+        when( entityCacheFig.getLatestVersionCacheSize() ).thenReturn( 100 );
+        when( entityCacheFig.getLatestVersionCacheTimeout() ).thenReturn( 60000 );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenAnswer( invocation -> new Meter() );
+
+        latestVersionCache = new LatestVersionCache( entityCacheFig, metricsFactory );
+    }
+
+
+    @Test
+    public void missingEntitiesAreRead() {
+
+        final Id cached = new SimpleId( "test" );
+        final Id missing = new SimpleId( "test" );
+
+        final MvccLogEntry logEntry = logEntry( cached, UUIDGenerator.newTimeUUID(), MvccLogEntry.State.COMPLETE );
+
+        latestVersionCache.put( scope, logEntry );
+
+        final VersionSetImpl versionSet = new VersionSetImpl( 2 );
+        final List<Id> toRead = latestVersionCache.get( scope, Arrays.asList( cached, missing ), versionSet );
+
+        assertEquals( Arrays.asList( missing ), toRead );
+        assertSame( logEntry, versionSet.getMaxVersion( cached ) );
+        assertNull( versionSet.getMaxVersion( missing ) );
+
+        //other applications don't share versions
+        final List<Id> otherScope = latestVersionCache
+            .get( new ApplicationScopeImpl( new SimpleId( "application" ) ), Arrays.asList( cached ),
+                new VersionSetImpl( 1 ) );
+
+        assertEquals( Arrays.asList( cached ), otherScope );
+    }
+
+
+    @Test
+    public void olderVersionsAreIgnored() {
+
+        final Id entityId = new SimpleId( "test" );
+
+        final UUID older = UUIDGenerator.newTimeUUID();
+        final UUID newer = UUIDGenerator.newTimeUUID();
+
+        final MvccLogEntry deleted = logEntry( entityId, newer, MvccLogEntry.State.DELETED );
+
+        latestVersionCache.put( scope, deleted );
+        latestVersionCache.put( scope, logEntry( entityId, older, MvccLogEntry.State.COMPLETE ) );
+
+        final VersionSetImpl versionSet = new VersionSetImpl( 1 );
+        latestVersionCache.get( scope, Arrays.asList( entityId ), versionSet );
+
+        assertSame( deleted, versionSet.getMaxVersion( entityId ) );
+    }
+
+
+    private MvccLogEntry logEntry( final Id entityId, final UUID version, final MvccLogEntry.State state ) {
+        return new MvccLogEntryImpl( entityId, version, Stage.COMMITTED, state );
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.changes;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class EntityChangeLogServiceImplTest {
+
+    private final ApplicationScope scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+
+    @Test
+    public void changesAfterCursor() {
+
+        final UUID cursor = UUIDGenerator.newTimeUUID();
+
+        final List<EntityChange> changes = Arrays.asList(
+            new EntityChange( new SimpleId( "test" ), UUIDGenerator.newTimeUUID(), EntityChange.Type.WRITE ),
+            new EntityChange( new SimpleId( "test" ), UUIDGenerator.newTimeUUID(), EntityChange.Type.DELETE ) );
+
+        final EntityChangeLogSerialization serialization = mock( EntityChangeLogSerialization.class );
+        when( serialization.getChanges( eq( scope ), eq( cursor ), anyLong() ) )
+            .thenAnswer( invocation -> changes.iterator() );
+
+        final EntityChangeLogService service = new EntityChangeLogServiceImpl( serialization, fig( 10000 ) );
+
+        assertEquals( changes, service.getChanges( scope, cursor ).toList().toBlocking().last() );
+    }
+
+
+    @Test
+    public void changesWaitForReadDelay() {
+
+        final EntityChangeLogSerialization serialization = mock( EntityChangeLogSerialization.class );
+
+        final long[] until = new long[1];
+        when( serialization.getChanges( eq( scope ), eq( null ), anyLong() ) ).thenAnswer( invocation -> {
+            until[0] = ( Long ) invocation.getArguments()[2];
+            return Arrays.<EntityChange>asList().iterator();
+        } );
+
+        final EntityChangeLogService service = new EntityChangeLogServiceImpl( serialization, fig( 10000 ) );
+
+        final long before = System.currentTimeMillis();
+        service.getChanges( scope, null ).toBlocking().lastOrDefault( null );
+
+        assertTrue( until[0] >= before - 10000 );
+        assertTrue( until[0] <= System.currentTimeMillis() - 10000 );
+    }
+
+
+    private static EntityChangeLogFig fig( final long readDelay ) {
+        final EntityChangeLogFig fig = mock( EntityChangeLogFig.class );
+        when( fig.getReadDelay() ).thenReturn( readDelay );
+        return fig;
+    }
+}
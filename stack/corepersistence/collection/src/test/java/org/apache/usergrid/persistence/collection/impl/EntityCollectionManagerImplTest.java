@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.impl;
+
+
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.field.IntegerField;
+import org.apache.usergrid.persistence.model.field.StringField;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests that entities loaded for a cached unique value are checked against the value
+ */
+public class EntityCollectionManagerImplTest {
+
+    @Test
+    public void sameValueMatches() {
+
+        final Entity entity = new Entity( new SimpleId( "user" ) );
+        entity.setField( new StringField( "username", "Fred", true ) );
+
+        assertTrue( EntityCollectionManagerImpl.matchesField( entity, new StringField( "username", "fred" ) ) );
+        assertTrue( EntityCollectionManagerImpl.matchesField( entity, new StringField( "username", "Fred" ) ) );
+    }
+
+
+    @Test
+    public void changedValueDoesNotMatch() {
+
+        final Entity entity = new Entity( new SimpleId( "user" ) );
+        entity.setField( new StringField( "username", "barney", true ) );
+
+        assertFalse( EntityCollectionManagerImpl.matchesField( entity, new StringField( "username", "fred" ) ) );
+    }
+
+
+    @Test
+    public void removedFieldDoesNotMatch() {
+
+        final Entity entity = new Entity( new SimpleId( "user" ) );
+        entity.setField( new IntegerField( "count", 5, true ) );
+
+        assertFalse( EntityCollectionManagerImpl.matchesField( entity, new StringField( "username", "fred" ) ) );
+        assertTrue( EntityCollectionManagerImpl.matchesField( entity, new IntegerField( "count", 5 ) ) );
+    }
+}
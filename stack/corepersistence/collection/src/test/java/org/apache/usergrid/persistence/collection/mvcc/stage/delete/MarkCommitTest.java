@@ -12,11 +12,14 @@ import org.mockito.ArgumentCaptor;
 
 import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
 import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
 import org.apache.usergrid.persistence.collection.mvcc.stage.AbstractMvccEntityStageTest;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
 import org.apache.usergrid.persistence.collection.mvcc.stage.TestEntityGenerator;
 import org.apache.usergrid.persistence.collection.mvcc.stage.write.WriteCommit;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.SerializationFig;
@@ -83,7 +86,9 @@ public class MarkCommitTest extends AbstractMvccEntityStageTest {
 
         //run the stage
         WriteCommit newStage
-            = new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session);
+            = new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session,
+                mock( LatestVersionCache.class ), mock( AliasCache.class ),
+                mock( EntityChangeLogSerialization.class ) );
 
 
 
@@ -134,7 +139,8 @@ public class MarkCommitTest extends AbstractMvccEntityStageTest {
 
 
         new MarkCommit( logStrategy, mvccEntityStrategy, uniqueValueSerializationStrategy, serializationFig,
-            null, null, null, keyspace ).call( event );
+            null, null, null, keyspace, mock( LatestVersionCache.class ),
+            mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) ).call( event );
 
         //TODO: This doesn't assert anything, this needs fixed (should be a fail technically)
     }
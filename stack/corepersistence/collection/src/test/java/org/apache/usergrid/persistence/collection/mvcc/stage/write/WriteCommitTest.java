@@ -18,8 +18,17 @@
 package org.apache.usergrid.persistence.collection.mvcc.stage.write;
 
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.DriverException;
 import com.google.inject.Inject;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.collection.guice.TestCollectionModule;
 import org.apache.usergrid.persistence.core.test.ITRunner;
 import org.apache.usergrid.persistence.core.test.UseModules;
@@ -29,23 +38,38 @@ import org.mockito.ArgumentCaptor;
 
 import org.apache.usergrid.persistence.collection.MvccEntity;
 import org.apache.usergrid.persistence.collection.MvccLogEntry;
+import org.apache.usergrid.persistence.collection.cache.AliasCache;
+import org.apache.usergrid.persistence.collection.cache.LatestVersionCache;
+import org.apache.usergrid.persistence.collection.exception.WriteCommitException;
 import org.apache.usergrid.persistence.collection.mvcc.entity.Stage;
 import org.apache.usergrid.persistence.collection.mvcc.stage.AbstractMvccEntityStageTest;
 import org.apache.usergrid.persistence.collection.mvcc.stage.CollectionIoEvent;
 import org.apache.usergrid.persistence.collection.mvcc.stage.TestEntityGenerator;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
 import org.apache.usergrid.persistence.collection.serialization.MvccEntitySerializationStrategy;
 import org.apache.usergrid.persistence.collection.serialization.MvccLogEntrySerializationStrategy;
+import org.apache.usergrid.persistence.collection.serialization.UniqueValue;
 import org.apache.usergrid.persistence.collection.serialization.UniqueValueSerializationStrategy;
+import org.apache.usergrid.persistence.collection.uniquevalues.UniqueValueException;
+import org.apache.usergrid.persistence.collection.uniquevalues.UniqueValuesFig;
+import org.apache.usergrid.persistence.collection.uniquevalues.UniqueValuesService;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.model.entity.Entity;
+import org.apache.usergrid.persistence.model.field.StringField;
 
 import com.netflix.astyanax.MutationBatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -91,9 +115,12 @@ public class WriteCommitTest extends AbstractMvccEntityStageTest {
         final UniqueValueSerializationStrategy uniqueValueStrategy = mock( UniqueValueSerializationStrategy.class );
 
 
+        final LatestVersionCache latestVersionCache = mock( LatestVersionCache.class );
+
         //run the stage
         WriteCommit newStage =
-            new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session );
+            new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session,
+                latestVersionCache, mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) );
 
 
 
@@ -108,6 +135,9 @@ public class WriteCommitTest extends AbstractMvccEntityStageTest {
         assertEquals( "version was not correct", entity.getVersion(), entry.getVersion() );
         assertEquals( "EventStage is correct", Stage.COMMITTED, entry.getStage() );
 
+        //the committed version is cached as the latest
+        verify( latestVersionCache ).put( same( context ), same( entry ) );
+
 
         MvccEntity written = mvccEntityCapture.getValue();
 
@@ -122,6 +152,179 @@ public class WriteCommitTest extends AbstractMvccEntityStageTest {
     }
 
 
+    /** Batch flow, the whole batch is written with a single mutation */
+    @Test
+    public void testCommitBatch() throws Exception {
+
+        final ApplicationScope context = mock( ApplicationScope.class );
+
+        final Session session = mock( Session.class );
+
+        final MvccLogEntrySerializationStrategy logStrategy = mock( MvccLogEntrySerializationStrategy.class );
+
+        final ArgumentCaptor<MvccLogEntry> logEntry = ArgumentCaptor.forClass( MvccLogEntry.class );
+
+        final MutationBatch firstLogMutation = mock( MutationBatch.class );
+        final MutationBatch secondLogMutation = mock( MutationBatch.class );
+
+        when( logStrategy.write( same( context ), logEntry.capture() ) )
+            .thenReturn( firstLogMutation, secondLogMutation );
+
+
+        final MvccEntitySerializationStrategy mvccEntityStrategy = mock( MvccEntitySerializationStrategy.class );
+
+        when( mvccEntityStrategy.write( same( context ), any( MvccEntity.class ) ) )
+            .thenReturn( mock( MutationBatch.class ) );
+
+
+        final MvccEntity first = TestEntityGenerator.fromEntity( TestEntityGenerator.generateEntity() );
+        final MvccEntity second = TestEntityGenerator.fromEntity( TestEntityGenerator.generateEntity() );
+
+        final LatestVersionCache latestVersionCache = mock( LatestVersionCache.class );
+
+        WriteCommit newStage =
+            new WriteCommit( logStrategy, mvccEntityStrategy, mock( UniqueValueSerializationStrategy.class ), null,
+                null, null, session, latestVersionCache,
+                mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) );
+
+        final List<CollectionIoEvent<MvccEntity>> committed = newStage.commit(
+            Arrays.asList( new CollectionIoEvent<>( context, first ), new CollectionIoEvent<>( context, second ) ) );
+
+        assertEquals( 2, committed.size() );
+
+        //both log entries are committed
+        final List<MvccLogEntry> entries = logEntry.getAllValues();
+
+        assertEquals( first.getId(), entries.get( 0 ).getEntityId() );
+        assertEquals( second.getId(), entries.get( 1 ).getEntityId() );
+        assertEquals( Stage.COMMITTED, entries.get( 1 ).getStage() );
+
+        //the second entity is merged into the first mutation, which is executed once
+        verify( firstLogMutation ).mergeShallow( secondLogMutation );
+        verify( firstLogMutation, times( 1 ) ).execute();
+        verify( secondLogMutation, never() ).execute();
+
+        verify( latestVersionCache ).put( same( context ), same( entries.get( 0 ) ) );
+        verify( latestVersionCache ).put( same( context ), same( entries.get( 1 ) ) );
+    }
+
+
+    /** Batch flow, an entity whose unique values are taken when confirmed via Akka is dropped from the batch */
+    @Test
+    public void testCommitBatchAkkaUniqueConflict() throws Exception {
+
+        final ApplicationScope context = mock( ApplicationScope.class );
+
+        final MvccLogEntrySerializationStrategy logStrategy = mock( MvccLogEntrySerializationStrategy.class );
+
+        final ArgumentCaptor<MvccLogEntry> logEntry = ArgumentCaptor.forClass( MvccLogEntry.class );
+
+        final MutationBatch logMutation = mock( MutationBatch.class );
+
+        when( logStrategy.write( same( context ), logEntry.capture() ) ).thenReturn( logMutation );
+
+        final MvccEntitySerializationStrategy mvccEntityStrategy = mock( MvccEntitySerializationStrategy.class );
+
+        when( mvccEntityStrategy.write( same( context ), any( MvccEntity.class ) ) )
+            .thenReturn( mock( MutationBatch.class ) );
+
+        final ActorSystemFig actorSystemFig = mock( ActorSystemFig.class );
+        when( actorSystemFig.getEnabled() ).thenReturn( true );
+        when( actorSystemFig.getRegionLocal() ).thenReturn( "us-east" );
+
+        final UniqueValuesFig uniqueValuesFig = mock( UniqueValuesFig.class );
+        when( uniqueValuesFig.getUnqiueValueViaCluster() ).thenReturn( true );
+
+
+        final Entity conflictingEntity = TestEntityGenerator.generateEntity();
+        final MvccEntity conflicting = TestEntityGenerator.fromEntity( conflictingEntity );
+        final MvccEntity unique = TestEntityGenerator.fromEntity( TestEntityGenerator.generateEntity() );
+
+        final StringField name = new StringField( "name", "taken", true );
+
+        final UniqueValuesService akkaUvService = mock( UniqueValuesService.class );
+        doThrow( new UniqueValueException( "Unique value taken", name ) ).when( akkaUvService )
+            .confirmUniqueValues( same( context ), same( conflictingEntity ), any( UUID.class ), eq( "us-east" ) );
+
+        final LatestVersionCache latestVersionCache = mock( LatestVersionCache.class );
+
+        WriteCommit newStage =
+            new WriteCommit( logStrategy, mvccEntityStrategy, mock( UniqueValueSerializationStrategy.class ),
+                actorSystemFig, uniqueValuesFig, akkaUvService, mock( Session.class ), latestVersionCache,
+                mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) );
+
+        final List<CollectionIoEvent<MvccEntity>> committed = newStage.commit(
+            Arrays.asList( new CollectionIoEvent<>( context, conflicting ), new CollectionIoEvent<>( context, unique ) ) );
+
+        //only the entity without a conflict is committed
+        assertEquals( 1, committed.size() );
+        assertSame( unique, committed.get( 0 ).getEvent() );
+
+        assertEquals( 1, logEntry.getAllValues().size() );
+        assertEquals( unique.getId(), logEntry.getValue().getEntityId() );
+
+        verify( logMutation, times( 1 ) ).execute();
+        verify( latestVersionCache, times( 1 ) ).put( same( context ), any( MvccLogEntry.class ) );
+    }
+
+
+    /**
+     * Batch flow, a failed unique value write used to leave the already committed entities without permanent unique
+     * values.  The unique values are now written first, so nothing of the batch is committed
+     */
+    @Test
+    public void testCommitBatchUniqueWriteFails() throws Exception {
+
+        final ApplicationScope context = mock( ApplicationScope.class );
+
+        final ResultSetFuture failedWrite = mock( ResultSetFuture.class );
+        when( failedWrite.getUninterruptibly() ).thenThrow( new DriverException( "Batch too large" ) );
+
+        final Session session = mock( Session.class );
+        when( session.executeAsync( any( Statement.class ) ) ).thenReturn( failedWrite );
+
+        final MvccLogEntrySerializationStrategy logStrategy = mock( MvccLogEntrySerializationStrategy.class );
+
+        final MutationBatch logMutation = mock( MutationBatch.class );
+
+        when( logStrategy.write( same( context ), any( MvccLogEntry.class ) ) ).thenReturn( logMutation );
+
+        final MvccEntitySerializationStrategy mvccEntityStrategy = mock( MvccEntitySerializationStrategy.class );
+
+        when( mvccEntityStrategy.write( same( context ), any( MvccEntity.class ) ) )
+            .thenReturn( mock( MutationBatch.class ) );
+
+        final UniqueValueSerializationStrategy uniqueValueStrategy = mock( UniqueValueSerializationStrategy.class );
+
+        when( uniqueValueStrategy.writeCQL( same( context ), any( UniqueValue.class ), eq( -1 ) ) )
+            .thenReturn( mock( BatchStatement.class ) );
+
+
+        final Entity entity = TestEntityGenerator.generateEntity();
+        entity.setField( new StringField( "name", "unique", true ) );
+
+        final MvccEntity mvccEntity = TestEntityGenerator.fromEntity( entity );
+
+        final LatestVersionCache latestVersionCache = mock( LatestVersionCache.class );
+
+        WriteCommit newStage =
+            new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session,
+                latestVersionCache, mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) );
+
+        try {
+            newStage.commit( Arrays.asList( new CollectionIoEvent<>( context, mvccEntity ) ) );
+            fail( "The failed unique value write should fail the commit" );
+        }
+        catch ( WriteCommitException e ) {
+            //expected
+        }
+
+        verify( session ).executeAsync( any( Statement.class ) );
+        verify( logMutation, never() ).execute();
+        verify( latestVersionCache, never() ).put( same( context ), any( MvccLogEntry.class ) );
+    }
+
+
     @Override
     protected void validateStage( final CollectionIoEvent<MvccEntity> event ) {
         /**
@@ -145,7 +348,9 @@ public class WriteCommitTest extends AbstractMvccEntityStageTest {
         when( mvccEntityStrategy.write( any( ApplicationScope.class ), any( MvccEntity.class ) ) )
                 .thenReturn( entityMutation );
 
-        new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session ).call( event );
+        new WriteCommit( logStrategy, mvccEntityStrategy, uniqueValueStrategy, null, null, null, session,
+            mock( LatestVersionCache.class ), mock( AliasCache.class ), mock( EntityChangeLogSerialization.class ) )
+            .call( event );
 
     }
 }
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.collection.serialization.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogFig;
+import org.apache.usergrid.persistence.collection.guice.TestCollectionModule;
+import org.apache.usergrid.persistence.collection.serialization.EntityChangeLogSerialization;
+import org.apache.usergrid.persistence.core.CassandraConfig;
+import org.apache.usergrid.persistence.core.guice.MigrationManagerRule;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.core.test.ITRunner;
+import org.apache.usergrid.persistence.core.test.UseModules;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import com.fasterxml.uuid.UUIDComparator;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.netflix.astyanax.Keyspace;
+import com.netflix.astyanax.connectionpool.exceptions.ConnectionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Reads and writes the change log against cassandra, with one minute buckets and a tiny page size so reads walk
+ * several buckets and page through every shard
+ */
+@RunWith( ITRunner.class )
+@UseModules( TestCollectionModule.class )
+public class EntityChangeLogSerializationImplTest {
+
+    private static final long UUID_EPOCH_OFFSET = 0x01b21dd213814000L;
+
+    private static final long BUCKET_SIZE = 60000;
+
+    private static final int TTL = 600;
+
+    private static final Random RANDOM = new Random();
+
+
+    @Inject
+    @Rule
+    public MigrationManagerRule migrationManagerRule;
+
+    @Inject
+    public Keyspace keyspace;
+
+    @Inject
+    public CassandraConfig cassandraConfig;
+
+
+    private EntityChangeLogSerialization serialization;
+
+    private ApplicationScope scope;
+
+    /**
+     * The start of the first bucket changes are written to
+     */
+    private long firstBucket;
+
+    private int sequence = 0;
+
+
+    @Before
+    public void setup() {
+
+        final EntityChangeLogFig fig = mock( EntityChangeLogFig.class );
+        when( fig.getEnabled() ).thenReturn( true );
+        when( fig.getBucketSize() ).thenReturn( BUCKET_SIZE );
+        when( fig.getTtl() ).thenReturn( TTL );
+        when( fig.getPageSize() ).thenReturn( 2 );
+
+        serialization = new EntityChangeLogSerializationImpl( keyspace, cassandraConfig, fig );
+
+        scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        final long start = System.currentTimeMillis() - 5 * BUCKET_SIZE;
+        firstBucket = start - start % BUCKET_SIZE;
+    }
+
+
+    @Test
+    public void bucketsAndShardsMergedInVersionOrder() throws ConnectionException {
+
+        //the third bucket is left empty
+        final List<EntityChange> expected = writeChanges( 0, 1, 3 );
+
+        final List<EntityChange> changes =
+            Lists.newArrayList( serialization.getChanges( scope, null, System.currentTimeMillis() ) );
+
+        assertEquals( expected, changes );
+    }
+
+
+    @Test
+    public void resumeAfterEveryChange() throws ConnectionException {
+
+        final List<EntityChange> expected = writeChanges( 0, 1, 3 );
+
+        //each cursor is the version of a change read, which is skipped whichever bucket and shard it's in
+        for ( int i = 0; i < expected.size(); i++ ) {
+
+            final List<EntityChange> changes = Lists.newArrayList( serialization
+                .getChanges( scope, expected.get( i ).getVersion(), System.currentTimeMillis() ) );
+
+            assertEquals( "Resumed after change " + i, expected.subList( i + 1, expected.size() ), changes );
+        }
+    }
+
+
+    @Test
+    public void resumeAfterVersionNotWritten() throws ConnectionException {
+
+        final List<EntityChange> expected = writeChanges( 0, 1, 3 );
+
+        //a cursor within the empty bucket resumes at the next bucket with changes
+        final UUID cursor = versionAt( firstBucket + 2 * BUCKET_SIZE + 10 );
+
+        final List<EntityChange> changes =
+            Lists.newArrayList( serialization.getChanges( scope, cursor, System.currentTimeMillis() ) );
+
+        final List<EntityChange> afterCursor = new ArrayList<>();
+        for ( final EntityChange change : expected ) {
+            if ( UUIDComparator.staticCompare( change.getVersion(), cursor ) > 0 ) {
+                afterCursor.add( change );
+            }
+        }
+
+        assertTrue( "Changes are after the cursor", afterCursor.size() > 0 );
+        assertEquals( afterCursor, changes );
+    }
+
+
+    @Test
+    public void stopsAtUntil() throws ConnectionException {
+
+        final List<EntityChange> expected = writeChanges( 0, 1, 3 );
+
+        //everything up to and including the last change of the second bucket
+        final long until = firstBucket + 2 * BUCKET_SIZE - 1;
+
+        final List<EntityChange> beforeUntil = new ArrayList<>();
+        for ( final EntityChange change : expected ) {
+            if ( getTimestamp( change.getVersion() ) <= until ) {
+                beforeUntil.add( change );
+            }
+        }
+
+        assertEquals( beforeUntil, Lists.newArrayList( serialization.getChanges( scope, null, until ) ) );
+
+        //a change exactly at until is included
+        final EntityChange last = beforeUntil.get( beforeUntil.size() - 1 );
+
+        assertEquals( beforeUntil, Lists.newArrayList(
+            serialization.getChanges( scope, null, getTimestamp( last.getVersion() ) ) ) );
+
+        //nothing before the first change
+        assertEquals( Collections.<EntityChange>emptyList(), Lists.newArrayList(
+            serialization.getChanges( scope, null, getTimestamp( expected.get( 0 ).getVersion() ) - 1 ) ) );
+    }
+
+
+    @Test
+    public void nothingOlderThanTtl() throws ConnectionException {
+
+        //still in cassandra since the column ttl runs from the write, but older than the ttl by its version
+        final EntityChange expired =
+            writeChange( versionAt( System.currentTimeMillis() - ( TTL + 120 ) * 1000L ) );
+
+        final List<EntityChange> expected = writeChanges( 1 );
+
+        assertEquals( expected,
+            Lists.newArrayList( serialization.getChanges( scope, null, System.currentTimeMillis() ) ) );
+
+        //a cursor older than the ttl starts from the oldest change kept
+        final UUID cursor = versionAt( getTimestamp( expired.getVersion() ) - BUCKET_SIZE );
+
+        assertEquals( expected,
+            Lists.newArrayList( serialization.getChanges( scope, cursor, System.currentTimeMillis() ) ) );
+    }
+
+
+    /**
+     * Write changes of random entities into the given buckets after the first one, and return them in version order
+     */
+    private List<EntityChange> writeChanges( final int... buckets ) throws ConnectionException {
+
+        final List<EntityChange> changes = new ArrayList<>();
+
+        //written newest first, so the order read back comes from the versions
+        for ( int i = buckets.length - 1; i >= 0; i-- ) {
+            final long bucket = firstBucket + buckets[i] * BUCKET_SIZE;
+
+            for ( int j = 20; j > 0; j-- ) {
+                changes.add( writeChange( versionAt( bucket + j * 1000 ) ) );
+            }
+        }
+
+        Collections.reverse( changes );
+
+        return changes;
+    }
+
+
+    private EntityChange writeChange( final UUID version ) throws ConnectionException {
+
+        final Id entityId = new SimpleId( "test" );
+        final EntityChange.Type type = RANDOM.nextBoolean() ? EntityChange.Type.WRITE : EntityChange.Type.DELETE;
+
+        final EntityChange change = new EntityChange( entityId, version, type );
+
+        serialization.write( scope, change ).execute();
+
+        return change;
+    }
+
+
+    /**
+     * Create a time uuid at the given unix time in milliseconds, unique within this test
+     */
+    private UUID versionAt( final long timestamp ) {
+
+        final long time = timestamp * 10000 + UUID_EPOCH_OFFSET + sequence++ % 10000;
+
+        final long mostSigBits =
+            ( time << 32 ) | ( ( time >>> 16 ) & 0xFFFF0000L ) | 0x1000L | ( ( time >>> 48 ) & 0x0FFFL );
+        final long leastSigBits = 0x8000000000000000L | ( RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL );
+
+        return new UUID( mostSigBits, leastSigBits );
+    }
+
+
+    private static long getTimestamp( final UUID version ) {
+        return ( version.timestamp() - UUID_EPOCH_OFFSET ) / 10000;
+    }
+}
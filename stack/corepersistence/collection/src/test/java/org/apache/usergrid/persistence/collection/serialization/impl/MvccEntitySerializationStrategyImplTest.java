@@ -200,6 +200,47 @@ public abstract class MvccEntitySerializationStrategyImplTest {
         assertNull( returned );
     }
 
+    @Test
+    public void writeLoadStream() throws ConnectionException {
+
+        final Id organizationId = new SimpleId( "organization" );
+
+        ApplicationScope context = new ApplicationScopeImpl( organizationId );
+
+        final Set<Id> ids = new HashSet<>();
+        final Set<MvccEntity> saved = new HashSet<>();
+
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        for ( int i = 0; i < 10; i++ ) {
+
+            final Id id = new SimpleId( UUIDGenerator.newTimeUUID(), "test" );
+
+            Entity entity = new Entity( id );
+
+            EntityUtils.setVersion( entity, version );
+
+            entity.setField( new StringField( "name", "test" + i ) );
+
+            MvccEntity mvccEntity = new MvccEntityImpl( id, version, MvccEntity.Status.COMPLETE, Optional.of( entity ) );
+
+            serializationStrategy.write( context, mvccEntity ).execute();
+
+            ids.add( id );
+            saved.add( mvccEntity );
+        }
+
+        //an id that was never written is not emitted
+        final Set<Id> requested = new HashSet<>( ids );
+        requested.add( new SimpleId( UUIDGenerator.newTimeUUID(), "test" ) );
+
+        final Set<MvccEntity> returned = new HashSet<>(
+            serializationStrategy.loadStream( context, requested, version ).toList().toBlocking().last() );
+
+        assertEquals( saved, returned );
+    }
+
+
     @Test
     public void writeLoadClearDelete() throws ConnectionException {
 
@@ -33,6 +33,9 @@ import org.safehaus.guicyfig.GuicyFigModule;
 import org.apache.usergrid.persistence.core.consistency.TimeService;
 import org.apache.usergrid.persistence.core.consistency.TimeServiceImpl;
 import org.apache.usergrid.persistence.core.guicyfig.ClusterFig;
+import org.apache.usergrid.persistence.core.metrics.HotKeyFig;
+import org.apache.usergrid.persistence.core.metrics.HotKeyTracker;
+import org.apache.usergrid.persistence.core.metrics.HotKeyTrackerImpl;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactoryImpl;
 import org.apache.usergrid.persistence.core.metrics.MetricsFig;
@@ -100,6 +103,9 @@ public class CommonModule extends AbstractModule {
         bind(MigrationInfoCache.class).to(MigrationInfoCacheImpl.class);
         install(new GuicyFigModule(MetricsFig.class));
 
+        install(new GuicyFigModule(HotKeyFig.class));
+        bind(HotKeyTracker.class).to(HotKeyTrackerImpl.class);
+
 
         //do multibindings for migrations
         //create the empty multibinder so other plugins can use it
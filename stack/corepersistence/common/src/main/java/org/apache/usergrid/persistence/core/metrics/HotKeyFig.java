@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import org.safehaus.guicyfig.Default;
+import org.safehaus.guicyfig.FigSingleton;
+import org.safehaus.guicyfig.GuicyFig;
+import org.safehaus.guicyfig.Key;
+
+
+@FigSingleton
+public interface HotKeyFig extends GuicyFig {
+
+    /**
+     * Track the most read, most written and largest entities and graph nodes
+     */
+    @Key( "usergrid.metrics.hotkey.enabled" )
+    @Default( "true" )
+    boolean getEnabled();
+
+    /**
+     * Count one in this many reads and writes.  Sampled operations are counted this many times, so the counts
+     * estimate the real totals
+     */
+    @Key( "usergrid.metrics.hotkey.sample.rate" )
+    @Default( "100" )
+    int getSampleRate();
+
+    /**
+     * The number of keys counted for each application and type.  More counters make the counts of the top keys more
+     * accurate when there are many keys of similar frequency
+     */
+    @Key( "usergrid.metrics.hotkey.capacity" )
+    @Default( "64" )
+    int getCapacity();
+
+    /**
+     * The number of the hottest and largest keys reported for each application and type
+     */
+    @Key( "usergrid.metrics.hotkey.top.count" )
+    @Default( "10" )
+    int getTopCount();
+
+    /**
+     * The maximum number of application and type pairs tracked.  The least recently used are dropped
+     */
+    @Key( "usergrid.metrics.hotkey.scopes.max" )
+    @Default( "1000" )
+    int getMaxScopes();
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.List;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * Samples reads and writes to find the ids that are read or written far more than others, or that are far larger than
+ * others, in each application and type.  A single hot or large row is served by the same replicas on every request, so
+ * it can saturate them while the cluster as a whole looks idle
+ */
+public interface HotKeyTracker {
+
+    /**
+     * Where the reads and writes of the id are stored
+     */
+    enum Store {
+        /**
+         * The versions of an entity
+         */
+        ENTITY,
+
+        /**
+         * The edges from or to a node
+         */
+        GRAPH
+    }
+
+
+    /**
+     * Record a read of the id
+     *
+     * @param bytes The size read, or 0 if it is not known
+     */
+    void recordRead( Store store, ApplicationScope applicationScope, Id id, long bytes );
+
+    /**
+     * Record a write of the id
+     *
+     * @param bytes The size written, or 0 if it is not known
+     */
+    void recordWrite( Store store, ApplicationScope applicationScope, Id id, long bytes );
+
+    /**
+     * Get the hottest and largest ids of every application and type tracked
+     */
+    List<HotKeys> getHotKeys();
+
+    /**
+     * Get the hottest and largest ids of each type tracked in the application
+     */
+    List<HotKeys> getHotKeys( Id applicationId );
+}
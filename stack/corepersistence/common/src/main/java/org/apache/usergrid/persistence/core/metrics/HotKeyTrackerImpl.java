@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.model.entity.Id;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Keeps a space saving sketch of the reads and the writes, and the largest ids seen, for each store, application and
+ * type.  Only one in sample rate operations is counted, and counted sample rate times, so the cost on the read and
+ * write paths is a random number for most operations.  Writes are always checked for size, since a large write is
+ * rare and a large entity that is never read again is still worth finding
+ */
+@Singleton
+public class HotKeyTrackerImpl implements HotKeyTracker {
+
+    private final HotKeyFig hotKeyFig;
+
+    private final Cache<ScopeKey, ScopeKeys> scopes;
+
+    private final Meter sampledMeter;
+
+
+    @Inject
+    public HotKeyTrackerImpl( final HotKeyFig hotKeyFig, final MetricsFactory metricsFactory ) {
+        this.hotKeyFig = hotKeyFig;
+        this.scopes = CacheBuilder.newBuilder().maximumSize( hotKeyFig.getMaxScopes() ).build();
+
+        this.sampledMeter = metricsFactory.getMeter( HotKeyTrackerImpl.class, "hotkey.sampled" );
+
+        metricsFactory.addGauge( HotKeyTrackerImpl.class, "hotkey.scopes", ( Gauge<Long> ) scopes::size );
+        metricsFactory.addGauge( HotKeyTrackerImpl.class, "hotkey.read.max",
+            ( Gauge<Long> ) () -> getMax( scopeKeys -> getFirst( scopeKeys.reads.getTop( 1 ) ) ) );
+        metricsFactory.addGauge( HotKeyTrackerImpl.class, "hotkey.write.max",
+            ( Gauge<Long> ) () -> getMax( scopeKeys -> getFirst( scopeKeys.writes.getTop( 1 ) ) ) );
+        metricsFactory.addGauge( HotKeyTrackerImpl.class, "hotkey.bytes.max",
+            ( Gauge<Long> ) () -> getMax( scopeKeys -> scopeKeys.largest.getMax() ) );
+    }
+
+
+    @Override
+    public void recordRead( final Store store, final ApplicationScope applicationScope, final Id id,
+                            final long bytes ) {
+
+        if ( !hotKeyFig.getEnabled() || !sample() ) {
+            return;
+        }
+
+        final ScopeKeys scopeKeys = getScopeKeys( store, applicationScope, id );
+
+        scopeKeys.reads.offer( id, hotKeyFig.getSampleRate() );
+        scopeKeys.largest.offer( id, bytes );
+    }
+
+
+    @Override
+    public void recordWrite( final Store store, final ApplicationScope applicationScope, final Id id,
+                             final long bytes ) {
+
+        if ( !hotKeyFig.getEnabled() ) {
+            return;
+        }
+
+        final boolean sampled = sample();
+
+        if ( !sampled ) {
+            //most writes are neither sampled nor among the largest, check the size before creating any sketches
+            final ScopeKeys existing = scopes.getIfPresent( new ScopeKey( store, applicationScope.getApplication(),
+                id.getType() ) );
+
+            if ( bytes == 0 || ( existing != null && !existing.largest.isLarger( bytes ) ) ) {
+                return;
+            }
+        }
+
+        final ScopeKeys scopeKeys = getScopeKeys( store, applicationScope, id );
+
+        if ( sampled ) {
+            scopeKeys.writes.offer( id, hotKeyFig.getSampleRate() );
+        }
+
+        scopeKeys.largest.offer( id, bytes );
+    }
+
+
+    @Override
+    public List<HotKeys> getHotKeys() {
+        return getHotKeys( null );
+    }
+
+
+    @Override
+    public List<HotKeys> getHotKeys( final Id applicationId ) {
+        final int topCount = hotKeyFig.getTopCount();
+
+        final List<HotKeys> hotKeys = new ArrayList<>();
+
+        for ( final Map.Entry<ScopeKey, ScopeKeys> entry : scopes.asMap().entrySet() ) {
+            final ScopeKey scopeKey = entry.getKey();
+
+            if ( applicationId != null && !applicationId.equals( scopeKey.applicationId ) ) {
+                continue;
+            }
+
+            final ScopeKeys scopeKeys = entry.getValue();
+
+            hotKeys.add( new HotKeys( scopeKey.store, scopeKey.applicationId, scopeKey.type,
+                toHotKeys( scopeKeys.reads.getTop( topCount ) ), toHotKeys( scopeKeys.writes.getTop( topCount ) ),
+                scopeKeys.largest.getLargest() ) );
+        }
+
+        return hotKeys;
+    }
+
+
+    private boolean sample() {
+        final int sampleRate = hotKeyFig.getSampleRate();
+
+        if ( sampleRate > 1 && ThreadLocalRandom.current().nextInt( sampleRate ) != 0 ) {
+            return false;
+        }
+
+        sampledMeter.mark();
+        return true;
+    }
+
+
+    private ScopeKeys getScopeKeys( final Store store, final ApplicationScope applicationScope, final Id id ) {
+        final ScopeKey scopeKey = new ScopeKey( store, applicationScope.getApplication(), id.getType() );
+
+        try {
+            return scopes.get( scopeKey,
+                () -> new ScopeKeys( hotKeyFig.getCapacity(), hotKeyFig.getTopCount() ) );
+        }
+        catch ( ExecutionException e ) {
+            throw new RuntimeException( "Unable to create hot key sketches", e );
+        }
+    }
+
+
+    private long getMax( final ToLongFunction<ScopeKeys> value ) {
+        long max = 0;
+
+        for ( final ScopeKeys scopeKeys : scopes.asMap().values() ) {
+            max = Math.max( max, value.applyAsLong( scopeKeys ) );
+        }
+
+        return max;
+    }
+
+
+    private static long getFirst( final List<SpaceSavingSketch.Counter<Id>> counters ) {
+        return counters.isEmpty() ? 0 : counters.get( 0 ).getCount();
+    }
+
+
+    private static List<HotKeys.HotKey> toHotKeys( final List<SpaceSavingSketch.Counter<Id>> counters ) {
+        final List<HotKeys.HotKey> hotKeys = new ArrayList<>( counters.size() );
+
+        for ( final SpaceSavingSketch.Counter<Id> counter : counters ) {
+            hotKeys.add( new HotKeys.HotKey( counter.getKey(), counter.getCount(), counter.getError() ) );
+        }
+
+        return hotKeys;
+    }
+
+
+    /**
+     * The store, application and type the ids are tracked in
+     */
+    private static final class ScopeKey {
+
+        private final Store store;
+        private final Id applicationId;
+        private final String type;
+
+
+        private ScopeKey( final Store store, final Id applicationId, final String type ) {
+            this.store = store;
+            this.applicationId = applicationId;
+            this.type = type;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof ScopeKey ) ) {
+                return false;
+            }
+
+            final ScopeKey that = ( ScopeKey ) o;
+
+            return store == that.store && applicationId.equals( that.applicationId ) && type.equals( that.type );
+        }
+
+
+        @Override
+        public int hashCode() {
+            int result = store.hashCode();
+            result = 31 * result + applicationId.hashCode();
+            result = 31 * result + type.hashCode();
+            return result;
+        }
+    }
+
+
+    /**
+     * The sketches of one store, application and type
+     */
+    private static final class ScopeKeys {
+
+        private final SpaceSavingSketch<Id> reads;
+        private final SpaceSavingSketch<Id> writes;
+        private final LargestIds largest;
+
+
+        private ScopeKeys( final int capacity, final int topCount ) {
+            this.reads = new SpaceSavingSketch<>( capacity );
+            this.writes = new SpaceSavingSketch<>( capacity );
+            this.largest = new LargestIds( topCount );
+        }
+    }
+
+
+    /**
+     * The largest size seen for each of the largest ids.  Sizes no larger than the smallest kept are dropped without
+     * taking the lock
+     */
+    private static final class LargestIds {
+
+        private final int count;
+
+        private final Map<Id, Long> sizes;
+
+        private volatile long threshold;
+
+
+        private LargestIds( final int count ) {
+            this.count = count;
+            this.sizes = new HashMap<>( count * 2 );
+        }
+
+
+        private boolean isLarger( final long bytes ) {
+            return bytes > threshold;
+        }
+
+
+        private void offer( final Id id, final long bytes ) {
+            if ( !isLarger( bytes ) ) {
+                return;
+            }
+
+            synchronized ( this ) {
+                final Long existing = sizes.get( id );
+
+                if ( existing != null && existing >= bytes ) {
+                    return;
+                }
+
+                sizes.put( id, bytes );
+
+                if ( sizes.size() > count ) {
+                    sizes.remove( Collections.min( sizes.entrySet(), Map.Entry.comparingByValue() ).getKey() );
+                }
+
+                if ( sizes.size() >= count ) {
+                    threshold = Collections.min( sizes.values() );
+                }
+            }
+        }
+
+
+        private synchronized long getMax() {
+            return sizes.isEmpty() ? 0 : Collections.max( sizes.values() );
+        }
+
+
+        private synchronized List<HotKeys.HotKey> getLargest() {
+            final List<HotKeys.HotKey> largest = new ArrayList<>( sizes.size() );
+
+            for ( final Map.Entry<Id, Long> entry : sizes.entrySet() ) {
+                largest.add( new HotKeys.HotKey( entry.getKey(), entry.getValue(), 0 ) );
+            }
+
+            Collections.sort( largest, ( first, second ) -> Long.compare( second.getValue(), first.getValue() ) );
+
+            return largest;
+        }
+    }
+}
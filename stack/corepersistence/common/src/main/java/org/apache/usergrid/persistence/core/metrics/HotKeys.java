@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.List;
+
+import org.apache.usergrid.persistence.model.entity.Id;
+
+
+/**
+ * The hottest and largest ids of a type in an application
+ */
+public class HotKeys {
+
+    private final HotKeyTracker.Store store;
+    private final Id applicationId;
+    private final String type;
+    private final List<HotKey> reads;
+    private final List<HotKey> writes;
+    private final List<HotKey> largest;
+
+
+    public HotKeys( final HotKeyTracker.Store store, final Id applicationId, final String type,
+                    final List<HotKey> reads, final List<HotKey> writes, final List<HotKey> largest ) {
+        this.store = store;
+        this.applicationId = applicationId;
+        this.type = type;
+        this.reads = reads;
+        this.writes = writes;
+        this.largest = largest;
+    }
+
+
+    public HotKeyTracker.Store getStore() {
+        return store;
+    }
+
+
+    public Id getApplicationId() {
+        return applicationId;
+    }
+
+
+    public String getType() {
+        return type;
+    }
+
+
+    /**
+     * The most read ids, with their estimated read counts
+     */
+    public List<HotKey> getReads() {
+        return reads;
+    }
+
+
+    /**
+     * The most written ids, with their estimated write counts
+     */
+    public List<HotKey> getWrites() {
+        return writes;
+    }
+
+
+    /**
+     * The largest ids, with the largest size in bytes seen for each
+     */
+    public List<HotKey> getLargest() {
+        return largest;
+    }
+
+
+    /**
+     * An id and its value
+     */
+    public static class HotKey {
+
+        private final Id id;
+        private final long value;
+        private final long error;
+
+
+        public HotKey( final Id id, final long value, final long error ) {
+            this.id = id;
+            this.value = value;
+            this.error = error;
+        }
+
+
+        public Id getId() {
+            return id;
+        }
+
+
+        public long getValue() {
+            return value;
+        }
+
+
+        /**
+         * How much the value may overestimate the true value
+         */
+        public long getError() {
+            return error;
+        }
+    }
+}
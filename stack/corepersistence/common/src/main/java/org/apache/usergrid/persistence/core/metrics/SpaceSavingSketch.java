@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+
+/**
+ * A space saving sketch of the most frequent keys of a stream, in the space of a fixed number of counters.  When a
+ * key without a counter is offered and every counter is taken, the counter with the lowest count is given to the new
+ * key, and its count becomes the error of the new key.  Any key offered more than total / capacity times is
+ * guaranteed to hold a counter, so the keys that matter are never missed.
+ *
+ * Finding the lowest counter scans every counter, so the capacity is meant to be small
+ */
+public class SpaceSavingSketch<T> {
+
+    private final int capacity;
+
+    private final Map<T, Counter<T>> counters;
+
+
+    public SpaceSavingSketch( final int capacity ) {
+        Preconditions.checkArgument( capacity > 0, "capacity must be greater than 0" );
+
+        this.capacity = capacity;
+        this.counters = new HashMap<>( capacity * 2 );
+    }
+
+
+    /**
+     * Add the weight to the count of the key
+     */
+    public synchronized void offer( final T key, final long weight ) {
+
+        final Counter<T> counter = counters.get( key );
+
+        if ( counter != null ) {
+            counter.count += weight;
+            return;
+        }
+
+        if ( counters.size() < capacity ) {
+            counters.put( key, new Counter<>( key, weight, 0 ) );
+            return;
+        }
+
+        Counter<T> lowest = null;
+
+        for ( final Counter<T> candidate : counters.values() ) {
+            if ( lowest == null || candidate.count < lowest.count ) {
+                lowest = candidate;
+            }
+        }
+
+        counters.remove( lowest.key );
+        counters.put( key, new Counter<>( key, lowest.count + weight, lowest.count ) );
+    }
+
+
+    /**
+     * Get copies of the counters with the highest counts, highest first
+     */
+    public synchronized List<Counter<T>> getTop( final int count ) {
+        final List<Counter<T>> top = new ArrayList<>( counters.size() );
+
+        for ( final Counter<T> counter : counters.values() ) {
+            top.add( new Counter<>( counter.key, counter.count, counter.error ) );
+        }
+
+        Collections.sort( top, ( first, second ) -> Long.compare( second.count, first.count ) );
+
+        return top.subList( 0, Math.min( count, top.size() ) );
+    }
+
+
+    /**
+     * The estimated count of a key.  The count is never lower than the true count, and at most error higher
+     */
+    public static final class Counter<T> {
+
+        private final T key;
+        private long count;
+        private final long error;
+
+
+        private Counter( final T key, final long count, final long error ) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+
+        public T getKey() {
+            return key;
+        }
+
+
+        public long getCount() {
+            return count;
+        }
+
+
+        public long getError() {
+            return error;
+        }
+    }
+}
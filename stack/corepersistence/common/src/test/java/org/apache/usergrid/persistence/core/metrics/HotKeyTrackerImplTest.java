@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class HotKeyTrackerImplTest {
+
+    private final ApplicationScope scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+    private HotKeyFig hotKeyFig;
+
+    private MetricsFactory metricsFactory;
+
+    private HotKeyTracker hotKeyTracker;
+
+
+    @Before
+    public void setup() {
+        hotKeyFig = mock( HotKeyFig.class );
+        when( hotKeyFig.getEnabled() ).thenReturn( true );
+        when( hotKeyFig.getSampleRate() ).thenReturn( 1 );
+        when( hotKeyFig.getCapacity() ).thenReturn( 16 );
+        when( hotKeyFig.getTopCount() ).thenReturn( 2 );
+        when( hotKeyFig.getMaxScopes() ).thenReturn( 100 );
+
+        metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenReturn( new Meter() );
+
+        hotKeyTracker = new HotKeyTrackerImpl( hotKeyFig, metricsFactory );
+    }
+
+
+    @Test
+    public void hotAndLargeIdsByType() {
+        final Id hot = new SimpleId( "user" );
+        final Id large = new SimpleId( "user" );
+        final Id other = new SimpleId( "user" );
+
+        for ( int i = 0; i < 10; i++ ) {
+            hotKeyTracker.recordRead( HotKeyTracker.Store.ENTITY, scope, hot, 100 );
+        }
+
+        hotKeyTracker.recordRead( HotKeyTracker.Store.ENTITY, scope, other, 200 );
+        hotKeyTracker.recordWrite( HotKeyTracker.Store.ENTITY, scope, large, 5000 );
+        hotKeyTracker.recordWrite( HotKeyTracker.Store.ENTITY, scope, other, 50 );
+        hotKeyTracker.recordRead( HotKeyTracker.Store.GRAPH, scope, new SimpleId( "group" ), 0 );
+
+        final List<HotKeys> hotKeys = hotKeyTracker.getHotKeys( scope.getApplication() );
+
+        assertEquals( 2, hotKeys.size() );
+
+        final HotKeys users = hotKeys.stream().filter( keys -> keys.getType().equals( "user" ) ).findFirst().get();
+
+        assertEquals( HotKeyTracker.Store.ENTITY, users.getStore() );
+        assertEquals( hot, users.getReads().get( 0 ).getId() );
+        assertEquals( 10, users.getReads().get( 0 ).getValue() );
+        assertEquals( 2, users.getWrites().size() );
+
+        //only the top count are kept, largest first
+        assertEquals( 2, users.getLargest().size() );
+        assertEquals( large, users.getLargest().get( 0 ).getId() );
+        assertEquals( 5000, users.getLargest().get( 0 ).getValue() );
+        assertEquals( other, users.getLargest().get( 1 ).getId() );
+
+        assertTrue( hotKeyTracker.getHotKeys( new SimpleId( "application" ) ).isEmpty() );
+    }
+
+
+    @Test
+    public void unsampledWritesOnlyKeptWhenLarge() {
+        when( hotKeyFig.getSampleRate() ).thenReturn( Integer.MAX_VALUE );
+
+        final HotKeyTracker unsampled = new HotKeyTrackerImpl( hotKeyFig, metricsFactory );
+
+        final Id first = new SimpleId( "user" );
+        final Id second = new SimpleId( "user" );
+        final Id small = new SimpleId( "user" );
+        final Id large = new SimpleId( "user" );
+
+        //no size, no sketches
+        unsampled.recordWrite( HotKeyTracker.Store.ENTITY, scope, new SimpleId( "group" ), 0 );
+        assertTrue( unsampled.getHotKeys( scope.getApplication() ).isEmpty() );
+
+        unsampled.recordWrite( HotKeyTracker.Store.ENTITY, scope, first, 1000 );
+        unsampled.recordWrite( HotKeyTracker.Store.ENTITY, scope, second, 2000 );
+        unsampled.recordWrite( HotKeyTracker.Store.ENTITY, scope, small, 10 );
+        unsampled.recordWrite( HotKeyTracker.Store.ENTITY, scope, large, 3000 );
+
+        final List<HotKeys> hotKeys = unsampled.getHotKeys( scope.getApplication() );
+
+        assertEquals( 1, hotKeys.size() );
+        assertEquals( 2, hotKeys.get( 0 ).getLargest().size() );
+        assertEquals( large, hotKeys.get( 0 ).getLargest().get( 0 ).getId() );
+        assertEquals( second, hotKeys.get( 0 ).getLargest().get( 1 ).getId() );
+    }
+}
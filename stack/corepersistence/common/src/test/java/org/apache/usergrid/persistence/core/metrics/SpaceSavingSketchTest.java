@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.core.metrics;
+
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void exactUnderCapacity() {
+        final SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>( 4 );
+
+        sketch.offer( "a", 1 );
+        sketch.offer( "b", 3 );
+        sketch.offer( "a", 1 );
+        sketch.offer( "c", 1 );
+
+        final List<SpaceSavingSketch.Counter<String>> top = sketch.getTop( 2 );
+
+        assertEquals( 2, top.size() );
+        assertEquals( "b", top.get( 0 ).getKey() );
+        assertEquals( 3, top.get( 0 ).getCount() );
+        assertEquals( "a", top.get( 1 ).getKey() );
+        assertEquals( 2, top.get( 1 ).getCount() );
+        assertEquals( 0, top.get( 1 ).getError() );
+    }
+
+
+    @Test
+    public void heavyHitterSurvivesEviction() {
+        final SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>( 8 );
+
+        //one key in every 4 is the hot key, the rest are each seen once
+        for ( int i = 0; i < 10000; i++ ) {
+            sketch.offer( i % 4 == 0 ? -1 : i, 1 );
+        }
+
+        final SpaceSavingSketch.Counter<Integer> hottest = sketch.getTop( 1 ).get( 0 );
+
+        assertEquals( -1, hottest.getKey().intValue() );
+        assertTrue( hottest.getCount() >= 2500 );
+        assertTrue( hottest.getCount() - hottest.getError() <= 2500 );
+    }
+}
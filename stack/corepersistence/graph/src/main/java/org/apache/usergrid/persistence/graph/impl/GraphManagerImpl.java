@@ -28,6 +28,7 @@ import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.usergrid.persistence.core.metrics.HotKeyTracker;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.metrics.ObservableTimer;
 import org.apache.usergrid.persistence.core.rx.ObservableIterator;
@@ -79,6 +80,8 @@ public class GraphManagerImpl implements GraphManager {
 
     private final EdgeDeleteListener edgeDeleteListener;
     private final NodeDeleteListener nodeDeleteListener;
+    private final HotKeyTracker hotKeyTracker;
+
     private final Timer writeEdgeTimer;
     private final Timer markEdgeTimer;
     private final Timer markNodeTimer;
@@ -103,7 +106,8 @@ public class GraphManagerImpl implements GraphManager {
                              final EdgeSerialization storageEdgeSerialization,
                              final NodeSerialization nodeSerialization, final GraphFig graphFig,
                              final EdgeDeleteListener edgeDeleteListener, final NodeDeleteListener nodeDeleteListener,
-                             final ApplicationScope scope, MetricsFactory metricsFactory ) {
+                             final ApplicationScope scope, MetricsFactory metricsFactory,
+                             final HotKeyTracker hotKeyTracker ) {
 
 
         ValidationUtils.validateApplicationScope( scope );
@@ -121,6 +125,7 @@ public class GraphManagerImpl implements GraphManager {
         this.graphFig = graphFig;
         this.edgeDeleteListener = edgeDeleteListener;
         this.nodeDeleteListener = nodeDeleteListener;
+        this.hotKeyTracker = hotKeyTracker;
 
         this.markNodeTimer = metricsFactory.getTimer( GraphManagerImpl.class, "node.mark" );
         this.deleteNodeTimer = metricsFactory.getTimer( GraphManagerImpl.class, "node.delete" );
@@ -153,6 +158,7 @@ public class GraphManagerImpl implements GraphManager {
 
             final UUID timestamp = UUIDGenerator.newTimeUUID();
 
+            hotKeyTracker.recordWrite( HotKeyTracker.Store.GRAPH, scope, edge1.getSourceNode(), 0 );
 
             final MutationBatch mutation = edgeMetadataSerialization.writeEdge( scope, edge1 );
 
@@ -307,6 +313,7 @@ public class GraphManagerImpl implements GraphManager {
             Observable.create( new ObservableIterator<MarkedEdge>( "loadEdgesFromSource" ) {
                 @Override
                 protected Iterator<MarkedEdge> getIterator() {
+                    hotKeyTracker.recordRead( HotKeyTracker.Store.GRAPH, scope, search.getNode(), 0 );
                     return storageEdgeSerialization.getEdgesFromSource( scope, search );
                 }
             } ).buffer( graphFig.getScanPageSize() )
@@ -322,6 +329,7 @@ public class GraphManagerImpl implements GraphManager {
             Observable.create( new ObservableIterator<MarkedEdge>( "loadEdgesToTarget" ) {
                 @Override
                 protected Iterator<MarkedEdge> getIterator() {
+                    hotKeyTracker.recordRead( HotKeyTracker.Store.GRAPH, scope, search.getNode(), 0 );
                     return storageEdgeSerialization.getEdgesToTarget( scope, search );
                 }
             } ).buffer( graphFig.getScanPageSize() )
@@ -338,6 +346,7 @@ public class GraphManagerImpl implements GraphManager {
             Observable.create( new ObservableIterator<MarkedEdge>( "loadEdgesFromSourceByType" ) {
                 @Override
                 protected Iterator<MarkedEdge> getIterator() {
+                    hotKeyTracker.recordRead( HotKeyTracker.Store.GRAPH, scope, search.getNode(), 0 );
                     return storageEdgeSerialization.getEdgesFromSourceByTargetType( scope, search );
                 }
             } ).buffer( graphFig.getScanPageSize() )
@@ -353,6 +362,7 @@ public class GraphManagerImpl implements GraphManager {
             Observable.create( new ObservableIterator<MarkedEdge>( "loadEdgesToTargetByType" ) {
                 @Override
                 protected Iterator<MarkedEdge> getIterator() {
+                    hotKeyTracker.recordRead( HotKeyTracker.Store.GRAPH, scope, search.getNode(), 0 );
                     return storageEdgeSerialization.getEdgesToTargetBySourceType( scope, search );
                 }
             } ).buffer( graphFig.getScanPageSize() )
@@ -27,6 +27,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.assistedinject.Assisted;
 
+import org.apache.usergrid.persistence.core.metrics.HotKeyTracker;
 import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.graph.GraphFig;
@@ -54,12 +55,13 @@ public class GraphManagerFactoryImpl implements GraphManagerFactory {
     private final EdgeDeleteListener edgeDeleteListener;
     private final NodeDeleteListener nodeDeleteListener;
     private final MetricsFactory metricsFactory;
+    private final HotKeyTracker hotKeyTracker;
 
     private LoadingCache<ApplicationScope, GraphManager> gmCache =
         CacheBuilder.newBuilder().maximumSize( 1000 ).build( new CacheLoader<ApplicationScope, GraphManager>() {
             public GraphManager load(
                 ApplicationScope scope ) {
-                return new GraphManagerImpl(edgeMetadataSerialization,edgeSerialization,nodeSerialization,graphFig,edgeDeleteListener,nodeDeleteListener,scope, metricsFactory);
+                return new GraphManagerImpl(edgeMetadataSerialization,edgeSerialization,nodeSerialization,graphFig,edgeDeleteListener,nodeDeleteListener,scope, metricsFactory, hotKeyTracker);
             }
         } );
 
@@ -67,7 +69,8 @@ public class GraphManagerFactoryImpl implements GraphManagerFactory {
     public GraphManagerFactoryImpl( final EdgeMetadataSerialization edgeMetadataSerialization, final
     EdgeSerialization edgeSerialization,
                                     final NodeSerialization nodeSerialization, final GraphFig graphFig, final EdgeDeleteListener edgeDeleteListener,
-                                    final NodeDeleteListener nodeDeleteListener, final MetricsFactory metricsFactory ){
+                                    final NodeDeleteListener nodeDeleteListener, final MetricsFactory metricsFactory,
+                                    final HotKeyTracker hotKeyTracker ){
         this.edgeMetadataSerialization = edgeMetadataSerialization;
         this.edgeSerialization = edgeSerialization;
         this.nodeSerialization = nodeSerialization;
@@ -75,6 +78,7 @@ public class GraphManagerFactoryImpl implements GraphManagerFactory {
         this.edgeDeleteListener = edgeDeleteListener;
         this.nodeDeleteListener = nodeDeleteListener;
         this.metricsFactory = metricsFactory;
+        this.hotKeyTracker = hotKeyTracker;
     }
 
     @Override
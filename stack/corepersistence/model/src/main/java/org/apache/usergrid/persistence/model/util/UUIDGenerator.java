@@ -19,43 +19,162 @@
 package org.apache.usergrid.persistence.model.util;
 
 
-import java.io.IOException;
+import java.security.SecureRandom;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.uuid.EthernetAddress;
-import com.fasterxml.uuid.UUIDTimer;
-import com.fasterxml.uuid.impl.TimeBasedGenerator;
 
 
 /**
- * TODO replace this with the Astyanax generator libs
+ * Generates version 1 time uuids without a lock shared by all threads.  Threads are spread over stripes, each with
+ * its own clock sequence, so stripes never generate the same uuid even within the same clock tick.  Each stripe hands
+ * out strictly increasing timestamps, so the uuids of each thread are strictly ordered.
+ *
+ * Timestamps come from a monotonic clock with 100ns resolution anchored to the wall clock, rather than the
+ * millisecond wall clock, so a busy stripe does not run ahead of the time other stripes see and uuids generated
+ * one after the other on different threads stay ordered.  The anchor is re-read from the wall clock every second so
+ * timestamps follow clock corrections, but it only ever moves forward.
+ *
+ * The node is a random multicast address drawn once per process rather than the MAC address, so processes on the
+ * same host never share a node, whatever the clock sequences of their stripes.
  */
 public class UUIDGenerator {
 
+    /**
+     * The number of 100ns intervals between the uuid epoch, 1582-10-15, and the unix epoch
+     */
+    private static final long UUID_EPOCH_OFFSET = 0x01b21dd213814000L;
 
-    private static final Random random = new Random();
-    private static final UUIDTimer timer;
+    private static final int CLOCK_SEQUENCE_MASK = 0x3FFF;
 
     /**
-     * Lame, but required
+     * How long an anchor is used before it is re-read from the wall clock
      */
+    private static final long ANCHOR_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private static final AtomicReference<Anchor> anchor =
+        new AtomicReference<>( new Anchor( wallClockTimestamp(), System.nanoTime() ) );
+
+    private static final Stripe[] stripes;
+
+    private static final AtomicInteger nextStripe = new AtomicInteger();
+
     static {
-        try {
-            timer = new UUIDTimer( random, null );
-        }
-        catch ( IOException e ) {
-            throw new RuntimeException( "Couldn't initialize timer", e );
+        final Random random = new SecureRandom();
+
+        final EthernetAddress address = EthernetAddress.constructMulticastAddress( random );
+
+        //a power of 2 several times the cores, every stripe needs its own clock sequence
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final int stripeCount = Math.min( Integer.highestOneBit( cores * 8 - 1 ) << 1, CLOCK_SEQUENCE_MASK + 1 );
+
+        final long node = address.toLong();
+        final int clockSequence = random.nextInt( CLOCK_SEQUENCE_MASK + 1 );
+
+        stripes = new Stripe[stripeCount];
+
+        for ( int i = 0; i < stripeCount; i++ ) {
+            stripes[i] = new Stripe( ( clockSequence + i ) & CLOCK_SEQUENCE_MASK, node );
         }
     }
 
 
-    private static final TimeBasedGenerator generator =
-        new TimeBasedGenerator( EthernetAddress.fromInterface(), timer );
+    /**
+     * Threads are assigned stripes round robin
+     */
+    private static final ThreadLocal<Stripe> threadStripe =
+        ThreadLocal.withInitial( () -> stripes[nextStripe.getAndIncrement() & ( stripes.length - 1 )] );
 
 
     /** Create a new time uuid */
     public static UUID newTimeUUID() {
-        return generator.generate();
+        return threadStripe.get().generate();
+    }
+
+
+    /**
+     * The current uuid timestamp, in 100ns intervals since the uuid epoch
+     */
+    private static long now() {
+
+        final long nanos = System.nanoTime();
+
+        Anchor current = anchor.get();
+
+        if ( nanos - current.nanos >= ANCHOR_NANOS ) {
+            //follow the wall clock, but never go back in time
+            final Anchor next = new Anchor( Math.max( wallClockTimestamp(), current.timestampAt( nanos ) ), nanos );
+
+            current = anchor.compareAndSet( current, next ) ? next : anchor.get();
+        }
+
+        return current.timestampAt( nanos );
+    }
+
+
+    private static long wallClockTimestamp() {
+        return System.currentTimeMillis() * 10000 + UUID_EPOCH_OFFSET;
+    }
+
+
+    /**
+     * A uuid timestamp and the nano time it was taken at
+     */
+    private static final class Anchor {
+
+        private final long timestamp;
+        private final long nanos;
+
+
+        private Anchor( final long timestamp, final long nanos ) {
+            this.timestamp = timestamp;
+            this.nanos = nanos;
+        }
+
+
+        private long timestampAt( final long nanos ) {
+            return timestamp + ( nanos - this.nanos ) / 100;
+        }
+    }
+
+
+    /**
+     * The last timestamp and the fixed clock sequence and node of a group of threads
+     */
+    private static final class Stripe {
+
+        private final AtomicLong lastTimestamp = new AtomicLong();
+        private final long leastSigBits;
+
+
+        private Stripe( final int clockSequence, final long node ) {
+            //variant 2 in the top bits of the clock sequence, the node in the low 48 bits
+            this.leastSigBits = ( ( 0x8000L | clockSequence ) << 48 ) | ( node & 0xFFFFFFFFFFFFL );
+        }
+
+
+        private UUID generate() {
+
+            long last;
+            long timestamp;
+
+            //threads sharing the stripe only race on this, never block
+            do {
+                last = lastTimestamp.get();
+                timestamp = Math.max( now(), last + 1 );
+            }
+            while ( !lastTimestamp.compareAndSet( last, timestamp ) );
+
+            //time low, time mid, the version and time high
+            final long mostSigBits = ( timestamp << 32 ) | ( ( timestamp >>> 16 ) & 0xFFFF0000L ) | 0x1000L
+                | ( ( timestamp >>> 48 ) & 0x0FFFL );
+
+            return new UUID( mostSigBits, leastSigBits );
+        }
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.model.util;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.uuid.EthernetAddress;
+import com.fasterxml.uuid.UUIDTimer;
+import com.fasterxml.uuid.impl.TimeBasedGenerator;
+
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Compares the throughput of {@link UUIDGenerator} with a single time based generator shared by all threads, which
+ * is how uuids were generated before.  Not run with the unit tests, run it with
+ *
+ *   mvn test -Dtest=UUIDGeneratorBenchmark -Duuid.benchmark.threads=16 -Duuid.benchmark.count=1000000
+ */
+public class UUIDGeneratorBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger( UUIDGeneratorBenchmark.class );
+
+    private static final int numberThreads =
+        Integer.getInteger( "uuid.benchmark.threads", Math.max( Runtime.getRuntime().availableProcessors() * 2, 4 ) );
+
+    private static final int count = Integer.getInteger( "uuid.benchmark.count", 500000 );
+
+
+    @Test
+    public void compareThroughput() throws Exception {
+
+        final TimeBasedGenerator shared =
+            new TimeBasedGenerator( EthernetAddress.fromInterface(), new UUIDTimer( new Random(), null ) );
+
+        //warm up both before measuring
+        run( shared::generate );
+        run( UUIDGenerator::newTimeUUID );
+
+        final double sharedRate = run( shared::generate );
+        final double stripedRate = run( UUIDGenerator::newTimeUUID );
+
+        logger.info( "{} threads generating {} uuids each", numberThreads, count );
+        logger.info( "Shared generator: {} uuids/s", ( long ) sharedRate );
+        logger.info( "Striped generator: {} uuids/s, {}x", ( long ) stripedRate, String.format( "%.2f",
+            stripedRate / sharedRate ) );
+
+        //with few cores there is too little contention to tell them apart
+        if ( Runtime.getRuntime().availableProcessors() >= 4 ) {
+            assertTrue( "Striped generator is slower than a shared generator", stripedRate >= sharedRate );
+        }
+    }
+
+
+    /**
+     * Generate count uuids on each thread, and return the uuids generated per second
+     */
+    private double run( final Supplier<UUID> generator ) throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool( numberThreads );
+
+        final List<Callable<Void>> generators = new ArrayList<>( numberThreads );
+
+        for ( int i = 0; i < numberThreads; i++ ) {
+            generators.add( () -> {
+                for ( int j = 0; j < count; j++ ) {
+                    generator.get();
+                }
+                return null;
+            } );
+        }
+
+        final long start = System.nanoTime();
+
+        for ( Future<Void> future : executor.invokeAll( generators ) ) {
+            future.get();
+        }
+
+        final long elapsed = System.nanoTime() - start;
+
+        executor.shutdown();
+
+        return ( double ) numberThreads * count * 1000000000L / elapsed;
+    }
+}
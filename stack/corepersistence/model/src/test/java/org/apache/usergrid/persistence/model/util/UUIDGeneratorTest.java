@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -37,6 +38,7 @@ import com.fasterxml.uuid.UUIDComparator;
 import com.google.common.collect.Sets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -86,6 +88,78 @@ public class UUIDGeneratorTest {
     }
 
 
+    @Test
+    public void testUniqueUnderContention() throws InterruptedException, ExecutionException {
+
+        //many more threads than stripes, so every stripe is shared
+        final int numberThreads = Runtime.getRuntime().availableProcessors() * 32;
+
+        final int count = 5000;
+
+        final Set<UUID> generated = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool( numberThreads );
+
+        List<Callable<Void>> generators = new ArrayList<Callable<Void>>( numberThreads );
+
+        for ( int i = 0; i < numberThreads; i++ ) {
+            generators.add( () -> {
+                for ( int j = 0; j < count; j++ ) {
+                    assertTrue( "Generated a duplicate UUID", generated.add( UUIDGenerator.newTimeUUID() ) );
+                }
+                return null;
+            } );
+        }
+
+        for ( Future<Void> future : executor.invokeAll( generators ) ) {
+            future.get();
+        }
+
+        executor.shutdown();
+
+        assertEquals( numberThreads * count, generated.size() );
+    }
+
+
+    @Test
+    public void testTimeUUIDFormat() {
+
+        final long before = System.currentTimeMillis();
+
+        final UUID uuid = UUIDGenerator.newTimeUUID();
+
+        final long after = System.currentTimeMillis();
+
+        assertEquals( 1, uuid.version() );
+        assertEquals( 2, uuid.variant() );
+
+        //uuid timestamps are 100ns intervals since 1582-10-15
+        final long millis = ( uuid.timestamp() - 0x01b21dd213814000L ) / 10000;
+
+        //the clock is anchored to the wall clock every second, allow for drift since then
+        assertFalse( "Timestamp is before the wall clock", millis < before - 1000 );
+        assertFalse( "Timestamp is after the wall clock", millis > after + 1000 );
+
+        //the node is a random multicast address, not the MAC address
+        assertTrue( "Node is not a multicast address", ( uuid.node() & 0x010000000000L ) != 0 );
+    }
+
+
+    @Test
+    public void testOrderedAcrossAnchors() throws InterruptedException {
+
+        final UUID first = UUIDGenerator.newTimeUUID();
+
+        //long enough for the anchor to be re-read from the wall clock
+        Thread.sleep( 1100 );
+
+        final UUID second = UUIDGenerator.newTimeUUID();
+
+        assertTrue( UUIDComparator.staticCompare( first, second ) < 0 );
+        assertTrue( second.timestamp() - first.timestamp() >= 1100 * 10000L );
+    }
+
+
     private static class UUIDConsumer implements Callable<Void> {
 
         private final int toGenerate;
@@ -26,6 +26,9 @@ import org.apache.usergrid.persistence.core.util.Health;
 import org.apache.usergrid.persistence.model.entity.Id;
 import rx.Observable;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -103,6 +106,36 @@ public interface EntityIndex extends CPManager {
                             final int limit, final int offset);
 
 
+    /**
+     * Count the documents in the specified search edge that match the query, without fetching them.  The count
+     * includes documents of entity versions that have not been cleaned up yet, so it can be higher than the number of
+     * entities a search would return.
+     *
+     * @param searchEdge  The edge to search on
+     * @param searchTypes The search types to search
+     * @param query       The query to execute
+     * @return The number of matching documents
+     */
+    long count(final SearchEdge searchEdge, final SearchTypes searchTypes, final String query);
+
+
+    /**
+     * Iterate all the documents in the specified search edge that match the query with an Elasticsearch scroll, rather
+     * than restarting a search for every page.  Results are unordered, and each batch holds up to batchSize candidates
+     * per shard.  The scroll is opened by the first call to hasNext, each later batch is only fetched once the caller
+     * asks for it, and the scroll is released once the last batch has been read.  An iterator that is abandoned part
+     * way leaves its scroll to expire with the cursor timeout.
+     *
+     * @param searchEdge  The edge to search on
+     * @param searchTypes The search types to search
+     * @param query       The query to execute
+     * @param batchSize   The number of documents to fetch from each shard per batch
+     * @return An iterator of candidate batches
+     */
+    Iterator<CandidateResults> scan(final SearchEdge searchEdge, final SearchTypes searchTypes, final String query,
+                                    final int batchSize);
+
+
     /**
      * Same as search, just iterates all documents that match the index edge exactly.
      *
@@ -120,6 +153,16 @@ public interface EntityIndex extends CPManager {
      * @return
      */
     CandidateResults getNodeDocsOlderThanMarked(final Id entityId, final UUID markedVersion);
+
+    /**
+     * Delete every document of the given entity versions in this application with a single delete by query, rather
+     * than searching for and deindexing each edge document separately
+     *
+     * @param versions The versions to remove, keyed by entity id
+     * @return
+     */
+    Observable deleteEntityVersions(final Map<Id, ? extends Collection<UUID>> versions);
+
     /**
      * delete all application records
      *
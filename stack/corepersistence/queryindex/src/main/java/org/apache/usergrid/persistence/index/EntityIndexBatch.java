@@ -19,15 +19,12 @@ package org.apache.usergrid.persistence.index;/*
 
 
 
-import java.util.Set;
 import java.util.UUID;
 
 import org.apache.usergrid.persistence.index.impl.IndexOperationMessage;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 
-import com.google.common.base.Optional;
-
 
 public interface EntityIndexBatch {
 
@@ -56,7 +53,14 @@ public interface EntityIndexBatch {
     EntityIndexBatch deindex( final SearchEdge searchEdge, final CandidateResult result );
 
 
-    EntityIndexBatch index(final IndexEdge indexEdge, final Entity entity, final Optional<Set<String>> fieldsToIndex );
+    /**
+     * Create index for Entity, indexing only some of its fields
+     *
+     * @param indexEdge  The edge to index the document into
+     * @param entity     Entity to be indexed.
+     * @param indexedFields The fields of the entity to index
+     */
+    EntityIndexBatch index(final IndexEdge indexEdge, final Entity entity, final IndexedFields indexedFields );
 
     /**
      * Remove index of entity.
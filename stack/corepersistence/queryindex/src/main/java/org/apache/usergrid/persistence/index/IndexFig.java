@@ -62,6 +62,28 @@ public interface IndexFig extends GuicyFig {
 
     String ELASTICSEARCH_VERSION_QUERY_LIMIT = "elasticsearch.version_query_limit";
 
+    String ELASTICSEARCH_EDGE_ROUTING = "elasticsearch.routing.edge";
+
+    String ELASTICSEARCH_EDGE_ROUTING_APPLICATIONS = "elasticsearch.routing.edge.applications";
+
+    String ELASTICSEARCH_ENTITY_DOCUMENTS = "elasticsearch.documents.entity";
+
+    String ELASTICSEARCH_ENTITY_DOCUMENTS_APPLICATIONS = "elasticsearch.documents.entity.applications";
+
+    String ELASTICSEARCH_QUERY_CACHE_SIZE = "elasticsearch.query.cache.size";
+
+    String ELASTICSEARCH_GEO_PREFIX_FILTER = "elasticsearch.query.geo.prefix_filter";
+
+    String ELASTICSEARCH_SEARCH_CACHE_TTL = "elasticsearch.search.cache.ttl";
+
+    String ELASTICSEARCH_SEARCH_CACHE_SIZE = "elasticsearch.search.cache.size";
+
+    String ELASTICSEARCH_SEARCH_CACHE_REFRESH_INTERVAL = "elasticsearch.search.cache.refresh_interval";
+
+    String ELASTICSEARCH_INDEX_MAX_DEPTH = "elasticsearch.index.max_depth";
+
+    String ELASTICSEARCH_INDEX_MAX_ARRAY_ELEMENTS = "elasticsearch.index.max_array_elements";
+
 
     /**
      * Comma-separated list of Elasticsearch hosts.
@@ -134,6 +156,102 @@ public interface IndexFig extends GuicyFig {
     @Key( ELASTICSEARCH_NUMBER_OF_REPLICAS )
     int getNumberOfReplicas();
 
+    /**
+     * Create new indexes with each document routed to the shard of its search edge's node id and edge name, so that
+     * a query of one collection or connection searches one shard instead of all of them.  Only applies to indexes
+     * created after it is set; existing data moves over by re-indexing into a new index.
+     */
+    @Default( "false" )
+    @Key( ELASTICSEARCH_EDGE_ROUTING )
+    boolean isEdgeRouting();
+
+    /**
+     * Comma-separated list of application UUIDs to create edge routed indexes for when edge routing is not on
+     * for all applications.
+     */
+    @Default( "" )
+    @Key( ELASTICSEARCH_EDGE_ROUTING_APPLICATIONS )
+    String getEdgeRoutingApplications();
+
+    /**
+     * Create new indexes with one document per entity version that lists all the edges the entity is indexed on,
+     * instead of one document per entity version and edge.  Takes precedence over edge routing, since an entity
+     * document has no single edge to route by.  Only applies to indexes created after it is set.
+     */
+    @Default( "false" )
+    @Key( ELASTICSEARCH_ENTITY_DOCUMENTS )
+    boolean isEntityDocuments();
+
+    /**
+     * Comma-separated list of application UUIDs to create entity document indexes for when entity documents are
+     * not on for all applications.
+     */
+    @Default( "" )
+    @Key( ELASTICSEARCH_ENTITY_DOCUMENTS_APPLICATIONS )
+    String getEntityDocumentsApplications();
+
+    /**
+     * The maximum number of parsed query templates (queries with their literal values taken out) to keep in memory.
+     * Set to 0 to parse every query.
+     */
+    @Default( "1000" )
+    @Key( ELASTICSEARCH_QUERY_CACHE_SIZE )
+    int getQueryCacheSize();
+
+
+    /**
+     * Narrow location queries to the geohash cells around the point before computing distances.  Only documents
+     * indexed with geohash prefixes match the pre-filter, so enable this once all applications have been re-indexed.
+     */
+    @Default( "false" )
+    @Key( ELASTICSEARCH_GEO_PREFIX_FILTER )
+    boolean isGeoPrefixFilter();
+
+
+    /**
+     * How long in milliseconds the candidates of a search are cached.  Index operations on this node invalidate the
+     * searches of their edges right away, other nodes serve cached candidates for up to this long.  0 disables the
+     * cache.
+     */
+    @Default( "0" )
+    @Key( ELASTICSEARCH_SEARCH_CACHE_TTL )
+    long getSearchCacheTimeToLive();
+
+
+    /**
+     * The maximum number of edges whose searches are cached
+     */
+    @Default( "1000" )
+    @Key( ELASTICSEARCH_SEARCH_CACHE_SIZE )
+    int getSearchCacheSize();
+
+
+    /**
+     * How long in milliseconds writes take to become searchable, the refresh interval of the indexes.  Searches of an
+     * edge are not cached for this long after this node wrote to it
+     */
+    @Default( "1000" )
+    @Key( ELASTICSEARCH_SEARCH_CACHE_REFRESH_INTERVAL )
+    long getSearchCacheRefreshInterval();
+
+
+    /**
+     * The deepest level of nested objects whose fields are indexed, top level fields are level 1.  Collections can
+     * override this in their settings.  Set to 0 to index every level.
+     */
+    @Default( "0" )
+    @Key( ELASTICSEARCH_INDEX_MAX_DEPTH )
+    int getIndexMaxDepth();
+
+
+    /**
+     * The most elements of an array that are indexed, the rest are skipped.  Collections can override this in their
+     * settings.  Set to 0 to index every element.
+     */
+    @Default( "0" )
+    @Key( ELASTICSEARCH_INDEX_MAX_ARRAY_ELEMENTS )
+    int getIndexMaxArrayElements();
+
 
     /**
      * The number of failures that occur before refreshing an Elasticsearch client.
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+
+/**
+ * The fields of an entity that are indexed.  Paths are the dotted names of fields, ignoring case, and a path also covers
+ * every field nested beneath it.  A path segment of "*" matches any single field name.
+ */
+public class IndexedFields {
+
+    private static final IndexedFields ALL =
+        new IndexedFields( Optional.<Collection<String>>absent(), Collections.emptyList(), 0, 0 );
+
+    private final List<String[]> includes;
+    private final List<String[]> excludes;
+    private final int maxDepth;
+    private final int maxArrayElements;
+
+
+    /**
+     * @param includes The paths to index, absent to index every path
+     * @param excludes The paths never to index, even if they are included
+     * @param maxDepth The deepest level of nested objects indexed, top level fields are level 1.  0 for no limit
+     * @param maxArrayElements The most elements of an array indexed.  0 for no limit
+     */
+    public IndexedFields( final Optional<? extends Collection<String>> includes, final Collection<String> excludes,
+                          final int maxDepth, final int maxArrayElements ) {
+
+        Preconditions.checkArgument( maxDepth >= 0, "maxDepth must be >= 0" );
+        Preconditions.checkArgument( maxArrayElements >= 0, "maxArrayElements must be >= 0" );
+
+        this.includes = includes.isPresent() ? split( includes.get() ) : null;
+        this.excludes = split( excludes );
+        this.maxDepth = maxDepth;
+        this.maxArrayElements = maxArrayElements;
+    }
+
+
+    /**
+     * Index every field of the entity
+     */
+    public static IndexedFields all() {
+        return ALL;
+    }
+
+
+    /**
+     * Index only the given paths of the entity
+     */
+    public static IndexedFields fromIncludes( final Collection<String> includes ) {
+        return new IndexedFields( Optional.of( includes ), Collections.emptyList(), 0, 0 );
+    }
+
+
+    /**
+     * True if only the included paths are indexed
+     */
+    public boolean hasIncludes() {
+        return includes != null;
+    }
+
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+
+    public int getMaxArrayElements() {
+        return maxArrayElements;
+    }
+
+
+    /**
+     * True if the path is too deep to index
+     */
+    public boolean isTooDeep( final List<String> path ) {
+        return maxDepth > 0 && path.size() > maxDepth;
+    }
+
+
+    /**
+     * True if an exclude covers the path.  Excludes of the parents of the path are expected to have been checked
+     * already, so only the excludes as long as the path are matched.
+     */
+    public boolean isExcluded( final List<String> path ) {
+        return matchesAny( excludes, path, false );
+    }
+
+
+    /**
+     * True if an include covers the path, and so every field nested beneath it.  Includes of the parents of the path
+     * are expected to have been checked already.
+     */
+    public boolean isIncluded( final List<String> path ) {
+        return includes == null || matchesAny( includes, path, false );
+    }
+
+
+    /**
+     * True if an include covers a field nested beneath the path, so the path has to be walked to find it
+     */
+    public boolean isIncludedBelow( final List<String> path ) {
+        return includes == null || matchesAny( includes, path, true );
+    }
+
+
+    private static boolean matchesAny( final List<String[]> patterns, final List<String> path,
+                                       final boolean longerOnly ) {
+
+        final int depth = path.size();
+
+        for ( final String[] pattern : patterns ) {
+
+            if ( longerOnly ? pattern.length <= depth : pattern.length != depth ) {
+                continue;
+            }
+
+            if ( matches( pattern, path ) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * True if the path matches the first segments of the pattern
+     */
+    private static boolean matches( final String[] pattern, final List<String> path ) {
+        for ( int i = 0; i < path.size(); i++ ) {
+            if ( !"*".equals( pattern[i] ) && !pattern[i].equals( path.get( i ) ) ) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private static List<String[]> split( final Collection<String> paths ) {
+        final List<String[]> patterns = new ArrayList<>( paths.size() );
+
+        for ( final String path : paths ) {
+            if ( path != null && !path.trim().isEmpty() ) {
+                //field names are lower cased when entities are mapped
+                patterns.add( path.trim().toLowerCase().split( "\\." ) );
+            }
+        }
+
+        return patterns;
+    }
+}
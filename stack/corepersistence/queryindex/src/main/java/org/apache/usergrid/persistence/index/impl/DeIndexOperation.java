@@ -21,6 +21,9 @@ package org.apache.usergrid.persistence.index.impl;
 
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
@@ -49,6 +52,18 @@ public class DeIndexOperation implements BatchOperation {
     @JsonProperty
     public String documentId;
 
+    /**
+     * Shard routing value the document was indexed with, null if routed by document id
+     */
+    @JsonProperty
+    public String routing;
+
+    /**
+     * Search contexts of the edges to remove from the entity documents, null for documents per edge
+     */
+    @JsonProperty
+    public Set<String> edges;
+
 
     public DeIndexOperation() {
 
@@ -66,14 +81,41 @@ public class DeIndexOperation implements BatchOperation {
         this.documentId = docId;
     }
 
+    public DeIndexOperation( String[] indexes, String docId, String routing ) {
+        this.indexes = indexes;
+        this.documentId = docId;
+        this.routing = routing;
+    }
+
+
+    /**
+     * Remove the edge from the entity document of the entity version, deleting it if it has no edges left
+     */
+    public static DeIndexOperation entityDocument( final String[] indexes, final String entityDocId,
+                                                   final String contextName ) {
+
+        final DeIndexOperation deIndexOperation = new DeIndexOperation( indexes, entityDocId );
+        deIndexOperation.edges = Collections.singleton( contextName );
+        return deIndexOperation;
+    }
+
 
     @Override
     public void doOperation( final Client client, final BulkRequestBuilder bulkRequest ) {
 
+        if ( edges != null ) {
+            for ( final String index : indexes ) {
+                new EntityDocumentOperation( index, documentId ).remove( edges ).doOperation( client, bulkRequest );
+            }
+            return;
+        }
 
         for ( final String index : indexes ) {
             final DeleteRequestBuilder builder =
                     client.prepareDelete( index, IndexingUtils.ES_ENTITY_TYPE, documentId );
+            if ( routing != null ) {
+                builder.setRouting( routing );
+            }
             bulkRequest.add( builder );
         }
     }
@@ -100,6 +142,14 @@ public class DeIndexOperation implements BatchOperation {
             return false;
         }
 
+        if ( !Objects.equals( routing, that.routing ) ) {
+            return false;
+        }
+
+        if ( !Objects.equals( edges, that.edges ) ) {
+            return false;
+        }
+
         return true;
     }
 
@@ -108,6 +158,8 @@ public class DeIndexOperation implements BatchOperation {
     public int hashCode() {
         int result = Arrays.hashCode( indexes );
         result = 31 * result + documentId.hashCode();
+        result = 31 * result + Objects.hashCode( routing );
+        result = 31 * result + Objects.hashCode( edges );
         return result;
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.function.Function;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+
+
+/**
+ * The document models of the indexes behind an alias, and how to find the documents of an edge in them.  An index
+ * holds either one document per entity version and edge, with the edge fields at the top level, or one document per
+ * entity version with all its edges nested under {@link IndexingUtils#EDGES_FIELDNAME}.  While an application moves
+ * from one model to the other its read alias spans both.
+ */
+public class DocumentModels {
+
+    private static final String NESTED_EDGE_PREFIX = IndexingUtils.EDGES_FIELDNAME + ".";
+
+    private final boolean edgeDocuments;
+    private final boolean entityDocuments;
+
+
+    public DocumentModels( final boolean edgeDocuments, final boolean entityDocuments ) {
+        this.edgeDocuments = edgeDocuments;
+        this.entityDocuments = entityDocuments;
+    }
+
+
+    /**
+     * Get the document models of the indexes, documents per edge if there are none
+     */
+    public static DocumentModels of( final IndexCache indexCache, final String[] indexes ) {
+
+        boolean edgeDocuments = false;
+        boolean entityDocuments = false;
+
+        for ( final String index : indexes ) {
+            if ( indexCache.isEntityDocuments( index ) ) {
+                entityDocuments = true;
+            }
+            else {
+                edgeDocuments = true;
+            }
+        }
+
+        return new DocumentModels( edgeDocuments || !entityDocuments, entityDocuments );
+    }
+
+
+    public boolean hasEdgeDocuments() {
+        return edgeDocuments;
+    }
+
+
+    public boolean hasEntityDocuments() {
+        return entityDocuments;
+    }
+
+
+    /**
+     * Create a filter for documents with an edge matching the condition
+     *
+     * @param edgeCondition Creates the condition on edge fields, given the prefix to put before edge field names
+     */
+    public FilterBuilder edgeFilter( final Function<String, FilterBuilder> edgeCondition ) {
+
+        if ( !entityDocuments ) {
+            return edgeCondition.apply( "" );
+        }
+
+        final FilterBuilder nested =
+            FilterBuilders.nestedFilter( IndexingUtils.EDGES_FIELDNAME, edgeCondition.apply( NESTED_EDGE_PREFIX ) );
+
+        if ( !edgeDocuments ) {
+            return nested;
+        }
+
+        return FilterBuilders.orFilter( edgeCondition.apply( "" ), nested );
+    }
+
+
+    /**
+     * Sort by the timestamp of the edge matching the condition.  Documents of the other model are missing the sort
+     * field, so while both are in use each model sorts after the other rather than interleaved.
+     *
+     * @param edgeCondition Creates the condition on edge fields, given the prefix to put before edge field names
+     */
+    public void addEdgeTimestampSort( final SearchRequestBuilder srb, final SortOrder order,
+                                      final Function<String, FilterBuilder> edgeCondition ) {
+
+        if ( edgeDocuments ) {
+            srb.addSort( SortBuilders.fieldSort( IndexingUtils.EDGE_TIMESTAMP_FIELDNAME ).order( order ) );
+        }
+
+        if ( entityDocuments ) {
+            srb.addSort( SortBuilders.fieldSort( IndexingUtils.EDGE_TIMESTAMP_NESTED ).order( order )
+                                     .setNestedPath( IndexingUtils.EDGES_FIELDNAME )
+                                     .setNestedFilter( edgeCondition.apply( NESTED_EDGE_PREFIX ) ) );
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.get.GetRequestBuilder;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.fetch.source.FetchSourceContext;
+
+
+/**
+ * Adds and removes edges of an entity document, which holds all the edges of an entity version.  Elasticsearch
+ * cannot append to or remove from an array without scripting, so the document is read, changed and written back
+ * with a version check.  A conflicting concurrent change fails the bulk request, and the retry reads it again.
+ *
+ * All the index and de-index operations on one document in a batch are combined into one of these, so the document
+ * is read and written once and the operations don't conflict with each other.  The documents of a bulk request are
+ * read together with one multi get, see {@link #read(Client, Collection)}.
+ */
+public class EntityDocumentOperation implements BatchOperation {
+
+    private final String index;
+    private final String documentId;
+
+    /**
+     * Entity fields to write, null to keep those of the current document
+     */
+    private Map<String, Object> data;
+
+    private final Map<String, Map<String, Object>> addedEdges = new HashMap<>();
+    private final Set<String> removedEdges = new HashSet<>();
+
+    /**
+     * The current document if it was read with the other documents of the bulk request
+     */
+    private transient GetResponse current;
+
+
+    public EntityDocumentOperation( final String index, final String documentId ) {
+        this.index = index;
+        this.documentId = documentId;
+    }
+
+
+    /**
+     * Add the entity fields and edges of the index operation
+     */
+    public EntityDocumentOperation add( final IndexOperation indexOperation ) {
+
+        // an entity version is the same in all its collections, but may have had fields left out by a schema
+        if ( data == null || fieldCount( indexOperation.data ) > fieldCount( data ) ) {
+            data = indexOperation.data;
+        }
+
+        addedEdges.putAll( indexOperation.edges );
+
+        return this;
+    }
+
+
+    /**
+     * Remove edges by their search context, removals win over additions in the same batch
+     */
+    public EntityDocumentOperation remove( final Collection<String> edges ) {
+        removedEdges.addAll( edges );
+        return this;
+    }
+
+
+    @Override
+    public void doOperation( final Client client, final BulkRequestBuilder bulkRequest ) {
+
+        final GetResponse current = this.current != null ? this.current : get( client );
+
+        if ( data == null && !current.isExists() ) {
+            // nothing to remove edges from
+            return;
+        }
+
+        final Map<String, Map<String, Object>> edges = getEdges( current );
+        edges.putAll( addedEdges );
+        edges.keySet().removeAll( removedEdges );
+
+        if ( edges.isEmpty() ) {
+            if ( current.isExists() ) {
+                bulkRequest.add( client.prepareDelete( index, IndexingUtils.ES_ENTITY_TYPE, documentId )
+                                       .setVersion( current.getVersion() ) );
+            }
+            return;
+        }
+
+        final Map<String, Object> source = new HashMap<>( data != null ? data : current.getSourceAsMap() );
+        source.put( IndexingUtils.EDGES_FIELDNAME, new ArrayList<>( edges.values() ) );
+
+        final IndexRequestBuilder builder =
+            client.prepareIndex( index, IndexingUtils.ES_ENTITY_TYPE, documentId ).setSource( source );
+
+        if ( current.isExists() ) {
+            builder.setVersion( current.getVersion() );
+        }
+        else {
+            builder.setCreate( true );
+        }
+
+        bulkRequest.add( builder );
+    }
+
+
+    /**
+     * Read the current documents of the entity document operations among the operations with one realtime multi get,
+     * before the operations are added to a bulk request.  A document that can't be read is read again on its own when
+     * its operation is added
+     */
+    public static void read( final Client client, final Collection<? extends BatchOperation> operations ) {
+
+        final List<EntityDocumentOperation> documents = new ArrayList<>();
+
+        for ( final BatchOperation operation : operations ) {
+            if ( operation instanceof EntityDocumentOperation ) {
+                documents.add( ( EntityDocumentOperation ) operation );
+            }
+        }
+
+        if ( documents.isEmpty() ) {
+            return;
+        }
+
+        final MultiGetRequestBuilder multiGet = client.prepareMultiGet().setRealtime( true );
+
+        for ( final EntityDocumentOperation document : documents ) {
+            multiGet.add( document.getItem() );
+        }
+
+        //the responses are in the order of the requests
+        final MultiGetItemResponse[] responses = multiGet.execute().actionGet().getResponses();
+
+        for ( int i = 0; i < responses.length; i++ ) {
+            if ( !responses[i].isFailed() ) {
+                documents.get( i ).current = responses[i].getResponse();
+            }
+        }
+    }
+
+
+    /**
+     * Combine the operations on entity documents by document, and return them after the operations on documents per
+     * edge
+     */
+    public static List<BatchOperation> combine( final Collection<IndexOperation> indexOperations,
+                                                final Collection<DeIndexOperation> deIndexOperations ) {
+
+        final List<BatchOperation> operations = new ArrayList<>( indexOperations.size() + deIndexOperations.size() );
+        final Map<String, EntityDocumentOperation> entityDocuments = new LinkedHashMap<>();
+
+        for ( final IndexOperation indexOperation : indexOperations ) {
+            if ( indexOperation.edges == null ) {
+                operations.add( indexOperation );
+            }
+            else {
+                get( entityDocuments, indexOperation.writeAlias, indexOperation.documentId ).add( indexOperation );
+            }
+        }
+
+        for ( final DeIndexOperation deIndexOperation : deIndexOperations ) {
+            if ( deIndexOperation.edges == null ) {
+                operations.add( deIndexOperation );
+            }
+            else {
+                for ( final String index : deIndexOperation.indexes ) {
+                    get( entityDocuments, index, deIndexOperation.documentId ).remove( deIndexOperation.edges );
+                }
+            }
+        }
+
+        operations.addAll( entityDocuments.values() );
+
+        return operations;
+    }
+
+
+    private GetResponse get( final Client client ) {
+
+        final GetRequestBuilder get =
+            client.prepareGet( index, IndexingUtils.ES_ENTITY_TYPE, documentId ).setRealtime( true );
+
+        // only the edges are needed if the entity fields are replaced
+        if ( data != null ) {
+            get.setFetchSource( IndexingUtils.EDGES_FIELDNAME, null );
+        }
+
+        return get.execute().actionGet();
+    }
+
+
+    private MultiGetRequest.Item getItem() {
+
+        final MultiGetRequest.Item item = new MultiGetRequest.Item( index, IndexingUtils.ES_ENTITY_TYPE, documentId );
+
+        // only the edges are needed if the entity fields are replaced
+        if ( data != null ) {
+            item.fetchSourceContext( new FetchSourceContext( IndexingUtils.EDGES_FIELDNAME, null ) );
+        }
+
+        return item;
+    }
+
+
+    private static EntityDocumentOperation get( final Map<String, EntityDocumentOperation> entityDocuments,
+                                                final String index, final String documentId ) {
+        return entityDocuments
+            .computeIfAbsent( index + "/" + documentId, key -> new EntityDocumentOperation( index, documentId ) );
+    }
+
+
+    /**
+     * Get the edges of the document by search context
+     */
+    @SuppressWarnings( "unchecked" )
+    private static Map<String, Map<String, Object>> getEdges( final GetResponse current ) {
+
+        final Map<String, Map<String, Object>> edges = new LinkedHashMap<>();
+
+        if ( !current.isExists() || current.getSourceAsMap() == null ) {
+            return edges;
+        }
+
+        final Object sourceEdges = current.getSourceAsMap().get( IndexingUtils.EDGES_FIELDNAME );
+
+        if ( sourceEdges instanceof Collection ) {
+            for ( final Object edge : ( Collection<Object> ) sourceEdges ) {
+                final Map<String, Object> edgeMap = ( Map<String, Object> ) edge;
+                edges.put( String.valueOf( edgeMap.get( IndexingUtils.EDGE_SEARCH_FIELDNAME ) ), edgeMap );
+            }
+        }
+
+        return edges;
+    }
+
+
+    private static int fieldCount( final Map<String, Object> data ) {
+        final Object fields = data.get( IndexingUtils.ENTITY_FIELDS );
+        return fields instanceof Collection ? ( ( Collection ) fields ).size() : 0;
+    }
+}
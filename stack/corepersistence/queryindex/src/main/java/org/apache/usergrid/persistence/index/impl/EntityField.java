@@ -137,6 +137,11 @@ public class EntityField extends HashMap<String, Object> {
         field.put( IndexingUtils.FIELD_NAME, fieldName.toLowerCase() );
         field.put( IndexingUtils.FIELD_LOCATION, location );
 
+        //index the geohash cells of the location so geo queries can pre-filter on them
+        final double lat = Double.parseDouble( String.valueOf( location.get( "lat" ) ) );
+        final double lon = Double.parseDouble( String.valueOf( location.get( "lon" ) ) );
+        field.put( IndexingUtils.FIELD_GEOHASH, GeoHashPrefixes.prefixes( lat, lon ) );
+
         return field;
     }
 
@@ -25,6 +25,7 @@ import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.model.entity.EntityMap;
 
 
@@ -38,12 +39,32 @@ public class EntityMappingParser implements FieldParser {
 
     private static final Logger logger = LoggerFactory.getLogger( EntityMappingParser.class );
 
+    /**
+     * The depth of the path when no include covers it
+     */
+    private static final int NOT_INCLUDED = Integer.MAX_VALUE;
+
+
+    /**
+     * The fields we index.  Subtrees they leave out are never walked
+     */
+    private final IndexedFields indexedFields;
 
     /**
      * Our stack for fields
      */
     private Stack<String> fieldStack = new Stack();
 
+    /**
+     * The field names of the path we're on, used to match the indexed fields
+     */
+    private List<String> path = new ArrayList<>();
+
+    /**
+     * The depth of the path at which an include covered it, so every field beneath it is indexed
+     */
+    private int includedDepth;
+
     /**
      * Keeps track fo our last field type.  Used for nested objects and nested collections
      */
@@ -55,11 +76,22 @@ public class EntityMappingParser implements FieldParser {
     private Set<EntityField> fields = new HashSet<>();
 
 
+    public EntityMappingParser() {
+        this( IndexedFields.all() );
+    }
+
+
+    public EntityMappingParser( final IndexedFields indexedFields ) {
+        this.indexedFields = indexedFields;
+        this.includedDepth = indexedFields.hasIncludes() ? NOT_INCLUDED : 0;
+    }
+
+
     /**
      * Visit al the primitive values
      */
     private void visit( final String value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value.toLowerCase() ) );
+        add( EntityField.create( fieldStack.peek(), value.toLowerCase() ) );
     }
 
 
@@ -73,34 +105,34 @@ public class EntityMappingParser implements FieldParser {
 
 
     private void visit( final boolean value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value ) );
+        add( EntityField.create( fieldStack.peek(), value ) );
     }
 
 
 
     private void visit( final int value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value ) );
+        add( EntityField.create( fieldStack.peek(), value ) );
     }
 
 
     private void visit( final long value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value ) );
+        add( EntityField.create( fieldStack.peek(), value ) );
     }
 
 
     private void visit( final double value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value ) );
+        add( EntityField.create( fieldStack.peek(), value ) );
     }
 
     private void visitNull( ) {
-        fields.add( EntityField.create( fieldStack.peek()) );
+        add( EntityField.create( fieldStack.peek()) );
     }
 
 
 
 
     private void visit( final float value ) {
-        fields.add( EntityField.create( fieldStack.peek(), value ) );
+        add( EntityField.create( fieldStack.peek(), value ) );
     }
 
 
@@ -119,8 +151,15 @@ public class EntityMappingParser implements FieldParser {
 
         lastCollection.push( value );
 
-        //fisit all the object element
+        final int maxElements = indexedFields.getMaxArrayElements();
+        int count = 0;
+
+        //fisit all the object element, up to our limit
         for ( final Object element : value ) {
+            if ( maxElements > 0 && count++ == maxElements ) {
+                break;
+            }
+
             visitValue( element );
         }
 
@@ -141,7 +180,7 @@ public class EntityMappingParser implements FieldParser {
                 //normalize location field to use lat/lon for es
                 location.put("lat",map.get("latitude"));
                 location.put("lon",map.get("longitude"));
-                fields.add( EntityField.create( fieldStack.peek(), location) );
+                add( EntityField.create( fieldStack.peek(), location) );
                 return;
             }
 
@@ -216,8 +255,10 @@ public class EntityMappingParser implements FieldParser {
         lastCollection.push( map );
 
         for ( final Map.Entry<String, ?> jsonField : map.entrySet() ) {
-            pushField( jsonField.getKey() );
-            visitValue( jsonField.getValue() );
+            //skip the whole subtree of fields we don't index
+            if ( pushField( jsonField.getKey() ) ) {
+                visitValue( jsonField.getValue() );
+            }
             popField();
         }
 
@@ -227,16 +268,37 @@ public class EntityMappingParser implements FieldParser {
 
     /**
      * Push a new fieldname on to the stack
+     *
+     * @return True if the field or the fields beneath it are indexed
      */
-    private void pushField( final String fieldName ) {
+    private boolean pushField( final String fieldName ) {
+
+        //patterns are lower case, field names are matched case insensitively like queries
+        path.add( fieldName.toLowerCase() );
+
         if ( fieldStack.isEmpty() ) {
             fieldStack.push( fieldName );
-            return;
+        }
+        else {
+            final String newFieldName = fieldStack.peek() + "." + fieldName;
+            fieldStack.push( newFieldName );
+        }
+
+        if ( indexedFields.isTooDeep( path ) || indexedFields.isExcluded( path ) ) {
+            return false;
+        }
+
+        //already beneath an include
+        if ( path.size() > includedDepth ) {
+            return true;
         }
 
+        if ( indexedFields.isIncluded( path ) ) {
+            includedDepth = path.size();
+            return true;
+        }
 
-        final String newFieldName = fieldStack.peek() + "." + fieldName;
-        fieldStack.push( newFieldName );
+        return indexedFields.isIncludedBelow( path );
     }
 
 
@@ -244,10 +306,25 @@ public class EntityMappingParser implements FieldParser {
      * Pop a field name off the stack
      */
     private void popField() {
+        if ( includedDepth == path.size() ) {
+            includedDepth = NOT_INCLUDED;
+        }
+
+        path.remove( path.size() - 1 );
         fieldStack.pop();
     }
 
 
+    /**
+     * Add the field if an include covers the path it's on
+     */
+    private void add( final EntityField field ) {
+        if ( path.size() >= includedDepth ) {
+            fields.add( field );
+        }
+    }
+
+
     /**
      * Parse the map field
      */
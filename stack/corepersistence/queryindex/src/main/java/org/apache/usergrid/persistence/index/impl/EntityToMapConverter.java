@@ -18,19 +18,16 @@ package org.apache.usergrid.persistence.index.impl;
 
 
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.index.IndexEdge;
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.EntityMap;
 import org.apache.usergrid.persistence.model.entity.Id;
 
-import com.google.common.base.Optional;
-
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.APPLICATION_ID_FIELDNAME;
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.EDGE_NAME_FIELDNAME;
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.EDGE_NODE_ID_FIELDNAME;
@@ -57,7 +54,7 @@ public class EntityToMapConverter {
     public static Map<String, Object> convert(ApplicationScope applicationScope, final IndexEdge indexEdge,
                                               final Entity entity) {
 
-        return convert( applicationScope, indexEdge, entity, Optional.absent() );
+        return convert( applicationScope, indexEdge, entity, IndexedFields.all() );
     }
 
     /**
@@ -66,12 +63,54 @@ public class EntityToMapConverter {
      * @param applicationScope
      * @param entity The entity
      * @param indexEdge The edge this entity is indexed on
-     * @param fieldsToIndex A set of fields that will be indexed should they exist on the entity. Other fields will be filtered out.
+     * @param indexedFields The fields of the entity that will be indexed should they exist on the entity. Other fields will be filtered out.
      */
     public static Map<String, Object> convert(ApplicationScope applicationScope, final IndexEdge indexEdge,
-                                              final Entity entity, Optional<Set<String>> fieldsToIndex) {
+                                              final Entity entity, final IndexedFields indexedFields) {
+
+        final Map<String, Object> outputEntity = convertEntity( applicationScope, entity, indexedFields );
+
+        outputEntity.putAll( convertEdge( applicationScope, indexEdge ) );
+
+        return outputEntity;
+    }
+
+
+    /**
+     * Set the fields of the edge the entity is indexed on.  These are top level fields of a document per edge, and
+     * one of the edges of an entity document.
+     *
+     * @param applicationScope
+     * @param indexEdge The edge this entity is indexed on
+     */
+    public static Map<String, Object> convertEdge( ApplicationScope applicationScope, final IndexEdge indexEdge ) {
+
+        final Map<String, Object> outputEdge = new HashMap<>();
+
+        outputEdge.put( EDGE_NODE_ID_FIELDNAME, nodeId( indexEdge.getNodeId() ) );
+
+        outputEdge.put( EDGE_NODE_TYPE_FIELDNAME, indexEdge.getNodeType() );
+
+        outputEdge.put( EDGE_NAME_FIELDNAME, indexEdge.getEdgeName()  );
+
+        outputEdge.put( EDGE_TIMESTAMP_FIELDNAME, indexEdge.getTimestamp()  );
+
+        //add the context for filtering later
+        outputEdge.put( EDGE_SEARCH_FIELDNAME, IndexingUtils.createContextName( applicationScope, indexEdge ) );
+
+        return outputEdge;
+    }
 
 
+    /**
+     * Set the entity as a map without any edge.  Used on its own for entity documents, which list their edges.
+     *
+     * @param applicationScope
+     * @param entity The entity
+     * @param indexedFields The fields of the entity that will be indexed should they exist on the entity. Other fields will be filtered out.
+     */
+    public static Map<String, Object> convertEntity( ApplicationScope applicationScope, final Entity entity,
+                                                     final IndexedFields indexedFields ) {
 
         final Map<String, Object> outputEntity = new HashMap<>();
 
@@ -90,103 +129,20 @@ public class EntityToMapConverter {
 
         outputEntity.put( APPLICATION_ID_FIELDNAME, applicationId( applicationScope.getApplication() ) );
 
-        outputEntity.put( EDGE_NODE_ID_FIELDNAME, nodeId( indexEdge.getNodeId() ) );
-
-        outputEntity.put( EDGE_NODE_TYPE_FIELDNAME, indexEdge.getNodeType() );
-
-        outputEntity.put( EDGE_NAME_FIELDNAME, indexEdge.getEdgeName()  );
-
-        outputEntity.put( EDGE_TIMESTAMP_FIELDNAME, indexEdge.getTimestamp()  );
-
         outputEntity.put( ENTITY_SIZE_FIELDNAME, entity.getSize() );
 
-        //add the context for filtering later
-        outputEntity.put( EDGE_SEARCH_FIELDNAME, IndexingUtils.createContextName( applicationScope, indexEdge ) );
-
         //migrate the entity to map since we're ultimately going to use maps once we get rid of the Field objects
         final EntityMap entityMap = EntityMap.fromEntity( entity );
 
-        //now visit our entity
-        final FieldParser parser = new EntityMappingParser();
+        //now visit our entity, skipping the fields we don't index as we go
+        final FieldParser parser = new EntityMappingParser( indexedFields );
 
-        final Set<EntityField> fieldsToBeFiltered =   parser.parse( entityMap );
+        final Set<EntityField> fieldsToIndex = parser.parse( entityMap );
 
         //add our fields to output entity
-        outputEntity.put( ENTITY_FIELDS, fieldsToBeFiltered );
-
-        if(fieldsToIndex.isPresent()){
-            Set<String> defaultProperties = fieldsToIndex.get();
-            HashSet mapFields = ( HashSet ) outputEntity.get( "fields" );
-            Iterator collectionIterator = mapFields.iterator();
-
-            //Loop through all of the fields of the flatted entity and check to see if they should be filtered out.
-            collectionIterator.forEachRemaining(outputEntityField -> {
-                EntityField testedField = ( EntityField ) outputEntityField;
-                String fieldName = ( String ) ( testedField ).get( "name" );
-
-                //could move this down into the method below
-                if ( !defaultProperties.contains( fieldName ) ) {
-                    iterateThroughMapForFieldsToBeIndexed( defaultProperties, collectionIterator, fieldName );
-                }
-            });
-
-        }
-
-
+        outputEntity.put( ENTITY_FIELDS, fieldsToIndex );
 
         return outputEntity;
     }
-
-    /**
-     * Handles checking to see if a field is a top level exclusion or just a field that shouldn't be indexed.
-     * This is handled by looping through all the fields we want to be able to query on, and checking to see if a
-     * specific field name is included. If the field name is included then do nothing. If the field name is not included
-     * then we do not want to be able to query on it. Instead we remove it from the collectionIterator which
-     * removes it from the outputEntity above, thus filtering it out.
-     *
-     * @param fieldsToKeep - contains a list of fields that the user defined in their schema.
-     * @param collectionIterator - contains the iterator with the reference to the map where we want to remove the field. Once removed here it is removed from the entity so it won't be indexed.
-     * @param fieldName - contains the name of the field that we want to keep.
-     */
-    private static void iterateThroughMapForFieldsToBeIndexed( final Set<String> fieldsToKeep,
-                                                               final Iterator collectionIterator,
-                                                               final String fieldName ) {
-        boolean toRemoveFlag = true;
-        Iterator fieldIterator = fieldsToKeep.iterator();
-
-
-
-        //goes through a loop of all the fields that we want to keep.
-        //if the toRemoveFlag is set to false then we want to keep the property and do nothing to it, otherwise we set it to true and remove
-        //the property.
-        while ( fieldIterator.hasNext() ) {
-            //this is the field that we're
-            String fieldToKeep = ( String ) fieldIterator.next();
-
-
-            //Since we know that the fieldName cannot be equal to the requiredInclusion criteria due to the if condition before we enter this method
-            //and we are certain that the indexing criteria is shorter we want to be sure that the inclusion criteria
-            //is contained within the field we're evaluating. i.e that one.two.three contains one.two
-
-            //The second part of the if loop also requires that the fieldName is followed by a period after we check to ensure that the
-            //indexing criteria is included in the string. This is done to weed out values such as one.twoexample.three
-            // when we should only keep one.two.three when comparing the indexing criteria of one.two.
-            if(fieldName.length() > fieldToKeep.length()
-                && fieldName.contains( fieldToKeep )
-                && fieldName.charAt( fieldToKeep.length() )=='.' ) {
-                toRemoveFlag = false;
-                break;
-            }
-            else {
-                //the of the field we're evaluating is shorter than the indexing criteria so it can't match.
-                //Move onto the next field and see if they match.
-                toRemoveFlag = true;
-            }
-        }
-
-        if ( toRemoveFlag ) {
-            collectionIterator.remove();
-        }
-    }
 }
 
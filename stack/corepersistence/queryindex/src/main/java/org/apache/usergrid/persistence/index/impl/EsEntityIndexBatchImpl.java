@@ -19,7 +19,10 @@
 package org.apache.usergrid.persistence.index.impl;
 
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -33,12 +36,12 @@ import org.apache.usergrid.persistence.index.EntityIndexBatch;
 import org.apache.usergrid.persistence.index.IndexAlias;
 import org.apache.usergrid.persistence.index.IndexEdge;
 import org.apache.usergrid.persistence.index.IndexLocationStrategy;
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.index.SearchEdge;
 import org.apache.usergrid.persistence.index.utils.IndexValidationUtils;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.entity.Id;
 
-import com.google.common.base.Optional;
 
 
 public class EsEntityIndexBatchImpl implements EntityIndexBatch {
@@ -52,15 +55,23 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
 
     private final EntityIndex entityIndex;
     private final ApplicationScope applicationScope;
+    private final IndexCache indexCache;
     private IndexOperationMessage container;
 
+    /**
+     * Entity documents being indexed, added to the container once all their edges are known
+     */
+    private final Map<String, IndexOperation> entityDocuments = new LinkedHashMap<>();
+
 
     public EsEntityIndexBatchImpl( final IndexLocationStrategy locationStrategy,
-                                   final EntityIndex entityIndex
+                                   final EntityIndex entityIndex,
+                                   final IndexCache indexCache
     ) {
         this.indexLocationStrategy = locationStrategy;
 
         this.entityIndex = entityIndex;
+        this.indexCache = indexCache;
         this.applicationScope = indexLocationStrategy.getApplicationScope();
 
         this.alias = indexLocationStrategy.getAlias();
@@ -71,11 +82,11 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
 
     @Override
     public EntityIndexBatch index( final IndexEdge indexEdge, final Entity entity ) {
-        return index( indexEdge,entity, Optional.absent() );
+        return index( indexEdge,entity, IndexedFields.all() );
     }
 
     @Override
-    public EntityIndexBatch index( final IndexEdge indexEdge, final Entity entity, final Optional<Set<String>> fieldsToIndex ) {
+    public EntityIndexBatch index( final IndexEdge indexEdge, final Entity entity, final IndexedFields indexedFields ) {
         IndexValidationUtils.validateIndexEdge(indexEdge);
         ValidationUtils.verifyEntityWrite(entity);
         ValidationUtils.verifyVersion( entity.getVersion() );
@@ -87,8 +98,33 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
                     writeAlias, applicationScope, indexEdge, entity.getFieldMap().keySet() );
         }
 
+        final String[] writeIndexes = entityIndex.getIndexes( EntityIndex.AliasType.Write );
+
+        //one document per entity version with all its edges if the index being written to was created that way
+        if ( writeIndexes != null && writeIndexes.length == 1 && indexCache.isEntityDocuments( writeIndexes[0] ) ) {
+
+            final IndexOperation entityDocument =
+                IndexOperation.entityDocument( writeIndexes[0], applicationScope, indexEdge, entity, indexedFields );
+
+            //edges of the same entity version in this batch go in one operation
+            final IndexOperation existing = entityDocuments.get( entityDocument.documentId );
+
+            if ( existing != null ) {
+                existing.edges.putAll( entityDocument.edges );
+            }
+            else {
+                entityDocuments.put( entityDocument.documentId, entityDocument );
+            }
+
+            return this;
+        }
+
+        //route by search edge if the index being written to was created that way
+        final String routing = isEdgeRouted( writeIndexes ) ? IndexingUtils.createRouting( indexEdge ) : null;
+
         //add app id for indexing
-        container.addIndexRequest(new IndexOperation(writeAlias, applicationScope, indexEdge, entity,fieldsToIndex));
+        container.addIndexRequest(
+            new IndexOperation( writeAlias, applicationScope, indexEdge, entity, indexedFields, routing ) );
         return this;
     }
 
@@ -111,7 +147,7 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
         }
 
 
-        container.addDeIndexRequest(new DeIndexOperation(indexes, applicationScope, searchEdge, id, version));
+        addDeIndexRequests( indexes, IndexingUtils.createIndexDocId( applicationScope, id, version, searchEdge ) );
 
         return this;
     }
@@ -130,12 +166,67 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
         }
 
 
-        container.addDeIndexRequest( new DeIndexOperation( indexes, docId ) );
+        addDeIndexRequests( indexes, docId );
 
         return this;
     }
 
 
+    /**
+     * Delete from edge routed indexes with the routing the document was indexed with, from the other indexes
+     * by document id, and remove the edge from the entity document in indexes with entity documents
+     */
+    private void addDeIndexRequests( final String[] indexes, final String docId ) {
+
+        final List<String> routedIndexes = new ArrayList<>();
+        final List<String> unroutedIndexes = new ArrayList<>();
+        final List<String> entityDocumentIndexes = new ArrayList<>();
+
+        for ( final String index : indexes ) {
+            if ( indexCache.isEntityDocuments( index ) ) {
+                entityDocumentIndexes.add( index );
+            }
+            else if ( indexCache.isEdgeRouted( index ) ) {
+                routedIndexes.add( index );
+            }
+            else {
+                unroutedIndexes.add( index );
+            }
+        }
+
+        if ( !unroutedIndexes.isEmpty() ) {
+            container.addDeIndexRequest(
+                new DeIndexOperation( unroutedIndexes.toArray( new String[unroutedIndexes.size()] ), docId ) );
+        }
+
+        if ( !routedIndexes.isEmpty() ) {
+            container.addDeIndexRequest(
+                new DeIndexOperation( routedIndexes.toArray( new String[routedIndexes.size()] ), docId,
+                    IndexingUtils.parseRoutingFromIndexDocId( docId ) ) );
+        }
+
+        if ( !entityDocumentIndexes.isEmpty() ) {
+            container.addDeIndexRequest( DeIndexOperation.entityDocument(
+                entityDocumentIndexes.toArray( new String[entityDocumentIndexes.size()] ),
+                IndexingUtils.parseEntityDocIdFromIndexDocId( docId ),
+                IndexingUtils.parseContextNameFromIndexDocId( docId ) ) );
+        }
+    }
+
+
+    private boolean isEdgeRouted( final String[] indexes ) {
+        if ( indexes == null || indexes.length == 0 ) {
+            return false;
+        }
+        for ( final String index : indexes ) {
+            if ( !indexCache.isEdgeRouted( index ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     @Override
     public EntityIndexBatch deindex( final SearchEdge searchEdge, final Entity entity ) {
         return deindex( searchEdge, entity.getId(), entity.getVersion() );
@@ -155,11 +246,14 @@ public class EsEntityIndexBatchImpl implements EntityIndexBatch {
 
     @Override
     public IndexOperationMessage build() {
+        entityDocuments.values().forEach( container::addIndexRequest );
+        entityDocuments.clear();
         return container;
     }
 
     @Override
     public int size() {
-        return container.getDeIndexRequests().size() + container.getIndexRequests().size();
+        return container.getDeIndexRequests().size() + container.getIndexRequests().size()
+            + entityDocuments.size();
     }
 }
@@ -38,7 +38,7 @@ import org.apache.usergrid.persistence.index.ElasticSearchQueryBuilder.SearchReq
 import org.apache.usergrid.persistence.index.exceptions.IndexException;
 import org.apache.usergrid.persistence.index.migration.IndexDataVersions;
 import org.apache.usergrid.persistence.index.query.ParsedQuery;
-import org.apache.usergrid.persistence.index.query.ParsedQueryBuilder;
+import org.apache.usergrid.persistence.index.query.ParsedQueryCache;
 import org.apache.usergrid.persistence.index.utils.IndexValidationUtils;
 import org.apache.usergrid.persistence.model.entity.Id;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
@@ -76,6 +76,8 @@ import rx.Observable;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.APPLICATION_ID_FIELDNAME;
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.applicationId;
@@ -121,6 +123,10 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     private final FailureMonitorImpl failureMonitor;
     private final Timer aggregationTimer;
     private final Timer refreshTimer;
+    private final Timer countTimer;
+    private final Timer scanTimer;
+    private final ParsedQueryCache parsedQueryCache;
+    private final SearchResultCache searchResultCache;
 
     private IndexCache aliasCache;
     private Timer mappingTimer;
@@ -132,7 +138,9 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
                               final IndexCache indexCache,
                               final IndexFig indexFig,
                               final MetricsFactory metricsFactory,
-                              final IndexLocationStrategy indexLocationStrategy
+                              final IndexLocationStrategy indexLocationStrategy,
+                              final ParsedQueryCache parsedQueryCache,
+                              final SearchResultCache searchResultCache
     ) {
 
         this.indexFig = indexFig;
@@ -141,11 +149,14 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         this.esProvider = provider;
         this.alias = indexLocationStrategy.getAlias();
         this.aliasCache = indexCache;
+        this.parsedQueryCache = parsedQueryCache;
+        this.searchResultCache = searchResultCache;
         this.applicationScope = indexLocationStrategy.getApplicationScope();
         this.cursorTimeout = indexFig.getQueryCursorTimeout();
         this.queryTimeout = indexFig.getWriteTimeout();
         this.searchRequest
-            = new SearchRequestBuilderStrategy(esProvider, applicationScope, alias, cursorTimeout );
+            = new SearchRequestBuilderStrategy(esProvider, applicationScope, alias, cursorTimeout,
+                indexFig.isGeoPrefixFilter() );
         this.searchRequestBuilderStrategyV2 = new SearchRequestBuilderStrategyV2( esProvider, applicationScope, alias, cursorTimeout  );
 
         this.addTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "index.add");
@@ -153,6 +164,8 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         this.mappingTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "index.create_mapping");
         this.refreshIndexMeter = metricsFactory.getMeter(EsEntityIndexImpl.class, "index.refresh_index");
         this.searchTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "search");
+        this.countTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "search.count");
+        this.scanTimer = metricsFactory.getTimer(EsEntityIndexImpl.class, "search.scan");
         this.aggregationTimer = metricsFactory.getTimer( EsEntityIndexImpl.class, "aggregations" );
         this.refreshTimer = metricsFactory.getTimer( EsEntityIndexImpl.class, "index.refresh" );
 
@@ -193,14 +206,26 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
             //Create index
             try {
                 final AdminClient admin = esProvider.getClient().admin();
-                Settings settings = ImmutableSettings.settingsBuilder()
+                ImmutableSettings.Builder settingsBuilder = ImmutableSettings.settingsBuilder()
                     .put("index.number_of_shards", numberOfShards)
                     .put("index.number_of_replicas", numberOfReplicas)
                     //dont' allow unmapped queries, and don't allow dynamic mapping
                     .put("index.query.parse.allow_unmapped_fields", false)
                     .put("index.mapper.dynamic", false)
-                    .put("action.write_consistency", writeConsistency)
-                    .build();
+                    .put("action.write_consistency", writeConsistency);
+
+                //document model and routing are fixed for the life of the index, existing indexes keep a
+                //document per edge routed by document id
+                if ( isEnabledForApplication( indexFig.isEntityDocuments(),
+                    indexFig.getEntityDocumentsApplications() ) ) {
+                    settingsBuilder.put( IndexingUtils.DOCUMENTS_SETTING, IndexingUtils.ENTITY_DOCUMENTS );
+                }
+                else if ( isEnabledForApplication( indexFig.isEdgeRouting(),
+                    indexFig.getEdgeRoutingApplications() ) ) {
+                    settingsBuilder.put( IndexingUtils.ROUTING_SETTING, IndexingUtils.EDGE_ROUTING );
+                }
+
+                Settings settings = settingsBuilder.build();
 
                 //Added For Graphite Metrics
                 Timer.Context timeNewIndexCreation = addTimer.time();
@@ -393,6 +418,47 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
 
 
+    /**
+     * True if an option for new indexes is enabled for all applications or listed for this one
+     */
+    private boolean isEnabledForApplication( final boolean all, final String applications ) {
+        if ( all ) {
+            return true;
+        }
+        final String applicationId = applicationScope.getApplication().getUuid().toString();
+        for ( String configured : applications.split( "," ) ) {
+            if ( applicationId.equalsIgnoreCase( configured.trim() ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Routing for queries of a search edge. Only used when every index behind the read alias is edge routed,
+     * otherwise documents of indexes routed by document id would be missed, so null is returned.  Queries of every
+     * edge of a node aren't routed, since its edges are spread over the shards
+     */
+    private String getReadRouting( final SearchEdge searchEdge ) {
+        final String[] indexes = getIndexes( AliasType.Read );
+        if ( indexes == null || indexes.length == 0 ) {
+            return null;
+        }
+        for ( String index : indexes ) {
+            if ( !aliasCache.isEdgeRouted( index ) ) {
+                return null;
+            }
+        }
+        return IndexingUtils.createRouting( searchEdge );
+    }
+
+
+    private DocumentModels getReadDocumentModels() {
+        return DocumentModels.of( aliasCache, getIndexes( AliasType.Read ) );
+    }
+
+
     public String[] getIndexes() {
         Set<String> indexSet = new HashSet<>();
         List<String> reads =  Arrays.asList(getIndexes(AliasType.Read));
@@ -405,7 +471,7 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     @Override
     public EntityIndexBatch createBatch() {
         EntityIndexBatch batch =
-            new EsEntityIndexBatchImpl(indexLocationStrategy, this );
+            new EsEntityIndexBatchImpl(indexLocationStrategy, this, aliasCache );
         return batch;
     }
 
@@ -417,13 +483,22 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         Preconditions.checkNotNull( query, "query cannot be null" );
         Preconditions.checkArgument( limit > 0, "limit must be > 0" );
 
+        return searchResultCache.get( applicationScope, searchEdge, searchTypes, query, limit, offset,
+            () -> executeSearch( searchEdge, searchTypes, query, limit, offset ) );
+    }
+
+
+    private CandidateResults executeSearch( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                            final String query, final int limit, final int offset ) {
 
         SearchResponse searchResponse;
 
-        final ParsedQuery parsedQuery = ParsedQueryBuilder.build(query);
+        final ParsedQuery parsedQuery = parsedQueryCache.build(query);
 
-        final SearchRequestBuilder srb = searchRequest.getBuilder( searchEdge, searchTypes, parsedQuery, limit, offset )
-            .setTimeout(TimeValue.timeValueMillis(queryTimeout));
+        final SearchRequestBuilder srb = searchRequest
+            .getBuilder( searchEdge, searchTypes, parsedQuery, limit, offset, getReadDocumentModels() )
+            .setTimeout(TimeValue.timeValueMillis(queryTimeout))
+            .setRouting(getReadRouting(searchEdge));
 
         if ( logger.isDebugEnabled() ) {
             logger.debug( "Searching index (read alias): {}\n  nodeId: {}, edgeType: {},  \n type: {}\n   query: {} ",
@@ -449,7 +524,78 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
         failureMonitor.success();
 
-        return parseResults( searchResponse, parsedQuery, limit, offset);
+        return parseResults( searchResponse, searchEdge, parsedQuery, limit, offset);
+    }
+
+
+    @Override
+    public long count( final SearchEdge searchEdge, final SearchTypes searchTypes, final String query ) {
+
+        IndexValidationUtils.validateSearchEdge(searchEdge);
+        Preconditions.checkNotNull(searchTypes, "searchTypes cannot be null");
+        Preconditions.checkNotNull( query, "query cannot be null" );
+
+        SearchResponse searchResponse;
+
+        final ParsedQuery parsedQuery = parsedQueryCache.build(query);
+
+        final SearchRequestBuilder srb = searchRequest
+            .getCountBuilder( searchEdge, searchTypes, parsedQuery, getReadDocumentModels() )
+            .setTimeout(TimeValue.timeValueMillis(queryTimeout))
+            .setRouting(getReadRouting(searchEdge));
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Counting index (read alias): {}\n  nodeId: {}, edgeType: {},  \n type: {}\n   query: {} ",
+                this.alias.getReadAlias(), searchEdge.getNodeId(), searchEdge.getEdgeName(),
+                searchTypes.getTypeNames( applicationScope ), srb );
+        }
+
+        final Timer.Context timerContext = countTimer.time();
+
+        try {
+
+            searchResponse = srb.execute().actionGet();
+        }
+        catch ( Throwable t ) {
+            logger.error( "Unable to communicate with Elasticsearch", t.getMessage() );
+            failureMonitor.fail( "Unable to execute batch", t );
+            throw t;
+        }
+        finally{
+            timerContext.stop();
+        }
+
+        failureMonitor.success();
+
+        return searchResponse.getHits().getTotalHits();
+    }
+
+
+    @Override
+    public Iterator<CandidateResults> scan( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                            final String query, final int batchSize ) {
+
+        IndexValidationUtils.validateSearchEdge(searchEdge);
+        Preconditions.checkNotNull(searchTypes, "searchTypes cannot be null");
+        Preconditions.checkNotNull( query, "query cannot be null" );
+        Preconditions.checkArgument( batchSize > 0, "batchSize must be > 0" );
+
+        final ParsedQuery parsedQuery = parsedQueryCache.build(query);
+
+        final SearchRequestBuilder srb = searchRequest
+            .getScanBuilder( searchEdge, searchTypes, parsedQuery, batchSize, getReadDocumentModels() )
+            .setTimeout(TimeValue.timeValueMillis(queryTimeout))
+            .setRouting(getReadRouting(searchEdge));
+
+        if ( logger.isDebugEnabled() ) {
+            logger.debug( "Scanning index (read alias): {}\n  nodeId: {}, edgeType: {},  \n type: {}\n   query: {} ",
+                this.alias.getReadAlias(), searchEdge.getNodeId(), searchEdge.getEdgeName(),
+                searchTypes.getTypeNames( applicationScope ), srb );
+        }
+
+        //the scroll is opened on the first hasNext, and each page is only requested once the last is consumed
+        return new EsScrollIterator( srb, searchRequestBuilderStrategyV2, esProvider, failureMonitor, scanTimer,
+            TimeValue.timeValueMinutes( cursorTimeout ), searchEdge, parsedQuery.getSelectFieldMappings() );
     }
 
 
@@ -469,14 +615,22 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         // never let this fetch more than 100 to save memory
         final int searchLimit = Math.min(100, indexFig.getVersionQueryLimit());
 
-        final QueryBuilder nodeIdQuery = QueryBuilders
-            .termQuery(IndexingUtils.EDGE_NODE_ID_FIELDNAME, IndexingUtils.nodeId(edge.getNodeId()));
+        final String nodeId = IndexingUtils.nodeId(edge.getNodeId());
 
-        final QueryBuilder entityIdQuery = QueryBuilders
-            .termQuery(IndexingUtils.ENTITY_ID_FIELDNAME, IndexingUtils.entityId(entityId));
+        final long queryTimestamp = 0L;
+
+        // the edge conditions, on top level fields of documents per edge or nested edges of entity documents
+        final Function<String, FilterBuilder> edgeCondition = prefix -> FilterBuilders
+            .boolFilter()
+            .must(FilterBuilders.termFilter(prefix + IndexingUtils.EDGE_NODE_ID_FIELDNAME, nodeId))
+            .must(FilterBuilders.rangeFilter(prefix + IndexingUtils.EDGE_TIMESTAMP_FIELDNAME).gte(queryTimestamp));
+
+        final DocumentModels documentModels = getReadDocumentModels();
 
         final SearchRequestBuilder srb = searchRequestBuilderStrategyV2.getBuilder()
-            .addSort(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME, SortOrder.ASC);
+            .setFetchSource(IndexingUtils.EDGES_FIELDNAME, null);
+
+        documentModels.addEdgeTimestampSort(srb, SortOrder.ASC, edgeCondition);
 
 
         if ( logger.isDebugEnabled() ) {
@@ -486,19 +640,11 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
 
         try {
 
-            long queryTimestamp = 0L;
-
-
-            QueryBuilder timestampQuery =  QueryBuilders
-                .rangeQuery(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)
-                .gte(queryTimestamp);
-
             QueryBuilder finalQuery = QueryBuilders.constantScoreQuery(
-                QueryBuilders
-                    .boolQuery()
-                    .must(entityIdQuery)
-                    .must(nodeIdQuery)
-                    .must(timestampQuery)
+                FilterBuilders
+                    .boolFilter()
+                    .must(FilterBuilders.termFilter(IndexingUtils.ENTITY_ID_FIELDNAME, IndexingUtils.entityId(entityId)))
+                    .must(documentModels.edgeFilter(edgeCondition))
             );
 
             searchResponse = srb
@@ -507,7 +653,8 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
                 .execute()
                 .actionGet();
 
-            candidates = aggregateScrollResults(candidates, searchResponse, null);
+            candidates = aggregateScrollResults(candidates, searchResponse, null,
+                edgeFields -> nodeId.equals(edgeFields.get(IndexingUtils.EDGE_NODE_ID_FIELDNAME)));
 
         }
         catch ( Throwable t ) {
@@ -538,28 +685,28 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         // never let this fetch more than 100 to save memory
         final int searchLimit = Math.min(100, indexFig.getVersionQueryLimit());
 
+        final String nodeId = IndexingUtils.nodeId(entityId);
+
+        final long queryTimestamp = 0L;
+
         // this query will find all the documents where this entity is a source/target node
-        final QueryBuilder nodeQuery = QueryBuilders
-            .termQuery(IndexingUtils.EDGE_NODE_ID_FIELDNAME, IndexingUtils.nodeId(entityId));
+        final Function<String, FilterBuilder> edgeCondition = prefix -> FilterBuilders
+            .boolFilter()
+            .must(FilterBuilders.rangeFilter(prefix + IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)
+                .gte(queryTimestamp)
+                .lt(markedTimestamp))
+            .must(FilterBuilders.termFilter(prefix + IndexingUtils.EDGE_NODE_ID_FIELDNAME, nodeId));
 
-        final SearchRequestBuilder srb = searchRequestBuilderStrategyV2.getBuilder()
-            .addSort(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME, SortOrder.ASC);
+        final DocumentModels documentModels = getReadDocumentModels();
 
-        try {
+        final SearchRequestBuilder srb = searchRequestBuilderStrategyV2.getBuilder()
+            .setFetchSource(IndexingUtils.EDGES_FIELDNAME, null);
 
-            long queryTimestamp = 0L;
+        documentModels.addEdgeTimestampSort(srb, SortOrder.ASC, edgeCondition);
 
-            QueryBuilder timestampQuery =  QueryBuilders
-                .rangeQuery(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)
-                .gte(queryTimestamp)
-                .lt(markedTimestamp);
+        try {
 
-            QueryBuilder finalQuery = QueryBuilders.constantScoreQuery(
-                QueryBuilders
-                    .boolQuery()
-                    .must(timestampQuery)
-                    .must(nodeQuery)
-            );
+            QueryBuilder finalQuery = QueryBuilders.constantScoreQuery(documentModels.edgeFilter(edgeCondition));
 
 
             searchResponse = srb
@@ -569,7 +716,9 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
                 .actionGet();
 
 
-            candidates = aggregateScrollResults(candidates, searchResponse, markedVersion);
+            candidates = aggregateScrollResults(candidates, searchResponse, markedVersion,
+                edgeFields -> nodeId.equals(edgeFields.get(IndexingUtils.EDGE_NODE_ID_FIELDNAME))
+                    && ((Number) edgeFields.get(IndexingUtils.EDGE_TIMESTAMP_FIELDNAME)).longValue() < markedTimestamp);
 
         }
         catch ( Throwable t ) {
@@ -583,6 +732,65 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     }
 
 
+    @Override
+    public Observable deleteEntityVersions( final Map<Id, ? extends Collection<UUID>> versions ) {
+
+        Preconditions.checkNotNull( versions, "versions cannot be null" );
+
+        //filters rather than queries, a terms query over many versions would exceed the boolean clause limit
+        final BoolFilterBuilder entities = FilterBuilders.boolFilter();
+        int clauses = 0;
+
+        for ( Map.Entry<Id, ? extends Collection<UUID>> entry : versions.entrySet() ) {
+
+            if ( entry.getValue().isEmpty() ) {
+                continue;
+            }
+
+            final String[] versionStrings = new String[entry.getValue().size()];
+            int i = 0;
+            for ( UUID version : entry.getValue() ) {
+                versionStrings[i++] = version.toString();
+            }
+
+            entities.should( FilterBuilders.boolFilter()
+                .must( FilterBuilders.termFilter( IndexingUtils.ENTITY_ID_FIELDNAME,
+                    IndexingUtils.entityId( entry.getKey() ) ) )
+                .must( FilterBuilders.termsFilter( IndexingUtils.ENTITY_VERSION_FIELDNAME, versionStrings ) ) );
+
+            clauses++;
+        }
+
+        if ( clauses == 0 ) {
+            return Observable.empty();
+        }
+
+        //scope to this application so a shared index can't lose another application's documents
+        final QueryBuilder query = QueryBuilders.constantScoreQuery( FilterBuilders.boolFilter()
+            .must( FilterBuilders.termFilter( APPLICATION_ID_FIELDNAME, applicationId( applicationScope.getApplication() ) ) )
+            .must( entities ) );
+
+        final ListenableActionFuture<DeleteByQueryResponse> response =
+            esProvider.getClient().prepareDeleteByQuery( alias.getWriteAlias() ).setQuery( query ).execute();
+
+        response.addListener( new ActionListener<DeleteByQueryResponse>() {
+
+            @Override
+            public void onResponse( DeleteByQueryResponse response ) {
+                checkDeleteByQueryResponse( query, response );
+            }
+
+
+            @Override
+            public void onFailure( Throwable e ) {
+                logger.error( "Failed on delete of entity versions", e );
+            }
+        } );
+
+        return Observable.from( response ).doOnError( t -> logger.error( "Failed on delete of entity versions", t ) );
+    }
+
+
     /**
      * Completely delete an index.
      */
@@ -635,8 +843,8 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     /**
      * Parse the results and return the canddiate results
      */
-    private CandidateResults parseResults( final SearchResponse searchResponse, final ParsedQuery query,
-                                           final int limit, final int from ) {
+    private CandidateResults parseResults( final SearchResponse searchResponse, final SearchEdge searchEdge,
+                                           final ParsedQuery query, final int limit, final int from ) {
 
         final SearchHits searchHits = searchResponse.getHits();
         final SearchHit[] hits = searchHits.getHits();
@@ -652,7 +860,7 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         for ( SearchHit hit : hits ) {
             CandidateResult candidateResult;
 
-            candidateResult =  parseIndexDocId( hit, query.isGeoQuery() );
+            candidateResult =  parseIndexDocId( hit, searchEdge, query.isGeoQuery() );
             candidates.add( candidateResult );
         }
 
@@ -668,54 +876,90 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
         return candidateResults;
     }
 
+    /**
+     * Add the candidates of the hits, an entity document adds one for each of its edges that match
+     */
     private List<CandidateResult> aggregateScrollResults(List<CandidateResult> candidates,
-                                                         final SearchResponse searchResponse, final UUID markedVersion){
+                                                         final SearchResponse searchResponse, final UUID markedVersion,
+                                                         final Predicate<Map<String, Object>> edgeMatcher){
 
         final SearchHits searchHits = searchResponse.getHits();
         final SearchHit[] hits = searchHits.getHits();
 
         for ( SearchHit hit : hits ) {
+            for ( String documentId : getEdgeDocIds( hit, edgeMatcher ) ) {
+                addScrollResult( candidates, parseIndexDocId( documentId ), markedVersion );
+            }
+        }
 
-            final CandidateResult candidateResult = parseIndexDocId( hit );
+        if (logger.isTraceEnabled()) {
+            logger.trace("Aggregated {} out of {} hits ", candidates.size(), searchHits.getTotalHits());
+        }
 
-            // if comparing against the latestVersion, make sure we only add the candidateResult if it's
-            // older than or equal to the latest marked version
-            if (markedVersion != null) {
+        return  candidates;
 
-                if(candidateResult.getVersion().timestamp() <= markedVersion.timestamp()){
+    }
 
-                    if(logger.isTraceEnabled()){
-                        logger.trace("Candidate version {} is <= provided entity version {} for entityId {}",
-                            candidateResult.getVersion(),
-                            markedVersion,
-                            candidateResult.getId()
-                        );
-                    }
 
-                    candidates.add(candidateResult);
+    /**
+     * Get the document id of the hit, or the ids the matching edges of an entity document have as documents per edge
+     */
+    @SuppressWarnings( "unchecked" )
+    private List<String> getEdgeDocIds( final SearchHit hit, final Predicate<Map<String, Object>> edgeMatcher ) {
 
-                }else{
-                    if(logger.isTraceEnabled()){
-                        logger.trace("Candidate version {} is > provided entity version {} for entityId {}. Not" +
-                                "adding to candidate results",
-                            candidateResult.getVersion(),
-                            markedVersion,
-                            candidateResult.getId()
-                        );
-                    }
-                }
+        if ( !IndexingUtils.isEntityDocId( hit.getId() ) ) {
+            return Collections.singletonList( hit.getId() );
+        }
 
-            }else{
-                candidates.add(candidateResult);
+        final List<String> documentIds = new ArrayList<>();
+        final Object edges = hit.getSource() != null ? hit.getSource().get( IndexingUtils.EDGES_FIELDNAME ) : null;
+
+        if ( edges instanceof Collection ) {
+            for ( Object edge : ( Collection<Object> ) edges ) {
+                final Map<String, Object> edgeFields = ( Map<String, Object> ) edge;
+                if ( edgeMatcher.test( edgeFields ) ) {
+                    documentIds.add( IndexingUtils.createIndexDocId( hit.getId(), edgeFields ) );
+                }
             }
         }
 
-        if (logger.isTraceEnabled()) {
-            logger.trace("Aggregated {} out of {} hits ", candidates.size(), searchHits.getTotalHits());
-        }
+        return documentIds;
+    }
 
-        return  candidates;
 
+    private void addScrollResult( final List<CandidateResult> candidates, final CandidateResult candidateResult,
+                                  final UUID markedVersion ) {
+
+        // if comparing against the latestVersion, make sure we only add the candidateResult if it's
+        // older than or equal to the latest marked version
+        if (markedVersion != null) {
+
+            if(candidateResult.getVersion().timestamp() <= markedVersion.timestamp()){
+
+                if(logger.isTraceEnabled()){
+                    logger.trace("Candidate version {} is <= provided entity version {} for entityId {}",
+                        candidateResult.getVersion(),
+                        markedVersion,
+                        candidateResult.getId()
+                    );
+                }
+
+                candidates.add(candidateResult);
+
+            }else{
+                if(logger.isTraceEnabled()){
+                    logger.trace("Candidate version {} is > provided entity version {} for entityId {}. Not" +
+                            "adding to candidate results",
+                        candidateResult.getVersion(),
+                        markedVersion,
+                        candidateResult.getId()
+                    );
+                }
+            }
+
+        }else{
+            candidates.add(candidateResult);
+        }
     }
 
     /**
@@ -790,7 +1034,10 @@ public class EsEntityIndexImpl implements EntityIndex,VersionedData {
     public long getEntitySize(final SearchEdge edge){
         //"term":{"edgeName":"zzzcollzzz|roles"}
         SearchRequestBuilder builder = searchRequestBuilderStrategyV2.getBuilder();
-        builder.setQuery(new TermQueryBuilder("edgeSearch",IndexingUtils.createContextName(applicationScope,edge)));
+        builder.setRouting(getReadRouting(edge));
+        final String context = IndexingUtils.createContextName(applicationScope,edge);
+        builder.setQuery(QueryBuilders.constantScoreQuery(getReadDocumentModels()
+            .edgeFilter(prefix -> FilterBuilders.termFilter(prefix + IndexingUtils.EDGE_SEARCH_FIELDNAME, context))));
         return  getEntitySizeAggregation(builder);
     }
 
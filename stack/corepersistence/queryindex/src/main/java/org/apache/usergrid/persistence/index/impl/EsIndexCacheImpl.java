@@ -28,9 +28,12 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.usergrid.persistence.index.*;
 import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.client.AdminClient;
 import org.elasticsearch.cluster.metadata.AliasMetaData;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +58,7 @@ public class EsIndexCacheImpl implements IndexCache {
     private final ListeningScheduledExecutorService refreshExecutors;
 
     private LoadingCache<String, String[]> aliasIndexCache;
+    private LoadingCache<String, Settings> indexSettingsCache;
     private EsProvider provider;
 
 
@@ -88,6 +92,15 @@ public class EsIndexCacheImpl implements IndexCache {
                                              return getIndexesFromEs(aliasName);
                                           }
                                       } );
+
+        // routing and document model of an index are set when it is created and never change
+        indexSettingsCache = CacheBuilder.newBuilder().maximumSize( 1000 )
+                                      .build( new CacheLoader<String, Settings>() {
+                                          @Override
+                                          public Settings load( final String indexName ) {
+                                              return getSettingsFromEs( indexName );
+                                          }
+                                      } );
     }
 
 
@@ -118,6 +131,38 @@ public class EsIndexCacheImpl implements IndexCache {
     }
 
 
+    @Override
+    public boolean isEdgeRouted( final String indexName ) {
+        return IndexingUtils.EDGE_ROUTING.equals( getSettings( indexName ).get( IndexingUtils.ROUTING_SETTING ) );
+    }
+
+
+    @Override
+    public boolean isEntityDocuments( final String indexName ) {
+        return IndexingUtils.ENTITY_DOCUMENTS
+            .equals( getSettings( indexName ).get( IndexingUtils.DOCUMENTS_SETTING ) );
+    }
+
+
+    private Settings getSettings( final String indexName ) {
+        try {
+            return indexSettingsCache.get( indexName );
+        }
+        catch ( ExecutionException ee ) {
+            logger.error( "Failed to retrieve index settings", ee );
+            throw new RuntimeException( ee );
+        }
+    }
+
+
+    private Settings getSettingsFromEs( final String indexName ) {
+        final GetSettingsResponse response =
+            this.provider.getClient().admin().indices().prepareGetSettings( indexName ).execute().actionGet();
+        final Settings settings = response.getIndexToSettings().get( indexName );
+        return settings != null ? settings : ImmutableSettings.EMPTY;
+    }
+
+
     /**
      * Get the name of the alias to use
      * @param alias
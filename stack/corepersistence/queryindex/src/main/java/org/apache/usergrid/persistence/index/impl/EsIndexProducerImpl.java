@@ -61,6 +61,7 @@ public class EsIndexProducerImpl implements IndexProducer {
     private final Counter indexSizeCounter;
     private final Histogram roundtripTimer;
     private final Timer indexTimer;
+    private final SearchResultCache searchResultCache;
 
 
     private AtomicLong inFlight = new AtomicLong();
@@ -68,7 +69,8 @@ public class EsIndexProducerImpl implements IndexProducer {
 
     @Inject
     public EsIndexProducerImpl(final IndexFig config, final EsProvider provider,
-                               final MetricsFactory metricsFactory, final IndexFig indexFig) {
+                               final MetricsFactory metricsFactory, final IndexFig indexFig,
+                               final SearchResultCache searchResultCache) {
         this.indexSizeCounter = metricsFactory.getCounter(EsIndexProducerImpl.class, "index_buffer.size");
         this.roundtripTimer = metricsFactory.getHistogram(EsIndexProducerImpl.class, "index_buffer.message_cycle");
 
@@ -82,6 +84,7 @@ public class EsIndexProducerImpl implements IndexProducer {
         this.failureMonitor = new FailureMonitorImpl(config, provider);
         this.client = provider.getClient();
         this.indexFig = indexFig;
+        this.searchResultCache = searchResultCache;
 
 
         //batch up sets of some size and send them in batch
@@ -122,16 +125,18 @@ public class EsIndexProducerImpl implements IndexProducer {
         indexSizeCounter.dec(indexOperationSetSize);
         indexSizeCounter.dec(deIndexOperationSetSize);
 
-        final Observable<IndexOperation> index = Observable.from(batch.getIndexRequests());
-        final Observable<DeIndexOperation> deIndex = Observable.from(batch.getDeIndexRequests());
-
+        //operations on the same entity document are combined so it is read and written once
         //TODO: look at indexing ordering
-        final Observable<BatchOperation> batchOps = Observable.merge(index, deIndex);
+        final Observable<BatchOperation> batchOps = Observable.from(
+            EntityDocumentOperation.combine(batch.getIndexRequests(), batch.getDeIndexRequests()));
 
         //buffer into the max size we can send ES and fire them all off until we're completed
         final Observable<BulkRequestBuilder> requests = batchOps
             .buffer(250, TimeUnit.MILLISECONDS, indexFig.getIndexBatchSize())
 
+            //read the entity documents of the buffer with one multi get
+            .doOnNext(individualOps -> EntityDocumentOperation.read(client, individualOps))
+
             //flatten the buffer into a single batch execution
             .flatMap(individualOps -> Observable.from(individualOps)
                 //collect them
@@ -159,7 +164,9 @@ public class EsIndexProducerImpl implements IndexProducer {
         //mark this as done
         return processedIndexOperations.doOnNext(processedIndexOp -> {
             roundtripTimer.update(System.currentTimeMillis() - processedIndexOp.getCreationTime());
-        });
+        })
+            //searches of the edges may have changed even if some of the operations failed
+            .doOnTerminate(() -> searchResultCache.invalidate(batch));
     }
 
 
@@ -19,6 +19,8 @@
 package org.apache.usergrid.persistence.index.impl;
 
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Stack;
 import java.util.UUID;
 
@@ -79,6 +81,16 @@ public class EsQueryVistor implements QueryVisitor {
 
     private final GeoSortFields geoSortFields = new GeoSortFields();
 
+    /**
+     * True to narrow location queries to the geohash cells around the point before the distance filter
+     */
+    private final boolean geoPrefixFilter;
+
+
+    public EsQueryVistor( final boolean geoPrefixFilter ) {
+        this.geoPrefixFilter = geoPrefixFilter;
+    }
+
 
     @Override
     public void visit( AndOperand op ) throws IndexException {
@@ -293,10 +305,25 @@ public class EsQueryVistor implements QueryVisitor {
         float distance = op.getDistance().getFloatValue();
 
 
-        final FilterBuilder fb =
+        final FilterBuilder distanceFilter =
                 FilterBuilders.geoDistanceFilter( IndexingUtils.FIELD_LOCATION_NESTED ).lat( lat ).lon( lon )
                               .distance( distance, DistanceUnit.METERS );
 
+        final List<String> cells =
+            geoPrefixFilter ? GeoHashPrefixes.coveringCells( lat, lon, distance ) : Collections.emptyList();
+
+        final FilterBuilder fb;
+
+        //term lookups on the cells around the point are cheap, so only compute distances for what they match
+        if ( cells.isEmpty() ) {
+            fb = distanceFilter;
+        }
+        else {
+            fb = FilterBuilders.boolFilter()
+                               .must( FilterBuilders.termsFilter( IndexingUtils.FIELD_GEOHASH_NESTED, cells ) )
+                               .must( distanceFilter );
+        }
+
 
         filterBuilders.push( fieldNameTerm( name, fb ) );
 
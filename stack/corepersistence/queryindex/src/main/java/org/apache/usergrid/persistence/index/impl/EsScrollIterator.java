@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.index.CandidateResult;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.ElasticSearchQueryBuilder.SearchRequestBuilderStrategyV2;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SelectFieldMapping;
+
+import com.codahale.metrics.Timer;
+
+
+/**
+ * Iterates the candidates of a scan search one scroll page at a time.  A page is only requested from Elasticsearch
+ * when the previous one has been consumed, and the scroll is cleared once it is exhausted or the iterator is closed.
+ */
+class EsScrollIterator implements Iterator<CandidateResults>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger( EsScrollIterator.class );
+
+    private final SearchRequestBuilder scanRequest;
+    private final SearchRequestBuilderStrategyV2 scrollStrategy;
+    private final EsProvider esProvider;
+    private final FailureMonitor failureMonitor;
+    private final Timer scrollTimer;
+    private final TimeValue keepAlive;
+    private final SearchEdge searchEdge;
+    private final Collection<SelectFieldMapping> fieldMappings;
+
+    private String scrollId;
+    private CandidateResults next;
+    private boolean exhausted;
+
+
+    /**
+     * @param scanRequest The scan search to start the scroll with
+     * @param keepAlive How long Elasticsearch keeps the scroll open between page requests
+     */
+    EsScrollIterator( final SearchRequestBuilder scanRequest, final SearchRequestBuilderStrategyV2 scrollStrategy,
+                      final EsProvider esProvider, final FailureMonitor failureMonitor, final Timer scrollTimer,
+                      final TimeValue keepAlive, final SearchEdge searchEdge,
+                      final Collection<SelectFieldMapping> fieldMappings ) {
+        this.scanRequest = scanRequest;
+        this.scrollStrategy = scrollStrategy;
+        this.esProvider = esProvider;
+        this.failureMonitor = failureMonitor;
+        this.scrollTimer = scrollTimer;
+        this.keepAlive = keepAlive;
+        this.searchEdge = searchEdge;
+        this.fieldMappings = fieldMappings;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if ( next == null && !exhausted ) {
+            next = fetchNext();
+        }
+
+        return next != null;
+    }
+
+
+    @Override
+    public CandidateResults next() {
+        if ( !hasNext() ) {
+            throw new NoSuchElementException( "No more candidates in the scroll" );
+        }
+
+        final CandidateResults results = next;
+        next = null;
+        return results;
+    }
+
+
+    /**
+     * Release the scroll in Elasticsearch if it is still open
+     */
+    @Override
+    public void close() {
+        exhausted = true;
+
+        if ( scrollId == null ) {
+            return;
+        }
+
+        final String toClear = scrollId;
+        scrollId = null;
+
+        try {
+            esProvider.getClient().prepareClearScroll().addScrollId( toClear ).execute().actionGet();
+        }
+        catch ( Throwable t ) {
+            //the scroll expires after its keep alive anyway
+            logger.warn( "Unable to clear scroll {}", toClear, t );
+        }
+    }
+
+
+    /**
+     * Request the next page of the scroll, returning null and clearing the scroll once no hits are left
+     */
+    private CandidateResults fetchNext() {
+
+        final SearchResponse response = execute();
+
+        final SearchHit[] hits = response.getHits().getHits();
+
+        if ( hits.length == 0 ) {
+            close();
+            return null;
+        }
+
+        final List<CandidateResult> candidates = new ArrayList<>( hits.length );
+
+        for ( SearchHit hit : hits ) {
+            candidates.add( IndexingUtils.parseIndexDocId( hit, searchEdge, false ) );
+        }
+
+        if ( logger.isTraceEnabled() ) {
+            logger.trace( "Scrolled {} candidates of {} total hits", hits.length, response.getHits().getTotalHits() );
+        }
+
+        return new CandidateResults( candidates, fieldMappings );
+    }
+
+
+    private SearchResponse execute() {
+
+        final Timer.Context timerContext = scrollTimer.time();
+
+        final SearchResponse response;
+
+        try {
+            //the first request only opens the scroll, scan searches return their hits on the scroll requests
+            if ( scrollId == null ) {
+                scrollId = scanRequest.setScroll( keepAlive ).execute().actionGet().getScrollId();
+            }
+
+            response = scrollStrategy.getScrollBuilder( scrollId ).setScroll( keepAlive ).execute().actionGet();
+        }
+        catch ( Throwable t ) {
+            logger.error( "Unable to communicate with Elasticsearch", t.getMessage() );
+            failureMonitor.fail( "Unable to execute scroll", t );
+            close();
+            throw t;
+        }
+        finally {
+            timerContext.stop();
+        }
+
+        failureMonitor.success();
+
+        scrollId = response.getScrollId();
+
+        return response;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.common.geo.GeoUtils;
+
+
+/**
+ * Geohash prefixes of locations, so geo queries can narrow their candidates with term filters on the geohash cells
+ * around the point before computing distances
+ */
+public final class GeoHashPrefixes {
+
+    /**
+     * The coarsest prefix we index, about 5000km wide
+     */
+    public static final int MIN_PRECISION = 1;
+
+    /**
+     * The finest prefix we index, about 38m wide
+     */
+    public static final int MAX_PRECISION = 8;
+
+    private static final double METERS_PER_DEGREE_LATITUDE = 111320;
+
+
+    private GeoHashPrefixes() {}
+
+
+    /**
+     * Get the geohash prefixes of the location from the coarsest to the finest precision
+     */
+    public static List<String> prefixes( final double lat, final double lon ) {
+
+        final String geohash = GeoHashUtils.encode( lat, lon, MAX_PRECISION );
+
+        final List<String> prefixes = new ArrayList<>( MAX_PRECISION - MIN_PRECISION + 1 );
+
+        for ( int precision = MIN_PRECISION; precision <= MAX_PRECISION; precision++ ) {
+            prefixes.add( geohash.substring( 0, precision ) );
+        }
+
+        return prefixes;
+    }
+
+
+    /**
+     * Get the cell of the point and its 8 neighbors at the finest precision whose cells are at least the distance
+     * across, so together they contain every location within the distance of the point.  Returns an empty list if no
+     * indexed precision is coarse enough, such as for very large distances or near the poles, in which case no
+     * pre-filter can be applied
+     */
+    public static List<String> coveringCells( final double lat, final double lon, final double distanceMeters ) {
+
+        //longitudes converge towards the poles, so cells are narrower in meters than at the equator.  Use the width at
+        //the edge of the distance closest to the pole
+        final double poleward = Math.min( 90, Math.abs( lat ) + distanceMeters / METERS_PER_DEGREE_LATITUDE );
+        final double widthFactor = Math.cos( Math.toRadians( poleward ) );
+
+        for ( int precision = MAX_PRECISION; precision >= MIN_PRECISION; precision-- ) {
+
+            final double width = GeoUtils.geoHashCellWidth( precision ) * widthFactor;
+            final double height = GeoUtils.geoHashCellHeight( precision );
+
+            if ( width >= distanceMeters && height >= distanceMeters ) {
+
+                final String cell = GeoHashUtils.encode( lat, lon, precision );
+
+                final List<String> cells = new ArrayList<>( 9 );
+                cells.add( cell );
+                GeoHashUtils.addNeighbors( cell, cells );
+
+                return cells;
+            }
+        }
+
+        return new ArrayList<>( 0 );
+    }
+}
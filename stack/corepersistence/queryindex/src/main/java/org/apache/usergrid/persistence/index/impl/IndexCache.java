@@ -41,4 +41,18 @@ public interface IndexCache {
      * @param alias
      */
     void invalidate(IndexAlias alias);
+
+    /**
+     * True if documents in index are routed by search edge node id and edge name
+     * @param indexName
+     * @return
+     */
+    boolean isEdgeRouted(String indexName);
+
+    /**
+     * True if index holds one document per entity version with all its edges, instead of one per edge
+     * @param indexName
+     * @return
+     */
+    boolean isEntityDocuments(String indexName);
 }
@@ -20,11 +20,13 @@
 package org.apache.usergrid.persistence.index.impl;
 
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.index.IndexEdge;
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.model.entity.Entity;
 
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
@@ -32,7 +34,6 @@ import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.client.Client;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.base.Optional;
 
 
 /**
@@ -48,12 +49,33 @@ public class IndexOperation implements BatchOperation {
     @JsonProperty
     public Map<String, Object> data;
 
+    /**
+     * Shard routing value, null to route by document id
+     */
+    @JsonProperty
+    public String routing;
+
+    /**
+     * Edges of an entity document by search context, null for a document per edge
+     */
+    @JsonProperty
+    public Map<String, Map<String, Object>> edges;
+
     public IndexOperation( final String writeAlias, final ApplicationScope applicationScope, IndexEdge indexEdge,
-                           Entity entity, Optional<Set<String>> fieldsToIndex ) {
+                           Entity entity, IndexedFields indexedFields ) {
+
+        this( writeAlias, applicationScope, indexEdge, entity, indexedFields, null );
+
+    }
+
+
+    public IndexOperation( final String writeAlias, final ApplicationScope applicationScope, IndexEdge indexEdge,
+                           Entity entity, IndexedFields indexedFields, final String routing ) {
 
         this( writeAlias, IndexingUtils.createIndexDocId( applicationScope, entity, indexEdge ),
-            EntityToMapConverter.convert( applicationScope, indexEdge, entity, fieldsToIndex ) );
+            EntityToMapConverter.convert( applicationScope, indexEdge, entity, indexedFields ) );
 
+        this.routing = routing;
     }
 
 
@@ -63,6 +85,27 @@ public class IndexOperation implements BatchOperation {
         this.documentId = documentId;
     }
 
+
+    /**
+     * Add the edge to the entity document of the entity version, creating it if it does not exist yet
+     *
+     * @param writeIndex The index to write to, entity documents are read before they are written
+     */
+    public static IndexOperation entityDocument( final String writeIndex, final ApplicationScope applicationScope,
+                                                 final IndexEdge indexEdge, final Entity entity,
+                                                 final IndexedFields indexedFields ) {
+
+        final IndexOperation indexOperation = new IndexOperation( writeIndex,
+            IndexingUtils.createEntityDocId( applicationScope, entity.getId(), entity.getVersion() ),
+            EntityToMapConverter.convertEntity( applicationScope, entity, indexedFields ) );
+
+        indexOperation.edges = new HashMap<>();
+        indexOperation.edges.put( IndexingUtils.createContextName( applicationScope, indexEdge ),
+            EntityToMapConverter.convertEdge( applicationScope, indexEdge ) );
+
+        return indexOperation;
+    }
+
     /**
      * DO NOT DELETE!  Required for Jackson
      */
@@ -71,8 +114,17 @@ public class IndexOperation implements BatchOperation {
 
 
     public void doOperation( final Client client, final BulkRequestBuilder bulkRequest ) {
+
+        if ( edges != null ) {
+            new EntityDocumentOperation( writeAlias, documentId ).add( this ).doOperation( client, bulkRequest );
+            return;
+        }
+
         IndexRequestBuilder builder = client.prepareIndex( writeAlias, IndexingUtils.ES_ENTITY_TYPE, documentId ).setSource( data );
 
+        if ( routing != null ) {
+            builder.setRouting( routing );
+        }
 
         bulkRequest.add( builder );
     }
@@ -101,6 +153,14 @@ public class IndexOperation implements BatchOperation {
             return false;
         }
 
+        if ( !Objects.equals( routing, that.routing ) ) {
+            return false;
+        }
+
+        if ( !Objects.equals( edges, that.edges ) ) {
+            return false;
+        }
+
         return true;
     }
 
@@ -110,6 +170,8 @@ public class IndexOperation implements BatchOperation {
         int result = writeAlias.hashCode();
         result = 31 * result + documentId.hashCode();
         result = 31 * result + data.hashCode();
+        result = 31 * result + Objects.hashCode( routing );
+        result = 31 * result + Objects.hashCode( edges );
         return result;
     }
 }
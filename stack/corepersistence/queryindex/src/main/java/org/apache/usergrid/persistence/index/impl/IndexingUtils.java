@@ -18,6 +18,7 @@ package org.apache.usergrid.persistence.index.impl;/*
  */
 
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -68,6 +69,14 @@ public class IndexingUtils {
 
     private static final Pattern DOCUMENT_PATTERN = Pattern.compile( DOCUMENT_ID_REGEX );
 
+    //the entity document Id is the first 5 groups of the document Id
+    private static final String ENTITY_DOCUMENT_ID_REGEX =
+        "appId\\(" + UUID_REX + "," + TYPE_REX + "\\)\\.entityId\\(" + UUID_REX + "," + TYPE_REX + "\\)\\.version\\(" + UUID_REX
+            + "\\)";
+
+
+    private static final Pattern ENTITY_DOCUMENT_PATTERN = Pattern.compile( ENTITY_DOCUMENT_ID_REGEX );
+
     // These are not allowed in document type names: _ . , | #
     public static final String FIELD_SEPERATOR = ".";
 
@@ -79,6 +88,26 @@ public class IndexingUtils {
      */
     public static final String ES_ENTITY_TYPE = "entity";
 
+    /**
+     * Index setting that records how documents in the index are routed to shards
+     */
+    public static final String ROUTING_SETTING = "index.usergrid.routing";
+
+    /**
+     * Value of routing setting for indexes with documents routed by search edge node id and edge name
+     */
+    public static final String EDGE_ROUTING = "edge";
+
+    /**
+     * Index setting that records the document model of the index
+     */
+    public static final String DOCUMENTS_SETTING = "index.usergrid.documents";
+
+    /**
+     * Value of documents setting for indexes with one document per entity version holding all its edges
+     */
+    public static final String ENTITY_DOCUMENTS = "entity";
+
     /**
      * Reserved UG fields in the document
      */
@@ -104,6 +133,17 @@ public class IndexingUtils {
 
     public static final String ENTITY_FIELDS = "fields";
 
+    /**
+     * The edges of an entity document, each with the edge fields above
+     */
+    public static final String EDGES_FIELDNAME = "edges";
+
+    public static final String EDGE_NODE_ID_NESTED = EDGES_FIELDNAME + "." + EDGE_NODE_ID_FIELDNAME;
+
+    public static final String EDGE_TIMESTAMP_NESTED = EDGES_FIELDNAME + "." + EDGE_TIMESTAMP_FIELDNAME;
+
+    public static final String EDGE_SEARCH_NESTED = EDGES_FIELDNAME + "." + EDGE_SEARCH_FIELDNAME;
+
     /**
      * Reserved field types in our document
      *
@@ -114,6 +154,7 @@ public class IndexingUtils {
     public static final String FIELD_LONG = "long";
     public static final String FIELD_DOUBLE = "double";
     public static final String FIELD_LOCATION = "location";
+    public static final String FIELD_GEOHASH = "geohash";
     public static final String FIELD_STRING = "string";
     public static final String FIELD_UUID = "uuid";
     public static final String FIELD_NULL = "null";
@@ -127,6 +168,7 @@ public class IndexingUtils {
     public static final String FIELD_LONG_NESTED = ENTITY_FIELDS + "." + FIELD_LONG;
     public static final String FIELD_DOUBLE_NESTED = ENTITY_FIELDS + "." + FIELD_DOUBLE;
     public static final String FIELD_LOCATION_NESTED = ENTITY_FIELDS + "." + FIELD_LOCATION;
+    public static final String FIELD_GEOHASH_NESTED = ENTITY_FIELDS + "." + FIELD_GEOHASH;
     public static final String FIELD_STRING_NESTED = ENTITY_FIELDS + "." + FIELD_STRING;
     public static final String FIELD_UUID_NESTED = ENTITY_FIELDS + "." + FIELD_UUID;
     public static final String FIELD_STRING_NESTED_UNANALYZED = FIELD_STRING_NESTED + ".exact";
@@ -162,6 +204,33 @@ public class IndexingUtils {
      */
     public static String createIndexDocId( final ApplicationScope applicationScope, final Id entityId,
                                            final UUID version, final SearchEdge searchEdge ) {
+        return createIndexDocId( createEntityDocId( applicationScope, entityId, version ), searchEdge );
+    }
+
+
+    /**
+     * Create the doc Id of the search edge of an entity document in an index with one document per edge
+     */
+    public static String createIndexDocId( final String entityDocId, final SearchEdge searchEdge ) {
+
+        StringBuilder sb = new StringBuilder( entityDocId );
+        sb.append( FIELD_SEPERATOR );
+        idString( sb, NODEID_NAME, searchEdge.getNodeId() );
+        sb.append( FIELD_SEPERATOR );
+        appendField( sb, EDGE_NAME, searchEdge.getEdgeName() );
+        sb.append( FIELD_SEPERATOR );
+        appendField( sb, NODE_TYPE_NAME, searchEdge.getNodeType().name() );
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Create the doc Id of an entity document. This is the entity's type + uuid + version, and is the prefix of the
+     * doc id of each of its edges
+     */
+    public static String createEntityDocId( final ApplicationScope applicationScope, final Id entityId,
+                                            final UUID version ) {
 
         StringBuilder sb = new StringBuilder();
         idString( sb, APPID_NAME, applicationScope.getApplication() );
@@ -169,17 +238,104 @@ public class IndexingUtils {
         idString( sb, ENTITY_ID_FIELDNAME, entityId );
         sb.append( FIELD_SEPERATOR );
         appendField( sb, VERSION_NAME, version.toString() );
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Create the doc Id an edge of an entity document would have in an index with one document per edge
+     *
+     * @param entityDocId The id of the entity document
+     * @param edge The edge as stored in the entity document
+     */
+    public static String createIndexDocId( final String entityDocId, final Map<String, Object> edge ) {
+
+        StringBuilder sb = new StringBuilder( entityDocId );
         sb.append( FIELD_SEPERATOR );
-        idString( sb, NODEID_NAME, searchEdge.getNodeId() );
+        sb.append( edge.get( EDGE_NODE_ID_FIELDNAME ) );
         sb.append( FIELD_SEPERATOR );
-        appendField( sb, EDGE_NAME, searchEdge.getEdgeName() );
+        appendField( sb, EDGE_NAME, String.valueOf( edge.get( EDGE_NAME_FIELDNAME ) ) );
         sb.append( FIELD_SEPERATOR );
-        appendField( sb, NODE_TYPE_NAME, searchEdge.getNodeType().name() );
+        appendField( sb, NODE_TYPE_NAME, String.valueOf( edge.get( EDGE_NODE_TYPE_FIELDNAME ) ) );
 
         return sb.toString();
     }
 
 
+    /**
+     * True if the document id is that of an entity document, as opposed to that of a document per edge
+     */
+    public static boolean isEntityDocId( final String documentId ) {
+        return ENTITY_DOCUMENT_PATTERN.matcher( documentId ).matches();
+    }
+
+
+    /**
+     * Parse the id of the entity document holding the edge from the document id
+     */
+    public static String parseEntityDocIdFromIndexDocId( final String documentId ) {
+
+        final Matcher matcher = DOCUMENT_PATTERN.matcher(documentId);
+
+        Preconditions.checkArgument(matcher.matches(), "Pattern for document id did not match expected format");
+
+        // everything up to and including the closing parenthesis of the version
+        return documentId.substring( 0, matcher.end( 5 ) + 1 );
+    }
+
+
+    /**
+     * Parse the search context of the edge, as created by {@link #createContextName}, from the document id
+     */
+    public static String parseContextNameFromIndexDocId( final String documentId ) {
+
+        final Matcher matcher = DOCUMENT_PATTERN.matcher(documentId);
+
+        Preconditions.checkArgument(matcher.matches(), "Pattern for document id did not match expected format");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append( APPID_NAME ).append( "(" ).append( matcher.group( 1 ) ).append( ID_SEPERATOR )
+          .append( matcher.group( 2 ) ).append( ")" );
+        sb.append( FIELD_SEPERATOR );
+        sb.append( NODEID_NAME ).append( "(" ).append( matcher.group( 6 ) ).append( ID_SEPERATOR )
+          .append( matcher.group( 7 ) ).append( ")" );
+        sb.append( FIELD_SEPERATOR );
+        appendField( sb, EDGE_NAME, matcher.group( 8 ) );
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Create the routing value for documents and queries of a search edge.  The edge name is included so the
+     * collections and connections of one node, such as all the collections of an application, spread over the shards
+     */
+    public static String createRouting( final SearchEdge searchEdge ) {
+        return createRouting( searchEdge.getNodeId().getUuid().toString(), searchEdge.getEdgeName() );
+    }
+
+
+    private static String createRouting( final String nodeUuid, final String edgeName ) {
+        return nodeUuid + FIELD_SEPERATOR + edgeName;
+    }
+
+
+    /**
+     * Parse the routing value of the search edge the document was indexed with from the document id
+     */
+    public static String parseRoutingFromIndexDocId( final String documentId ) {
+
+        final Matcher matcher = DOCUMENT_PATTERN.matcher(documentId);
+
+        Preconditions.checkArgument(matcher.matches(), "Pattern for document id did not match expected format");
+        Preconditions.checkArgument(matcher.groupCount() == 9, "9 groups expected in the pattern");
+
+        // node id uuid and edge name of the search edge
+        return createRouting( matcher.group( 6 ), matcher.group( 8 ) );
+    }
+
+
     public static final String entityId( final Id id ) {
         return idString( ENTITY_NAME, id );
     }
@@ -235,6 +391,18 @@ public class IndexingUtils {
         return parseIndexDocId(documentId,distance);
     }
 
+    /**
+     * Parse the hit of a search of the given edge, which may be an entity document holding the edge
+     */
+    public static CandidateResult parseIndexDocId( final SearchHit hit, final SearchEdge searchEdge,
+                                                   boolean isGeo ) {
+
+        final String documentId =
+            isEntityDocId( hit.getId() ) ? createIndexDocId( hit.getId(), searchEdge ) : hit.getId();
+        final double distance = isGeo ? (double) hit.sortValues()[0] : -1;
+        return parseIndexDocId(documentId,distance);
+    }
+
     public static CandidateResult parseIndexDocId( final String documentId ) {
         return parseIndexDocId(documentId,-1);
     }
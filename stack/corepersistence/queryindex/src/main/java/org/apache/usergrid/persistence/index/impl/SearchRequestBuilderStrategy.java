@@ -20,6 +20,8 @@
 package org.apache.usergrid.persistence.index.impl;
 
 
+import java.util.function.Function;
+
 import org.apache.usergrid.persistence.index.IndexAlias;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchType;
@@ -27,6 +29,7 @@ import org.elasticsearch.index.query.BoolFilterBuilder;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.TermFilterBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.GeoDistanceSortBuilder;
@@ -63,23 +66,31 @@ public class SearchRequestBuilderStrategy {
     private final ApplicationScope applicationScope;
     private final IndexAlias alias;
     private final int cursorTimeout;
+    private final boolean geoPrefixFilter;
 
 
+    /**
+     * @param geoPrefixFilter True to narrow location queries with the geohash cells around the point
+     */
     public SearchRequestBuilderStrategy( final EsProvider esProvider, final ApplicationScope applicationScope,
-                                         final IndexAlias alias, int cursorTimeout ) {
+                                         final IndexAlias alias, int cursorTimeout, final boolean geoPrefixFilter ) {
 
         this.esProvider = esProvider;
         this.applicationScope = applicationScope;
         this.alias = alias;
         this.cursorTimeout = cursorTimeout;
+        this.geoPrefixFilter = geoPrefixFilter;
     }
 
 
     /**
      * Get the search request builder
+     *
+     * @param documentModels The document models of the indexes behind the read alias
      */
     public SearchRequestBuilder getBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
-                                            final ParsedQuery query, final int limit, final int from ) {
+                                            final ParsedQuery query, final int limit, final int from,
+                                            final DocumentModels documentModels ) {
 
         Preconditions
             .checkArgument( limit <= EntityIndex.MAX_LIMIT, "limit is greater than max " + EntityIndex.MAX_LIMIT );
@@ -97,7 +108,12 @@ public class SearchRequestBuilderStrategy {
             srb.setQuery( queryBuilder.get() );
         }
 
-        srb.setPostFilter( createFilterBuilder( searchEdge, visitor, searchTypes ) );
+        final String context = createContextName( applicationScope, searchEdge );
+
+        final Function<String, FilterBuilder> edgeCondition =
+            prefix -> FilterBuilders.termFilter( prefix + IndexingUtils.EDGE_SEARCH_FIELDNAME, context );
+
+        srb.setPostFilter( createFilterBuilder( edgeCondition, visitor, searchTypes, documentModels ) );
 
 
         srb = srb.setFrom( from ).setSize( limit );
@@ -109,7 +125,7 @@ public class SearchRequestBuilderStrategy {
 
         //no sort predicates, sort by edge time descending, entity id second
         if ( query.getSortPredicates().size() == 0 ) {
-            applyDefaultSortPredicates( srb, geoFields );
+            applyDefaultSortPredicates( srb, geoFields, edgeCondition, documentModels );
         }
         else {
             applySortPredicates( srb, query, geoFields );
@@ -120,10 +136,69 @@ public class SearchRequestBuilderStrategy {
     }
 
 
+    /**
+     * Get a search request builder that only counts the documents matching the query, without fetching or sorting
+     * them
+     *
+     * @param documentModels The document models of the indexes behind the read alias
+     */
+    public SearchRequestBuilder getCountBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                                 final ParsedQuery query, final DocumentModels documentModels ) {
+
+        return getFilteredBuilder( searchEdge, searchTypes, query, SearchType.COUNT, documentModels ).setSize( 0 );
+    }
+
+
+    /**
+     * Get a search request builder that scans all the documents matching the query in index order.  The size is the
+     * number of documents returned per shard on each scroll request
+     *
+     * @param documentModels The document models of the indexes behind the read alias
+     */
+    public SearchRequestBuilder getScanBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                                final ParsedQuery query, final int size,
+                                                final DocumentModels documentModels ) {
+
+        Preconditions
+            .checkArgument( size <= EntityIndex.MAX_LIMIT, "size is greater than max " + EntityIndex.MAX_LIMIT );
+
+        return getFilteredBuilder( searchEdge, searchTypes, query, SearchType.SCAN, documentModels ).setSize( size );
+    }
+
+
+    /**
+     * Get a search request builder for the search type that filters in the query, since no sorted page of hits is
+     * returned that a post filter would apply to
+     */
+    private SearchRequestBuilder getFilteredBuilder( final SearchEdge searchEdge, final SearchTypes searchTypes,
+                                                     final ParsedQuery query, final SearchType searchType,
+                                                     final DocumentModels documentModels ) {
+
+        final SearchRequestBuilder srb =
+            esProvider.getClient().prepareSearch( alias.getReadAlias() ).setTypes( IndexingUtils.ES_ENTITY_TYPE )
+                      .setSearchType( searchType );
+
+
+        final QueryVisitor visitor = visitParsedQuery( query );
+
+        final String context = createContextName( applicationScope, searchEdge );
+
+        final Function<String, FilterBuilder> edgeCondition =
+            prefix -> FilterBuilders.termFilter( prefix + IndexingUtils.EDGE_SEARCH_FIELDNAME, context );
+
+        srb.setQuery( QueryBuilders.filteredQuery( visitor.getQueryBuilder().orNull(),
+            createFilterBuilder( edgeCondition, visitor, searchTypes, documentModels ) ) );
+
+        return srb;
+    }
+
+
     /**
      * Apply our default sort predicate logic
      */
-    private void applyDefaultSortPredicates( final SearchRequestBuilder srb, final GeoSortFields geoFields ) {
+    private void applyDefaultSortPredicates( final SearchRequestBuilder srb, final GeoSortFields geoFields,
+                                             final Function<String, FilterBuilder> edgeCondition,
+                                             final DocumentModels documentModels ) {
         //we have geo fields, sort through them in visit order
         for ( String geoField : geoFields.fields() ) {
 
@@ -134,7 +209,7 @@ public class SearchRequestBuilderStrategy {
 
         //now sort by edge timestamp, then entity id
         //sort by the edge timestamp
-        srb.addSort( SortBuilders.fieldSort( IndexingUtils.EDGE_TIMESTAMP_FIELDNAME ).order( SortOrder.DESC ) );
+        documentModels.addEdgeTimestampSort( srb, SortOrder.DESC, edgeCondition );
 
         //sort by the entity id if our times are equal
         srb.addSort( SortBuilders.fieldSort( IndexingUtils.ENTITY_ID_FIELDNAME ).order( SortOrder.ASC ) );
@@ -195,9 +270,9 @@ public class SearchRequestBuilderStrategy {
      * Create our filter builder.  We need to restrict our results on edge search, as well as on types, and any filters
      * that came from the grammar.
      */
-    private FilterBuilder createFilterBuilder( final SearchEdge searchEdge, final QueryVisitor visitor,
-                                               final SearchTypes searchTypes ) {
-        String context = createContextName( applicationScope, searchEdge );
+    private FilterBuilder createFilterBuilder( final Function<String, FilterBuilder> edgeCondition,
+                                               final QueryVisitor visitor, final SearchTypes searchTypes,
+                                               final DocumentModels documentModels ) {
 
 
         // Add our filter for context to our query for fast execution.
@@ -211,7 +286,7 @@ public class SearchRequestBuilderStrategy {
         BoolFilterBuilder boolQueryFilter = FilterBuilders.boolFilter();
 
         //add our edge search
-        boolQueryFilter.must( FilterBuilders.termFilter( IndexingUtils.EDGE_SEARCH_FIELDNAME, context ) );
+        boolQueryFilter.must( documentModels.edgeFilter( edgeCondition ) );
 
 
         /**
@@ -247,7 +322,7 @@ public class SearchRequestBuilderStrategy {
      * Perform our visit of the query once for efficiency
      */
     private QueryVisitor visitParsedQuery( final ParsedQuery parsedQuery ) {
-        QueryVisitor v = new EsQueryVistor();
+        QueryVisitor v = new EsQueryVistor( geoPrefixFilter );
 
         if ( parsedQuery.getRootOperand() != null ) {
 
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Caches the candidates of searches for a short time, grouped by the search context of their edge.  Index operations
+ * applied by this node invalidate every search of the edges they touch.  Other nodes only pick up changes once the
+ * time to live has passed.
+ *
+ * Writes only become searchable once the index refreshes, so searches of an edge this node wrote to within the
+ * refresh interval are not cached, and neither are searches that raced with an invalidation.
+ */
+@Singleton
+public class SearchResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger( SearchResultCache.class );
+
+    /**
+     * The most searches we keep per edge, so one edge with many distinct queries can't evict all the others
+     */
+    private static final int MAX_SEARCHES_PER_EDGE = 50;
+
+    private final boolean enabled;
+    private final long timeToLive;
+    private final long refreshInterval;
+    private final Cache<String, Cache<SearchKey, CandidateResults>> edges;
+
+    /**
+     * Edges written within the last refresh interval, whose searches may not see the writes yet
+     */
+    private final Cache<String, Boolean> recentlyWritten;
+
+    /**
+     * When every edge was last invalidated, for writes whose edges we can't tell
+     */
+    private volatile long lastInvalidatedAll;
+
+    /**
+     * Counts invalidations, so a search that raced with one doesn't cache what it read
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Meter hitMeter;
+    private final Meter missMeter;
+
+
+    @Inject
+    public SearchResultCache( final IndexFig indexFig, final MetricsFactory metricsFactory ) {
+        this.timeToLive = indexFig.getSearchCacheTimeToLive();
+        this.enabled = timeToLive > 0 && indexFig.getSearchCacheSize() > 0;
+
+        //the searches of an edge are dropped together once the edge's entry expires, so none outlive the ttl
+        this.edges = CacheBuilder.newBuilder().maximumSize( Math.max( indexFig.getSearchCacheSize(), 0 ) )
+                                 .expireAfterWrite( Math.max( timeToLive, 1 ), TimeUnit.MILLISECONDS ).build();
+
+        this.refreshInterval = Math.max( indexFig.getSearchCacheRefreshInterval(), 0 );
+        this.recentlyWritten = CacheBuilder.newBuilder().maximumSize( Math.max( indexFig.getSearchCacheSize(), 0 ) )
+                                           .expireAfterWrite( Math.max( refreshInterval, 1 ), TimeUnit.MILLISECONDS )
+                                           .build();
+
+        this.hitMeter = metricsFactory.getMeter( SearchResultCache.class, "search.cache.hit" );
+        this.missMeter = metricsFactory.getMeter( SearchResultCache.class, "search.cache.miss" );
+
+        metricsFactory.addGauge( SearchResultCache.class, "search.cache.size", () -> edges.size() );
+        metricsFactory.addGauge( SearchResultCache.class, "search.cache.hit_ratio", ( Gauge<Double> ) () -> {
+            final long hits = hitMeter.getCount();
+            final long total = hits + missMeter.getCount();
+            return total == 0 ? 0d : ( double ) hits / total;
+        } );
+    }
+
+
+    /**
+     * Get the cached candidates of the search, or run the search and cache its candidates
+     */
+    public CandidateResults get( final ApplicationScope applicationScope, final SearchEdge searchEdge,
+                                 final SearchTypes searchTypes, final String query, final int limit, final int offset,
+                                 final Supplier<CandidateResults> search ) {
+
+        if ( !enabled ) {
+            return search.get();
+        }
+
+        final String contextName = IndexingUtils.createContextName( applicationScope, searchEdge );
+        final SearchKey key = new SearchKey( searchEdge.getNodeType(), searchTypes, query, limit, offset );
+
+        final Cache<SearchKey, CandidateResults> searches;
+
+        try {
+            searches = edges.get( contextName,
+                () -> CacheBuilder.newBuilder().maximumSize( MAX_SEARCHES_PER_EDGE ).build() );
+        }
+        catch ( ExecutionException e ) {
+            throw new RuntimeException( "Unable to create search cache of edge " + contextName, e );
+        }
+
+        final CandidateResults cached = searches.getIfPresent( key );
+
+        if ( cached != null ) {
+            hitMeter.mark();
+            return cached;
+        }
+
+        missMeter.mark();
+
+        final long stamp = invalidations.get();
+
+        final CandidateResults results = search.get();
+
+        if ( invalidations.get() == stamp && !isRecentlyWritten( contextName ) ) {
+            searches.put( key, results );
+        }
+
+        return results;
+    }
+
+
+    /**
+     * Invalidate the searches of every edge the operations of the message add to or remove from
+     */
+    public void invalidate( final IndexOperationMessage message ) {
+
+        if ( !enabled ) {
+            return;
+        }
+
+        final Set<String> contextNames = new HashSet<>();
+
+        try {
+            for ( final IndexOperation indexOperation : message.getIndexRequests() ) {
+                if ( indexOperation.edges != null ) {
+                    contextNames.addAll( indexOperation.edges.keySet() );
+                }
+                else {
+                    contextNames.add( IndexingUtils.parseContextNameFromIndexDocId( indexOperation.documentId ) );
+                }
+            }
+
+            for ( final DeIndexOperation deIndexOperation : message.getDeIndexRequests() ) {
+                if ( deIndexOperation.edges != null ) {
+                    contextNames.addAll( deIndexOperation.edges );
+                }
+                else {
+                    contextNames.add( IndexingUtils.parseContextNameFromIndexDocId( deIndexOperation.documentId ) );
+                }
+            }
+        }
+        catch ( IllegalArgumentException e ) {
+            //an operation without edges we can tell, such as removing a whole entity document
+            logger.debug( "Unable to find the edges of index operations, invalidating all searches", e );
+            lastInvalidatedAll = System.currentTimeMillis();
+            invalidations.incrementAndGet();
+            edges.invalidateAll();
+            return;
+        }
+
+        for ( final String contextName : contextNames ) {
+            recentlyWritten.put( contextName, Boolean.TRUE );
+        }
+
+        invalidations.incrementAndGet();
+        edges.invalidateAll( contextNames );
+    }
+
+
+    /**
+     * True if this node wrote to the edge so recently that the index may not have refreshed since
+     */
+    private boolean isRecentlyWritten( final String contextName ) {
+
+        if ( refreshInterval == 0 ) {
+            return false;
+        }
+
+        return recentlyWritten.getIfPresent( contextName ) != null
+            || System.currentTimeMillis() - lastInvalidatedAll < refreshInterval;
+    }
+
+
+    /**
+     * A search within the searches of an edge
+     */
+    private static final class SearchKey {
+
+        private final SearchEdge.NodeType nodeType;
+        private final SearchTypes searchTypes;
+        private final String query;
+        private final int limit;
+        private final int offset;
+
+
+        private SearchKey( final SearchEdge.NodeType nodeType, final SearchTypes searchTypes, final String query,
+                           final int limit, final int offset ) {
+            this.nodeType = nodeType;
+            this.searchTypes = searchTypes;
+            //queries are lower cased when they are parsed, so their case doesn't change the results
+            this.query = query.trim().toLowerCase();
+            this.limit = limit;
+            this.offset = offset;
+        }
+
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof SearchKey ) ) {
+                return false;
+            }
+
+            final SearchKey that = ( SearchKey ) o;
+
+            return limit == that.limit && offset == that.offset && nodeType == that.nodeType && searchTypes
+                .equals( that.searchTypes ) && query.equals( that.query );
+        }
+
+
+        @Override
+        public int hashCode() {
+            return Objects.hash( nodeType, searchTypes, query, limit, offset );
+        }
+    }
+}
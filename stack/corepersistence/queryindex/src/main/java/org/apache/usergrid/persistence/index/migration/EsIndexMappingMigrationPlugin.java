@@ -136,7 +136,7 @@ public class EsIndexMappingMigrationPlugin implements MigrationPlugin {
 
     @Override
     public int getMaxVersion() {
-        return 2;//1->new storage format,2->remove uuid
+        return 3;//1->new storage format,2->remove uuid,3->nested edges of entity documents
     }
 
     @Override
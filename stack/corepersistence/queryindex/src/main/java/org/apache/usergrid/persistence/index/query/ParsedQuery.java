@@ -203,6 +203,23 @@ public class ParsedQuery {
         return rootOperand;
     }
 
+
+    /**
+     * Create a copy of this query with the same sorts and selects, but with a different root operand and original
+     * query
+     */
+    ParsedQuery copy( final Operand rootOperand, final String originalQuery ) {
+        final ParsedQuery copy = new ParsedQuery();
+
+        copy.sortPropertyNames.addAll( sortPropertyNames );
+        copy.sortPredicateList.addAll( sortPredicateList );
+        copy.fieldMappings.putAll( fieldMappings );
+        copy.rootOperand = rootOperand;
+        copy.originalQuery = originalQuery;
+
+        return copy;
+    }
+
     public boolean isGeoQuery(){
         return getOriginalQuery().contains("location") && getOriginalQuery().contains("within");
     }
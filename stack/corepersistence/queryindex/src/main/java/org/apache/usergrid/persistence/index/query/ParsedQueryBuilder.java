@@ -57,11 +57,17 @@ public class ParsedQueryBuilder {
             logger.trace("Processing raw query: {}", ql);
         }
 
-        final String trimmedLowercaseQuery = ql.trim().toLowerCase();
+        return parse( ql, tokenize( normalize( ql ) ) );
+    }
+
 
+    /**
+     * Lowercase the ql and rewrite it to be a correct query grammar if it doesn't start with select
+     */
+    static String normalize( final String ql ) {
+
+        final String trimmedLowercaseQuery = ql.trim().toLowerCase();
 
-        //the output query after post processing
-        final String outputQuery;
 
         //it doesn't start with select, rewrite it to be a correct query grammar
         if ( !trimmedLowercaseQuery.startsWith( "select" ) ) {
@@ -69,22 +75,39 @@ public class ParsedQueryBuilder {
             //just an order by, add the select
             //just starts with a where, add the select
             if ( trimmedLowercaseQuery.startsWith( "order by" ) || trimmedLowercaseQuery.startsWith( "where" )) {
-                outputQuery = "select * " + trimmedLowercaseQuery;
+                return "select * " + trimmedLowercaseQuery;
             }
 
 
             //junk, bail
             else {
-               outputQuery = "select * where " + trimmedLowercaseQuery;
+               return "select * where " + trimmedLowercaseQuery;
             }
         }
-        else {
-            outputQuery = trimmedLowercaseQuery;
-        }
+
+        return trimmedLowercaseQuery;
+    }
+
+
+    /**
+     * Run the lexer over the normalized query, buffering all of its tokens
+     */
+    static CommonTokenStream tokenize( final String outputQuery ) {
 
         ANTLRStringStream in = new ANTLRStringStream( outputQuery );
         CpQueryFilterLexer lexer = new CpQueryFilterLexer( in );
         CommonTokenStream tokens = new CommonTokenStream( lexer );
+        tokens.fill();
+
+        return tokens;
+    }
+
+
+    /**
+     * Parse the lexed tokens of the ql
+     */
+    static ParsedQuery parse( final String ql, final CommonTokenStream tokens ) throws QueryParseException {
+
         CpQueryFilterParser parser = new CpQueryFilterParser( tokens );
 
 
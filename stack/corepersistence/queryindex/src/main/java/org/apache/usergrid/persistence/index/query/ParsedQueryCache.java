@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.query;
+
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.tree.CommonTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.commons.lang.StringUtils;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.exceptions.QueryParseException;
+import org.apache.usergrid.persistence.index.query.tree.CpQueryFilterLexer;
+import org.apache.usergrid.persistence.index.query.tree.Operand;
+
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+
+/**
+ * Caches parsed queries by their template: the lexed query with its literal values taken out.  Queries with the same
+ * shape but different values only need to be lexed, the parse tree of the template is copied with the new values
+ * bound into it.
+ */
+@Singleton
+public class ParsedQueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger( ParsedQueryCache.class );
+
+    private static final ConcurrentMap<Class<?>, Constructor<?>> nodeConstructors = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final Cache<String, ParsedQuery> templates;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+
+
+    @Inject
+    public ParsedQueryCache( final IndexFig indexFig, final MetricsFactory metricsFactory ) {
+        this.enabled = indexFig.getQueryCacheSize() > 0;
+        this.templates = CacheBuilder.newBuilder().maximumSize( Math.max( indexFig.getQueryCacheSize(), 0 ) ).build();
+        this.hitMeter = metricsFactory.getMeter( ParsedQueryCache.class, "query.cache.hit" );
+        this.missMeter = metricsFactory.getMeter( ParsedQueryCache.class, "query.cache.miss" );
+
+        metricsFactory.addGauge( ParsedQueryCache.class, "query.cache.size", () -> templates.size() );
+    }
+
+
+    /**
+     * Generate a parsedQuery from the ql, reusing the parse tree of an earlier query with the same template
+     */
+    public ParsedQuery build( final String ql ) throws QueryParseException {
+        if ( !enabled || StringUtils.isEmpty( ql ) ) {
+            return ParsedQueryBuilder.build( ql );
+        }
+
+        final CommonTokenStream tokens = ParsedQueryBuilder.tokenize( ParsedQueryBuilder.normalize( ql ) );
+        final String template = getTemplate( tokens.getTokens() );
+
+        final ParsedQuery cached = templates.getIfPresent( template );
+
+        if ( cached != null ) {
+            hitMeter.mark();
+            return bind( cached, tokens.getTokens(), ql );
+        }
+
+        missMeter.mark();
+
+        final ParsedQuery parsedQuery = ParsedQueryBuilder.parse( ql, tokens );
+
+        //make sure the tree can be copied before we hand it out to later queries
+        try {
+            bind( parsedQuery, tokens.getTokens(), ql );
+            templates.put( template, parsedQuery );
+        }
+        catch ( RuntimeException e ) {
+            logger.debug( "Not caching query template for \"{}\"", ql, e );
+        }
+
+        return parsedQuery;
+    }
+
+
+    /**
+     * Get the template of the lexed query.  Literal values are replaced with their type so that queries that only
+     * differ in their values share a template
+     */
+    static String getTemplate( final List<? extends Token> tokens ) {
+        final StringBuilder template = new StringBuilder();
+
+        for ( final Token token : tokens ) {
+            if ( token.getChannel() != Token.DEFAULT_CHANNEL ) {
+                continue;
+            }
+
+            template.append( token.getType() );
+
+            if ( !isLiteral( token.getType() ) ) {
+                template.append( ':' ).append( token.getText() );
+            }
+
+            template.append( ' ' );
+        }
+
+        return template.toString();
+    }
+
+
+    /**
+     * Copy the cached query, taking the tokens of its tree nodes from the lexed tokens of the new query
+     */
+    private static ParsedQuery bind( final ParsedQuery cached, final List<? extends Token> tokens, final String ql ) {
+        final Operand rootOperand = cached.getRootOperand();
+
+        return cached.copy( rootOperand == null ? null : ( Operand ) copyTree( rootOperand, tokens ), ql );
+    }
+
+
+    private static CommonTree copyTree( final CommonTree node, final List<? extends Token> tokens ) {
+        final CommonTree copy;
+
+        try {
+            copy = ( CommonTree ) getConstructor( node.getClass() ).newInstance( getToken( node.getToken(), tokens ) );
+        }
+        catch ( ReflectiveOperationException e ) {
+            throw new IllegalStateException( "Unable to copy query node " + node.getClass().getName(), e );
+        }
+
+        copy.setTokenStartIndex( node.getTokenStartIndex() );
+        copy.setTokenStopIndex( node.getTokenStopIndex() );
+
+        for ( int i = 0; i < node.getChildCount(); i++ ) {
+            copy.addChild( copyTree( ( CommonTree ) node.getChild( i ), tokens ) );
+        }
+
+        return copy;
+    }
+
+
+    /**
+     * Get the token of the new query at the same position as the cached token
+     */
+    private static Token getToken( final Token cached, final List<? extends Token> tokens ) {
+        final int index = cached.getTokenIndex();
+
+        if ( index >= 0 && index < tokens.size() && tokens.get( index ).getType() == cached.getType() ) {
+            return tokens.get( index );
+        }
+
+        if ( isLiteral( cached.getType() ) ) {
+            throw new IllegalStateException( "Unable to bind literal " + cached.getText() + " at token " + index );
+        }
+
+        return cached;
+    }
+
+
+    private static Constructor<?> getConstructor( final Class<?> nodeClass ) throws NoSuchMethodException {
+        Constructor<?> constructor = nodeConstructors.get( nodeClass );
+
+        if ( constructor == null ) {
+            //some of the literal token constructors are protected
+            constructor = nodeClass.getDeclaredConstructor( Token.class );
+            constructor.setAccessible( true );
+            nodeConstructors.putIfAbsent( nodeClass, constructor );
+        }
+
+        return constructor;
+    }
+
+
+    private static boolean isLiteral( final int tokenType ) {
+        switch ( tokenType ) {
+            case CpQueryFilterLexer.BOOLEAN:
+            case CpQueryFilterLexer.LONG:
+            case CpQueryFilterLexer.UUID:
+            case CpQueryFilterLexer.STRING:
+            case CpQueryFilterLexer.FLOAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
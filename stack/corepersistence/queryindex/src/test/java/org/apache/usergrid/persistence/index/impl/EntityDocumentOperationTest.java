@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.delete.DeleteRequestBuilder;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class EntityDocumentOperationTest {
+
+    private Client client;
+    private MultiGetRequestBuilder multiGet;
+    private IndexRequestBuilder index;
+    private DeleteRequestBuilder delete;
+    private BulkRequestBuilder bulkRequest;
+
+
+    @Before
+    @SuppressWarnings( "unchecked" )
+    public void setup() {
+        client = mock( Client.class );
+
+        multiGet = mock( MultiGetRequestBuilder.class );
+        when( client.prepareMultiGet() ).thenReturn( multiGet );
+        when( multiGet.setRealtime( true ) ).thenReturn( multiGet );
+        when( multiGet.add( any( MultiGetRequest.Item.class ) ) ).thenReturn( multiGet );
+
+        index = mock( IndexRequestBuilder.class );
+        when( client.prepareIndex( anyString(), anyString(), anyString() ) ).thenReturn( index );
+        when( index.setSource( anyMapOf( String.class, Object.class ) ) ).thenReturn( index );
+        when( index.setVersion( anyLong() ) ).thenReturn( index );
+        when( index.setCreate( true ) ).thenReturn( index );
+
+        delete = mock( DeleteRequestBuilder.class );
+        when( client.prepareDelete( anyString(), anyString(), anyString() ) ).thenReturn( delete );
+        when( delete.setVersion( anyLong() ) ).thenReturn( delete );
+
+        bulkRequest = mock( BulkRequestBuilder.class );
+    }
+
+
+    @Test
+    public void documentsAreReadWithOneMultiGet() {
+
+        final EntityDocumentOperation first = new EntityDocumentOperation( "index", "first" ).add( edge( "users" ) );
+        final EntityDocumentOperation second = new EntityDocumentOperation( "index", "second" ).add( edge( "pets" ) );
+
+        read( Arrays.asList( first, second ), missing(), document( 4, "pets" ) );
+
+        first.doOperation( client, bulkRequest );
+        second.doOperation( client, bulkRequest );
+
+        verify( client, times( 1 ) ).prepareMultiGet();
+        verify( multiGet, times( 2 ) ).add( any( MultiGetRequest.Item.class ) );
+        verify( client, never() ).prepareGet( anyString(), anyString(), anyString() );
+    }
+
+
+    @Test
+    public void removalFromMissingDocumentIsSkipped() {
+
+        final EntityDocumentOperation operation =
+            new EntityDocumentOperation( "index", "doc" ).remove( Collections.singleton( "users" ) );
+
+        read( Collections.singletonList( operation ), missing() );
+
+        operation.doOperation( client, bulkRequest );
+
+        verify( bulkRequest, never() ).add( any( IndexRequestBuilder.class ) );
+        verify( bulkRequest, never() ).add( any( DeleteRequestBuilder.class ) );
+    }
+
+
+    @Test
+    public void missingDocumentIsCreated() {
+
+        final EntityDocumentOperation operation = new EntityDocumentOperation( "index", "doc" ).add( edge( "users" ) );
+
+        read( Collections.singletonList( operation ), missing() );
+
+        operation.doOperation( client, bulkRequest );
+
+        assertEquals( new HashSet<>( Collections.singletonList( "users" ) ), writtenEdges() );
+        verify( index ).setCreate( true );
+        verify( index, never() ).setVersion( anyLong() );
+        verify( bulkRequest ).add( index );
+    }
+
+
+    @Test
+    public void existingDocumentIsOverwrittenAtItsVersion() {
+
+        final EntityDocumentOperation operation = new EntityDocumentOperation( "index", "doc" ).add( edge( "pets" ) );
+
+        read( Collections.singletonList( operation ), document( 7, "users" ) );
+
+        operation.doOperation( client, bulkRequest );
+
+        assertEquals( new HashSet<>( Arrays.asList( "users", "pets" ) ), writtenEdges() );
+        verify( index ).setVersion( 7 );
+        verify( index, never() ).setCreate( true );
+        verify( bulkRequest ).add( index );
+    }
+
+
+    @Test
+    public void documentWithoutEdgesIsDeletedAtItsVersion() {
+
+        final EntityDocumentOperation operation =
+            new EntityDocumentOperation( "index", "doc" ).remove( Collections.singleton( "users" ) );
+
+        read( Collections.singletonList( operation ), document( 3, "users" ) );
+
+        operation.doOperation( client, bulkRequest );
+
+        verify( client ).prepareDelete( "index", IndexingUtils.ES_ENTITY_TYPE, "doc" );
+        verify( delete ).setVersion( 3 );
+        verify( bulkRequest ).add( delete );
+        verify( bulkRequest, never() ).add( any( IndexRequestBuilder.class ) );
+    }
+
+
+    @SuppressWarnings( "unchecked" )
+    private void read( final List<EntityDocumentOperation> operations, final GetResponse... documents ) {
+
+        final MultiGetItemResponse[] responses = new MultiGetItemResponse[documents.length];
+
+        for ( int i = 0; i < documents.length; i++ ) {
+            responses[i] = new MultiGetItemResponse( documents[i], null );
+        }
+
+        final ListenableActionFuture<MultiGetResponse> future = mock( ListenableActionFuture.class );
+        when( future.actionGet() ).thenReturn( new MultiGetResponse( responses ) );
+        when( multiGet.execute() ).thenReturn( future );
+
+        EntityDocumentOperation.read( client, operations );
+    }
+
+
+    @SuppressWarnings( "unchecked" )
+    private Set<String> writtenEdges() {
+
+        final ArgumentCaptor<Map> source = ArgumentCaptor.forClass( Map.class );
+        verify( index ).setSource( source.capture() );
+
+        final Set<String> edges = new HashSet<>();
+
+        for ( final Map<String, Object> edge : ( Collection<Map<String, Object>> ) source.getValue()
+            .get( IndexingUtils.EDGES_FIELDNAME ) ) {
+            edges.add( ( String ) edge.get( IndexingUtils.EDGE_SEARCH_FIELDNAME ) );
+        }
+
+        return edges;
+    }
+
+
+    private static IndexOperation edge( final String contextName ) {
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put( IndexingUtils.ENTITY_FIELDS, new ArrayList<>() );
+
+        final IndexOperation indexOperation = new IndexOperation( "index", "doc", data );
+        indexOperation.edges = Collections.singletonMap( contextName, edgeMap( contextName ) );
+
+        return indexOperation;
+    }
+
+
+    private static Map<String, Object> edgeMap( final String contextName ) {
+        final Map<String, Object> edge = new HashMap<>();
+        edge.put( IndexingUtils.EDGE_SEARCH_FIELDNAME, contextName );
+        return edge;
+    }
+
+
+    private static GetResponse missing() {
+        final GetResponse response = mock( GetResponse.class );
+        when( response.isExists() ).thenReturn( false );
+        return response;
+    }
+
+
+    private static GetResponse document( final long version, final String... contextNames ) {
+
+        final List<Map<String, Object>> edges = new ArrayList<>();
+
+        for ( final String contextName : contextNames ) {
+            edges.add( edgeMap( contextName ) );
+        }
+
+        final Map<String, Object> source = new HashMap<>();
+        source.put( IndexingUtils.EDGES_FIELDNAME, edges );
+
+        final GetResponse response = mock( GetResponse.class );
+        when( response.isExists() ).thenReturn( true );
+        when( response.getVersion() ).thenReturn( version );
+        when( response.getSourceAsMap() ).thenReturn( source );
+        return response;
+    }
+}
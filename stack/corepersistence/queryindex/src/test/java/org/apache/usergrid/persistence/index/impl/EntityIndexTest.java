@@ -32,6 +32,10 @@ import com.google.common.base.Optional;
 import org.apache.usergrid.persistence.core.CassandraFig;
 import org.apache.usergrid.persistence.index.*;
 import org.apache.usergrid.persistence.model.field.*;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.TermQueryBuilder;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -84,6 +88,12 @@ public class EntityIndexTest extends BaseIT {
     @Inject
     public CassandraFig cassandraFig;
 
+    @Inject
+    public EsProvider esProvider;
+
+    @Inject
+    public IndexCache indexCache;
+
     @Inject
     @Rule
     public ElasticSearchRule elasticSearchRule;
@@ -1305,6 +1315,81 @@ public class EntityIndexTest extends BaseIT {
     }
 
 
+    /**
+     * Tests documents indexed through the write alias of an edge routed index land on the shard of their search
+     * edge, and that a routed search through the read alias only hits that shard and finds them
+     */
+    @Test
+    public void testEdgeRoutedIndex() throws IOException {
+
+        final int numberOfShards = 5;
+
+        final TestIndexIdentifier strategy =
+            new TestIndexIdentifier( cassandraFig, fig, new ApplicationScopeImpl( appId ),
+                "routed_" + UUIDGenerator.newTimeUUID().toString().replace( "-", "" ), numberOfShards );
+
+        //routing is recorded on the index when it's created
+        final EntityIndex routedIndex;
+        fig.bypass( "isEdgeRouting", "true" );
+        try {
+            routedIndex = eif.createEntityIndex( strategy );
+        }
+        finally {
+            fig.bypass( "isEdgeRouting", null );
+        }
+
+        final String indexName = strategy.getIndexInitialName();
+        assertTrue( indexCache.isEdgeRouted( indexName ) );
+
+        final String entityType = "thing";
+        final Id ownerId = new SimpleId( "owner" );
+        final IndexEdge indexEdge = new IndexEdgeImpl( ownerId, "things", SearchEdge.NodeType.SOURCE, 1 );
+
+        final Entity entity = new Entity( entityType );
+        EntityUtils.setVersion( entity, UUIDGenerator.newTimeUUID() );
+        entity.setField( new StringField( "name", "routed" ) );
+
+        final EntityIndexBatch batch = routedIndex.createBatch();
+        batch.index( indexEdge, entity );
+        indexProducer.put( batch.build() ).toBlocking().lastOrDefault( null );
+
+        routedIndex.refreshAsync().toBlocking().first();
+
+        final Client client = esProvider.getClient();
+        final String routing = IndexingUtils.createRouting( indexEdge );
+        final TermQueryBuilder entityQuery =
+            QueryBuilders.termQuery( IndexingUtils.ENTITY_ID_FIELDNAME, IndexingUtils.entityId( entity.getId() ) );
+
+        //the shard the search edge routes to holds the document, no other shard does
+        final int expectedShard = client.admin().cluster().prepareSearchShards( indexName ).setRouting( routing )
+            .get().getGroups()[0].getShardId();
+
+        for ( int shard = 0; shard < numberOfShards; shard++ ) {
+            final SearchResponse response = client.prepareSearch( indexName ).setTypes( IndexingUtils.ES_ENTITY_TYPE )
+                .setPreference( "_shards:" + shard ).setQuery( entityQuery ).get();
+
+            assertEquals( "Documents on shard " + shard, shard == expectedShard ? 1 : 0,
+                response.getHits().getTotalHits() );
+        }
+
+        //a routed search of the read alias only goes to that shard
+        final SearchResponse routedResponse =
+            client.prepareSearch( strategy.getAlias().getReadAlias() ).setTypes( IndexingUtils.ES_ENTITY_TYPE )
+                .setRouting( routing ).setQuery( entityQuery ).get();
+
+        assertEquals( 1, routedResponse.getTotalShards() );
+        assertEquals( 1, routedResponse.getHits().getTotalHits() );
+
+        //and the entity index routes its searches of the edge the same way
+        final CandidateResults candidateResults = routedIndex
+            .search( indexEdge, SearchTypes.fromTypes( entityType ), "select * where name = 'routed'", 100, 0 );
+
+        assertEquals( 1, candidateResults.size() );
+        assertEquals( entity.getId(), candidateResults.get( 0 ).getId() );
+        assertEquals( entity.getVersion(), candidateResults.get( 0 ).getVersion() );
+    }
+
+
 
 }
 
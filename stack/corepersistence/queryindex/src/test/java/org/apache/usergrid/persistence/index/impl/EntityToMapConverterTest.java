@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
 import org.apache.usergrid.persistence.index.IndexEdge;
+import org.apache.usergrid.persistence.index.IndexedFields;
 import org.apache.usergrid.persistence.index.SearchEdge;
 import org.apache.usergrid.persistence.model.entity.Entity;
 import org.apache.usergrid.persistence.model.field.value.EntityObject;
@@ -39,6 +40,8 @@ import org.apache.usergrid.persistence.model.field.value.Location;
 import org.apache.usergrid.persistence.model.util.EntityUtils;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 
+import com.google.common.base.Optional;
+
 import rx.functions.Action2;
 
 import static org.apache.usergrid.persistence.core.util.IdGenerator.createId;
@@ -185,6 +188,12 @@ public class EntityToMapConverterTest {
                 latLong.get( "lat" ) );
             assertEquals( Double.valueOf( 20 ),
                 latLong.get( "lon" ) );
+
+            final List<String> geohashes = ( List<String> ) entityField.get( IndexingUtils.FIELD_GEOHASH );
+
+            assertEquals( GeoHashPrefixes.MAX_PRECISION, geohashes.size() );
+            assertEquals( "s3y0zh7w", geohashes.get( GeoHashPrefixes.MAX_PRECISION - 1 ) );
+            assertEquals( "s", geohashes.get( 0 ) );
         } );
     }
 
@@ -761,6 +770,136 @@ public class EntityToMapConverterTest {
 
     }
 
+    @Test
+    public void testIncludedAndExcludedFields() {
+
+        final Entity rootEntity = createNestedEntity();
+
+        final IndexedFields indexedFields = new IndexedFields( Optional.of( Arrays.asList( "name", "device" ) ),
+            Arrays.asList( "device.blob", "device.*.secret" ), 0, 0 );
+
+        assertEquals(
+            new HashSet<>( Arrays.asList( "name", "device.model", "device.settings.mode", "device.sensors" ) ),
+            fieldNames( rootEntity, indexedFields ) );
+    }
+
+
+    @Test
+    public void testIncludedNestedField() {
+
+        final Entity rootEntity = createNestedEntity();
+
+        final IndexedFields indexedFields =
+            IndexedFields.fromIncludes( Arrays.asList( "device.settings.Mode", "device.blob.missing" ) );
+
+        assertEquals( new HashSet<>( Arrays.asList( "device.settings.mode" ) ),
+            fieldNames( rootEntity, indexedFields ) );
+    }
+
+
+    @Test
+    public void testMixedCaseFieldNames() {
+
+        final EntityObject device = new EntityObject();
+        device.setField( new StringField( "Model", "thermostat" ) );
+        device.setField( new StringField( "Secret", "hidden" ) );
+
+        final Entity rootEntity = new Entity( "test" );
+        rootEntity.setField( new StringField( "Name", "kitchen" ) );
+        rootEntity.setField( new StringField( "Color", "white" ) );
+        rootEntity.setField( new EntityObjectField( "Device", device ) );
+
+        EntityUtils.setVersion( rootEntity, UUIDGenerator.newTimeUUID() );
+
+        final IndexedFields indexedFields = new IndexedFields( Optional.of( Arrays.asList( "name", "Device" ) ),
+            Arrays.asList( "device.SECRET" ), 0, 0 );
+
+        final Set<String> names = new HashSet<>();
+
+        for ( final String name : fieldNames( rootEntity, indexedFields ) ) {
+            names.add( name.toLowerCase() );
+        }
+
+        assertEquals( new HashSet<>( Arrays.asList( "name", "device.model" ) ), names );
+    }
+
+
+    @Test
+    public void testDepthAndArrayLimits() {
+
+        final Entity rootEntity = createNestedEntity();
+
+        final IndexedFields indexedFields =
+            new IndexedFields( Optional.absent(), Collections.emptyList(), 2, 2 );
+
+        final Map<String, Object> entityMap =
+            EntityToMapConverter.convertEntity( new ApplicationScopeImpl( createId( "application" ) ), rootEntity,
+                indexedFields );
+
+        final Set<EntityField> fields = ( Set<EntityField> ) entityMap.get( IndexingUtils.ENTITY_FIELDS );
+
+        assertEquals( new HashSet<>( Arrays.asList( "name", "color", "device.model", "device.sensors" ) ),
+            fieldNames( fields ) );
+
+        //only the first 2 sensors are indexed
+        assertEquals( 5, fields.size() );
+    }
+
+
+    /**
+     * A device with a settings object and a blob nested 3 levels deep, and an array of 3 sensors
+     */
+    private Entity createNestedEntity() {
+
+        final EntityObject blob = new EntityObject();
+        blob.setField( new StringField( "data", "opaque" ) );
+
+        final EntityObject settings = new EntityObject();
+        settings.setField( new StringField( "mode", "auto" ) );
+        settings.setField( new StringField( "secret", "hidden" ) );
+
+        final ArrayField<String> sensors = new ArrayField<>( "sensors" );
+        sensors.add( "temperature" );
+        sensors.add( "humidity" );
+        sensors.add( "pressure" );
+
+        final EntityObject device = new EntityObject();
+        device.setField( new StringField( "model", "thermostat" ) );
+        device.setField( new EntityObjectField( "settings", settings ) );
+        device.setField( new EntityObjectField( "blob", blob ) );
+        device.setField( sensors );
+
+        final Entity rootEntity = new Entity( "test" );
+        rootEntity.setField( new StringField( "name", "kitchen" ) );
+        rootEntity.setField( new StringField( "color", "white" ) );
+        rootEntity.setField( new EntityObjectField( "device", device ) );
+
+        EntityUtils.setVersion( rootEntity, UUIDGenerator.newTimeUUID() );
+
+        return rootEntity;
+    }
+
+
+    private Set<String> fieldNames( final Entity entity, final IndexedFields indexedFields ) {
+        final Map<String, Object> entityMap =
+            EntityToMapConverter.convertEntity( new ApplicationScopeImpl( createId( "application" ) ), entity,
+                indexedFields );
+
+        return fieldNames( ( Set<EntityField> ) entityMap.get( IndexingUtils.ENTITY_FIELDS ) );
+    }
+
+
+    private Set<String> fieldNames( final Set<EntityField> fields ) {
+        final Set<String> names = new HashSet<>();
+
+        for ( final EntityField field : fields ) {
+            names.add( ( String ) field.get( IndexingUtils.FIELD_NAME ) );
+        }
+
+        return names;
+    }
+
+
     @Test
     public void entityFieldEquality() {
 
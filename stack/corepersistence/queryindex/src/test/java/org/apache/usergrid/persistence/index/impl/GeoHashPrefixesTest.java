@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.List;
+import java.util.Random;
+
+import org.elasticsearch.common.geo.GeoDistance;
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class GeoHashPrefixesTest {
+
+
+    @Test
+    public void prefixesOfEveryPrecision() {
+
+        final List<String> prefixes = GeoHashPrefixes.prefixes( 37.7749, -122.4194 );
+
+        assertEquals( GeoHashPrefixes.MAX_PRECISION - GeoHashPrefixes.MIN_PRECISION + 1, prefixes.size() );
+
+        final String geohash = prefixes.get( prefixes.size() - 1 );
+
+        for ( int i = 0; i < prefixes.size(); i++ ) {
+            assertEquals( geohash.substring( 0, GeoHashPrefixes.MIN_PRECISION + i ), prefixes.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void cellsCoverDistance() {
+
+        final Random random = new Random( 1234 );
+
+        int checked = 0;
+
+        for ( int i = 0; i < 1000; i++ ) {
+
+            final double lat = random.nextDouble() * 160 - 80;
+            final double lon = random.nextDouble() * 360 - 180;
+            final double distance = Math.pow( 10, 1 + random.nextDouble() * 5 );
+
+            final List<String> cells = GeoHashPrefixes.coveringCells( lat, lon, distance );
+
+            if ( cells.isEmpty() ) {
+                continue;
+            }
+
+            final int precision = cells.get( 0 ).length();
+
+            //points within the distance must be in one of the cells
+            for ( int j = 0; j < 20; j++ ) {
+
+                //offsets up to the distance in each direction
+                final double latRange = distance / 111320;
+                final double lonRange = latRange / Math.cos( Math.toRadians( lat ) );
+
+                final double pointLat = Math.max( -90, Math.min( 90, lat + ( random.nextDouble() * 2 - 1 ) * latRange ) );
+                final double pointLon = lon + ( random.nextDouble() * 2 - 1 ) * lonRange;
+                final double wrappedLon = ( ( pointLon + 540 ) % 360 ) - 180;
+
+                final double pointDistance =
+                    GeoDistance.ARC.calculate( lat, lon, pointLat, wrappedLon, DistanceUnit.METERS );
+
+                if ( pointDistance <= distance ) {
+                    checked++;
+                    assertTrue( "Point within " + distance + "m of " + lat + "," + lon + " is covered",
+                        cells.contains( GeoHashUtils.encode( pointLat, wrappedLon, precision ) ) );
+                }
+            }
+        }
+
+        assertTrue( "Points were checked", checked > 1000 );
+    }
+
+
+    @Test
+    public void noCellsForLargeDistances() {
+        assertTrue( GeoHashPrefixes.coveringCells( 0, 0, 10000000 ).isEmpty() );
+    }
+}
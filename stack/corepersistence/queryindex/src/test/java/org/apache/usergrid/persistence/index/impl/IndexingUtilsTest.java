@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
 import org.apache.usergrid.persistence.index.CandidateResult;
+import org.apache.usergrid.persistence.index.IndexEdge;
 import org.apache.usergrid.persistence.index.SearchEdge;
 import org.apache.usergrid.persistence.model.entity.Id;
 import org.apache.usergrid.persistence.model.entity.SimpleId;
@@ -33,7 +34,11 @@ import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.parseAppIdFromIndexDocId;
 import static org.apache.usergrid.persistence.index.impl.IndexingUtils.parseIndexDocId;
+import static org.apache.usergrid.persistence.index.impl.IndexingUtils.parseRoutingFromIndexDocId;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 
 public class IndexingUtilsTest {
@@ -158,6 +163,59 @@ public class IndexingUtilsTest {
     }
 
 
+    @Test
+    public void testRoutingFromDocumentId() {
+
+        final ApplicationScopeImpl applicationScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        final Id id = new SimpleId( "id" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        final SearchEdgeImpl searchEdge =
+            new SearchEdgeImpl( new SimpleId( "source" ), "zzzcollzzz|users", SearchEdge.NodeType.TARGET );
+
+        final String output = IndexingUtils.createIndexDocId( applicationScope, id, version, searchEdge );
+
+        //deletes by document id must route to the same shard the document was indexed to
+        assertEquals( IndexingUtils.createRouting( searchEdge ), parseRoutingFromIndexDocId( output ) );
+
+        //the collections of one node don't share a shard by routing
+        final SearchEdgeImpl otherEdge =
+            new SearchEdgeImpl( searchEdge.getNodeId(), "zzzcollzzz|groups", SearchEdge.NodeType.TARGET );
+
+        assertNotEquals( IndexingUtils.createRouting( searchEdge ), IndexingUtils.createRouting( otherEdge ) );
+    }
+
+
+    @Test
+    public void testEntityDocumentId() {
+
+        final ApplicationScopeImpl applicationScope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+
+        final Id id = new SimpleId( "id" );
+        final UUID version = UUIDGenerator.newTimeUUID();
+
+        final IndexEdge indexEdge =
+            new IndexEdgeImpl( new SimpleId( "source" ), "zzzcollzzz|users", SearchEdge.NodeType.TARGET, 1000 );
+
+        final String entityDocId = IndexingUtils.createEntityDocId( applicationScope, id, version );
+        final String output = IndexingUtils.createIndexDocId( applicationScope, id, version, indexEdge );
+
+        assertTrue( IndexingUtils.isEntityDocId( entityDocId ) );
+        assertFalse( IndexingUtils.isEntityDocId( output ) );
+
+        //an edge of an entity document has the same id it has as a document per edge
+        assertEquals( output, IndexingUtils.createIndexDocId( entityDocId, indexEdge ) );
+        assertEquals( output,
+            IndexingUtils.createIndexDocId( entityDocId, EntityToMapConverter.convertEdge( applicationScope, indexEdge ) ) );
+
+        //and can be turned back into the entity document and edge to remove from it
+        assertEquals( entityDocId, IndexingUtils.parseEntityDocIdFromIndexDocId( output ) );
+        assertEquals( IndexingUtils.createContextName( applicationScope, indexEdge ),
+            IndexingUtils.parseContextNameFromIndexDocId( output ) );
+    }
+
+
     @Test
     public void testEntityType() {
 
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.impl;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.core.scope.ApplicationScope;
+import org.apache.usergrid.persistence.core.scope.ApplicationScopeImpl;
+import org.apache.usergrid.persistence.index.CandidateResults;
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.SearchEdge;
+import org.apache.usergrid.persistence.index.SearchTypes;
+import org.apache.usergrid.persistence.model.entity.Id;
+import org.apache.usergrid.persistence.model.entity.SimpleId;
+import org.apache.usergrid.persistence.model.util.UUIDGenerator;
+
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class SearchResultCacheTest {
+
+    private final ApplicationScope scope = new ApplicationScopeImpl( new SimpleId( "application" ) );
+    private final Id owner = new SimpleId( "owner" );
+    private final SearchEdge users = new SearchEdgeImpl( owner, "users", SearchEdge.NodeType.SOURCE );
+    private final SearchEdge pets = new SearchEdgeImpl( owner, "pets", SearchEdge.NodeType.SOURCE );
+
+    private SearchResultCache searchResultCache;
+    private AtomicInteger searches;
+
+
+    @Before
+    public void setup() {
+        searchResultCache = createCache( 0L );
+        searches = new AtomicInteger();
+    }
+
+
+    @Test
+    public void repeatedSearchIsCached() {
+
+        final CandidateResults first = search( users, "select * where name = 'fred'", 10 );
+        final CandidateResults second = search( users, "  SELECT * where name = 'Fred'", 10 );
+
+        assertSame( first, second );
+        assertEquals( 1, searches.get() );
+
+        search( users, "select * where name = 'fred'", 20 );
+        search( pets, "select * where name = 'fred'", 10 );
+
+        assertEquals( 3, searches.get() );
+    }
+
+
+    @Test
+    public void indexOperationInvalidatesEdge() {
+
+        search( users, "select *", 10 );
+        search( pets, "select *", 10 );
+
+        final IndexOperationMessage message = new IndexOperationMessage();
+        message.addDeIndexRequest( new DeIndexOperation( new String[] { "index" },
+            IndexingUtils.createIndexDocId( scope, new SimpleId( "user" ), UUIDGenerator.newTimeUUID(), users ) ) );
+
+        searchResultCache.invalidate( message );
+
+        search( users, "select *", 10 );
+        search( pets, "select *", 10 );
+
+        assertEquals( 3, searches.get() );
+    }
+
+
+    @Test
+    public void recentlyWrittenEdgeIsNotCached() {
+
+        searchResultCache = createCache( 60000L );
+
+        search( pets, "select *", 10 );
+
+        searchResultCache.invalidate( deIndexUser() );
+
+        //the index may not have refreshed since the write, so each search goes to it
+        search( users, "select *", 10 );
+        search( users, "select *", 10 );
+
+        //other edges are still cached
+        search( pets, "select *", 10 );
+
+        assertEquals( 3, searches.get() );
+    }
+
+
+    @Test
+    public void searchRacingInvalidationIsNotCached() {
+
+        searchResultCache.get( scope, users, SearchTypes.allTypes(), "select *", 10, 0, () -> {
+            searches.incrementAndGet();
+            //a write of the edge is applied while the search runs
+            searchResultCache.invalidate( deIndexUser() );
+            return new CandidateResults( new ArrayList<>(), Collections.emptyList() );
+        } );
+
+        search( users, "select *", 10 );
+        search( users, "select *", 10 );
+
+        assertEquals( 2, searches.get() );
+    }
+
+
+    private IndexOperationMessage deIndexUser() {
+        final IndexOperationMessage message = new IndexOperationMessage();
+        message.addDeIndexRequest( new DeIndexOperation( new String[] { "index" },
+            IndexingUtils.createIndexDocId( scope, new SimpleId( "user" ), UUIDGenerator.newTimeUUID(), users ) ) );
+        return message;
+    }
+
+
+    private SearchResultCache createCache( final long refreshInterval ) {
+        final IndexFig indexFig = mock( IndexFig.class );
+        when( indexFig.getSearchCacheTimeToLive() ).thenReturn( 60000L );
+        when( indexFig.getSearchCacheSize() ).thenReturn( 10 );
+        when( indexFig.getSearchCacheRefreshInterval() ).thenReturn( refreshInterval );
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenAnswer( invocation -> new Meter() );
+
+        return new SearchResultCache( indexFig, metricsFactory );
+    }
+
+
+    private CandidateResults search( final SearchEdge searchEdge, final String query, final int limit ) {
+        return searchResultCache.get( scope, searchEdge, SearchTypes.allTypes(), query, limit, 0, () -> {
+            searches.incrementAndGet();
+            return new CandidateResults( new ArrayList<>(), Collections.emptyList() );
+        } );
+    }
+}
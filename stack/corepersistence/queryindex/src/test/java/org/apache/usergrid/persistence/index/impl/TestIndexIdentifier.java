@@ -35,12 +35,28 @@ public class TestIndexIdentifier implements IndexLocationStrategy {
     private final IndexFig indexFig;
     private final ApplicationScope applicationScope;
     private final String prefix;
+    private final int numberOfShards;
 
     public TestIndexIdentifier(final CassandraFig cassandraFig, final IndexFig config, final ApplicationScope applicationScope) {
         this.cassandraFig = cassandraFig;
         this.indexFig = config;
         this.applicationScope = applicationScope;
         this.prefix = getPrefix();
+        this.numberOfShards = config.getNumberOfShards();
+    }
+
+    /**
+     * Identify an index of its own, separate from the one shared by the other tests
+     * @param name appended to the index name
+     * @param numberOfShards shards to create the index with
+     */
+    public TestIndexIdentifier(final CassandraFig cassandraFig, final IndexFig config, final ApplicationScope applicationScope,
+                               final String name, final int numberOfShards) {
+        this.cassandraFig = cassandraFig;
+        this.indexFig = config;
+        this.applicationScope = applicationScope;
+        this.prefix = getPrefix() + "_" + name;
+        this.numberOfShards = numberOfShards;
     }
 
     private String getPrefix() {
@@ -88,7 +104,7 @@ public class TestIndexIdentifier implements IndexLocationStrategy {
 
     @Override
     public int getNumberOfShards() {
-        return indexFig.getNumberOfShards();
+        return numberOfShards;
     }
 
     @Override
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.index.query;
+
+
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.usergrid.persistence.core.metrics.MetricsFactory;
+import org.apache.usergrid.persistence.index.IndexFig;
+import org.apache.usergrid.persistence.index.query.tree.AndOperand;
+import org.apache.usergrid.persistence.index.query.tree.Equal;
+import org.apache.usergrid.persistence.index.query.tree.GreaterThan;
+import org.apache.usergrid.persistence.index.query.tree.LongLiteral;
+import org.apache.usergrid.persistence.index.query.tree.StringLiteral;
+import org.apache.usergrid.persistence.index.query.tree.UUIDLiteral;
+
+import com.codahale.metrics.Meter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class ParsedQueryCacheTest {
+
+    private ParsedQueryCache parsedQueryCache;
+    private Meter hitMeter;
+    private Meter missMeter;
+
+
+    @Before
+    public void setup() {
+        final IndexFig indexFig = mock( IndexFig.class );
+        when( indexFig.getQueryCacheSize() ).thenReturn( 10 );
+
+        hitMeter = new Meter();
+        missMeter = new Meter();
+
+        final MetricsFactory metricsFactory = mock( MetricsFactory.class );
+        when( metricsFactory.getMeter( any( Class.class ), anyString() ) ).thenAnswer(
+            invocation -> invocation.getArguments()[1].toString().endsWith( "hit" ) ? hitMeter : missMeter );
+
+        parsedQueryCache = new ParsedQueryCache( indexFig, metricsFactory );
+    }
+
+
+    @Test
+    public void sameTemplateBindsNewValues() {
+
+        final ParsedQuery first = parsedQueryCache.build( "select * where name = 'fred' and age > 5 order by age desc" );
+        final ParsedQuery second = parsedQueryCache.build( "where name = 'Wilma' and age > 37 order by age desc" );
+
+        assertEquals( 1, missMeter.getCount() );
+        assertEquals( 1, hitMeter.getCount() );
+
+        assertValues( first, "fred", 5 );
+        assertValues( second, "wilma", 37 );
+
+        assertNotSame( first.getRootOperand(), second.getRootOperand() );
+        assertEquals( "where name = 'Wilma' and age > 37 order by age desc", second.getOriginalQuery() );
+        assertEquals( 1, second.getSortPredicates().size() );
+        assertEquals( "age", second.getSortPredicates().get( 0 ).getPropertyName() );
+    }
+
+
+    @Test
+    public void differentTemplates() {
+
+        final UUID uuid = UUID.randomUUID();
+
+        parsedQueryCache.build( "select * where name = 'fred'" );
+        parsedQueryCache.build( "select * where title = 'fred'" );
+        parsedQueryCache.build( "select * where name = 5" );
+
+        final ParsedQuery parsedQuery = parsedQueryCache.build( "select * where name = " + uuid );
+
+        assertEquals( 4, missMeter.getCount() );
+        assertEquals( 0, hitMeter.getCount() );
+        assertEquals( uuid, ( ( UUIDLiteral ) ( ( Equal ) parsedQuery.getRootOperand() ).getLiteral() ).getValue() );
+    }
+
+
+    @Test
+    public void noWhereClause() {
+
+        parsedQueryCache.build( "select * order by created" );
+        final ParsedQuery parsedQuery = parsedQueryCache.build( "select * order by created" );
+
+        assertEquals( 1, hitMeter.getCount() );
+        assertNull( parsedQuery.getRootOperand() );
+        assertEquals( "created", parsedQuery.getSortPredicates().get( 0 ).getPropertyName() );
+    }
+
+
+    private void assertValues( final ParsedQuery parsedQuery, final String name, final long age ) {
+        final AndOperand and = ( AndOperand ) parsedQuery.getRootOperand();
+
+        final Equal equal = ( Equal ) and.getLeft();
+        assertEquals( "name", equal.getProperty().getValue() );
+        assertEquals( name, ( ( StringLiteral ) equal.getLiteral() ).getValue() );
+
+        final GreaterThan greaterThan = ( GreaterThan ) and.getRight();
+        assertEquals( "age", greaterThan.getProperty().getValue() );
+        assertEquals( age, ( ( LongLiteral ) greaterThan.getLiteral() ).getValue().longValue() );
+    }
+}
@@ -34,6 +34,10 @@ public interface MetricsService {
     String TIMEOUT_TIME     = "qakka.timeout.time";
     String REFRESH_TIME     = "qakka.refresh.time";
     String ALLOCATE_TIME    = "qakka.allocate.time";
+    String LOG_WRITE_TIME   = "qakka.log.write.time";
+    String LOG_DROPPED      = "qakka.log.dropped";
+    String LOG_OVERFLOW     = "qakka.log.overflow";
+    String LOG_ERRORS       = "qakka.log.errors";
 
     MetricRegistry getMetricRegistry();
 }
@@ -74,6 +74,24 @@ public interface QakkaFig extends GuicyFig, Serializable {
 
     String QUEUE_MAX_TTL                          = "queue.max.ttl";
 
+    String QUEUE_LOG_WRITER_ASYNC                 = "queue.log.writer.async";
+
+    String QUEUE_LOG_WRITER_MAX_QUEUED            = "queue.log.writer.max.queued";
+
+    String QUEUE_LOG_WRITER_BATCH_SIZE            = "queue.log.writer.batch.size";
+
+    String QUEUE_LOG_WRITER_FLUSH_MILLIS          = "queue.log.writer.flush.millis";
+
+    String QUEUE_AUDIT_LOG_SAMPLE_RATE            = "queue.auditlog.sample.rate";
+
+    String QUEUE_AUDIT_LOG_QUEUE_SAMPLE_RATES     = "queue.auditlog.queue.sample.rates";
+
+    String QUEUE_PARTITIONS                       = "queue.partitions";
+
+    String QUEUE_QUEUE_PARTITIONS                 = "queue.queue.partitions";
+
+    String QUEUE_PARTITIONS_RESCAN_MILLIS         = "queue.partitions.rescan.millis";
+
 
 
     /** True if Qakka is running standlone */
@@ -164,6 +182,7 @@ public interface QakkaFig extends GuicyFig, Serializable {
     @Default("400000")
     long getMaxShardSize();
 
+    /** How long a get waits for messages to arrive when queue is empty, zero to return immediately */
     @Key(QUEUE_LONG_POLL_TIME_MILLIS)
     @Default("5000")
     long getLongPollTimeMillis();
@@ -180,4 +199,52 @@ public interface QakkaFig extends GuicyFig, Serializable {
     @Key(QUEUE_IN_MEMORY_REFRESH_ASYNC)
     @Default("true")
     boolean getInMemoryRefreshAsync();
+
+    /** True to write audit and transfer logs in background batches instead of in the send/get/ack path */
+    @Key(QUEUE_LOG_WRITER_ASYNC)
+    @Default("true")
+    boolean getLogWriterAsync();
+
+    /** Max number of log writes waiting to be written, audit logs are dropped when full */
+    @Key(QUEUE_LOG_WRITER_MAX_QUEUED)
+    @Default("10000")
+    int getLogWriterMaxQueued();
+
+    /** Max number of log writes in flight at once */
+    @Key(QUEUE_LOG_WRITER_BATCH_SIZE)
+    @Default("100")
+    int getLogWriterBatchSize();
+
+    /** How long log writer waits for more writes before writing a partial batch */
+    @Key(QUEUE_LOG_WRITER_FLUSH_MILLIS)
+    @Default("100")
+    long getLogWriterFlushMillis();
+
+    /** Fraction of successful operations to record in the audit log, zero to disable (errors always recorded) */
+    @Key(QUEUE_AUDIT_LOG_SAMPLE_RATE)
+    @Default("1.0")
+    double getAuditLogSampleRate();
+
+    /** Per-queue overrides of audit log sample rate, e.g. "queue1:0.1,queue2:0" */
+    @Key(QUEUE_AUDIT_LOG_QUEUE_SAMPLE_RATES)
+    @Default("")
+    String getAuditLogQueueSampleRates();
+
+    /** Number of partitions to split each queue into, each with its own shards and queue actor */
+    @Key(QUEUE_PARTITIONS)
+    @Default("1")
+    int getNumQueuePartitions();
+
+    /** Per-queue overrides of number of partitions, e.g. "index:8,utility:2" */
+    @Key(QUEUE_QUEUE_PARTITIONS)
+    @Default("")
+    String getQueuePartitions();
+
+    /**
+     * How often a long-polling get from a partitioned queue re-scans all partitions, in case the queue actor of a
+     * partition fails to wake it when messages arrive.
+     */
+    @Key(QUEUE_PARTITIONS_RESCAN_MILLIS)
+    @Default("10000")
+    long getPartitionsRescanMillis();
 }
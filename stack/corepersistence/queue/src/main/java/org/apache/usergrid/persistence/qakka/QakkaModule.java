@@ -35,21 +35,29 @@ import org.apache.usergrid.persistence.qakka.distributed.impl.DistributedQueueSe
 import org.apache.usergrid.persistence.qakka.distributed.impl.QueueActorRouterProducer;
 import org.apache.usergrid.persistence.qakka.distributed.impl.QueueSenderRouterProducer;
 import org.apache.usergrid.persistence.qakka.distributed.impl.QueueWriterRouterProducer;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.impl.AuditLogSerializationImpl;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.impl.InMemoryAuditLogSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.MessageCounterSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl.InMemoryMessageCounterSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl.InMemoryQueueMessageSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl.MessageCounterSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl.QueueMessageSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.queues.QueueSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.queues.impl.InMemoryQueueSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queues.impl.QueueSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardCounterSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardStrategy;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.InMemoryShardCounterSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.InMemoryShardSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.ShardCounterSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.ShardSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.ShardStrategyImpl;
 import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.impl.InMemoryTransferLogSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.transferlog.impl.TransferLogSerializationImpl;
 import org.safehaus.guicyfig.GuicyFigModule;
 import org.slf4j.Logger;
@@ -61,6 +69,16 @@ import java.io.IOException;
 public class QakkaModule extends AbstractModule {
     private static final Logger logger = LoggerFactory.getLogger( QakkaModule.class );
 
+    /**
+     * Where queues, messages, shards, counters and logs are stored. IN_MEMORY is for benchmarks and tests
+     * that run without Cassandra: it needs no CommonModule, and logs are always written synchronously.
+     */
+    public enum Storage {
+        CASSANDRA, IN_MEMORY
+    }
+
+    private final Storage storage;
+
     static {
         try {
             // TODO: reconcile with usergrid props
@@ -71,6 +89,16 @@ public class QakkaModule extends AbstractModule {
         }
     }
 
+    public QakkaModule() {
+        this( Storage.CASSANDRA );
+    }
+
+
+    public QakkaModule( Storage storage ) {
+        this.storage = storage;
+    }
+
+
     @Override
     protected void configure() {
 
@@ -78,29 +106,46 @@ public class QakkaModule extends AbstractModule {
 
         bind( App.class );
 
-        bind( CassandraClient.class ).to(             CassandraClientImpl.class );
         bind( MetricsService.class ).to(              App.class );
 
         bind( QueueManager.class ).to(                QueueManagerImpl.class );
-        bind( QueueSerialization.class ).to(          QueueSerializationImpl.class );
-
         bind( QueueMessageManager.class ).to(         QueueMessageManagerImpl.class );
-        bind( QueueMessageSerialization.class ).to(   QueueMessageSerializationImpl.class );
-
-        bind( ShardSerialization.class ).to(          ShardSerializationImpl.class );
         bind( ShardStrategy.class ).to(               ShardStrategyImpl.class );
-
-        bind( ShardCounterSerialization.class ).to(   ShardCounterSerializationImpl.class );
-        bind( MessageCounterSerialization.class ).to( MessageCounterSerializationImpl.class );
-
-        bind( TransferLogSerialization.class ).to(    TransferLogSerializationImpl.class );
-        bind( AuditLogSerialization.class ).to(       AuditLogSerializationImpl.class );
         bind( DistributedQueueService.class ).to(     DistributedQueueServiceImpl.class );
 
+        switch ( storage ) {
+
+            case CASSANDRA:
+                bind( CassandraClient.class ).to(             CassandraClientImpl.class );
+                bind( QueueSerialization.class ).to(          QueueSerializationImpl.class );
+                bind( QueueMessageSerialization.class ).to(   QueueMessageSerializationImpl.class );
+                bind( ShardSerialization.class ).to(          ShardSerializationImpl.class );
+                bind( ShardCounterSerialization.class ).to(   ShardCounterSerializationImpl.class );
+                bind( MessageCounterSerialization.class ).to( MessageCounterSerializationImpl.class );
+                bind( TransferLogSerialization.class ).to(    TransferLogSerializationImpl.class );
+                bind( AuditLogSerialization.class ).to(       AuditLogSerializationImpl.class );
+                break;
+
+            case IN_MEMORY:
+                bind( CassandraClient.class ).to(             InMemoryCassandraClient.class );
+                bind( QueueSerialization.class ).to(          InMemoryQueueSerialization.class );
+                bind( QueueMessageSerialization.class ).to(   InMemoryQueueMessageSerialization.class );
+                bind( ShardSerialization.class ).to(          InMemoryShardSerialization.class );
+                bind( ShardCounterSerialization.class ).to(   InMemoryShardCounterSerialization.class );
+                bind( MessageCounterSerialization.class ).to( InMemoryMessageCounterSerialization.class );
+                bind( TransferLogSerialization.class ).to(    InMemoryTransferLogSerialization.class );
+                bind( AuditLogSerialization.class ).to(       InMemoryAuditLogSerialization.class );
+                break;
+
+            default:
+                throw new IllegalArgumentException( "Storage value of " + storage + " not allowed" );
+        }
+
         bind( QueueActorRouterProducer.class );
         bind( QueueWriterRouterProducer.class );
         bind( QueueSenderRouterProducer.class );
         bind( QueueActorHelper.class );
+        bind( AsyncLogWriter.class );
 
         bind( Regions.class );
         bind( URIStrategy.class ).to( URIStrategyLocalhost.class );
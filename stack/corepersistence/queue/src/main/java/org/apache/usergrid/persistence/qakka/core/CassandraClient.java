@@ -29,4 +29,9 @@ public interface CassandraClient {
     Session getApplicationSession();
 
     Session getQueueMessageSession();
+
+    /**
+     * True if there are sessions to execute statements with, false with in-memory storage.
+     */
+    boolean hasSessions();
 }
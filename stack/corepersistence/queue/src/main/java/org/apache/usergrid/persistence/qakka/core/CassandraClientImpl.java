@@ -59,4 +59,10 @@ public class CassandraClientImpl implements CassandraClient {
         }
         return queueMessageSession;
     }
+
+
+    @Override
+    public boolean hasSessions() {
+        return true;
+    }
 }
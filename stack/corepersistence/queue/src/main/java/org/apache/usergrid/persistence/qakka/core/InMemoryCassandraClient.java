@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.core;
+
+import com.datastax.driver.core.Session;
+import com.google.inject.Singleton;
+
+
+/**
+ * Stand-in for the Cassandra client when Qakka runs with in-memory storage (see QakkaModule.Storage).
+ * The in-memory serializations never need a session, so any attempt to get one is an error, and the log writer
+ * writes synchronously instead of executing statements.
+ */
+@Singleton
+public class InMemoryCassandraClient implements CassandraClient {
+
+
+    @Override
+    public Session getApplicationSession() {
+        throw new UnsupportedOperationException( "No Cassandra session available with in-memory storage" );
+    }
+
+
+    @Override
+    public Session getQueueMessageSession() {
+        throw new UnsupportedOperationException( "No Cassandra session available with in-memory storage" );
+    }
+
+
+    @Override
+    public boolean hasSessions() {
+        return false;
+    }
+}
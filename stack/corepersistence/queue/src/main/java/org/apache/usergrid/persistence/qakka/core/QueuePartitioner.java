@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.core;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+
+/**
+ * Splits a queue into partitions so that reads and writes of one busy queue can be spread over many queue actors.
+ *
+ * Each partition is stored as an internal queue with its own shards, counters and queue actor. Partition zero
+ * has the same name as the queue itself, so that a queue that was not partitioned before keeps its messages in
+ * partition zero. Reducing the number of partitions of a queue strands any messages in the removed partitions.
+ *
+ * Partition names join the queue name and partition number with a reserved separator that queue names may not
+ * contain, so that a queue name is never mistaken for a partition name. The separator must be valid in Akka actor
+ * names, since queue actors name their children after the queue.
+ *
+ * The partition of a queue message is kept in the clock sequence of its queue message id, so that acks can go
+ * straight to the partition of a message got via any node. Such ids are marked with the reserved variant bits
+ * 110, which time UUIDs from the driver never carry, so that the random clock sequence of a queue message id
+ * written before the queue was partitioned is never read as a partition.
+ */
+@Singleton
+public class QueuePartitioner {
+    private static final Logger logger = LoggerFactory.getLogger( QueuePartitioner.class );
+
+    /** Separator of queue name and partition number in partition names, not allowed in queue names */
+    public static final String PARTITION_SEPARATOR = "!";
+
+    /** Partitions are numbered within the 13 bits of the clock sequence below the variant bits */
+    public static final int MAX_PARTITIONS = 1 << 13;
+
+    private static final long VARIANT_MASK = 0xE000000000000000L;
+
+    private static final long PARTITIONED_VARIANT = 0xC000000000000000L;
+
+    private static final long PARTITION_MASK = (long)( MAX_PARTITIONS - 1 ) << 48;
+
+    private final QakkaFig qakkaFig;
+
+    private String partitionsConfig = null;
+    private Map<String, Integer> partitionsByQueueName = Collections.emptyMap();
+
+
+    @Inject
+    public QueuePartitioner( QakkaFig qakkaFig ) {
+        this.qakkaFig = qakkaFig;
+    }
+
+
+    public int getNumPartitions( String queueName ) {
+
+        String config = qakkaFig.getQueuePartitions();
+
+        Map<String, Integer> partitions;
+        synchronized ( this ) {
+            if ( !Objects.equals( config, partitionsConfig ) ) {
+                partitionsByQueueName = parsePartitions( config );
+                partitionsConfig = config;
+            }
+            partitions = partitionsByQueueName;
+        }
+
+        Integer numPartitions = partitions.get( queueName );
+        numPartitions = numPartitions != null ? numPartitions : qakkaFig.getNumQueuePartitions();
+        return Math.min( MAX_PARTITIONS, Math.max( 1, numPartitions ) );
+    }
+
+
+    /**
+     * Names of all partitions of queue, partition zero first.
+     */
+    public List<String> getPartitionNames( String queueName ) {
+
+        int numPartitions = getNumPartitions( queueName );
+
+        List<String> partitionNames = new ArrayList<>( numPartitions );
+        for ( int partition = 0; partition < numPartitions; partition++ ) {
+            partitionNames.add( getPartitionName( queueName, partition ) );
+        }
+        return partitionNames;
+    }
+
+
+    /**
+     * Partition that stores the queue message for message, the same for every send of that message.
+     */
+    public int getPartition( String queueName, UUID messageId ) {
+        return Math.floorMod( messageId.hashCode(), getNumPartitions( queueName ) );
+    }
+
+
+    /**
+     * Name of partition that stores the queue message for message, the same for every send of that message.
+     */
+    public String getPartitionName( String queueName, UUID messageId ) {
+        return getPartitionName( queueName, getPartition( queueName, messageId ) );
+    }
+
+
+    /**
+     * Name of partition that stores the queue message with queue message id. Messages whose id carries no
+     * partition, because they were written before the queue was partitioned, or whose partition was since
+     * removed, are in partition zero.
+     */
+    public String getPartitionNameOfQueueMessage( String queueName, UUID queueMessageId ) {
+        int partition = getPartitionOfQueueMessage( queueMessageId );
+        return getPartitionName( queueName, partition < getNumPartitions( queueName ) ? partition : 0 );
+    }
+
+
+    /**
+     * Partition carried by queue message id, zero if the id does not carry a partition.
+     */
+    public static int getPartitionOfQueueMessage( UUID queueMessageId ) {
+        long leastSigBits = queueMessageId.getLeastSignificantBits();
+        if ( ( leastSigBits & VARIANT_MASK ) != PARTITIONED_VARIANT ) {
+            return 0;
+        }
+        return (int)( ( leastSigBits & PARTITION_MASK ) >>> 48 );
+    }
+
+
+    /**
+     * New time UUID for a queue message stored in partition, with the partitioned variant bits and the partition
+     * as its clock sequence. The node part of the UUID still differs between nodes and processes.
+     */
+    public static UUID createQueueMessageId( int partition ) {
+        UUID timeUuid = QakkaUtils.getTimeUuid();
+        long leastSigBits = ( timeUuid.getLeastSignificantBits() & ~( VARIANT_MASK | PARTITION_MASK ) )
+            | PARTITIONED_VARIANT | ( (long)partition << 48 );
+        return new UUID( timeUuid.getMostSignificantBits(), leastSigBits );
+    }
+
+
+    public static String getPartitionName( String queueName, int partition ) {
+        return partition == 0 ? queueName : queueName + PARTITION_SEPARATOR + partition;
+    }
+
+
+    /**
+     * True if name may be used as a queue name, that is it does not contain the reserved partition separator.
+     */
+    public static boolean isValidQueueName( String queueName ) {
+        return !queueName.contains( PARTITION_SEPARATOR );
+    }
+
+
+    /**
+     * Name of queue that partition belongs to.
+     */
+    public static String getQueueName( String partitionName ) {
+        int separator = partitionName.lastIndexOf( PARTITION_SEPARATOR );
+        if ( separator > 0 ) {
+            String partition = partitionName.substring( separator + PARTITION_SEPARATOR.length() );
+            if ( !partition.isEmpty() && partition.chars().allMatch( Character::isDigit ) ) {
+                return partitionName.substring( 0, separator );
+            }
+        }
+        return partitionName;
+    }
+
+
+    static Map<String, Integer> parsePartitions( String config ) {
+
+        Map<String, Integer> partitions = new HashMap<>();
+
+        if ( config == null ) {
+            return partitions;
+        }
+
+        for ( String entry : config.split( "," ) ) {
+            int separator = entry.lastIndexOf( ':' );
+            if ( separator < 1 ) {
+                continue;
+            }
+            try {
+                String queueName = entry.substring( 0, separator ).trim();
+                partitions.put( queueName, Integer.parseInt( entry.substring( separator + 1 ).trim() ) );
+            } catch ( NumberFormatException e ) {
+                logger.warn( "Ignoring invalid number of queue partitions: {}", entry );
+            }
+        }
+        return partitions;
+    }
+}
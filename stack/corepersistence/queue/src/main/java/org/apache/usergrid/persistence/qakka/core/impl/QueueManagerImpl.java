@@ -25,6 +25,7 @@ import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
 import org.apache.usergrid.persistence.qakka.core.Queue;
 import org.apache.usergrid.persistence.qakka.core.QueueManager;
+import org.apache.usergrid.persistence.qakka.core.QueuePartitioner;
 import org.apache.usergrid.persistence.qakka.core.Regions;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
@@ -47,6 +48,7 @@ public class QueueManagerImpl implements QueueManager {
     private final DistributedQueueService     distributedQueueService;
     private final ShardSerialization          shardSerialization;
     private final MessageCounterSerialization messageCounterSerialization;
+    private final QueuePartitioner            queuePartitioner;
 
 
     @Inject
@@ -55,18 +57,24 @@ public class QueueManagerImpl implements QueueManager {
         QueueSerialization          queueSerialization,
         DistributedQueueService     distributedQueueService,
         ShardSerialization          shardSerialization,
-        MessageCounterSerialization messageCounterSerialization) {
+        MessageCounterSerialization messageCounterSerialization,
+        QueuePartitioner            queuePartitioner) {
 
         this.actorSystemFig              = actorSystemFig;
         this.queueSerialization          = queueSerialization;
         this.distributedQueueService     = distributedQueueService;
         this.shardSerialization          = shardSerialization;
         this.messageCounterSerialization = messageCounterSerialization;
+        this.queuePartitioner            = queuePartitioner;
     }
 
     @Override
     public void  createQueue(Queue queue) {
 
+        if ( !QueuePartitioner.isValidQueueName( queue.getName() ) ) {
+            throw new IllegalArgumentException( "Queue name may not contain '" + QueuePartitioner.PARTITION_SEPARATOR + "'" );
+        }
+
         logger.info("Creating queue with name: {}", queue.getName());
 
         List<String> regions = new ArrayList<>();
@@ -84,20 +92,27 @@ public class QueueManagerImpl implements QueueManager {
             }
         }
 
-        Shard available = new Shard( queue.getName(), actorSystemFig.getRegionLocal(),
-            Shard.Type.DEFAULT, 1L, QakkaUtils.getTimeUuid());
-        shardSerialization.createShard( available );
+        List<String> partitionNames = queuePartitioner.getPartitionNames( queue.getName() );
+
+        for ( String partitionName : partitionNames ) {
 
-        Shard inflight = new Shard( queue.getName(), actorSystemFig.getRegionLocal(),
-            Shard.Type.INFLIGHT, 1L, QakkaUtils.getTimeUuid());
-        shardSerialization.createShard( inflight );
+            Shard available = new Shard( partitionName, actorSystemFig.getRegionLocal(),
+                Shard.Type.DEFAULT, 1L, QakkaUtils.getTimeUuid());
+            shardSerialization.createShard( available );
+
+            Shard inflight = new Shard( partitionName, actorSystemFig.getRegionLocal(),
+                Shard.Type.INFLIGHT, 1L, QakkaUtils.getTimeUuid());
+            shardSerialization.createShard( inflight );
+        }
 
         // only write the existence of a queue to the database if its dependent initial shards have been written
         queueSerialization.writeQueue(queue.toDatabaseQueue());
 
         // init counters
-        messageCounterSerialization.incrementCounter( queue.getName(), DatabaseQueueMessage.Type.DEFAULT, 0L );
-        messageCounterSerialization.incrementCounter( queue.getName(), DatabaseQueueMessage.Type.INFLIGHT, 0L );
+        for ( String partitionName : partitionNames ) {
+            messageCounterSerialization.incrementCounter( partitionName, DatabaseQueueMessage.Type.DEFAULT, 0L );
+            messageCounterSerialization.incrementCounter( partitionName, DatabaseQueueMessage.Type.INFLIGHT, 0L );
+        }
 
         //distributedQueueService.initQueue( queue.getName() );
         distributedQueueService.refreshQueue( queue.getName() );
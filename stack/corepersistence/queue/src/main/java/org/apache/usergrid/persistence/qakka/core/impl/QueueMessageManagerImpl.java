@@ -28,12 +28,12 @@ import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService
 import org.apache.usergrid.persistence.qakka.exceptions.BadRequestException;
 import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaRuntimeException;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessageBody;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.MessageCounterSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
-import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,11 +55,12 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
     private final QueueManager                queueManager;
     private final QueueMessageSerialization   queueMessageSerialization;
     private final DistributedQueueService     distributedQueueService;
-    private final TransferLogSerialization    transferLogSerialization;
+    private final AsyncLogWriter              logWriter;
     private final URIStrategy                 uriStrategy;
     private final MessageCounterSerialization messageCounterSerialization;
     private final ShardSerialization          shardSerialization;
     private final CassandraClient             cassandraClient;
+    private final QueuePartitioner            queuePartitioner;
 
     @Inject
     public QueueMessageManagerImpl(
@@ -67,21 +68,23 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
         QueueManager                queueManager,
         QueueMessageSerialization   queueMessageSerialization,
         DistributedQueueService     distributedQueueService,
-        TransferLogSerialization    transferLogSerialization,
+        AsyncLogWriter              logWriter,
         URIStrategy                 uriStrategy,
         MessageCounterSerialization messageCounterSerialization,
         ShardSerialization          shardSerialization,
-        CassandraClient             cassandraClient ) {
+        CassandraClient             cassandraClient,
+        QueuePartitioner            queuePartitioner ) {
 
         this.actorSystemFig              = actorSystemFig;
         this.queueManager                = queueManager;
         this.queueMessageSerialization   = queueMessageSerialization;
         this.distributedQueueService     = distributedQueueService;
-        this.transferLogSerialization    = transferLogSerialization;
+        this.logWriter                   = logWriter;
         this.uriStrategy                 = uriStrategy;
         this.messageCounterSerialization = messageCounterSerialization;
         this.shardSerialization          = shardSerialization;
         this.cassandraClient             = cassandraClient;
+        this.queuePartitioner            = queuePartitioner;
     }
 
 
@@ -117,7 +120,7 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
 
         for (String region : destinationRegions) {
 
-            transferLogSerialization.recordTransferLog(
+            logWriter.recordTransferLog(
                     queueName, actorSystemFig.getRegionLocal(), region, messageId );
 
             // send message to destination region's queue
@@ -242,8 +245,10 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
 
     @Override
     public void clearMessages( String queueName ) {
-        queueMessageSerialization.deleteAllMessages( queueName );
-        shardSerialization.deleteAllShards( queueName, actorSystemFig.getRegionLocal() );
+        for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
+            queueMessageSerialization.deleteAllMessages( partitionName );
+            shardSerialization.deleteAllShards( partitionName, actorSystemFig.getRegionLocal() );
+        }
     }
 
 
@@ -261,20 +266,28 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
     public QueueMessage getMessage( String queueName, UUID queueMessageId ) {
 
         QueueMessage queueMessage = null;
+        DatabaseQueueMessage dbMessage = null;
 
-        // first look in INFLIGHT storage
+        for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
 
-        DatabaseQueueMessage dbMessage = queueMessageSerialization.loadMessage(
-                queueName, actorSystemFig.getRegionLocal(), null,
-                DatabaseQueueMessage.Type.INFLIGHT, queueMessageId );
+            // first look in INFLIGHT storage
 
-        if ( dbMessage == null ) {
+            dbMessage = queueMessageSerialization.loadMessage(
+                    partitionName, actorSystemFig.getRegionLocal(), null,
+                    DatabaseQueueMessage.Type.INFLIGHT, queueMessageId );
 
-            // not found, so now look in DEFAULT storage
+            if ( dbMessage == null ) {
 
-            dbMessage = queueMessageSerialization.loadMessage(
-                queueName, actorSystemFig.getRegionLocal(), null,
-                DatabaseQueueMessage.Type.DEFAULT, queueMessageId );
+                // not found, so now look in DEFAULT storage
+
+                dbMessage = queueMessageSerialization.loadMessage(
+                    partitionName, actorSystemFig.getRegionLocal(), null,
+                    DatabaseQueueMessage.Type.DEFAULT, queueMessageId );
+            }
+
+            if ( dbMessage != null ) {
+                break;
+            }
         }
 
         if ( dbMessage != null ) {
@@ -297,7 +310,19 @@ public class QueueMessageManagerImpl implements QueueMessageManager {
 
     @Override
     public long getQueueDepth( String queueName, DatabaseQueueMessage.Type type ) {
-        return messageCounterSerialization.getCounterValue( queueName, type );
+        long depth = 0;
+        for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
+            try {
+                depth += messageCounterSerialization.getCounterValue( partitionName, type );
+
+            } catch ( NotFoundException e ) {
+                // partition added since queue was created has no counter until it is first written to
+                if ( partitionName.equals( queueName ) ) {
+                    throw e;
+                }
+            }
+        }
+        return depth;
     }
 
 }
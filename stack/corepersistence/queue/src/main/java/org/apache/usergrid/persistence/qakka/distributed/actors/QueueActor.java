@@ -34,8 +34,10 @@ import org.apache.usergrid.persistence.qakka.distributed.messages.*;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 public class QueueActor extends UntypedActor {
@@ -52,6 +54,9 @@ public class QueueActor extends UntypedActor {
     private final Map<String, ActorRef> queueTimeoutersByQueueName = new HashMap<>();
     private final Map<String, ActorRef> shardAllocatorsByQueueName = new HashMap<>();
 
+    /** Long-poll get requests waiting for messages to arrive, oldest first */
+    private final Map<String, Deque<PendingGet>> pendingGetsByQueueName = new HashMap<>();
+
 
     @Inject
     public QueueActor(
@@ -89,10 +94,25 @@ public class QueueActor extends UntypedActor {
                 queueReadersByQueueName.get( request.getQueueName() ).tell( request, self() );
 
             } else {
-                queueActorHelper.queueRefresh( request.getQueueName() );
+                if ( queueActorHelper.queueRefresh( request.getQueueName() ) > 0 ) {
+                    answerPendingGets( request.getQueueName() );
+                }
             }
 
 
+        } else if ( message instanceof QueueRefreshResponse ) {
+            QueueRefreshResponse response = (QueueRefreshResponse) message;
+
+            // queue's reader has loaded new messages, wake up any waiting get requests
+            answerPendingGets( response.getQueueName() );
+
+
+        } else if ( message instanceof QueueGetExpiredRequest ) {
+            QueueGetExpiredRequest request = (QueueGetExpiredRequest) message;
+
+            answerPendingGets( request.getQueueName() );
+
+
         } else if ( message instanceof QueueTimeoutRequest ) {
             QueueTimeoutRequest request = (QueueTimeoutRequest)message;
 
@@ -131,14 +151,25 @@ public class QueueActor extends UntypedActor {
             Timer.Context timer = metricsService.getMetricRegistry().timer( MetricsService.GET_TIME_GET ).time();
             try {
 
-                Collection<DatabaseQueueMessage> messages = queueActorHelper.getMessages( queueName, numRequested);
+                // a request for no messages only waits until messages are available
+                Collection<DatabaseQueueMessage> messages = numRequested > 0
+                    ? queueActorHelper.getMessages( queueName, numRequested ) : Collections.emptyList();
+                boolean available = numRequested > 0 ? !messages.isEmpty() : queueActorHelper.hasMessages( queueName );
 
-                if ( !messages.isEmpty() ) {
-                    logger.trace("{}: Returning queue {} messages {}", name, queueName, messages.size() );
-                }
+                if ( !available && queueGetRequest.getWaitMillis() > 0 ) {
 
-                getSender().tell( new QueueGetResponse(
+                    // nothing available now: hold on to request until messages arrive or wait time is up
+                    addPendingGet( queueGetRequest, getSender() );
+
+                } else {
+
+                    if ( !messages.isEmpty() ) {
+                        logger.trace("{}: Returning queue {} messages {}", name, queueName, messages.size() );
+                    }
+
+                    getSender().tell( new QueueGetResponse(
                         DistributedQueueService.Status.SUCCESS, messages, queueName ), getSender() );
+                }
 
             } finally {
                 timer.close();
@@ -151,5 +182,102 @@ public class QueueActor extends UntypedActor {
     }
 
 
+    @Override
+    public void postStop() {
+
+        // don't leave waiting clients hanging until their ask times out
+        for ( Deque<PendingGet> pendingGets : pendingGetsByQueueName.values() ) {
+            for ( PendingGet pendingGet : pendingGets ) {
+                pendingGet.sender.tell( new QueueGetResponse(
+                    DistributedQueueService.Status.SUCCESS, pendingGet.queueName ), getSelf() );
+            }
+        }
+        pendingGetsByQueueName.clear();
+    }
+
+
+    private void addPendingGet( QueueGetRequest request, ActorRef sender ) {
+
+        String queueName = request.getQueueName();
+
+        Deque<PendingGet> pendingGets = pendingGetsByQueueName.get( queueName );
+        if ( pendingGets == null ) {
+            pendingGets = new ArrayDeque<>();
+            pendingGetsByQueueName.put( queueName, pendingGets );
+        }
+        pendingGets.add( new PendingGet( request, sender ) );
+
+        getContext().system().scheduler().scheduleOnce(
+            Duration.create( request.getWaitMillis(), TimeUnit.MILLISECONDS ),
+            getSelf(),
+            new QueueGetExpiredRequest( queueName ),
+            getContext().dispatcher(),
+            getSelf() );
+
+        logger.trace( "{}: Queue {} is empty, waiting {} ms for messages ({} waiting)",
+            name, queueName, request.getWaitMillis(), pendingGets.size() );
+    }
+
+
+    /**
+     * Answer waiting get requests for queue, in order of arrival, for as long as there are messages available.
+     * Requests that only wait are answered without messages while messages are available. Requests whose wait
+     * time is up are answered even if there are no messages for them.
+     */
+    private void answerPendingGets( String queueName ) {
+
+        Deque<PendingGet> pendingGets = pendingGetsByQueueName.get( queueName );
+        if ( pendingGets == null ) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean queueEmpty = false;
+
+        Iterator<PendingGet> iter = pendingGets.iterator();
+        while ( iter.hasNext() ) {
+            PendingGet pendingGet = iter.next();
+
+            Collection<DatabaseQueueMessage> messages = Collections.emptyList();
+            boolean available = false;
+            if ( !queueEmpty ) {
+                if ( pendingGet.numRequested > 0 ) {
+                    messages = queueActorHelper.getMessages( queueName, pendingGet.numRequested );
+                    available = !messages.isEmpty();
+                    queueEmpty = !available;
+                } else {
+                    available = queueActorHelper.hasMessages( queueName );
+                }
+            }
+
+            if ( available || now >= pendingGet.expirationTime ) {
+                logger.trace( "{}: Returning queue {} messages {} to waiting request",
+                    name, queueName, messages.size() );
+
+                pendingGet.sender.tell( new QueueGetResponse(
+                    DistributedQueueService.Status.SUCCESS, messages, queueName ), getSelf() );
+                iter.remove();
+            }
+        }
+
+        if ( pendingGets.isEmpty() ) {
+            pendingGetsByQueueName.remove( queueName );
+        }
+    }
+
+
+    private static class PendingGet {
+        final String   queueName;
+        final int      numRequested;
+        final long     expirationTime;
+        final ActorRef sender;
+
+        PendingGet( QueueGetRequest request, ActorRef sender ) {
+            this.queueName      = request.getQueueName();
+            this.numRequested   = request.getNumRequested();
+            this.expirationTime = System.currentTimeMillis() + request.getWaitMillis();
+            this.sender         = sender;
+        }
+    }
 
 }
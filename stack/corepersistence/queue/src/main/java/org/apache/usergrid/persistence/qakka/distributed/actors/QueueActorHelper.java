@@ -27,16 +27,14 @@ import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.model.util.UUIDGenerator;
 import org.apache.usergrid.persistence.qakka.MetricsService;
 import org.apache.usergrid.persistence.qakka.QakkaFig;
-import org.apache.usergrid.persistence.qakka.core.CassandraClient;
 import org.apache.usergrid.persistence.qakka.core.impl.InMemoryQueue;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
-import org.apache.usergrid.persistence.qakka.serialization.MultiShardMessageIterator;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
-import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
-import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardIterator;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,11 +49,11 @@ public class QueueActorHelper {
 
     private final ActorSystemFig            actorSystemFig;
     private final QueueMessageSerialization messageSerialization;
-    private final AuditLogSerialization     auditLogSerialization;
+    private final AsyncLogWriter            logWriter;
     private final InMemoryQueue             inMemoryQueue;
     private final QakkaFig                  qakkaFig;
     private final MetricsService            metricsService;
-    private final CassandraClient           cassandraClient;
+    private final ShardSerialization        shardSerialization;
 
     private Map<String, Long> startingShards = new HashMap<>();
     private Map<String, Long> lastRefreshTimeMillis = new HashMap<>();
@@ -67,19 +65,19 @@ public class QueueActorHelper {
             QakkaFig                  qakkaFig,
             ActorSystemFig            actorSystemFig,
             QueueMessageSerialization messageSerialization,
-            AuditLogSerialization     auditLogSerialization,
+            AsyncLogWriter            logWriter,
             InMemoryQueue             inMemoryQueue,
             MetricsService            metricsService,
-            CassandraClient           cassandraClient
+            ShardSerialization        shardSerialization
             ) {
 
         this.actorSystemFig        = actorSystemFig;
         this.messageSerialization  = messageSerialization;
-        this.auditLogSerialization = auditLogSerialization;
+        this.logWriter             = logWriter;
         this.inMemoryQueue         = inMemoryQueue;
         this.qakkaFig              = qakkaFig;
         this.metricsService        = metricsService;
-        this.cassandraClient       = cassandraClient;
+        this.shardSerialization    = shardSerialization;
     }
 
 
@@ -102,6 +100,14 @@ public class QueueActorHelper {
     }
 
 
+    /**
+     * True if messages are known to be available in the in-memory queue, without taking any of them.
+     */
+    boolean hasMessages( String queueName ) {
+        return qakkaFig.getInMemoryCache() && inMemoryQueue.peek( queueName ) != null;
+    }
+
+
     Collection<DatabaseQueueMessage> getMessages(String queueName, int numRequested ) {
 
         if ( qakkaFig.getInMemoryCache() ) {
@@ -156,11 +162,11 @@ public class QueueActorHelper {
 
         String region = actorSystemFig.getRegionLocal();
 
-        ShardIterator shardIterator = new ShardIterator(
-            cassandraClient, queueName, region, Shard.Type.DEFAULT, Optional.empty() );
+        Iterator<Shard> shardIterator = shardSerialization.getShardIterator(
+            queueName, region, Shard.Type.DEFAULT, Optional.empty() );
 
-        MultiShardMessageIterator multiShardIterator = new MultiShardMessageIterator(
-            cassandraClient, queueName, region, DatabaseQueueMessage.Type.DEFAULT, shardIterator, since);
+        Iterator<DatabaseQueueMessage> multiShardIterator = messageSerialization.getMessageIterator(
+            queueName, region, DatabaseQueueMessage.Type.DEFAULT, shardIterator, since);
 
         int count = 0;
 
@@ -201,7 +207,7 @@ public class QueueActorHelper {
             logger.error("Error putting inflight queue message "
                 + qmid + " queue name: " + queueMessage.getQueueName(), t);
 
-            auditLogSerialization.recordAuditLog(
+            logWriter.recordAuditLog(
                 AuditLog.Action.GET,
                 AuditLog.Status.ERROR,
                 queueMessage.getQueueName(),
@@ -212,7 +218,7 @@ public class QueueActorHelper {
             return false;
         }
 
-        auditLogSerialization.recordAuditLog(
+        logWriter.recordAuditLog(
             AuditLog.Action.GET,
             AuditLog.Status.SUCCESS,
             queueMessage.getQueueName(),
@@ -254,7 +260,7 @@ public class QueueActorHelper {
 
         if ( !error ) {
 
-            auditLogSerialization.recordAuditLog(
+            logWriter.recordAuditLog(
                     AuditLog.Action.ACK,
                     AuditLog.Status.SUCCESS,
                     queueName,
@@ -266,7 +272,7 @@ public class QueueActorHelper {
 
         } else {
 
-            auditLogSerialization.recordAuditLog(
+            logWriter.recordAuditLog(
                     AuditLog.Action.ACK,
                     AuditLog.Status.ERROR,
                     queueName,
@@ -279,10 +285,17 @@ public class QueueActorHelper {
     }
 
 
-    void queueRefresh( String queueName ) {
+    /**
+     * Load messages from storage into the queue's in-memory cache.
+     *
+     * @return Number of messages added to the in-memory queue.
+     */
+    int queueRefresh( String queueName ) {
 
         Timer.Context timer = metricsService.getMetricRegistry().timer( MetricsService.REFRESH_TIME).time();
 
+        int count = 0;
+
         try {
 
             if (inMemoryQueue.size( queueName ) < qakkaFig.getQueueInMemorySize()) {
@@ -305,19 +318,16 @@ public class QueueActorHelper {
                     shardIdOptional = Optional.empty();
                 }
 
-                ShardIterator shardIterator = new ShardIterator(
-                    cassandraClient, queueName, actorSystemFig.getRegionLocal(),
-                    Shard.Type.DEFAULT, shardIdOptional );
+                Iterator<Shard> shardIterator = shardSerialization.getShardIterator(
+                    queueName, actorSystemFig.getRegionLocal(), Shard.Type.DEFAULT, shardIdOptional );
 
                 UUID since = inMemoryQueue.getNewest( queueName );
                 String region = actorSystemFig.getRegionLocal();
 
-                MultiShardMessageIterator multiShardIterator = new MultiShardMessageIterator(
-                    cassandraClient, queueName, region, DatabaseQueueMessage.Type.DEFAULT,
-                    shardIterator, since);
+                Iterator<DatabaseQueueMessage> multiShardIterator = messageSerialization.getMessageIterator(
+                    queueName, region, DatabaseQueueMessage.Type.DEFAULT, shardIterator, since);
 
                 int need = qakkaFig.getQueueInMemorySize() - inMemoryQueue.size( queueName );
-                int count = 0;
 
                 while ( multiShardIterator.hasNext() && count < need ) {
                     DatabaseQueueMessage queueMessage = multiShardIterator.next();
@@ -340,6 +350,7 @@ public class QueueActorHelper {
             timer.close();
         }
 
+        return count;
     }
 
     private String createShardKey(String queueName, Shard.Type type, String region ) {
@@ -22,6 +22,7 @@ package org.apache.usergrid.persistence.qakka.distributed.actors;
 import akka.actor.UntypedActor;
 import com.google.inject.Inject;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueRefreshRequest;
+import org.apache.usergrid.persistence.qakka.distributed.messages.QueueRefreshResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +46,12 @@ public class QueueRefresher extends UntypedActor {
 
             QueueRefreshRequest request = (QueueRefreshRequest) message;
             String queueName = request.getQueueName();
-            queueRefresh( queueName );
+            int count = queueRefresh( queueName );
+
+            if ( count > 0 ) {
+                // let queue actor know so it can answer any get requests that are waiting for messages
+                getSender().tell( new QueueRefreshResponse( queueName, count ), getSelf() );
+            }
 
         } else {
             unhandled( message );
@@ -53,7 +59,7 @@ public class QueueRefresher extends UntypedActor {
     }
 
 
-    void queueRefresh( String queueName ) {
-        queueActorHelper.queueRefresh( queueName );
+    int queueRefresh( String queueName ) {
+        return queueActorHelper.queueRefresh( queueName );
     }
 }
@@ -35,9 +35,8 @@ import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService
 import org.apache.usergrid.persistence.qakka.distributed.messages.*;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaException;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaRuntimeException;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
-import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
-import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.concurrent.Await;
@@ -53,8 +52,7 @@ public class QueueSender extends UntypedActor {
     private final String name = RandomStringUtils.randomAlphanumeric( 4 );
 
     private final ActorSystemManager        actorSystemManager;
-    private final TransferLogSerialization  transferLogSerialization;
-    private final AuditLogSerialization     auditLogSerialization;
+    private final AsyncLogWriter            logWriter;
     private final ActorSystemFig            actorSystemFig;
     private final QakkaFig                  qakkaFig;
     private final MetricsService            metricsService;
@@ -63,15 +61,13 @@ public class QueueSender extends UntypedActor {
     @Inject
     public QueueSender(
         ActorSystemManager        actorSystemManager,
-        TransferLogSerialization  transferLogSerialization,
-        AuditLogSerialization     auditLogSerialization,
+        AsyncLogWriter            logWriter,
         ActorSystemFig            actorSystemFig,
         QakkaFig                  qakkaFig,
         MetricsService            metricsService
     ) {
         this.actorSystemManager = actorSystemManager;
-        this.transferLogSerialization = transferLogSerialization;
-        this.auditLogSerialization = auditLogSerialization;
+        this.logWriter = logWriter;
         this.actorSystemFig = actorSystemFig;
         this.qakkaFig = qakkaFig;
         this.metricsService = metricsService;
@@ -189,7 +185,7 @@ public class QueueSender extends UntypedActor {
             logger.debug( "ERROR status sending message: {}, {}, {}, {}",
                     new Object[]{queueName, actorSystemFig.getRegionLocal(), region, messageId} );
 
-            auditLogSerialization.recordAuditLog(
+            logWriter.recordAuditLog(
                     AuditLog.Action.SEND,
                     AuditLog.Status.ERROR,
                     queueName,
@@ -202,7 +198,7 @@ public class QueueSender extends UntypedActor {
 
             // queue actor failed to clean up transfer log
             try {
-                transferLogSerialization.removeTransferLog(
+                logWriter.removeTransferLog(
                         queueName, actorSystemFig.getRegionLocal(), region, messageId );
 
             } catch (QakkaException se) {
@@ -26,17 +26,16 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.qakka.MetricsService;
 import org.apache.usergrid.persistence.qakka.QakkaFig;
-import org.apache.usergrid.persistence.qakka.core.CassandraClient;
 import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueTimeoutRequest;
-import org.apache.usergrid.persistence.qakka.serialization.MultiShardMessageIterator;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
-import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardIterator;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -50,7 +49,7 @@ public class QueueTimeouter extends UntypedActor {
     private final MetricsService            metricsService;
     private final ActorSystemFig            actorSystemFig;
     private final QakkaFig                  qakkaFig;
-    private final CassandraClient           cassandraClient;
+    private final ShardSerialization        shardSerialization;
 
 
     @Inject
@@ -59,13 +58,13 @@ public class QueueTimeouter extends UntypedActor {
         MetricsService            metricsService,
         ActorSystemFig            actorSystemFig,
         QakkaFig                  qakkaFig,
-        CassandraClient           cassandraClient
+        ShardSerialization        shardSerialization
     ) {
         this.messageSerialization = messageSerialization;
         this.metricsService = metricsService;
         this.actorSystemFig = actorSystemFig;
         this.qakkaFig = qakkaFig;
-        this.cassandraClient = cassandraClient;
+        this.shardSerialization = shardSerialization;
     }
 
 
@@ -87,11 +86,11 @@ public class QueueTimeouter extends UntypedActor {
                 int count = 0;
                 String region = actorSystemFig.getRegionLocal();
 
-                ShardIterator shardIterator = new ShardIterator(
-                        cassandraClient, queueName, region, Shard.Type.INFLIGHT, Optional.empty());
+                Iterator<Shard> shardIterator = shardSerialization.getShardIterator(
+                        queueName, region, Shard.Type.INFLIGHT, Optional.empty());
 
-                MultiShardMessageIterator multiShardIteratorInflight = new MultiShardMessageIterator(
-                        cassandraClient, queueName, region, DatabaseQueueMessage.Type.INFLIGHT, shardIterator, null);
+                Iterator<DatabaseQueueMessage> multiShardIteratorInflight = messageSerialization.getMessageIterator(
+                        queueName, region, DatabaseQueueMessage.Type.INFLIGHT, shardIterator, null);
 
                 while ( multiShardIteratorInflight.hasNext() ) {
 
@@ -24,17 +24,16 @@ import com.codahale.metrics.Timer;
 import com.google.inject.Inject;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.usergrid.persistence.qakka.MetricsService;
-import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
+import org.apache.usergrid.persistence.qakka.core.QueuePartitioner;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueAckRequest;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueAckResponse;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueWriteRequest;
 import org.apache.usergrid.persistence.qakka.distributed.messages.QueueWriteResponse;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
-import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
-import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,24 +48,24 @@ public class QueueWriter extends UntypedActor {
     private final String name = RandomStringUtils.randomAlphanumeric( 4 );
 
     private final QueueMessageSerialization messageSerialization;
-    private final TransferLogSerialization  transferLogSerialization;
-    private final AuditLogSerialization     auditLogSerialization;
+    private final AsyncLogWriter            logWriter;
     private final MetricsService            metricsService;
     private final QueueActorHelper          queueActorHelper;
+    private final QueuePartitioner          queuePartitioner;
 
     @Inject
     public QueueWriter(
         QueueMessageSerialization messageSerialization,
-        TransferLogSerialization  transferLogSerialization,
-        AuditLogSerialization     auditLogSerialization,
+        AsyncLogWriter            logWriter,
         MetricsService            metricsService,
-        QueueActorHelper          queueActorHelper
+        QueueActorHelper          queueActorHelper,
+        QueuePartitioner          queuePartitioner
     ) {
         this.messageSerialization     = messageSerialization;
-        this.transferLogSerialization = transferLogSerialization;
-        this.auditLogSerialization    = auditLogSerialization;
+        this.logWriter                = logWriter;
         this.metricsService           = metricsService;
         this.queueActorHelper         = queueActorHelper;
+        this.queuePartitioner         = queuePartitioner;
     }
 
     @Override
@@ -79,19 +78,23 @@ public class QueueWriter extends UntypedActor {
             try {
                 QueueWriteRequest qa = (QueueWriteRequest) message;
 
-                UUID queueMessageId = QakkaUtils.getTimeUuid();
-
                 // TODO: implement deliveryTime and expirationTime
 
                 DatabaseQueueMessage dbqm = null;
                 long currentTime = System.currentTimeMillis();
                 String queueName = qa.getQueueName();
 
+                // queue message is stored in one of the queue's partitions, transfer log is per queue
+                int partition = queuePartitioner.getPartition( queueName, qa.getMessageId() );
+                String partitionName = QueuePartitioner.getPartitionName( queueName, partition );
+
+                UUID queueMessageId = QueuePartitioner.createQueueMessageId( partition );
+
                 try {
                     dbqm = new DatabaseQueueMessage(
                             qa.getMessageId(),
                             DatabaseQueueMessage.Type.DEFAULT,
-                            qa.getQueueName(),
+                            partitionName,
                             qa.getDestRegion(),
                             null,
                             currentTime,
@@ -106,10 +109,10 @@ public class QueueWriter extends UntypedActor {
                 } catch (Throwable t) {
                     logger.debug("Error creating database queue message", t);
 
-                    auditLogSerialization.recordAuditLog(
+                    logWriter.recordAuditLog(
                             AuditLog.Action.SEND,
                             AuditLog.Status.ERROR,
-                            qa.getQueueName(),
+                            partitionName,
                             qa.getDestRegion(),
                             qa.getMessageId(),
                             dbqm.getMessageId() );
@@ -120,16 +123,16 @@ public class QueueWriter extends UntypedActor {
                     return;
                 }
 
-                auditLogSerialization.recordAuditLog(
+                logWriter.recordAuditLog(
                         AuditLog.Action.SEND,
                         AuditLog.Status.SUCCESS,
-                        qa.getQueueName(),
+                        partitionName,
                         qa.getDestRegion(),
                         qa.getMessageId(),
                         dbqm.getQueueMessageId() );
 
                 try {
-                    transferLogSerialization.removeTransferLog(
+                    logWriter.removeTransferLog(
                             qa.getQueueName(),
                             qa.getSourceRegion(),
                             qa.getDestRegion(),
@@ -29,21 +29,19 @@ import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.qakka.App;
 import org.apache.usergrid.persistence.qakka.MetricsService;
 import org.apache.usergrid.persistence.qakka.QakkaFig;
-import org.apache.usergrid.persistence.qakka.core.CassandraClient;
-import org.apache.usergrid.persistence.qakka.core.CassandraClientImpl;
 import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
 import org.apache.usergrid.persistence.qakka.distributed.messages.ShardCheckRequest;
 import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaRuntimeException;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardCounterSerialization;
-import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardIterator;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.ShardCounterSerializationImpl;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.impl.ShardSerializationImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -56,7 +54,6 @@ public class ShardAllocator extends UntypedActor {
     private final ShardSerialization        shardSerialization;
     private final ShardCounterSerialization shardCounterSerialization;
     private final MetricsService            metricsService;
-    private final CassandraClient           cassandraClient;
 
 
     @Inject
@@ -65,15 +62,13 @@ public class ShardAllocator extends UntypedActor {
         ActorSystemFig            actorSystemFig,
         ShardSerialization        shardSerialization,
         ShardCounterSerialization shardCounterSerialization,
-        MetricsService            metricsService,
-        CassandraClient           cassandraClient
+        MetricsService            metricsService
     ) {
         this.qakkaFig = qakkaFig;
         this.actorSystemFig = actorSystemFig;
         this.shardSerialization = shardSerialization;
         this.shardCounterSerialization = shardCounterSerialization;
         this.metricsService = metricsService;
-        this.cassandraClient = cassandraClient;
     }
 
 
@@ -104,8 +99,8 @@ public class ShardAllocator extends UntypedActor {
 
             // find newest shard
 
-            ShardIterator shardIterator = new ShardIterator(
-                    cassandraClient, queueName, region, type, Optional.empty() );
+            Iterator<Shard> shardIterator =
+                    shardSerialization.getShardIterator( queueName, region, type, Optional.empty() );
 
             Shard shard = null;
             while (shardIterator.hasNext()) {
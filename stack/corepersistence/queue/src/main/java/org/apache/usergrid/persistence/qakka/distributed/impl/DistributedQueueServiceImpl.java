@@ -20,6 +20,8 @@
 package org.apache.usergrid.persistence.qakka.distributed.impl;
 
 import akka.actor.ActorRef;
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.Futures;
 import akka.pattern.Patterns;
 import akka.util.Timeout;
 import com.codahale.metrics.*;
@@ -34,6 +36,7 @@ import org.apache.usergrid.persistence.actorsystem.GuiceActorProducer;
 import org.apache.usergrid.persistence.qakka.MetricsService;
 import org.apache.usergrid.persistence.qakka.QakkaFig;
 import org.apache.usergrid.persistence.qakka.core.QueueManager;
+import org.apache.usergrid.persistence.qakka.core.QueuePartitioner;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
 import org.apache.usergrid.persistence.qakka.distributed.messages.*;
 import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
@@ -48,6 +51,7 @@ import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @Singleton
@@ -59,6 +63,10 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
     private final QueueManager queueManager;
     private final QakkaFig qakkaFig;
     private final MetricsService metricsService;
+    private final QueuePartitioner queuePartitioner;
+
+    /** Partition that the next get from a partitioned queue starts with */
+    private final AtomicInteger nextPartition = new AtomicInteger();
 
     @Inject
     public DistributedQueueServiceImpl(
@@ -66,13 +74,15 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
             ActorSystemManager actorSystemManager,
             QueueManager queueManager,
             QakkaFig qakkaFig,
-            MetricsService metricsService
+            MetricsService metricsService,
+            QueuePartitioner queuePartitioner
             ) {
 
         this.actorSystemManager = actorSystemManager;
         this.queueManager = queueManager;
         this.qakkaFig = qakkaFig;
         this.metricsService = metricsService;
+        this.queuePartitioner = queuePartitioner;
 
         GuiceActorProducer.INJECTOR = injector;
     }
@@ -95,6 +105,16 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
             }
         }
         logger.info( logMessage.toString() );
+
+        // partitions added to existing queues need shards before messages can be written to them
+        ActorRef clientActor = actorSystemManager.getClientActor();
+        for ( String queueName : queueManager.getListOfQueues() ) {
+            for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
+                if ( !partitionName.equals( queueName ) ) {
+                    clientActor.tell( new ShardCheckRequest( partitionName ), null );
+                }
+            }
+        }
     }
 
 
@@ -110,9 +130,10 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
     public void refreshQueue(String queueName) {
         if ( qakkaFig.getInMemoryCache() ) {
             logger.trace( "{} Requesting refresh for queue: {}", this, queueName );
-            QueueRefreshRequest request = new QueueRefreshRequest( queueName, false );
             ActorRef clientActor = actorSystemManager.getClientActor();
-            clientActor.tell( request, null );
+            for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
+                clientActor.tell( new QueueRefreshRequest( partitionName, false ), null );
+            }
         }
 
     }
@@ -122,11 +143,13 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
     public void processTimeouts() {
 
         for ( String queueName : queueManager.getListOfQueues() ) {
+            for ( String partitionName : queuePartitioner.getPartitionNames( queueName ) ) {
 
-            QueueTimeoutRequest request = new QueueTimeoutRequest( queueName );
+                QueueTimeoutRequest request = new QueueTimeoutRequest( partitionName );
 
-            ActorRef clientActor = actorSystemManager.getClientActor();
-            clientActor.tell( request, null );
+                ActorRef clientActor = actorSystemManager.getClientActor();
+                clientActor.tell( request, null );
+            }
         }
     }
 
@@ -168,8 +191,9 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
                             }
 
                             if ( qakkaFig.getInMemoryCache() ) {
-                                // send refresh-queue-if-empty message
-                                QueueRefreshRequest qrr = new QueueRefreshRequest( queueName, false );
+                                // send refresh-queue-if-empty message to partition that message was written to
+                                QueueRefreshRequest qrr = new QueueRefreshRequest(
+                                    queuePartitioner.getPartitionName( queueName, messageId ), false );
                                 clientActor.tell( qrr, null );
                             }
 
@@ -201,38 +225,125 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
 
     @Override
     public Collection<DatabaseQueueMessage> getNextMessages( String queueName, int count ) {
-        List<DatabaseQueueMessage> ret = new ArrayList<>();
 
         com.codahale.metrics.Timer.Context timer =
             metricsService.getMetricRegistry().timer( MetricsService.GET_TIME_TOTAL ).time();
 
         try {
 
-            long startTime = System.currentTimeMillis();
+            // queue actor will hold on to request until messages arrive or long-poll time is up
+            return getNextMessagesInternal( queueName, count, qakkaFig.getLongPollTimeMillis() );
+
+        } finally {
+            timer.close();
+        }
 
-            while ( ret.size() < count
-                && System.currentTimeMillis() - startTime < qakkaFig.getLongPollTimeMillis()) {
+    }
 
-                ret.addAll( getNextMessagesInternal( queueName, count ));
 
-                if ( ret.size() < count ) {
-                    try { Thread.sleep( qakkaFig.getLongPollTimeMillis() / 2 ); } catch (Exception ignored) {}
-                }
+    public Collection<DatabaseQueueMessage> getNextMessagesInternal( String queueName, int count ) {
+        return getNextMessagesInternal( queueName, count, 0L );
+    }
+
+
+    public Collection<DatabaseQueueMessage> getNextMessagesInternal( String queueName, int count, long waitMillis ) {
+
+        List<String> partitionNames = queuePartitioner.getPartitionNames( queueName );
+        if ( partitionNames.size() == 1 ) {
+            return getNextPartitionMessages( queueName, count, waitMillis );
+        }
+
+        if ( actorSystemManager.getClientActor() == null || !actorSystemManager.isReady() ) {
+            logger.error("Akka Actor System is not ready yet for requests.");
+            return Collections.EMPTY_LIST;
+        }
+
+        long deadline = System.currentTimeMillis() + waitMillis;
+
+        List<DatabaseQueueMessage> messages = getNextPartitionedMessages( partitionNames, count );
+
+        long wait;
+        while ( messages.isEmpty() && ( wait = deadline - System.currentTimeMillis() ) > 0 ) {
+
+            // all partitions empty: wait until the queue actor of any partition has messages, re-scanning all
+            // partitions now and then in case one of them fails to answer
+
+            if ( !awaitPartitionMessages( partitionNames, Math.min( wait, qakkaFig.getPartitionsRescanMillis() ) ) ) {
+                break;
             }
 
-//            if ( ret.isEmpty() ) {
-//                logger.info( "Requested {} but queue '{}' is empty", count, queueName);
-//            }
-            return ret;
+            messages = getNextPartitionedMessages( partitionNames, count );
+        }
 
-        } finally {
-            timer.close();
+        return messages;
+    }
+
+
+    /**
+     * Wait until any of the partitions has messages available, or wait time is up. The queue actor of each partition
+     * holds a get request for no messages and answers it as soon as messages for the partition are loaded, whether
+     * they were sent via this node or another.
+     *
+     * @return False if interrupted.
+     */
+    private boolean awaitPartitionMessages( List<String> partitionNames, long waitMillis ) {
+
+        Timeout t = new Timeout(
+            TimeUnit.SECONDS.toMillis( qakkaFig.getGetTimeoutSeconds() ) + waitMillis, TimeUnit.MILLISECONDS );
+
+        List<Future<Object>> futures = new ArrayList<>( partitionNames.size() );
+        for ( String partitionName : partitionNames ) {
+            futures.add( Patterns.ask(
+                actorSystemManager.getClientActor(), new QueueGetRequest( partitionName, 0, waitMillis ), t ) );
         }
 
+        try {
+            Await.ready( Futures.firstCompletedOf( futures, ExecutionContexts.global() ), t.duration() );
+
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+
+        } catch ( Exception e ) {
+            logger.trace( "Error waiting for messages in partitions of " + partitionNames.get( 0 ), e );
+        }
+
+        return true;
     }
 
 
-    public Collection<DatabaseQueueMessage> getNextMessagesInternal( String queueName, int count ) {
+    /**
+     * Get up to count messages from the partitions without waiting, starting with a different partition each time
+     * so that consumers drain all partitions evenly.
+     */
+    private List<DatabaseQueueMessage> getNextPartitionedMessages( List<String> partitionNames, int count ) {
+
+        int start = Math.floorMod( nextPartition.getAndIncrement(), partitionNames.size() );
+
+        List<DatabaseQueueMessage> messages = new ArrayList<>();
+        QakkaRuntimeException error = null;
+
+        for ( int i = 0; i < partitionNames.size() && messages.size() < count; i++ ) {
+            String partitionName = partitionNames.get( (start + i) % partitionNames.size() );
+            try {
+                messages.addAll( getNextPartitionMessages( partitionName, count - messages.size(), 0L ) );
+
+            } catch ( QakkaRuntimeException e ) {
+                logger.debug( "Error getting from partition " + partitionName + ", trying next partition", e );
+                error = e;
+            }
+        }
+
+        if ( messages.isEmpty() && error != null ) {
+            throw error;
+        }
+
+        return messages;
+    }
+
+
+    private Collection<DatabaseQueueMessage> getNextPartitionMessages(
+        String queueName, int count, long waitMillis ) {
 
         if ( actorSystemManager.getClientActor() == null || !actorSystemManager.isReady() ) {
             logger.error("Akka Actor System is not ready yet for requests.");
@@ -242,10 +353,12 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
         int maxRetries = qakkaFig.getMaxGetRetries();
         int tries = 0;
 
-        QueueGetRequest request = new QueueGetRequest( queueName, count );
+        QueueGetRequest request = new QueueGetRequest( queueName, count, waitMillis );
         while ( ++tries < maxRetries ) {
             try {
-                Timeout t = new Timeout( qakkaFig.getGetTimeoutSeconds(), TimeUnit.SECONDS );
+                // allow for time the request may spend waiting for messages
+                Timeout t = new Timeout(
+                    TimeUnit.SECONDS.toMillis( qakkaFig.getGetTimeoutSeconds() ) + waitMillis, TimeUnit.MILLISECONDS );
 
                 // ask ClientActor and wait (up to timeout) for response
 
@@ -306,7 +419,7 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
         Timer.Context timer = metricsService.getMetricRegistry().timer( MetricsService.ACK_TIME_TOTAL ).time();
         try {
 
-            QueueAckRequest message = new QueueAckRequest( queueName, queueMessageId );
+            QueueAckRequest message = new QueueAckRequest( getPartitionName( queueName, queueMessageId ), queueMessageId );
             return sendMessageToLocalRouters( message );
 
 
@@ -319,11 +432,19 @@ public class DistributedQueueServiceImpl implements DistributedQueueService {
     @Override
     public Status requeueMessage(String queueName, UUID messageId) {
 
-        QueueAckRequest message = new QueueAckRequest( queueName, messageId );
+        QueueAckRequest message = new QueueAckRequest( getPartitionName( queueName, messageId ), messageId );
         return sendMessageToLocalRouters( message );
     }
 
 
+    /**
+     * Find partition of queue in which queue message is stored, from the partition kept in its queue message id.
+     */
+    private String getPartitionName( String queueName, UUID queueMessageId ) {
+        return queuePartitioner.getPartitionNameOfQueueMessage( queueName, queueMessageId );
+    }
+
+
     private Status sendMessageToLocalRouters( QakkaMessage message ) {
 
         int maxRetries = 5;
@@ -25,10 +25,22 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 public class QueueGetRequest implements QakkaMessage {
     private final String queueName;
     private final int numRequested;
+    private final long waitMillis;
 
     public QueueGetRequest(String queueName, int numRequested ) {
+        this( queueName, numRequested, 0L );
+    }
+
+    /**
+     * @param waitMillis If no messages are available, how long the queue actor may hold on to
+     *                   the request waiting for messages to arrive; zero means return immediately.
+     *                   With numRequested zero the request only waits: it is answered without messages as
+     *                   soon as messages are available.
+     */
+    public QueueGetRequest(String queueName, int numRequested, long waitMillis ) {
         this.queueName = queueName;
         this.numRequested = numRequested;
+        this.waitMillis = waitMillis;
     }
 
     public String getQueueName() {
@@ -39,10 +51,15 @@ public class QueueGetRequest implements QakkaMessage {
         return numRequested;
     }
 
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+
     public String toString() {
         return new ToStringBuilder( this )
                 .append( "queueName", queueName )
                 .append( "numRequested", numRequested )
+                .append( "waitMillis", waitMillis )
                 .toString();
     }
 
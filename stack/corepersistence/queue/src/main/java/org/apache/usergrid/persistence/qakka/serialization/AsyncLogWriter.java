@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization;
+
+import com.codahale.metrics.Timer;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.qakka.MetricsService;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.apache.usergrid.persistence.qakka.core.CassandraClient;
+import org.apache.usergrid.persistence.qakka.core.QueuePartitioner;
+import org.apache.usergrid.persistence.qakka.exceptions.QakkaException;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.impl.AuditLogSerializationImpl;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.impl.TransferLogSerializationImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+
+/**
+ * Writes audit and transfer logs in the background, so that send, get and ack operations do not have to
+ * wait for them. Writes are queued (up to a configured maximum) and written by a single thread. Each log
+ * record is its own partition, so records are written as individual asynchronous statements, up to a batch
+ * of them at a time, rather than as multi-partition batches. Failed writes are retried once, then dropped.
+ *
+ * When the queue is full, audit logs are dropped and transfer logs are written synchronously, because a
+ * missing transfer log removal leaves a stale record behind. Successful operations may be sampled or
+ * excluded from the audit log per queue. With in-memory storage logs are always written synchronously.
+ * On shutdown the writer stops taking writes and writes out what is queued.
+ */
+@Singleton
+public class AsyncLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger( AsyncLogWriter.class );
+
+    private final QakkaFig                 qakkaFig;
+    private final CassandraClient          cassandraClient;
+    private final MetricsService           metricsService;
+    private final AuditLogSerialization    auditLogSerialization;
+    private final TransferLogSerialization transferLogSerialization;
+
+    private final BlockingQueue<LogWrite> logWrites;
+
+    private final Thread writerThread;
+
+    /** Held by the writer thread while it takes and writes logs, so that flush can wait for them */
+    private final Object writeLock = new Object();
+
+    private volatile boolean shutdown = false;
+
+    private volatile SampleRates sampleRates = new SampleRates( null, Collections.emptyMap() );
+
+
+    @Inject
+    public AsyncLogWriter(
+        QakkaFig                 qakkaFig,
+        CassandraClient          cassandraClient,
+        MetricsService           metricsService,
+        AuditLogSerialization    auditLogSerialization,
+        TransferLogSerialization transferLogSerialization ) {
+
+        this.qakkaFig                 = qakkaFig;
+        this.cassandraClient          = cassandraClient;
+        this.metricsService           = metricsService;
+        this.auditLogSerialization    = auditLogSerialization;
+        this.transferLogSerialization = transferLogSerialization;
+
+        this.logWrites = new ArrayBlockingQueue<>( qakkaFig.getLogWriterMaxQueued() );
+
+        if ( isAsync() ) {
+            writerThread = new Thread( this::writeLoop, "QakkaLogWriter" );
+            writerThread.setDaemon( true );
+            writerThread.start();
+        } else {
+            writerThread = null;
+        }
+    }
+
+
+    /**
+     * Stop queueing writes, so that logs recorded from now on are written synchronously, and write out the
+     * logs already queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+
+        shutdown = true;
+
+        if ( writerThread != null ) {
+            writerThread.interrupt();
+            try {
+                writerThread.join( TimeUnit.SECONDS.toMillis( 10 ) );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+
+    public void recordAuditLog(
+        AuditLog.Action action,
+        AuditLog.Status status,
+        String queueName,
+        String region,
+        UUID messageId,
+        UUID queueMessageId ) {
+
+        // errors are always recorded, successes may be sampled
+        if ( AuditLog.Status.SUCCESS.equals( status ) && !isSampled( queueName ) ) {
+            return;
+        }
+
+        if ( !isAsync() ) {
+            auditLogSerialization.recordAuditLog( action, status, queueName, region, messageId, queueMessageId );
+            return;
+        }
+
+        Statement statement = auditLogSerialization.createAuditLogStatement(
+            action, status, queueName, region, messageId, queueMessageId );
+
+        if ( !logWrites.offer( new LogWrite( AuditLogSerializationImpl.TABLE_AUDIT_LOG, statement ) ) ) {
+            metricsService.getMetricRegistry().meter( MetricsService.LOG_DROPPED ).mark();
+        }
+    }
+
+
+    public void recordTransferLog( String queueName, String source, String dest, UUID messageId ) {
+
+        if ( !isAsync() ) {
+            transferLogSerialization.recordTransferLog( queueName, source, dest, messageId );
+            return;
+        }
+
+        writeTransferLog(
+            transferLogSerialization.createTransferLogStatement( queueName, source, dest, messageId ) );
+    }
+
+
+    /**
+     * Remove transfer log. When writing asynchronously the record is not checked for existence first.
+     *
+     * @throws QakkaException If writing synchronously and transfer log was not found or could not be removed.
+     */
+    public void removeTransferLog( String queueName, String source, String dest, UUID messageId )
+        throws QakkaException {
+
+        if ( !isAsync() ) {
+            transferLogSerialization.removeTransferLog( queueName, source, dest, messageId );
+            return;
+        }
+
+        writeTransferLog(
+            transferLogSerialization.createRemoveTransferLogStatement( queueName, source, dest, messageId ) );
+    }
+
+
+    /**
+     * Write all queued logs now, in the calling thread, after any logs the writer thread is writing.
+     */
+    public void flush() {
+        synchronized ( writeLock ) {
+            List<LogWrite> drained = new ArrayList<>();
+            logWrites.drainTo( drained );
+            write( drained );
+        }
+    }
+
+
+    private void writeTransferLog( Statement statement ) {
+
+        if ( !logWrites.offer( new LogWrite( TransferLogSerializationImpl.TABLE_TRANSFER_LOG, statement ) ) ) {
+            metricsService.getMetricRegistry().meter( MetricsService.LOG_OVERFLOW ).mark();
+            cassandraClient.getApplicationSession().execute( statement );
+        }
+    }
+
+
+    /**
+     * Logs are written in the background if configured, and if there is a session to execute the statements.
+     */
+    private boolean isAsync() {
+        return !shutdown && qakkaFig.getLogWriterAsync() && cassandraClient.hasSessions();
+    }
+
+
+    private boolean isSampled( String queueName ) {
+
+        double sampleRate = getSampleRate( queueName );
+
+        if ( sampleRate >= 1.0 ) {
+            return true;
+        }
+        if ( sampleRate <= 0.0 ) {
+            return false;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+
+    private double getSampleRate( String queueName ) {
+
+        String config = qakkaFig.getAuditLogQueueSampleRates();
+
+        // parse only when config changes, racing threads at worst both parse the same config
+        SampleRates rates = sampleRates;
+        if ( !Objects.equals( config, rates.config ) ) {
+            rates = new SampleRates( config, parseSampleRates( config ) );
+            sampleRates = rates;
+        }
+
+        Double rate = rates.ratesByQueueName.get( QueuePartitioner.getQueueName( queueName ) );
+        return rate != null ? rate : qakkaFig.getAuditLogSampleRate();
+    }
+
+
+    static Map<String, Double> parseSampleRates( String config ) {
+
+        Map<String, Double> rates = new HashMap<>();
+
+        if ( config == null ) {
+            return rates;
+        }
+
+        for ( String entry : config.split( "," ) ) {
+            int separator = entry.lastIndexOf( ':' );
+            if ( separator < 1 ) {
+                continue;
+            }
+            try {
+                String queueName = entry.substring( 0, separator ).trim();
+                rates.put( queueName, Double.parseDouble( entry.substring( separator + 1 ).trim() ) );
+            } catch ( NumberFormatException e ) {
+                logger.warn( "Ignoring invalid audit log sample rate: {}", entry );
+            }
+        }
+        return rates;
+    }
+
+
+    private void writeLoop() {
+
+        List<LogWrite> drained = new ArrayList<>();
+
+        while ( true ) {
+            try {
+                synchronized ( writeLock ) {
+                    LogWrite first = logWrites.poll( qakkaFig.getLogWriterFlushMillis(), TimeUnit.MILLISECONDS );
+                    if ( first == null ) {
+                        continue;
+                    }
+
+                    drained.add( first );
+                    logWrites.drainTo( drained, qakkaFig.getLogWriterMaxQueued() );
+                    write( drained );
+                }
+
+            } catch ( InterruptedException e ) {
+                logger.debug( "Log writer interrupted" );
+                Thread.currentThread().interrupt();
+                return;
+
+            } catch ( Throwable t ) {
+                logger.error( "Error in log writer", t );
+
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+
+    private void write( List<LogWrite> writes ) {
+
+        if ( writes.isEmpty() ) {
+            return;
+        }
+
+        List<LogWrite> failed = execute( writes );
+
+        if ( !failed.isEmpty() ) {
+            logger.warn( "Retrying {} failed log writes", failed.size() );
+            failed = execute( failed );
+        }
+
+        if ( !failed.isEmpty() ) {
+            metricsService.getMetricRegistry().meter( MetricsService.LOG_ERRORS ).mark( failed.size() );
+            logger.error( "Error writing {} log records to {}, dropping them", failed.size(),
+                failed.stream().map( write -> write.table ).collect( Collectors.toSet() ) );
+        }
+    }
+
+
+    /**
+     * Execute writes asynchronously, no more than configured batch size at a time, and return those that failed.
+     */
+    private List<LogWrite> execute( List<LogWrite> writes ) {
+
+        Session session = cassandraClient.getApplicationSession();
+        int batchSize = Math.max( 1, qakkaFig.getLogWriterBatchSize() );
+
+        List<LogWrite> failed = new ArrayList<>();
+
+        for ( int i = 0; i < writes.size(); i += batchSize ) {
+
+            List<LogWrite> batch = writes.subList( i, Math.min( i + batchSize, writes.size() ) );
+            List<ResultSetFuture> futures = new ArrayList<>( batch.size() );
+
+            Timer.Context timer = metricsService.getMetricRegistry().timer( MetricsService.LOG_WRITE_TIME ).time();
+            try {
+                for ( LogWrite write : batch ) {
+                    try {
+                        futures.add( session.executeAsync( write.statement ) );
+                    } catch ( Throwable t ) {
+                        logger.debug( "Error writing log record to " + write.table, t );
+                        futures.add( null );
+                    }
+                }
+
+                for ( int j = 0; j < batch.size(); j++ ) {
+                    try {
+                        if ( futures.get( j ) == null ) {
+                            failed.add( batch.get( j ) );
+                        } else {
+                            futures.get( j ).getUninterruptibly();
+                        }
+                    } catch ( Throwable t ) {
+                        logger.debug( "Error writing log record to " + batch.get( j ).table, t );
+                        failed.add( batch.get( j ) );
+                    }
+                }
+
+            } finally {
+                timer.close();
+            }
+        }
+
+        return failed;
+    }
+
+
+    private static class LogWrite {
+        final String    table;
+        final Statement statement;
+
+        LogWrite( String table, Statement statement ) {
+            this.table = table;
+            this.statement = statement;
+        }
+    }
+
+
+    private static class SampleRates {
+        final String              config;
+        final Map<String, Double> ratesByQueueName;
+
+        SampleRates( String config, Map<String, Double> ratesByQueueName ) {
+            this.config = config;
+            this.ratesByQueueName = ratesByQueueName;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.usergrid.persistence.qakka.serialization.auditlog;
 
+import com.datastax.driver.core.Statement;
 import org.apache.usergrid.persistence.core.migration.schema.Migration;
 import org.apache.usergrid.persistence.qakka.serialization.Result;
 
@@ -38,6 +39,17 @@ public interface AuditLogSerialization extends Migration {
         UUID messageId,
         UUID queueMessageId);
 
+    /**
+     * Create, but do not execute, statement that records audit log record.
+     */
+    Statement createAuditLogStatement(
+        AuditLog.Action action,
+        AuditLog.Status status,
+        String queueName,
+        String region,
+        UUID messageId,
+        UUID queueMessageId);
+
     /**
      * Get all audit logs for a specific queue message.
      */
@@ -92,7 +92,21 @@ public class AuditLogSerializationImpl implements AuditLogSerialization {
             UUID messageId,
             UUID queueMessageId ) {
 
-        Statement insert = QueryBuilder.insertInto(TABLE_AUDIT_LOG)
+        Statement insert = createAuditLogStatement( action, status, queueName, region, messageId, queueMessageId );
+        cassandraClient.getApplicationSession().execute(insert);
+    }
+
+
+    @Override
+    public Statement createAuditLogStatement(
+            AuditLog.Action action,
+            AuditLog.Status status,
+            String queueName,
+            String region,
+            UUID messageId,
+            UUID queueMessageId ) {
+
+        return QueryBuilder.insertInto(TABLE_AUDIT_LOG)
                 .value(COLUMN_ACTION, action.toString() )
                 .value(COLUMN_STATUS, status.toString() )
                 .value(COLUMN_QUEUE_NAME, queueName )
@@ -100,7 +114,6 @@ public class AuditLogSerializationImpl implements AuditLogSerialization {
                 .value(COLUMN_MESSAGE_ID, messageId )
                 .value(COLUMN_QUEUE_MESSAGE_ID, queueMessageId )
                 .value(COLUMN_TRANSFER_TIME, System.currentTimeMillis() );
-        cassandraClient.getApplicationSession().execute(insert);
     }
 
 
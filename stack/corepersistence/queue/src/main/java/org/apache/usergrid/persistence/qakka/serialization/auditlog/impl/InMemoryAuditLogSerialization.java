@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.auditlog.impl;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.Statement;
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.serialization.Result;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Audit log serialization that keeps audit logs in memory, for benchmarks and tests that run without
+ * Cassandra. There are no statements to create, the log writer always writes synchronously to in-memory storage.
+ */
+@Singleton
+public class InMemoryAuditLogSerialization implements AuditLogSerialization {
+
+    private final Map<UUID, List<AuditLog>> auditLogsByMessageId = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void recordAuditLog(
+            AuditLog.Action action,
+            AuditLog.Status status,
+            String queueName,
+            String region,
+            UUID messageId,
+            UUID queueMessageId ) {
+
+        auditLogsByMessageId.computeIfAbsent( messageId, k -> new CopyOnWriteArrayList<>() ).add(
+            new AuditLog( action, status, queueName, region, messageId, queueMessageId, System.currentTimeMillis() ));
+    }
+
+
+    @Override
+    public Statement createAuditLogStatement(
+            AuditLog.Action action,
+            AuditLog.Status status,
+            String queueName,
+            String region,
+            UUID messageId,
+            UUID queueMessageId ) {
+
+        throw new UnsupportedOperationException( "Statements are not supported with in-memory storage" );
+    }
+
+
+    @Override
+    public Result<AuditLog> getAuditLogs( UUID messageId ) {
+
+        final List<AuditLog> auditLogs =
+            new ArrayList<>( auditLogsByMessageId.getOrDefault( messageId, Collections.emptyList() ) );
+
+        return new Result<AuditLog>() {
+
+            @Override
+            public PagingState getPagingState() {
+                return null; // no paging
+            }
+
+            @Override
+            public List<AuditLog> getEntities() {
+                return auditLogs;
+            }
+        };
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
@@ -20,7 +20,9 @@
 package org.apache.usergrid.persistence.qakka.serialization.queuemessages;
 
 import org.apache.usergrid.persistence.core.migration.schema.Migration;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
 
+import java.util.Iterator;
 import java.util.UUID;
 
 
@@ -68,4 +70,16 @@ public interface QueueMessageSerialization extends Migration {
      * Remove message from inflight table, write message to available table.
      */
     void timeoutInflight( DatabaseQueueMessage queueMessage );
+
+    /**
+     * Iterate over queue messages of one type, across the shards provided, in queue message ID order.
+     *
+     * @param since Start after this queue message ID (or from the shard's pointer if null)
+     */
+    Iterator<DatabaseQueueMessage> getMessageIterator(
+        String queueName,
+        String region,
+        DatabaseQueueMessage.Type type,
+        Iterator<Shard> shardIterator,
+        UUID since );
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl;
+
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.MessageCounterSerialization;
+
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Message counter serialization that keeps counters in memory, for benchmarks and tests that run without
+ * Cassandra.
+ */
+@Singleton
+public class InMemoryMessageCounterSerialization implements MessageCounterSerialization {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void incrementCounter( String queueName, DatabaseQueueMessage.Type type, long increment ) {
+        counters.computeIfAbsent( createKey( queueName, type ), k -> new AtomicLong() ).addAndGet( increment );
+    }
+
+
+    @Override
+    public void decrementCounter( String queueName, DatabaseQueueMessage.Type type, long decrement ) {
+        counters.computeIfAbsent( createKey( queueName, type ), k -> new AtomicLong() ).addAndGet( -decrement );
+    }
+
+
+    @Override
+    public long getCounterValue( String queueName, DatabaseQueueMessage.Type type ) {
+
+        AtomicLong counter = counters.get( createKey( queueName, type ) );
+        if ( counter == null ) {
+            throw new NotFoundException(
+                MessageFormat.format( "No counter found for queue {0} type {1}", queueName, type ));
+        }
+        return counter.get();
+    }
+
+
+    @Override
+    public void resetCounter( String queueName, DatabaseQueueMessage.Type type ) {
+        getCounterValue( queueName, type );
+        counters.get( createKey( queueName, type ) ).set( 0L );
+    }
+
+
+    private String createKey( String queueName, DatabaseQueueMessage.Type type ) {
+        return queueName + "_" + type;
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.queuemessages.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessageBody;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.MessageCounterSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardCounterSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Queue message serialization that keeps messages in memory, for benchmarks and tests that run without
+ * Cassandra. Messages are stored per queue, region, shard and type and ordered like the Cassandra tables,
+ * so shard selection, iteration and counters behave as they do with QueueMessageSerializationImpl.
+ * TTLs are not enforced.
+ */
+@Singleton
+public class InMemoryQueueMessageSerialization implements QueueMessageSerialization {
+    private static final Logger logger = LoggerFactory.getLogger( InMemoryQueueMessageSerialization.class );
+
+    // same order as Cassandra timeuuid clustering columns: by time, then by remaining bits
+    private static final Comparator<UUID> TIME_UUID_ORDER =
+        Comparator.comparingLong( UUID::timestamp ).thenComparing( Comparator.naturalOrder() );
+
+    private final ActorSystemFig              actorSystemFig;
+    private final ShardStrategy               shardStrategy;
+    private final ShardSerialization          shardSerialization;
+    private final ShardCounterSerialization   shardCounterSerialization;
+    private final MessageCounterSerialization messageCounterSerialization;
+
+    private final Map<String, ConcurrentSkipListMap<UUID, DatabaseQueueMessage>> messagesByShard =
+        new ConcurrentHashMap<>();
+
+    private final Map<UUID, DatabaseQueueMessageBody> messageData = new ConcurrentHashMap<>();
+
+
+    @Inject
+    public InMemoryQueueMessageSerialization(
+            ActorSystemFig              actorSystemFig,
+            ShardStrategy               shardStrategy,
+            ShardSerialization          shardSerialization,
+            ShardCounterSerialization   shardCounterSerialization,
+            MessageCounterSerialization messageCounterSerialization
+        ) {
+        this.actorSystemFig              = actorSystemFig;
+        this.shardStrategy               = shardStrategy;
+        this.shardSerialization          = shardSerialization;
+        this.shardCounterSerialization   = shardCounterSerialization;
+        this.messageCounterSerialization = messageCounterSerialization;
+    }
+
+
+    @Override
+    public UUID writeMessage( final DatabaseQueueMessage message ) {
+
+        final UUID queueMessageId =  message.getQueueMessageId() == null ?
+            QakkaUtils.getTimeUuid() : message.getQueueMessageId();
+
+        Shard.Type shardType = getShardType( message.getType() );
+
+        if ( message.getShardId() == null ) {
+            Shard shard = shardStrategy.selectShard(
+                message.getQueueName(), actorSystemFig.getRegionLocal(), shardType, queueMessageId );
+            message.setShardId( shard.getShardId() );
+        }
+
+        store( message, queueMessageId );
+
+        logger.trace("Wrote queue {} queue message {} shardId {}",
+            message.getQueueName(), queueMessageId, message.getShardId() );
+
+        shardCounterSerialization.incrementCounter( message.getQueueName(), shardType, message.getShardId(), 1 );
+
+        messageCounterSerialization.incrementCounter( message.getQueueName(), message.getType(), 1L );
+
+        return queueMessageId;
+    }
+
+
+    @Override
+    public DatabaseQueueMessage loadMessage(
+            final String queueName,
+            final String region,
+            final Long shardIdOrNull,
+            final DatabaseQueueMessage.Type type,
+            final UUID queueMessageId ) {
+
+        if ( queueMessageId == null ) {
+            return null;
+        }
+
+        long shardId = shardIdOrNull != null ?
+            shardIdOrNull : selectShardId( queueName, region, type, queueMessageId );
+
+        DatabaseQueueMessage message = getMessages( queueName, region, shardId, type ).get( queueMessageId );
+        return message == null ? null : copy( message, message.getQueueMessageId() );
+    }
+
+
+    @Override
+    public void deleteMessage(
+            final String queueName,
+            final String region,
+            final Long shardIdOrNull,
+            final DatabaseQueueMessage.Type type,
+            final UUID queueMessageId ) {
+
+        // like the Cassandra implementation, the shard is always selected by queue message ID
+        long shardId = selectShardId( queueName, region, type, queueMessageId );
+        getMessages( queueName, region, shardId, type ).remove( queueMessageId );
+
+        messageCounterSerialization.decrementCounter( queueName, type, 1L );
+    }
+
+
+    @Override
+    public void writeMessageData( final UUID messageId, final DatabaseQueueMessageBody messageBody ) {
+        Preconditions.checkArgument( QakkaUtils.isTimeUuid( messageId ), "MessageId is not a type 1 UUID" );
+        messageData.put( messageId, messageBody );
+    }
+
+
+    @Override
+    public DatabaseQueueMessageBody loadMessageData( final UUID messageId ) {
+        DatabaseQueueMessageBody body = messageData.get( messageId );
+        if ( body == null ) {
+            return null;
+        }
+        return new DatabaseQueueMessageBody( body.getBlob().duplicate(), body.getContentType() );
+    }
+
+
+    @Override
+    public void deleteMessageData( final UUID messageId ) {
+        messageData.remove( messageId );
+    }
+
+
+    @Override
+    public void putInflight( DatabaseQueueMessage message ) {
+
+        DatabaseQueueMessage inflightMessage = new DatabaseQueueMessage(
+            message.getMessageId(),
+            DatabaseQueueMessage.Type.INFLIGHT,
+            message.getQueueName(),
+            message.getRegion(),
+            null,
+            message.getQueuedAt(),
+            System.currentTimeMillis(),
+            message.getQueueMessageId() );
+
+        inflightMessage.setShardId( selectShardId( inflightMessage.getQueueName(), inflightMessage.getRegion(),
+            DatabaseQueueMessage.Type.INFLIGHT, inflightMessage.getQueueMessageId() ) );
+        store( inflightMessage, inflightMessage.getQueueMessageId() );
+
+        long availableShardId = selectShardId( message.getQueueName(), message.getRegion(),
+            DatabaseQueueMessage.Type.DEFAULT, message.getQueueMessageId() );
+        getMessages( message.getQueueName(), message.getRegion(), availableShardId, DatabaseQueueMessage.Type.DEFAULT )
+            .remove( message.getQueueMessageId() );
+
+        shardCounterSerialization.incrementCounter(
+            message.getQueueName(), Shard.Type.INFLIGHT, message.getShardId(), 1 );
+
+        messageCounterSerialization.incrementCounter(
+            message.getQueueName(), DatabaseQueueMessage.Type.INFLIGHT, 1L );
+
+        messageCounterSerialization.decrementCounter(
+            message.getQueueName(), DatabaseQueueMessage.Type.DEFAULT, 1L );
+    }
+
+
+    @Override
+    public void deleteAllMessages( String queueName ) {
+
+        String region = actorSystemFig.getRegionLocal();
+
+        for ( DatabaseQueueMessage.Type type : DatabaseQueueMessage.Type.values() ) {
+
+            Iterator<Shard> shards =
+                shardSerialization.getShardIterator( queueName, region, getShardType( type ), Optional.empty() );
+            while ( shards.hasNext() ) {
+                Shard shard = shards.next();
+                messagesByShard.remove( createKey( queueName, region, shard.getShardId(), type ) );
+                shardCounterSerialization.resetCounter( shard );
+                messageCounterSerialization.resetCounter( queueName, type );
+            }
+        }
+    }
+
+
+    @Override
+    public void timeoutInflight( DatabaseQueueMessage message ) {
+
+        DatabaseQueueMessage newMessage = new DatabaseQueueMessage(
+            message.getMessageId(),
+            DatabaseQueueMessage.Type.DEFAULT,
+            message.getQueueName(),
+            message.getRegion(),
+            null,
+            System.currentTimeMillis(),
+            -1L,
+            QakkaUtils.getTimeUuid() );
+
+        newMessage.setShardId( selectShardId( newMessage.getQueueName(), newMessage.getRegion(),
+            DatabaseQueueMessage.Type.DEFAULT, newMessage.getQueueMessageId() ) );
+        store( newMessage, newMessage.getQueueMessageId() );
+
+        getMessages( message.getQueueName(), message.getRegion(), message.getShardId(), message.getType() )
+            .remove( message.getQueueMessageId() );
+
+        shardCounterSerialization.incrementCounter(
+            message.getQueueName(), Shard.Type.DEFAULT, message.getShardId(), 1 );
+
+        messageCounterSerialization.incrementCounter(
+            message.getQueueName(), DatabaseQueueMessage.Type.DEFAULT, 1L );
+
+        messageCounterSerialization.decrementCounter(
+            message.getQueueName(), DatabaseQueueMessage.Type.INFLIGHT, 1L );
+    }
+
+
+    @Override
+    public Iterator<DatabaseQueueMessage> getMessageIterator(
+            final String queueName,
+            final String region,
+            final DatabaseQueueMessage.Type type,
+            final Iterator<Shard> shardIterator,
+            final UUID since ) {
+
+        return new Iterator<DatabaseQueueMessage>() {
+
+            private Iterator<DatabaseQueueMessage> current = Collections.emptyIterator();
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+
+                while ( !current.hasNext() && shardIterator.hasNext() ) {
+
+                    Shard shard = shardIterator.next();
+
+                    // if this is the first seek and there is no starting point, start from the shard's pointer
+                    UUID start = since == null && first ? shard.getPointer() : since;
+                    first = false;
+
+                    ConcurrentSkipListMap<UUID, DatabaseQueueMessage> messages =
+                        getMessages( queueName, region, shard.getShardId(), type );
+
+                    current = start == null ?
+                        messages.values().iterator() : messages.tailMap( start, false ).values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public DatabaseQueueMessage next() {
+
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException( "No next message exists" );
+                }
+
+                DatabaseQueueMessage message = current.next();
+                return copy( message, message.getQueueMessageId() );
+            }
+        };
+    }
+
+
+    private void store( DatabaseQueueMessage message, UUID queueMessageId ) {
+        getMessages( message.getQueueName(), message.getRegion(), message.getShardId(), message.getType() )
+            .put( queueMessageId, copy( message, queueMessageId ) );
+    }
+
+
+    private long selectShardId(
+        String queueName, String region, DatabaseQueueMessage.Type type, UUID queueMessageId ) {
+
+        return shardStrategy.selectShard( queueName, region, getShardType( type ), queueMessageId ).getShardId();
+    }
+
+
+    private ConcurrentSkipListMap<UUID, DatabaseQueueMessage> getMessages(
+        String queueName, String region, long shardId, DatabaseQueueMessage.Type type ) {
+
+        return messagesByShard.computeIfAbsent(
+            createKey( queueName, region, shardId, type ), k -> new ConcurrentSkipListMap<>( TIME_UUID_ORDER ) );
+    }
+
+
+    private String createKey( String queueName, String region, long shardId, DatabaseQueueMessage.Type type ) {
+        return queueName + "_" + region + "_" + shardId + "_" + type;
+    }
+
+
+    private Shard.Type getShardType( DatabaseQueueMessage.Type type ) {
+        return DatabaseQueueMessage.Type.DEFAULT.equals( type ) ? Shard.Type.DEFAULT : Shard.Type.INFLIGHT;
+    }
+
+
+    private DatabaseQueueMessage copy( DatabaseQueueMessage message, UUID queueMessageId ) {
+        return new DatabaseQueueMessage( message.getMessageId(), message.getType(), message.getQueueName(),
+            message.getRegion(), message.getShardId(), message.getQueuedAt(), message.getInflightAt(),
+            queueMessageId );
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
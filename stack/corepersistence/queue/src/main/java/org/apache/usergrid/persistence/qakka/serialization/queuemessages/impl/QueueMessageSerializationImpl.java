@@ -35,6 +35,7 @@ import org.apache.usergrid.persistence.core.datastax.impl.TableDefinitionStringI
 import org.apache.usergrid.persistence.qakka.QakkaFig;
 import org.apache.usergrid.persistence.qakka.core.CassandraClient;
 import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
+import org.apache.usergrid.persistence.qakka.serialization.MultiShardMessageIterator;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessageBody;
 import org.apache.usergrid.persistence.qakka.serialization.queuemessages.MessageCounterSerialization;
@@ -463,6 +464,18 @@ public class QueueMessageSerializationImpl implements QueueMessageSerialization
     }
 
 
+    @Override
+    public Iterator<DatabaseQueueMessage> getMessageIterator(
+            final String queueName,
+            final String region,
+            final DatabaseQueueMessage.Type type,
+            final Iterator<Shard> shardIterator,
+            final UUID since ) {
+
+        return new MultiShardMessageIterator( cassandraClient, queueName, region, type, shardIterator, since );
+    }
+
+
     private Statement createDeleteMessageStatement( final String queueName,
                                                     final String region,
                                                     final Long shardIdOrNull,
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.queues.impl;
+
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.serialization.queues.DatabaseQueue;
+import org.apache.usergrid.persistence.qakka.serialization.queues.QueueSerialization;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Queue serialization that keeps queues in memory, for benchmarks and tests that run without Cassandra.
+ */
+@Singleton
+public class InMemoryQueueSerialization implements QueueSerialization {
+
+    private final Map<String, DatabaseQueue> queues = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void writeQueue( DatabaseQueue queue ) {
+        queues.put( queue.getName(), queue );
+    }
+
+    @Override
+    public DatabaseQueue getQueue( String name ) {
+        return queues.get( name );
+    }
+
+    @Override
+    public void deleteQueue( String name ) {
+        queues.remove( name );
+    }
+
+    @Override
+    public List<String> getListOfQueues() {
+        return new ArrayList<>( queues.keySet() );
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
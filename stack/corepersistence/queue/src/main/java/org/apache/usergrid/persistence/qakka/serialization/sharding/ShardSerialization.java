@@ -21,6 +21,9 @@ package org.apache.usergrid.persistence.qakka.serialization.sharding;
 
 import org.apache.usergrid.persistence.core.migration.schema.Migration;
 
+import java.util.Iterator;
+import java.util.Optional;
+
 
 public interface ShardSerialization extends Migration {
 
@@ -34,4 +37,12 @@ public interface ShardSerialization extends Migration {
 
     void updateShardPointer(final Shard shard);
 
+    /**
+     * Iterate over active shards of a queue, in order of shard ID.
+     *
+     * @param lastShardId Start after this shard ID (or start from first shard if empty)
+     */
+    Iterator<Shard> getShardIterator(
+        String queueName, String region, Shard.Type shardType, Optional<Long> lastShardId);
+
 }
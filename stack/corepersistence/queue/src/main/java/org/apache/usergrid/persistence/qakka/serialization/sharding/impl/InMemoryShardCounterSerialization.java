@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.sharding.impl;
+
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardCounterSerialization;
+
+import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Shard counter serialization that keeps counters in memory, for benchmarks and tests that run without Cassandra.
+ */
+@Singleton
+public class InMemoryShardCounterSerialization implements ShardCounterSerialization {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void incrementCounter( String queueName, Shard.Type type, long shardId, long increment ) {
+        counters.computeIfAbsent( createKey( queueName, type, shardId ), k -> new AtomicLong() )
+            .addAndGet( increment );
+    }
+
+
+    @Override
+    public long getCounterValue( String queueName, Shard.Type type, long shardId ) {
+
+        AtomicLong counter = counters.get( createKey( queueName, type, shardId ) );
+        if ( counter == null ) {
+            throw new NotFoundException(
+                MessageFormat.format( "No counter found for queue {0} type {1} shardId {2}",
+                    queueName, type, shardId ));
+        }
+        return counter.get();
+    }
+
+
+    @Override
+    public void resetCounter( Shard shard ) {
+        getCounterValue( shard.getQueueName(), shard.getType(), shard.getShardId() );
+        counters.get( createKey( shard.getQueueName(), shard.getType(), shard.getShardId() ) ).set( 0L );
+    }
+
+
+    private String createKey( String queueName, Shard.Type type, long shardId ) {
+        return queueName + type + shardId;
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
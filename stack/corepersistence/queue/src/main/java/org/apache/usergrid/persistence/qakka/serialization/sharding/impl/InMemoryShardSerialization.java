@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.sharding.impl;
+
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Shard serialization that keeps shards in memory, for benchmarks and tests that run without Cassandra.
+ */
+@Singleton
+public class InMemoryShardSerialization implements ShardSerialization {
+
+    private final Map<String, ConcurrentSkipListMap<Long, Shard>> shardsByKey = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void createShard( final Shard shard ) {
+        getShards( shard.getQueueName(), shard.getRegion(), shard.getType() ).put( shard.getShardId(), copy( shard ) );
+    }
+
+
+    @Override
+    public Shard loadShard( final Shard shard ) {
+        Shard loaded = getShards( shard.getQueueName(), shard.getRegion(), shard.getType() ).get( shard.getShardId() );
+        return loaded == null ? null : copy( loaded );
+    }
+
+
+    @Override
+    public void deleteShard( final Shard shard ) {
+        getShards( shard.getQueueName(), shard.getRegion(), shard.getType() ).remove( shard.getShardId() );
+    }
+
+
+    @Override
+    public void deleteAllShards( String queueName, String region ) {
+        shardsByKey.remove( createKey( queueName, region, Shard.Type.DEFAULT ) );
+        shardsByKey.remove( createKey( queueName, region, Shard.Type.INFLIGHT ) );
+    }
+
+
+    @Override
+    public void updateShardPointer( final Shard shard ) {
+        // like a Cassandra update, this creates the shard if it does not exist
+        getShards( shard.getQueueName(), shard.getRegion(), shard.getType() ).put( shard.getShardId(), copy( shard ) );
+    }
+
+
+    @Override
+    public Iterator<Shard> getShardIterator(
+        String queueName, String region, Shard.Type shardType, Optional<Long> lastShardId ) {
+
+        List<Shard> shards = new ArrayList<>();
+        getShards( queueName, region, shardType ).tailMap( lastShardId.orElse( 0L ), false ).values()
+            .forEach( shard -> shards.add( copy( shard ) ) );
+
+        return shards.iterator();
+    }
+
+
+    private ConcurrentSkipListMap<Long, Shard> getShards( String queueName, String region, Shard.Type type ) {
+        return shardsByKey.computeIfAbsent(
+            createKey( queueName, region, type ), k -> new ConcurrentSkipListMap<>() );
+    }
+
+
+    private String createKey( String queueName, String region, Shard.Type type ) {
+        return queueName + "_" + region + "_" + type;
+    }
+
+
+    private Shard copy( Shard shard ) {
+        return new Shard(
+            shard.getQueueName(), shard.getRegion(), shard.getType(), shard.getShardId(), shard.getPointer() );
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
@@ -33,12 +33,15 @@ import org.apache.usergrid.persistence.core.datastax.TableDefinition;
 import org.apache.usergrid.persistence.core.datastax.impl.TableDefinitionStringImpl;
 import org.apache.usergrid.persistence.qakka.core.CassandraClient;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardIterator;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
 import java.util.UUID;
 
 
@@ -195,6 +198,13 @@ public class ShardSerializationImpl implements ShardSerialization {
 
     }
 
+    @Override
+    public Iterator<Shard> getShardIterator(
+        String queueName, String region, Shard.Type shardType, Optional<Long> lastShardId ) {
+
+        return new ShardIterator( cassandraClient, queueName, region, shardType, lastShardId );
+    }
+
     public static String getTableName(Shard.Type shardType){
 
         String table;
@@ -20,24 +20,24 @@
 package org.apache.usergrid.persistence.qakka.serialization.sharding.impl;
 
 import com.google.inject.Inject;
-import org.apache.usergrid.persistence.qakka.core.CassandraClient;
 import org.apache.usergrid.persistence.qakka.exceptions.NotFoundException;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.Shard;
-import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardIterator;
+import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardSerialization;
 import org.apache.usergrid.persistence.qakka.serialization.sharding.ShardStrategy;
 
 import java.text.MessageFormat;
+import java.util.Iterator;
 import java.util.Optional;
 import java.util.UUID;
 
 
 public class ShardStrategyImpl implements ShardStrategy {
 
-    final CassandraClient cassandraClient;
+    final ShardSerialization shardSerialization;
 
     @Inject
-    public ShardStrategyImpl(CassandraClient cassandraClient) {
-        this.cassandraClient = cassandraClient;
+    public ShardStrategyImpl(ShardSerialization shardSerialization) {
+        this.shardSerialization = shardSerialization;
     }
 
     @Override
@@ -45,8 +45,8 @@ public class ShardStrategyImpl implements ShardStrategy {
 
         // use shard iterator to walk through shards until shard can be found
 
-        ShardIterator shardIterator = new ShardIterator(
-                cassandraClient, queueName, region, shardType, Optional.empty() );
+        Iterator<Shard> shardIterator =
+                shardSerialization.getShardIterator( queueName, region, shardType, Optional.empty() );
 
         if ( !shardIterator.hasNext() ) {
             String msg = MessageFormat.format(
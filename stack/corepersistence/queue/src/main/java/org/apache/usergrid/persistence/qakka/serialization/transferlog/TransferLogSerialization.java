@@ -20,6 +20,7 @@
 package org.apache.usergrid.persistence.qakka.serialization.transferlog;
 
 import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.Statement;
 import org.apache.usergrid.persistence.core.migration.schema.Migration;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaException;
 import org.apache.usergrid.persistence.qakka.serialization.Result;
@@ -52,6 +53,20 @@ public interface TransferLogSerialization extends Migration {
     void removeTransferLog(
         String queueName, String source, String dest, UUID messageId) throws QakkaException;
 
+    /**
+     * Create, but do not execute, statement that records transfer log record. Record is written with
+     * timestamp of the message ID so that a remove issued later wins even if this write is delayed.
+     */
+    Statement createTransferLogStatement(
+        String queueName, String source, String dest, UUID messageId);
+
+    /**
+     * Create, but do not execute, statement that removes transfer log record without first checking
+     * that it exists.
+     */
+    Statement createRemoveTransferLogStatement(
+        String queueName, String source, String dest, UUID messageId);
+
     /**
      * Get all transfer logs (for testing purposes)
      *
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization.transferlog.impl;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.Statement;
+import com.google.inject.Singleton;
+import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
+import org.apache.usergrid.persistence.core.datastax.TableDefinition;
+import org.apache.usergrid.persistence.qakka.exceptions.QakkaException;
+import org.apache.usergrid.persistence.qakka.serialization.Result;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLog;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Transfer log serialization that keeps transfer logs in memory, for benchmarks and tests that run without
+ * Cassandra. There are no statements to create, the log writer always writes synchronously to in-memory storage.
+ */
+@Singleton
+public class InMemoryTransferLogSerialization implements TransferLogSerialization {
+
+    private final Map<String, TransferLog> transferLogs = new ConcurrentHashMap<>();
+
+
+    @Override
+    public void recordTransferLog( String queueName, String source, String dest, UUID messageId ) {
+        transferLogs.put( createKey( queueName, dest, messageId ),
+            new TransferLog( queueName, source, dest, messageId, System.currentTimeMillis() ) );
+    }
+
+
+    @Override
+    public void removeTransferLog( String queueName, String source, String dest, UUID messageId )
+        throws QakkaException {
+
+        if ( transferLogs.remove( createKey( queueName, dest, messageId ) ) == null ) {
+            StringBuilder sb = new StringBuilder();
+            sb.append( "Transfer log entry not found for queueName=" ).append( queueName );
+            sb.append( " dest=" ).append( dest );
+            sb.append( " messageId=" ).append( messageId );
+            throw new QakkaException( sb.toString() );
+        }
+    }
+
+
+    @Override
+    public Statement createTransferLogStatement( String queueName, String source, String dest, UUID messageId ) {
+        throw new UnsupportedOperationException( "Statements are not supported with in-memory storage" );
+    }
+
+
+    @Override
+    public Statement createRemoveTransferLogStatement(
+        String queueName, String source, String dest, UUID messageId ) {
+
+        throw new UnsupportedOperationException( "Statements are not supported with in-memory storage" );
+    }
+
+
+    @Override
+    public Result<TransferLog> getAllTransferLogs( PagingState pagingState, int fetchSize ) {
+
+        final List<TransferLog> all = new ArrayList<>( transferLogs.values() );
+
+        return new Result<TransferLog>() {
+
+            @Override
+            public PagingState getPagingState() {
+                return null; // no paging
+            }
+
+            @Override
+            public List<TransferLog> getEntities() {
+                return all;
+            }
+        };
+    }
+
+
+    private String createKey( String queueName, String dest, UUID messageId ) {
+        return queueName + "_" + dest + "_" + messageId;
+    }
+
+
+    @Override
+    public Collection<MultiTenantColumnFamilyDefinition> getColumnFamilies() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<TableDefinition> getTables() {
+        return Collections.emptyList();
+    }
+}
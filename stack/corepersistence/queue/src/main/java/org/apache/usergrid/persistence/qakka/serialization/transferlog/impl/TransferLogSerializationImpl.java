@@ -23,13 +23,16 @@ import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.utils.UUIDs;
 import com.google.inject.Inject;
 import org.apache.usergrid.persistence.core.CassandraConfig;
 import org.apache.usergrid.persistence.core.astyanax.MultiTenantColumnFamilyDefinition;
 import org.apache.usergrid.persistence.core.datastax.TableDefinition;
 import org.apache.usergrid.persistence.core.datastax.impl.TableDefinitionStringImpl;
 import org.apache.usergrid.persistence.qakka.core.CassandraClient;
+import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaException;
 import org.apache.usergrid.persistence.qakka.serialization.Result;
 import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLog;
@@ -77,12 +80,7 @@ public class TransferLogSerializationImpl implements TransferLogSerialization {
     public void recordTransferLog(
             String queueName, String source, String dest, UUID messageId) {
 
-        Statement insert = QueryBuilder.insertInto(TABLE_TRANSFER_LOG)
-                .value(COLUMN_QUEUE_NAME, queueName )
-                .value(COLUMN_SOURCE_REGION, source )
-                .value(COLUMN_DEST_REGION, dest )
-                .value(COLUMN_MESSAGE_ID, messageId )
-                .value(COLUMN_TRANSFER_TIME, System.currentTimeMillis() );
+        Statement insert = createTransferLogStatement( queueName, source, dest, messageId );
         cassandraClient.getApplicationSession().execute(insert);
 
 //        logger.debug("Recorded transfer log for queue {} dest {} messageId {}",
@@ -108,11 +106,38 @@ public class TransferLogSerializationImpl implements TransferLogSerialization {
             throw new QakkaException( sb.toString() );
         }
 
-        Statement deleteQuery = QueryBuilder.delete().from(TABLE_TRANSFER_LOG)
+        Statement deleteQuery = createRemoveTransferLogStatement( queueName, source, dest, messageId );
+        cassandraClient.getApplicationSession().execute( deleteQuery );
+    }
+
+
+    @Override
+    public Statement createTransferLogStatement(
+            String queueName, String source, String dest, UUID messageId ) {
+
+        Insert insert = QueryBuilder.insertInto(TABLE_TRANSFER_LOG)
+                .value(COLUMN_QUEUE_NAME, queueName )
+                .value(COLUMN_SOURCE_REGION, source )
+                .value(COLUMN_DEST_REGION, dest )
+                .value(COLUMN_MESSAGE_ID, messageId )
+                .value(COLUMN_TRANSFER_TIME, System.currentTimeMillis() );
+
+        if ( QakkaUtils.isTimeUuid( messageId ) ) {
+            // message ID is created before the transfer starts, so the remove will always be newer
+            insert.using( QueryBuilder.timestamp( UUIDs.unixTimestamp( messageId ) * 1000 ) );
+        }
+        return insert;
+    }
+
+
+    @Override
+    public Statement createRemoveTransferLogStatement(
+            String queueName, String source, String dest, UUID messageId ) {
+
+        return QueryBuilder.delete().from(TABLE_TRANSFER_LOG)
                 .where(   QueryBuilder.eq( COLUMN_QUEUE_NAME, queueName ))
                     .and( QueryBuilder.eq( COLUMN_DEST_REGION, dest ))
                 .and( QueryBuilder.eq( COLUMN_MESSAGE_ID, messageId ));
-        cassandraClient.getApplicationSession().execute( deleteQuery );
     }
 
 
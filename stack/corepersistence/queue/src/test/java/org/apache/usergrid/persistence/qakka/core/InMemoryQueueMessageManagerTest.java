@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.core;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemModule;
+import org.apache.usergrid.persistence.core.migration.schema.MigrationManager;
+import org.apache.usergrid.persistence.qakka.App;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.apache.usergrid.persistence.qakka.QakkaModule;
+import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Send, get and ack through the queue message manager with in-memory storage. The log writer is configured
+ * to write asynchronously, as it is in production, and must fall back to writing synchronously.
+ */
+public class InMemoryQueueMessageManagerTest {
+
+    private static Injector injector;
+
+
+    @BeforeClass
+    public static void startApp() {
+
+        injector = Guice.createInjector( new AbstractModule() {
+            @Override
+            protected void configure() {
+                install( new ActorSystemModule() );
+                install( new QakkaModule( QakkaModule.Storage.IN_MEMORY ) );
+
+                // nothing to migrate in memory
+                bind( MigrationManager.class ).toInstance( forceCheckSchema -> { } );
+            }
+        } );
+
+        injector.getInstance( QakkaFig.class ).bypass( "getLogWriterAsync", "true" );
+
+        ActorSystemFig actorSystemFig = injector.getInstance( ActorSystemFig.class );
+        App app = injector.getInstance( App.class );
+        app.start( "localhost", 3661, actorSystemFig.getRegionLocal() );
+    }
+
+
+    @AfterClass
+    public static void stopApp() {
+        injector.getInstance( DistributedQueueService.class ).shutdown();
+        injector.getInstance( QakkaFig.class ).bypass( "getLogWriterAsync", null );
+    }
+
+
+    @Test
+    public void testSendGetAck() throws Exception {
+
+        String region = injector.getInstance( ActorSystemFig.class ).getRegionLocal();
+        String queueName = "inmemory_queue_" + System.currentTimeMillis();
+
+        QueueManager queueManager = injector.getInstance( QueueManager.class );
+        queueManager.createQueue( new Queue( queueName, "test-type", region, region, 0L, 5, 10, null ) );
+
+        QueueMessageManager qmm = injector.getInstance( QueueMessageManager.class );
+
+        String jsonData = "{}";
+        qmm.sendMessages( queueName, Collections.singletonList( region ), null, null,
+            "application/json", DataType.serializeValue( jsonData, ProtocolVersion.NEWEST_SUPPORTED ) );
+
+        injector.getInstance( DistributedQueueService.class ).refresh();
+
+        List<QueueMessage> messages = qmm.getNextMessages( queueName, 1 );
+        Assert.assertEquals( 1, messages.size() );
+        QueueMessage message = messages.get( 0 );
+
+        String jsonDataReturned =
+            new String( qmm.getMessageData( message.getMessageId() ).array(), StandardCharsets.UTF_8 );
+        Assert.assertEquals( jsonData, jsonDataReturned );
+
+        // the transfer log was written and removed synchronously
+        TransferLogSerialization tlogs = injector.getInstance( TransferLogSerialization.class );
+        Assert.assertTrue( tlogs.getAllTransferLogs( null, 1000 ).getEntities().stream()
+            .noneMatch( log -> log.getQueueName().equals( queueName ) ) );
+
+        qmm.ackMessage( queueName, message.getQueueMessageId() );
+
+        QueueMessageSerialization qms = injector.getInstance( QueueMessageSerialization.class );
+        Assert.assertNull( qms.loadMessage( queueName, region, null,
+            DatabaseQueueMessage.Type.INFLIGHT, message.getQueueMessageId() ) );
+
+        // send, get and ack were each audited synchronously
+        AuditLogSerialization auditLogSerialization = injector.getInstance( AuditLogSerialization.class );
+        Assert.assertEquals( 3, auditLogSerialization.getAuditLogs( message.getMessageId() ).getEntities().size() );
+
+        queueManager.deleteQueue( queueName );
+    }
+}
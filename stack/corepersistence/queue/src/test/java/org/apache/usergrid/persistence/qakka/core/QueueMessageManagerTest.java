@@ -32,6 +32,7 @@ import org.apache.usergrid.persistence.qakka.QakkaFig;
 import org.apache.usergrid.persistence.qakka.core.impl.InMemoryQueue;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
 import org.apache.usergrid.persistence.qakka.exceptions.QakkaRuntimeException;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.Result;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
@@ -106,6 +107,7 @@ public class QueueMessageManagerTest extends AbstractAkkaTest {
             Assert.assertEquals( jsonData, jsonDataReturned );
 
             // test that transfer log is empty for our queue
+            injector.getInstance( AsyncLogWriter.class ).flush();
             TransferLogSerialization tlogs = injector.getInstance( TransferLogSerialization.class );
             Result<TransferLog> all = tlogs.getAllTransferLogs( null, 1000 );
             List<TransferLog> logs = all.getEntities().stream()
@@ -124,6 +126,7 @@ public class QueueMessageManagerTest extends AbstractAkkaTest {
                 DatabaseQueueMessage.Type.INFLIGHT, message.getQueueMessageId() ) );
 
             // test that audit log entry was written
+            injector.getInstance( AsyncLogWriter.class ).flush();
             AuditLogSerialization auditLogSerialization = injector.getInstance( AuditLogSerialization.class );
             Result<AuditLog> auditLogs = auditLogSerialization.getAuditLogs( message.getMessageId() );
             Assert.assertEquals( 3, auditLogs.getEntities().size() );
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.core;
+
+import org.apache.usergrid.persistence.qakka.AbstractTest;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+
+public class QueuePartitionerTest extends AbstractTest {
+
+    private QakkaFig qakkaFig;
+    private QueuePartitioner queuePartitioner;
+
+
+    @Before
+    public void createPartitioner() {
+        qakkaFig = getInjector().getInstance( QakkaFig.class );
+        queuePartitioner = new QueuePartitioner( qakkaFig );
+    }
+
+
+    @After
+    public void clearBypass() {
+        qakkaFig.bypass( "getNumQueuePartitions", null );
+        qakkaFig.bypass( "getQueuePartitions", null );
+    }
+
+
+    @Test
+    public void testUnpartitionedQueue() {
+
+        qakkaFig.bypass( "getNumQueuePartitions", "1" );
+
+        Assert.assertEquals( Collections.singletonList( "qpt_queue" ),
+            queuePartitioner.getPartitionNames( "qpt_queue" ) );
+
+        Assert.assertEquals( "qpt_queue", queuePartitioner.getPartitionName( "qpt_queue", UUID.randomUUID() ) );
+    }
+
+
+    @Test
+    public void testPartitionedQueue() {
+
+        qakkaFig.bypass( "getNumQueuePartitions", "1" );
+        qakkaFig.bypass( "getQueuePartitions", "qpt_index:4, qpt_bad:x" );
+
+        List<String> partitionNames = queuePartitioner.getPartitionNames( "qpt_index" );
+        Assert.assertEquals( 4, partitionNames.size() );
+
+        // partition zero is the queue itself
+        Assert.assertEquals( "qpt_index", partitionNames.get( 0 ) );
+
+        for ( String partitionName : partitionNames ) {
+            Assert.assertEquals( "qpt_index", QueuePartitioner.getQueueName( partitionName ) );
+        }
+
+        Assert.assertEquals( 1, queuePartitioner.getNumPartitions( "qpt_other" ) );
+        Assert.assertEquals( 1, queuePartitioner.getNumPartitions( "qpt_bad" ) );
+
+        // each message always goes to the same partition, messages are spread over all partitions
+
+        Set<String> used = new HashSet<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            UUID messageId = UUID.randomUUID();
+            String partitionName = queuePartitioner.getPartitionName( "qpt_index", messageId );
+            Assert.assertEquals( partitionName, queuePartitioner.getPartitionName( "qpt_index", messageId ) );
+            Assert.assertTrue( partitionNames.contains( partitionName ) );
+            used.add( partitionName );
+        }
+        Assert.assertEquals( 4, used.size() );
+    }
+
+
+    @Test
+    public void testPartitionOfQueueMessage() {
+
+        qakkaFig.bypass( "getNumQueuePartitions", "1" );
+        qakkaFig.bypass( "getQueuePartitions", "qpt_index:4" );
+
+        for ( int partition = 0; partition < 4; partition++ ) {
+            UUID queueMessageId = QueuePartitioner.createQueueMessageId( partition );
+
+            Assert.assertTrue( QakkaUtils.isTimeUuid( queueMessageId ) );
+            Assert.assertEquals( QueuePartitioner.getPartitionName( "qpt_index", partition ),
+                queuePartitioner.getPartitionNameOfQueueMessage( "qpt_index", queueMessageId ) );
+        }
+
+        // ids of messages written before the queue was partitioned, or to removed partitions, map to partition zero
+        Assert.assertEquals( "qpt_index", queuePartitioner.getPartitionNameOfQueueMessage(
+            "qpt_index", QueuePartitioner.createQueueMessageId( 9 ) ) );
+        Assert.assertEquals( "qpt_other", queuePartitioner.getPartitionNameOfQueueMessage(
+            "qpt_other", QueuePartitioner.createQueueMessageId( 3 ) ) );
+
+        // plain time UUIDs carry no partition, whatever their clock sequence
+        for ( int clockSequence = 0; clockSequence < 4; clockSequence++ ) {
+            UUID timeUuid = QakkaUtils.getTimeUuid();
+            UUID legacyId = new UUID( timeUuid.getMostSignificantBits(),
+                ( timeUuid.getLeastSignificantBits() & ~( 0x3FFFL << 48 ) ) | ( (long)clockSequence << 48 ) );
+            Assert.assertEquals( 0, QueuePartitioner.getPartitionOfQueueMessage( legacyId ) );
+            Assert.assertEquals( "qpt_index",
+                queuePartitioner.getPartitionNameOfQueueMessage( "qpt_index", legacyId ) );
+        }
+
+        // queue message ids of one partition stay unique and time ordered
+        UUID first = QueuePartitioner.createQueueMessageId( 2 );
+        UUID second = QueuePartitioner.createQueueMessageId( 2 );
+        Assert.assertNotEquals( first, second );
+        Assert.assertTrue( second.timestamp() > first.timestamp() );
+    }
+
+
+    @Test
+    public void testGetQueueName() {
+
+        Assert.assertEquals( "queue", QueuePartitioner.getQueueName( "queue" ) );
+        Assert.assertEquals( "queue", QueuePartitioner.getQueueName( QueuePartitioner.getPartitionName( "queue", 12 ) ) );
+        Assert.assertEquals( "queue!a", QueuePartitioner.getQueueName( "queue!a" ) );
+        Assert.assertEquals( "!1", QueuePartitioner.getQueueName( "!1" ) );
+
+        // queue names that look like partition names are left alone
+        Assert.assertEquals( "queue~p12", QueuePartitioner.getQueueName( "queue~p12" ) );
+        Assert.assertEquals( "queue_12", QueuePartitioner.getQueueName( "queue_12" ) );
+
+        Assert.assertTrue( QueuePartitioner.isValidQueueName( "queue~p12" ) );
+        Assert.assertFalse( QueuePartitioner.isValidQueueName( "queue!12" ) );
+    }
+}
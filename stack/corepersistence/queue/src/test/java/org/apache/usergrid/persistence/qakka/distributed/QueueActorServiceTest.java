@@ -29,6 +29,7 @@ import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
 import org.apache.usergrid.persistence.qakka.AbstractAkkaTest;
 import org.apache.usergrid.persistence.qakka.AbstractTest;
 import org.apache.usergrid.persistence.qakka.App;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
 import org.apache.usergrid.persistence.qakka.QakkaModule;
 import org.apache.usergrid.persistence.qakka.core.*;
 import org.apache.usergrid.persistence.qakka.core.impl.InMemoryQueue;
@@ -46,6 +47,9 @@ import org.slf4j.LoggerFactory;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 @NotThreadSafe
@@ -183,6 +187,119 @@ public class QueueActorServiceTest extends AbstractAkkaTest {
     }
 
 
+    @Test
+    public void testGetWaitsForMessages() throws Exception {
+
+        Injector injector = getInjector();
+
+        ActorSystemFig actorSystemFig = injector.getInstance( ActorSystemFig.class );
+        String region = actorSystemFig.getRegionLocal();
+
+        DistributedQueueService distributedQueueService = injector.getInstance( DistributedQueueService.class );
+        QueueMessageSerialization serialization         = injector.getInstance( QueueMessageSerialization.class );
+        QakkaFig qakkaFig                               = injector.getInstance( QakkaFig.class );
+
+        String queueName = "queue_testGetWaitsForMessages_" + UUID.randomUUID();
+        QueueManager queueManager = injector.getInstance( QueueManager.class );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+
+            queueManager.createQueue( new Queue( queueName, "test-type", region, region, 0L, 5, 10, null ) );
+
+            // get from empty queue waits for long-poll time, then returns nothing
+
+            long start = System.currentTimeMillis();
+            Assert.assertTrue( distributedQueueService.getNextMessages( queueName, 1 ).isEmpty() );
+            Assert.assertTrue( System.currentTimeMillis() - start >= qakkaFig.getLongPollTimeMillis() );
+
+            // get that is waiting is answered as soon as message arrives
+
+            Future<Collection<DatabaseQueueMessage>> future =
+                executor.submit( () -> distributedQueueService.getNextMessages( queueName, 1 ) );
+
+            Thread.sleep( qakkaFig.getLongPollTimeMillis() / 4 );
+
+            UUID messageId = UUIDGen.getTimeUUID();
+            final DatabaseQueueMessageBody messageBody = new DatabaseQueueMessageBody(
+                DataType.serializeValue( "my test data", ProtocolVersion.NEWEST_SUPPORTED ), "text/plain" );
+            serialization.writeMessageData( messageId, messageBody );
+
+            start = System.currentTimeMillis();
+            distributedQueueService.sendMessageToRegion( queueName, region, region, messageId, null, null );
+
+            Collection<DatabaseQueueMessage> qmReturned = future.get();
+            Assert.assertEquals( 1, qmReturned.size() );
+            Assert.assertEquals( messageId, qmReturned.iterator().next().getMessageId() );
+            Assert.assertTrue( System.currentTimeMillis() - start < qakkaFig.getLongPollTimeMillis() );
+
+            distributedQueueService.shutdown();
+
+        } finally {
+            executor.shutdownNow();
+            queueManager.deleteQueue( queueName );
+        }
+    }
+
+
+    @Test
+    public void testPartitionedGetWaitsForMessages() throws Exception {
+
+        Injector injector = getInjector();
+
+        ActorSystemFig actorSystemFig = injector.getInstance( ActorSystemFig.class );
+        String region = actorSystemFig.getRegionLocal();
+
+        DistributedQueueService distributedQueueService = injector.getInstance( DistributedQueueService.class );
+        QueueMessageSerialization serialization         = injector.getInstance( QueueMessageSerialization.class );
+        QakkaFig qakkaFig                               = injector.getInstance( QakkaFig.class );
+
+        String queueName = "queue_testPartitionedGetWaitsForMessages_" + UUID.randomUUID();
+        QueueManager queueManager = injector.getInstance( QueueManager.class );
+
+        // waiting get must be woken by the partition's queue actor, not by a re-scan of all partitions
+        qakkaFig.bypass( "getQueuePartitions", queueName + ":4" );
+        qakkaFig.bypass( "getPartitionsRescanMillis", "60000" );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+
+            queueManager.createQueue( new Queue( queueName, "test-type", region, region, 0L, 5, 10, null ) );
+
+            for ( int i = 0; i < 4; i++ ) {
+
+                Future<Collection<DatabaseQueueMessage>> future =
+                    executor.submit( () -> distributedQueueService.getNextMessages( queueName, 1 ) );
+
+                Thread.sleep( qakkaFig.getLongPollTimeMillis() / 4 );
+
+                UUID messageId = UUIDGen.getTimeUUID();
+                final DatabaseQueueMessageBody messageBody = new DatabaseQueueMessageBody(
+                    DataType.serializeValue( "my test data", ProtocolVersion.NEWEST_SUPPORTED ), "text/plain" );
+                serialization.writeMessageData( messageId, messageBody );
+
+                long start = System.currentTimeMillis();
+                distributedQueueService.sendMessageToRegion( queueName, region, region, messageId, null, null );
+
+                Collection<DatabaseQueueMessage> qmReturned = future.get();
+                Assert.assertEquals( 1, qmReturned.size() );
+                Assert.assertEquals( messageId, qmReturned.iterator().next().getMessageId() );
+                Assert.assertTrue( System.currentTimeMillis() - start < qakkaFig.getLongPollTimeMillis() );
+
+                distributedQueueService.ackMessage( queueName, qmReturned.iterator().next().getQueueMessageId() );
+            }
+
+        } finally {
+            executor.shutdownNow();
+            queueManager.deleteQueue( queueName );
+            qakkaFig.bypass( "getQueuePartitions", null );
+            qakkaFig.bypass( "getPartitionsRescanMillis", null );
+        }
+    }
+
+
     @Test
     public void testQueueMessageCounter() throws InterruptedException {
 
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.distributed;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.apache.usergrid.StressTest;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemFig;
+import org.apache.usergrid.persistence.actorsystem.ActorSystemModule;
+import org.apache.usergrid.persistence.core.migration.schema.MigrationManager;
+import org.apache.usergrid.persistence.qakka.App;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.apache.usergrid.persistence.qakka.QakkaModule;
+import org.apache.usergrid.persistence.qakka.core.Queue;
+import org.apache.usergrid.persistence.qakka.core.QueueManager;
+import org.apache.usergrid.persistence.qakka.core.QueueMessageManager;
+import org.apache.usergrid.persistence.qakka.core.QakkaUtils;
+import org.apache.usergrid.persistence.qakka.exceptions.QakkaRuntimeException;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessage;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.DatabaseQueueMessageBody;
+import org.apache.usergrid.persistence.qakka.serialization.queuemessages.QueueMessageSerialization;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Throughput benchmark for the distributed queue service, run against in-memory storage so that routing,
+ * actor and sharding changes can be measured without a Cassandra cluster. Reports messages per second and
+ * p99 latency of send, get, ack and timeout operations.
+ *
+ * Send errors are counted rather than failing the run, since on small machines Akka dispatcher threads blocked
+ * in the queue sender can cause send timeouts under load; the run only fails if a sent message is lost.
+ *
+ * Size of the run can be set with system properties qakka.benchmark.messages, qakka.benchmark.producers,
+ * qakka.benchmark.consumers and qakka.benchmark.partitions (partitions per queue), e.g.:
+ *
+ *   mvn test -Dtest=QueueThroughputStressTest -DexcludedGroups= -Dqakka.benchmark.messages=100000
+ */
+@Category(StressTest.class)
+public class QueueThroughputStressTest {
+    private static final Logger logger = LoggerFactory.getLogger( QueueThroughputStressTest.class );
+
+    private static final int numMessages   = Integer.getInteger( "qakka.benchmark.messages", 5000 );
+    private static final int numProducers  = Integer.getInteger( "qakka.benchmark.producers", 4 );
+    private static final int numConsumers  = Integer.getInteger( "qakka.benchmark.consumers", 4 );
+    private static final int getBatchSize  = Integer.getInteger( "qakka.benchmark.batch", 10 );
+    private static final int numPartitions = Integer.getInteger( "qakka.benchmark.partitions", 1 );
+    private static final int akkaPort      = Integer.getInteger( "qakka.benchmark.port", 3651 );
+
+    private static Injector injector;
+
+
+    @BeforeClass
+    public static void startApp() {
+
+        injector = Guice.createInjector( new AbstractModule() {
+            @Override
+            protected void configure() {
+                install( new ActorSystemModule() );
+                install( new QakkaModule( QakkaModule.Storage.IN_MEMORY ) );
+
+                // nothing to migrate in memory
+                bind( MigrationManager.class ).toInstance( forceCheckSchema -> { } );
+            }
+        } );
+
+        QakkaFig qakkaFig = injector.getInstance( QakkaFig.class );
+        qakkaFig.bypass( "getNumQueuePartitions", Integer.toString( numPartitions ) );
+
+        ActorSystemFig actorSystemFig = injector.getInstance( ActorSystemFig.class );
+        App app = injector.getInstance( App.class );
+        app.start( "localhost", akkaPort, actorSystemFig.getRegionLocal() );
+    }
+
+
+    @Test
+    public void testSendGetAckThroughput() throws Exception {
+
+        DistributedQueueService distributedQueueService = injector.getInstance( DistributedQueueService.class );
+        String queueName = createQueue( "sendgetack" );
+
+        Latencies sendLatencies = new Latencies();
+        Latencies getLatencies = new Latencies();
+        Latencies ackLatencies = new Latencies();
+
+        Set<UUID> sent = ConcurrentHashMap.newKeySet();
+        Set<UUID> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger( 0 );
+        AtomicInteger sendErrors = new AtomicInteger( 0 );
+        AtomicInteger remainingToSend = new AtomicInteger( numMessages );
+        AtomicInteger producersRunning = new AtomicInteger( numProducers );
+        AtomicLong lastAckNanos = new AtomicLong( 0 );
+
+        ExecutorService executor = Executors.newFixedThreadPool( numProducers + numConsumers );
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+
+        for ( int i = 0; i < numProducers; i++ ) {
+            futures.add( executor.submit( () -> {
+                try {
+                    while ( remainingToSend.getAndDecrement() > 0 ) {
+                        UUID messageId = sendMessage( queueName, sendLatencies );
+                        if ( messageId != null ) {
+                            sent.add( messageId );
+                        } else {
+                            sendErrors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    producersRunning.decrementAndGet();
+                }
+            } ) );
+        }
+
+        long deadline = System.currentTimeMillis() + Math.max( 60000L, numMessages * 20L );
+
+        for ( int i = 0; i < numConsumers; i++ ) {
+            futures.add( executor.submit( () -> {
+                while ( ( producersRunning.get() > 0 || !received.containsAll( sent ) )
+                    && System.currentTimeMillis() < deadline ) {
+
+                    long getStart = System.nanoTime();
+                    Collection<DatabaseQueueMessage> messages =
+                        distributedQueueService.getNextMessages( queueName, getBatchSize );
+                    getLatencies.add( System.nanoTime() - getStart );
+
+                    for ( DatabaseQueueMessage message : messages ) {
+                        if ( !received.add( message.getMessageId() ) ) {
+                            duplicates.incrementAndGet();
+                        }
+                        long ackStart = System.nanoTime();
+                        distributedQueueService.ackMessage( queueName, message.getQueueMessageId() );
+                        lastAckNanos.set( System.nanoTime() );
+                        ackLatencies.add( lastAckNanos.get() - ackStart );
+                    }
+                }
+            } ) );
+        }
+
+        for ( Future<?> future : futures ) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // do not count the time consumers spent waiting for messages after the last one was acked
+        long elapsedNanos = lastAckNanos.get() - start;
+
+        logger.info( "Send/get/ack of {} messages with {} producers and {} consumers: {} msgs/sec, "
+                + "{} send errors, {} duplicates", numMessages, numProducers, numConsumers,
+            perSecond( received.size(), elapsedNanos ), sendErrors.get(), duplicates.get() );
+        sendLatencies.report( "send" );
+        getLatencies.report( "get" );
+        ackLatencies.report( "ack" );
+
+        Assert.assertTrue( "Every message sent must be received", received.containsAll( sent ) );
+    }
+
+
+    @Test
+    public void testTimeoutThroughput() throws Exception {
+
+        DistributedQueueService distributedQueueService = injector.getInstance( DistributedQueueService.class );
+        QueueMessageManager queueMessageManager = injector.getInstance( QueueMessageManager.class );
+        QakkaFig qakkaFig = injector.getInstance( QakkaFig.class );
+
+        String queueName = createQueue( "timeout" );
+
+        Latencies sendLatencies = new Latencies();
+        int sent = 0;
+        for ( int i = 0; i < numMessages; i++ ) {
+            if ( sendMessage( queueName, sendLatencies ) != null ) {
+                sent++;
+            }
+        }
+
+        // get every message and never ack; a send that timed out may still have been written, so get until empty
+
+        int inflight = 0;
+        long deadline = System.currentTimeMillis() + Math.max( 60000L, numMessages * 20L );
+        while ( System.currentTimeMillis() < deadline ) {
+            int got = distributedQueueService.getNextMessages( queueName, getBatchSize ).size();
+            if ( got == 0 && inflight >= sent ) {
+                break;
+            }
+            inflight += got;
+        }
+        Assert.assertTrue( inflight >= sent );
+
+        qakkaFig.bypass( "getQueueTimeoutSeconds", "0" );
+        try {
+            long start = System.nanoTime();
+
+            long available = 0;
+            while ( available < inflight && System.currentTimeMillis() < deadline ) {
+                distributedQueueService.processTimeouts();
+                Thread.sleep( 100 );
+                available = queueMessageManager.getQueueDepth( queueName, DatabaseQueueMessage.Type.DEFAULT );
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            logger.info( "Timeout of {} inflight messages: {} msgs/sec",
+                inflight, perSecond( available, elapsedNanos ) );
+
+            Assert.assertEquals( inflight, available );
+
+        } finally {
+            qakkaFig.bypass( "getQueueTimeoutSeconds", null );
+        }
+    }
+
+
+    private String createQueue( String name ) {
+
+        ActorSystemFig actorSystemFig = injector.getInstance( ActorSystemFig.class );
+        String region = actorSystemFig.getRegionLocal();
+
+        String queueName = "bench_" + name + "_" + UUID.randomUUID();
+        injector.getInstance( QueueManager.class ).createQueue(
+            new Queue( queueName, "test-type", region, region, 0L, 5, 10, null ) );
+        return queueName;
+    }
+
+
+    /**
+     * Send message the way the queue message manager does: write data and transfer log, then send to region.
+     *
+     * @return Message ID if sent, or null if send failed
+     */
+    private UUID sendMessage( String queueName, Latencies latencies ) {
+
+        DistributedQueueService distributedQueueService = injector.getInstance( DistributedQueueService.class );
+        QueueMessageSerialization serialization = injector.getInstance( QueueMessageSerialization.class );
+        AsyncLogWriter logWriter = injector.getInstance( AsyncLogWriter.class );
+        String region = injector.getInstance( ActorSystemFig.class ).getRegionLocal();
+
+        long start = System.nanoTime();
+
+        UUID messageId = QakkaUtils.getTimeUuid();
+        serialization.writeMessageData( messageId, new DatabaseQueueMessageBody(
+            ByteBuffer.wrap( "benchmark".getBytes( StandardCharsets.UTF_8 ) ), "text/plain" ) );
+        logWriter.recordTransferLog( queueName, region, region, messageId );
+
+        DistributedQueueService.Status status;
+        try {
+            status = distributedQueueService.sendMessageToRegion(
+                queueName, region, region, messageId, null, null );
+
+        } catch ( QakkaRuntimeException e ) {
+            logger.debug( "Error sending message", e );
+            status = DistributedQueueService.Status.ERROR;
+        }
+
+        latencies.add( System.nanoTime() - start );
+
+        return DistributedQueueService.Status.SUCCESS.equals( status ) ? messageId : null;
+    }
+
+
+    private static long perSecond( long count, long elapsedNanos ) {
+        return elapsedNanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+    }
+
+
+    private static class Latencies {
+
+        private final java.util.Queue<Long> nanos = new ConcurrentLinkedQueue<>();
+
+        void add( long elapsedNanos ) {
+            nanos.add( elapsedNanos );
+        }
+
+        void report( String operation ) {
+
+            List<Long> sorted = new ArrayList<>( nanos );
+            if ( sorted.isEmpty() ) {
+                return;
+            }
+            Collections.sort( sorted );
+
+            long p50 = sorted.get( (int)( sorted.size() * 0.50 ) );
+            long p99 = sorted.get( Math.min( sorted.size() - 1, (int)( sorted.size() * 0.99 ) ) );
+
+            logger.info( "{} x {}: p50 {} ms, p99 {} ms, max {} ms", operation, sorted.size(),
+                TimeUnit.NANOSECONDS.toMillis( p50 ),
+                TimeUnit.NANOSECONDS.toMillis( p99 ),
+                TimeUnit.NANOSECONDS.toMillis( sorted.get( sorted.size() - 1 ) ) );
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.usergrid.persistence.qakka.AbstractTest;
 import org.apache.usergrid.persistence.qakka.App;
 import org.apache.usergrid.persistence.qakka.core.*;
 import org.apache.usergrid.persistence.qakka.distributed.DistributedQueueService;
+import org.apache.usergrid.persistence.qakka.serialization.AsyncLogWriter;
 import org.apache.usergrid.persistence.qakka.serialization.Result;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
 import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
@@ -196,6 +197,7 @@ public class QueueActorHelperTest extends AbstractAkkaTest {
 
             // there must be an audit log record of the successful get operation
 
+            injector.getInstance( AsyncLogWriter.class ).flush();
             AuditLogSerialization auditLogSerialization = injector.getInstance( AuditLogSerialization.class );
             Result<AuditLog> auditLogs = auditLogSerialization.getAuditLogs( message.getMessageId() );
             Assert.assertEquals( 1, auditLogs.getEntities().size() );
@@ -265,6 +267,7 @@ public class QueueActorHelperTest extends AbstractAkkaTest {
 
             // there should be an audit log record of the successful ack operation
 
+            injector.getInstance( AsyncLogWriter.class ).flush();
             AuditLogSerialization auditLogSerialization = injector.getInstance( AuditLogSerialization.class );
             Result<AuditLog> auditLogs = auditLogSerialization.getAuditLogs( message.getMessageId() );
             Assert.assertEquals( 1, auditLogs.getEntities().size() );
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.usergrid.persistence.qakka.serialization;
+
+import org.apache.cassandra.utils.UUIDGen;
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.usergrid.persistence.qakka.AbstractTest;
+import org.apache.usergrid.persistence.qakka.MetricsService;
+import org.apache.usergrid.persistence.qakka.QakkaFig;
+import org.apache.usergrid.persistence.qakka.core.CassandraClient;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLog;
+import org.apache.usergrid.persistence.qakka.serialization.auditlog.AuditLogSerialization;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLog;
+import org.apache.usergrid.persistence.qakka.serialization.transferlog.TransferLogSerialization;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+
+public class AsyncLogWriterTest extends AbstractTest {
+
+    private QakkaFig qakkaFig;
+    private AuditLogSerialization auditLogSerialization;
+    private TransferLogSerialization transferLogSerialization;
+    private AsyncLogWriter logWriter;
+
+
+    @Before
+    public void createLogWriter() {
+
+        qakkaFig = getInjector().getInstance( QakkaFig.class );
+        qakkaFig.bypass( "getLogWriterAsync", "true" );
+
+        auditLogSerialization = getInjector().getInstance( AuditLogSerialization.class );
+        transferLogSerialization = getInjector().getInstance( TransferLogSerialization.class );
+
+        logWriter = new AsyncLogWriter(
+            qakkaFig,
+            getInjector().getInstance( CassandraClient.class ),
+            getInjector().getInstance( MetricsService.class ),
+            auditLogSerialization,
+            transferLogSerialization );
+    }
+
+
+    @After
+    public void clearBypass() {
+        qakkaFig.bypass( "getLogWriterAsync", null );
+        qakkaFig.bypass( "getAuditLogQueueSampleRates", null );
+    }
+
+
+    @Test
+    public void testRecordAuditLogs() throws Exception {
+
+        UUID messageId = UUIDGen.getTimeUUID();
+        String queueName = "alwt_queue_" + RandomStringUtils.randomAlphanumeric( 15 );
+
+        int numLogs = 250;
+        for ( int i = 0; i < numLogs; i++ ) {
+            logWriter.recordAuditLog( AuditLog.Action.GET, AuditLog.Status.SUCCESS,
+                queueName, "us-east", messageId, UUIDGen.getTimeUUID() );
+        }
+        logWriter.flush();
+
+        Assert.assertEquals( numLogs, waitForAuditLogs( messageId, numLogs ) );
+    }
+
+
+    @Test
+    public void testAuditLogSampling() throws Exception {
+
+        UUID messageId = UUIDGen.getTimeUUID();
+        String queueName = "alwt_queue_" + RandomStringUtils.randomAlphanumeric( 15 );
+
+        // disable audit log for queue, only errors should be recorded
+        qakkaFig.bypass( "getAuditLogQueueSampleRates", "other_queue:0.5," + queueName + ":0" );
+
+        logWriter.recordAuditLog( AuditLog.Action.GET, AuditLog.Status.SUCCESS,
+            queueName, "us-east", messageId, UUIDGen.getTimeUUID() );
+        logWriter.recordAuditLog( AuditLog.Action.ACK, AuditLog.Status.ERROR,
+            queueName, "us-east", messageId, UUIDGen.getTimeUUID() );
+        logWriter.flush();
+
+        Assert.assertEquals( 1, waitForAuditLogs( messageId, 1 ) );
+        Thread.sleep( qakkaFig.getLogWriterFlushMillis() * 2 );
+
+        List<AuditLog> auditLogs = auditLogSerialization.getAuditLogs( messageId ).getEntities();
+        Assert.assertEquals( 1, auditLogs.size() );
+        Assert.assertEquals( AuditLog.Status.ERROR, auditLogs.get( 0 ).getStatus() );
+    }
+
+
+    @Test
+    public void testShutdownWritesQueuedLogs() throws Exception {
+
+        UUID messageId = UUIDGen.getTimeUUID();
+        String queueName = "alwt_queue_" + RandomStringUtils.randomAlphanumeric( 15 );
+
+        int numLogs = 50;
+        for ( int i = 0; i < numLogs; i++ ) {
+            logWriter.recordAuditLog( AuditLog.Action.GET, AuditLog.Status.SUCCESS,
+                queueName, "us-east", messageId, UUIDGen.getTimeUUID() );
+        }
+        logWriter.shutdown();
+
+        // queued logs are written before shutdown returns, later logs are written right away
+        Assert.assertEquals( numLogs, auditLogSerialization.getAuditLogs( messageId ).getEntities().size() );
+
+        logWriter.recordAuditLog( AuditLog.Action.ACK, AuditLog.Status.SUCCESS,
+            queueName, "us-east", messageId, UUIDGen.getTimeUUID() );
+        Assert.assertEquals( numLogs + 1, auditLogSerialization.getAuditLogs( messageId ).getEntities().size() );
+    }
+
+
+    @Test
+    public void testParseSampleRates() {
+
+        Map<String, Double> rates = AsyncLogWriter.parseSampleRates( " queue1:0.1, queue2:0 ,bad, queue3:x" );
+
+        Assert.assertEquals( 2, rates.size() );
+        Assert.assertEquals( 0.1, rates.get( "queue1" ), 0.0 );
+        Assert.assertEquals( 0.0, rates.get( "queue2" ), 0.0 );
+    }
+
+
+    @Test
+    public void testRecordAndRemoveTransferLog() throws Exception {
+
+        String queueName = "alwt_queue_" + RandomStringUtils.randomAlphanumeric( 15 );
+        UUID messageId = UUIDGen.getTimeUUID();
+
+        logWriter.recordTransferLog( queueName, "us-east", "us-west", messageId );
+        logWriter.flush();
+        Assert.assertEquals( 1, waitForTransferLogs( queueName, 1 ) );
+
+        // remove may be written before record, record is still overwritten by remove
+        UUID messageId2 = UUIDGen.getTimeUUID();
+        logWriter.removeTransferLog( queueName, "us-east", "us-west", messageId );
+        logWriter.removeTransferLog( queueName, "us-east", "us-west", messageId2 );
+        logWriter.flush();
+        transferLogSerialization.recordTransferLog( queueName, "us-east", "us-west", messageId2 );
+
+        Assert.assertEquals( 0, waitForTransferLogs( queueName, 0 ) );
+    }
+
+
+    private int waitForAuditLogs( UUID messageId, int expected ) throws InterruptedException {
+        int count = 0;
+        for ( int i = 0; i < 20 && count != expected; i++ ) {
+            Thread.sleep( 100 );
+            count = auditLogSerialization.getAuditLogs( messageId ).getEntities().size();
+        }
+        return count;
+    }
+
+
+    private int waitForTransferLogs( String queueName, int expected ) throws InterruptedException {
+        int count = -1;
+        for ( int i = 0; i < 20 && count != expected; i++ ) {
+            Thread.sleep( 100 );
+            List<TransferLog> logs = transferLogSerialization.getAllTransferLogs( null, 1000 ).getEntities()
+                .stream().filter( log -> log.getQueueName().equals( queueName ) ).collect( Collectors.toList() );
+            count = logs.size();
+        }
+        return count;
+    }
+}
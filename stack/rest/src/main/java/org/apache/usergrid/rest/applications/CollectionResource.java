@@ -87,6 +87,9 @@ public class CollectionResource extends ServiceResource {
      *
      * Expects a JSON object which may include:
      * - fields: (array or string) either an array of field names to be indexed, or 'all' or 'none'
+     * - excludeFields: (array) field paths never to be indexed, a path segment of '*' matches any field name
+     * - maxIndexDepth: (number) the deepest level of nested objects to be indexed, top level fields are 1
+     * - maxIndexArrayElements: (number) the most elements of an array to be indexed
      * - region: (string) name of the authoritative region for this collection
      */
     @POST
@@ -20,6 +20,7 @@ package org.apache.usergrid.rest.applications;
 import com.amazonaws.AmazonServiceException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.jaxrs.json.annotation.JSONP;
+import com.google.common.primitives.Ints;
 import org.apache.commons.lang.StringUtils;
 import org.apache.usergrid.management.OrganizationConfig;
 import org.apache.usergrid.management.OrganizationConfigProps;
@@ -426,7 +427,10 @@ public class ServiceResource extends AbstractContextResource {
                     return results;
                 }
             }
-            if ( collectionGet ) {
+            if ( results.getCount() != null ) {
+                response.setCount( Ints.saturatedCast( results.getCount() ) );
+            }
+            else if ( collectionGet ) {
                 response.setCount( results.size() );
             }
 
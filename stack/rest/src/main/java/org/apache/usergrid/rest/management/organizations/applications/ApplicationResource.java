@@ -27,6 +27,7 @@ import org.apache.usergrid.management.ApplicationInfo;
 import org.apache.usergrid.management.OrganizationInfo;
 import org.apache.usergrid.management.export.ExportService;
 import org.apache.usergrid.persistence.EntityManager;
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
 import org.apache.usergrid.persistence.core.util.Health;
 import org.apache.usergrid.persistence.queue.impl.UsergridAwsCredentials;
 import org.apache.usergrid.rest.AbstractContextResource;
@@ -50,7 +51,9 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -74,6 +77,11 @@ public class ApplicationResource extends AbstractContextResource {
 
     public static final String CONFIRM_APPLICATION_IDENTIFIER = "confirm_application_identifier";
 
+    /**
+     * Most entity changes returned by one request
+     */
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
     @Autowired
     protected ExportService exportService;
 
@@ -226,6 +234,59 @@ public class ApplicationResource extends AbstractContextResource {
         return response;
     }
 
+    @RequireOrganizationAccess
+    @GET
+    @JSONP
+    @Path("_changes")
+    public ApiResponse getChanges(
+        @Context UriInfo ui,
+        @QueryParam("cursor") String cursor,
+        @QueryParam("limit") @DefaultValue("100") int limit,
+        @QueryParam("callback") @DefaultValue("callback") String callback )
+        throws Exception {
+        ApiResponse response = createApiResponse();
+        response.setAction("get entity changes");
+        if (limit < 1) {
+            limit = 1;
+        } else if (limit > MAX_CHANGES_LIMIT) {
+            limit = MAX_CHANGES_LIMIT;
+        }
+        List<EntityChange> changes = management.getChanges(this.applicationId, parseChangeCursor(cursor), limit);
+        List<Object> list = new ArrayList<>(changes.size());
+        for (EntityChange change : changes) {
+            Map<String,Object> map = new HashMap<>();
+            map.put("uuid", change.getEntityId().getUuid());
+            map.put("type", change.getEntityId().getType());
+            map.put("version", change.getVersion());
+            map.put("change", change.getType().name().toLowerCase());
+            list.add(map);
+        }
+        response.setList(list);
+        if (!changes.isEmpty()) {
+            response.setCursor(changes.get(changes.size() - 1).getVersion().toString());
+        }
+        return response;
+    }
+
+    /**
+     * The cursor of the change stream is the version of the last change returned, which is a time uuid
+     */
+    private static UUID parseChangeCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        UUID version;
+        try {
+            version = UUID.fromString(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid changes cursor: " + cursor);
+        }
+        if (version.version() != 1) {
+            throw new IllegalArgumentException("Invalid changes cursor: " + cursor);
+        }
+        return version;
+    }
+
     @POST
     @Path("sia-provider")
     @Consumes(APPLICATION_JSON)
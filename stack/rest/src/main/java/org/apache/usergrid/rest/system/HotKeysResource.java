@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.usergrid.rest.system;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import org.apache.usergrid.corepersistence.util.CpNamingUtils;
+import org.apache.usergrid.persistence.core.metrics.HotKeyTracker;
+import org.apache.usergrid.persistence.core.metrics.HotKeys;
+import org.apache.usergrid.persistence.index.utils.UUIDUtils;
+import org.apache.usergrid.rest.AbstractContextResource;
+import org.apache.usergrid.rest.ApiResponse;
+import org.apache.usergrid.rest.security.annotations.RequireSystemAccess;
+
+import com.fasterxml.jackson.jaxrs.json.annotation.JSONP;
+
+
+/**
+ * system/hotkeys, the most read, most written and largest entities and graph nodes of each application and type
+ */
+@Component
+@Scope( "singleton" )
+@Produces( {
+    MediaType.APPLICATION_JSON, "application/javascript", "application/x-javascript", "text/ecmascript",
+    "application/ecmascript", "text/jscript"
+} )
+public class HotKeysResource extends AbstractContextResource {
+
+    private static final Logger logger = LoggerFactory.getLogger( HotKeysResource.class );
+
+
+    public HotKeysResource() {
+        logger.info( "HotKeysResource initialized" );
+    }
+
+
+    @RequireSystemAccess
+    @GET
+    @JSONP
+    @Produces( { MediaType.APPLICATION_JSON, "application/javascript" } )
+    public ApiResponse getHotKeys( @QueryParam( "applicationId" ) String applicationIdStr,
+                                   @QueryParam( "callback" ) @DefaultValue( "callback" ) String callback )
+        throws Exception {
+
+        ApiResponse response = createApiResponse();
+        response.setAction( "get hot keys" );
+
+        final HotKeyTracker hotKeyTracker = injector.getInstance( HotKeyTracker.class );
+
+        final List<HotKeys> hotKeys;
+
+        if ( applicationIdStr == null ) {
+            hotKeys = hotKeyTracker.getHotKeys();
+        }
+        else {
+            final UUID applicationId = UUIDUtils.tryGetUUID( applicationIdStr );
+
+            if ( applicationId == null ) {
+                throw new IllegalArgumentException( "applicationId must be a uuid" );
+            }
+
+            hotKeys = hotKeyTracker.getHotKeys( CpNamingUtils.generateApplicationId( applicationId ) );
+        }
+
+        final List<Object> list = new ArrayList<>( hotKeys.size() );
+
+        for ( final HotKeys keys : hotKeys ) {
+            final Map<String, Object> map = new HashMap<>();
+            map.put( "store", keys.getStore().name().toLowerCase() );
+            map.put( "applicationId", keys.getApplicationId().getUuid() );
+            map.put( "type", keys.getType() );
+            map.put( "reads", toList( keys.getReads(), "count" ) );
+            map.put( "writes", toList( keys.getWrites(), "count" ) );
+            map.put( "largest", toList( keys.getLargest(), "bytes" ) );
+            list.add( map );
+        }
+
+        response.setList( list );
+        response.setSuccess();
+
+        return response;
+    }
+
+
+    private static List<Object> toList( final List<HotKeys.HotKey> hotKeys, final String valueName ) {
+        final List<Object> list = new ArrayList<>( hotKeys.size() );
+
+        for ( final HotKeys.HotKey hotKey : hotKeys ) {
+            final Map<String, Object> map = new HashMap<>();
+            map.put( "uuid", hotKey.getId().getUuid() );
+            map.put( valueName, hotKey.getValue() );
+            if ( hotKey.getError() > 0 ) {
+                map.put( "error", hotKey.getError() );
+            }
+            list.add( map );
+        }
+
+        return list;
+    }
+}
@@ -118,4 +118,8 @@ public class SystemResource extends AbstractContextResource {
     @Path( "connection" )
     public ConnectionResource connection() { return getSubResource( ConnectionResource.class ); }
 
+
+    @Path( "hotkeys" )
+    public HotKeysResource hotKeys() { return getSubResource( HotKeysResource.class ); }
+
 }
@@ -26,6 +26,7 @@ import java.util.UUID;
 import org.apache.usergrid.persistence.CredentialsInfo;
 import org.apache.usergrid.persistence.Entity;
 import org.apache.usergrid.persistence.EntityRef;
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
 import org.apache.usergrid.persistence.index.query.Identifier;
 import org.apache.usergrid.persistence.entities.Application;
 import org.apache.usergrid.persistence.entities.Group;
@@ -360,6 +361,12 @@ public interface ManagementService {
 
 	Map<String,Long> getEachCollectionSize(final UUID applicationId);
 
+	/**
+	 * Get the committed writes and deletes of the application in version order, after the version of the last
+	 * change already consumed.  Pass a null cursor to read from the oldest change kept.
+	 */
+	List<EntityChange> getChanges(final UUID applicationId, final UUID cursor, final int limit);
+
 	OrganizationConfig getOrganizationConfigDefaultsOnly();
 
 	OrganizationConfig getOrganizationConfigByName( String organizationName ) throws Exception;
@@ -42,6 +42,8 @@ import org.apache.usergrid.persistence.cache.CacheFactory;
 import org.apache.usergrid.persistence.cache.CacheScope;
 import org.apache.usergrid.persistence.cache.ScopedCache;
 import org.apache.usergrid.persistence.cassandra.CassandraService;
+import org.apache.usergrid.persistence.collection.changes.EntityChange;
+import org.apache.usergrid.persistence.collection.changes.EntityChangeLogService;
 import org.apache.usergrid.persistence.core.scope.ApplicationScope;
 import org.apache.usergrid.persistence.entities.Application;
 import org.apache.usergrid.persistence.entities.Group;
@@ -176,6 +178,8 @@ public class ManagementServiceImpl implements ManagementService {
 
     protected PasswordPolicy passwordPolicy;
 
+    protected EntityChangeLogService entityChangeLogService;
+
 
     private LoadingCache<UUID, OrganizationConfig> orgConfigByAppCache = CacheBuilder.newBuilder().maximumSize( 1000 )
         .expireAfterWrite( Long.valueOf( System.getProperty(ORG_CONFIG_CACHE_PROP, "30000") ) , TimeUnit.MILLISECONDS)
@@ -221,6 +225,8 @@ public class ManagementServiceImpl implements ManagementService {
 
         this.passwordPolicy = injector.getInstance( PasswordPolicy.class );
 
+        this.entityChangeLogService = injector.getInstance( EntityChangeLogService.class );
+
     }
 
     @Autowired
@@ -1952,6 +1958,12 @@ public class ManagementServiceImpl implements ManagementService {
             CpNamingUtils.createCollectionSearchEdge(applicationScope.getApplication(), collectionName));
     }
 
+    @Override
+    public List<EntityChange> getChanges(final UUID applicationId, final UUID cursor, final int limit) {
+        ApplicationScope applicationScope = CpNamingUtils.getApplicationScope(applicationId);
+        return entityChangeLogService.getChanges(applicationScope, cursor).take(limit).toList().toBlocking().last();
+    }
+
 
     protected Entity getOrganizationEntityForApplication( UUID applicationInfoId ) throws Exception {
         if ( applicationInfoId == null ) {
@@ -56,6 +56,7 @@ public class ImportServiceImpl implements ImportService {
     public static final String FILE_IMPORT_ID = "fileImportId";
     public static final String FILE_IMPORT_JOB_NAME = "fileImportJob";
     public static final int HEARTBEAT_COUNT = 50;
+    public static final int WRITE_BATCH_SIZE = 100;
 
     public static final String APP_IMPORT_CONNECTION = "imports";
     public static final String IMPORT_FILE_INCLUDES_CONNECTION = "files";
@@ -929,6 +930,14 @@ public class ImportServiceImpl implements ImportService {
             }
         };
 
+        // function to execute for each batch of entity write events
+        final Action1<List<WriteEvent>> doBatchWork = new Action1<List<WriteEvent>>() {
+            @Override
+            public void call(List<WriteEvent> writeEvents) {
+                writeEntities(em, fileImport, tracker, writeEvents);
+            }
+        };
+
         // invokes the heartbeat every HEARTBEAT_COUNT operations
         final Func2<Integer, WriteEvent, Integer> heartbeatReducer = new Func2<Integer, WriteEvent, Integer>() {
             @Override
@@ -960,9 +969,10 @@ public class ImportServiceImpl implements ImportService {
         final int entityNumSkip = (int) tracker.getTotalEntityCount();
 
 
+        // entities are written in batches, the heartbeat still counts each one
         entityEventObservable.takeWhile(writeEvent -> !tracker.shouldStopProcessingEntities()).skip(entityNumSkip)
-            .flatMap(writeEvent -> {
-                return Observable.just(writeEvent).doOnNext(doWork);
+            .buffer(WRITE_BATCH_SIZE).flatMap(writeEvents -> {
+                return Observable.just(writeEvents).doOnNext(doBatchWork).flatMap(Observable::from);
             }, 10).reduce(0, heartbeatReducer).toBlocking().last();
 
 
@@ -1035,6 +1045,70 @@ public class ImportServiceImpl implements ImportService {
     }
 
 
+    /**
+     * Writes a batch of entity events, entities of the same type are created with a single batch write
+     */
+    private void writeEntities(
+        final EntityManager em, final FileImport fileImport, final FileImportTracker tracker,
+        final List<WriteEvent> writeEvents) {
+
+        final Map<String, Map<UUID, Map<String, Object>>> entitiesByType = new LinkedHashMap<>();
+
+        for (WriteEvent writeEvent : writeEvents) {
+
+            if (writeEvent instanceof EntityEvent) {
+                final EntityEvent entityEvent = (EntityEvent) writeEvent;
+
+                final Map<UUID, Map<String, Object>> entities =
+                    entitiesByType.computeIfAbsent(entityEvent.entityType, type -> new LinkedHashMap<>());
+
+                // a repeated entity in the same batch is written on its own so it is still tracked
+                if (!entities.containsKey(entityEvent.entityUuid)) {
+                    entities.put(entityEvent.entityUuid, entityEvent.properties);
+                    continue;
+                }
+            }
+
+            writeEvent.doWrite(em, fileImport, tracker);
+        }
+
+        for (Map.Entry<String, Map<UUID, Map<String, Object>>> entry : entitiesByType.entrySet()) {
+
+            final String entityType = entry.getKey();
+            final Map<UUID, Map<String, Object>> entities = entry.getValue();
+
+            try {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Writing {} imported entities of type {} into app {}",
+                        entities.size(), entityType, em.getApplication().getUuid());
+                }
+
+                final Set<UUID> written = new HashSet<>(entities.size());
+
+                for (Entity entity : em.createBatch(entityType, entities)) {
+                    written.add(entity.getUuid());
+                }
+
+                for (UUID entityUuid : entities.keySet()) {
+                    if (written.contains(entityUuid)) {
+                        tracker.entityWritten();
+                    } else {
+                        tracker.entityFailed("Unable to write entity " + entityUuid
+                            + " From file: " + fileImport.getFileName());
+                    }
+                }
+
+            } catch (Exception e) {
+                logger.error("Error writing entities. From file:{}", fileImport.getFileName(), e);
+
+                for (int i = 0; i < entities.size(); i++) {
+                    tracker.entityFailed(e.getMessage() + " From file: " + fileImport.getFileName());
+                }
+            }
+        }
+    }
+
+
     private interface WriteEvent {
         public void doWrite(EntityManager em, FileImport fileImport, FileImportTracker tracker);
     }
@@ -430,36 +430,23 @@ public class AbstractCollectionService extends AbstractService {
                 }else{
                     nameValues.put(name, true);
                 }
+            }
 
 
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Creating entity [{}] in collection [{}]", p, context.getCollectionName());
-                }
-
-
-                Entity item = null;
-                try {
-                    item = em.createItemInCollection( context.getOwner(), context.getCollectionName(), getEntityType(),
-                            p );
-                }
-                catch ( Exception e ) {
-
-                    logger.error("Entity [{}] unable to be created in collection [{}] due to [{} - {}]", p, context.getCollectionName(),
-                            e.getClass().getSimpleName(), e.getMessage());
-
-                    // move on as we can't block the whole batch if only 1 failed
-                    continue;
-                }
-
+            // the whole batch is written at once, items that fail are logged and left out so they don't block
+            // the rest of the batch
+            List<Entity> items = em.createItemsInCollection( context.getOwner(), context.getCollectionName(),
+                    getEntityType(), batch );
 
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Successfully created entity [{}] in collection [{}]", p, context.getCollectionName());
-                }
 
+            if (logger.isTraceEnabled()) {
+                logger.trace("Successfully created {} of {} entities in collection [{}]", items.size(),
+                        batch.size(), context.getCollectionName());
+            }
 
-                item = importEntity( context, item );
-                entities.add( item );
 
+            for ( Entity item : items ) {
+                entities.add( importEntity( context, item ) );
             }
             return new ServiceResults( this, context, Type.COLLECTION, Results.fromEntities( entities ), null, null );
         }
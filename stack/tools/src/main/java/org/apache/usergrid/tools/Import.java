@@ -19,10 +19,12 @@ package org.apache.usergrid.tools;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
 
 import com.google.common.base.Optional;
@@ -40,7 +42,6 @@ import org.apache.usergrid.persistence.EntityManager;
 import org.apache.usergrid.persistence.EntityRef;
 import org.apache.usergrid.persistence.entities.Application;
 import org.apache.usergrid.persistence.exceptions.ApplicationAlreadyExistsException;
-import org.apache.usergrid.persistence.exceptions.DuplicateUniquePropertyExistsException;
 import org.apache.usergrid.tools.bean.ExportOrg;
 import org.apache.usergrid.utils.JsonUtils;
 
@@ -66,6 +67,9 @@ public class Import extends ToolBase {
 
     static final String DEFAULT_INPUT_DIR = "export";
 
+    /** Number of entities created with each batch write */
+    static final int WRITE_BATCH_SIZE = 100;
+
     JsonFactory jsonFactory = new JsonFactory();
 
 
@@ -229,33 +233,62 @@ public class Import extends ToolBase {
         }
 
 
+        // entities are created in batches, each type with a single batch write
+        final Map<String, Map<UUID, Map<String, Object>>> batch = new LinkedHashMap<>();
+        int batchSize = 0;
+
         while ( jp.nextValue() != JsonToken.END_ARRAY ) {
             @SuppressWarnings("unchecked") Map<String, Object> entityProps = jp.readValueAs( HashMap.class );
             // Import/create the entity
             UUID uuid = getId( entityProps );
             String type = getType( entityProps );
 
-            try {
-                em.create( uuid, type, entityProps );
-            }
-            catch ( DuplicateUniquePropertyExistsException de ) {
-                logger.error( "Unable to create entity.  It appears to be a duplicate", de );
-                continue;
+            batch.computeIfAbsent( type, t -> new LinkedHashMap<>() ).put( uuid, entityProps );
+
+            if ( ++batchSize >= WRITE_BATCH_SIZE ) {
+                writeEntities( em, batch );
+                batch.clear();
+                batchSize = 0;
             }
+        }
+
+        writeEntities( em, batch );
+
+        logger.info( "----- End of application:" + application.getName() );
+        jp.close();
+    }
+
 
-            if ( em.get( new SimpleEntityRef( type, uuid )) == null ) {
-                logger.error( "Holy hell, we wrote an entity and it's missing.  "
-                        + "Entity Id was {} and type is {}", uuid, type );
-                System.exit( 1 );
+    private void writeEntities( EntityManager em, Map<String, Map<UUID, Map<String, Object>>> batch )
+            throws Exception {
+
+        if ( batch.isEmpty() ) {
+            return;
+        }
+
+        for ( Entry<String, Map<UUID, Map<String, Object>>> entry : batch.entrySet() ) {
+
+            String type = entry.getKey();
+            Map<UUID, Map<String, Object>> entities = entry.getValue();
+
+            Set<UUID> written = new HashSet<>( entities.size() );
+
+            for ( Entity entity : em.createBatch( type, entities ) ) {
+                written.add( entity.getUuid() );
             }
 
-            logger.info( "Counts {}", JsonUtils.mapToFormattedJsonString( em.getApplicationCounters() ) );
+            for ( Entry<UUID, Map<String, Object>> entity : entities.entrySet() ) {
+                if ( !written.contains( entity.getKey() ) ) {
+                    logger.error( "Unable to create entity {}:{}.  It appears to be a duplicate", type,
+                            entity.getKey() );
+                    continue;
+                }
 
-            echo( entityProps );
+                echo( entity.getValue() );
+            }
         }
 
-        logger.info( "----- End of application:" + application.getName() );
-        jp.close();
+        logger.info( "Counts {}", JsonUtils.mapToFormattedJsonString( em.getApplicationCounters() ) );
     }
 
 